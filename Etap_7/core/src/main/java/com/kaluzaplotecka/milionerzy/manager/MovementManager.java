@@ -30,6 +30,12 @@ public class MovementManager implements Serializable {
     
     /** Generator liczb losowych (transient - nie jest serializowany). */
     private transient Random rand;
+
+    /** Ziarno kostek gry sieciowej w trybie lockstep (serializowane razem ze stanem). */
+    private long seed;
+    private boolean seeded;
+    /** Liczba rzutów wykonanych od ustawienia ziarna. */
+    private long rolls;
     
     /**
      * Tworzy nowy menedżer ruchu.
@@ -40,14 +46,56 @@ public class MovementManager implements Serializable {
     /**
      * Wykonuje rzut dwiema kostkami sześciennymi.
      *
+     * <p>Po {@link #setSeed(long)} wynik zależy tylko od ziarna i numeru
+     * rzutu, więc każda kopia stanu z tym samym ziarnem wyrzuci to samo.
+     *
      * @return suma oczek (2-12)
      */
     public int rollDice() {
+        if (rand == null && seeded) {
+            long bits = mix(seed + (rolls++) * 0x9E3779B97F4A7C15L);
+            int d1 = (int) Long.remainderUnsigned(bits, 6) + 1;
+            int d2 = (int) Long.remainderUnsigned(bits >>> 32, 6) + 1;
+            return d1 + d2;
+        }
         if (rand == null) rand = new Random();
         int d1 = rand.nextInt(6) + 1;
         int d2 = rand.nextInt(6) + 1;
         return d1 + d2;
     }
+
+    // Funkcja mieszająca SplitMix64 - nie wymaga stanu poza licznikiem rzutów
+    private static long mix(long z) {
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+
+    /**
+     * Ustawia ziarno kostek i zeruje licznik rzutów.
+     *
+     * <p>Używane w trybie lockstep: host rozsyła ziarno, a klienci liczą
+     * te same rzuty u siebie. Generator ustawiony przez
+     * {@link #setRandom(Random)} ma pierwszeństwo.
+     *
+     * @param seed ziarno gry
+     */
+    public void setSeed(long seed) {
+        restoreSeed(seed, 0);
+    }
+
+    /**
+     * Odtwarza ziarno i liczbę wykonanych rzutów (np. ze snapshotu).
+     */
+    public void restoreSeed(long seed, long rolls) {
+        this.seed = seed;
+        this.rolls = rolls;
+        this.seeded = true;
+    }
+
+    public boolean isSeeded() { return seeded; }
+    public long getSeed() { return seed; }
+    public long getRollCount() { return rolls; }
     
     /**
      * Ustawia generator liczb losowych.
@@ -49,6 +49,30 @@ public class Auction implements Serializable {
         this.startedAt = System.currentTimeMillis();
     }
 
+    private Auction(String id, PropertyTile property, List<Player> participants,
+                    List<Player> passedPlayers, Player highestBidder, int highestBid,
+                    int minimumBid, Status status, long startedAt) {
+        this.id = id;
+        this.property = property;
+        this.participants = new ArrayList<>(participants);
+        this.passedPlayers = new ArrayList<>(passedPlayers);
+        this.highestBidder = highestBidder;
+        this.highestBid = highestBid;
+        this.minimumBid = minimumBid;
+        this.status = status;
+        this.startedAt = startedAt;
+    }
+
+    /**
+     * Odtwarza aukcję z danych odebranych przez sieć (kodek binarny).
+     */
+    public static Auction restore(String id, PropertyTile property, List<Player> participants,
+                                  List<Player> passedPlayers, Player highestBidder, int highestBid,
+                                  int minimumBid, Status status, long startedAt) {
+        return new Auction(id, property, participants, passedPlayers, highestBidder,
+            highestBid, minimumBid, status, startedAt);
+    }
+
     /**
      * Złóż ofertę w aukcji.
      * @param bidder gracz licytujący
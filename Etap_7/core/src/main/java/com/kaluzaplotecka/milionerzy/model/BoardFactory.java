@@ -0,0 +1,128 @@
+package com.kaluzaplotecka.milionerzy.model;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import com.kaluzaplotecka.milionerzy.model.tiles.ChanceTile;
+import com.kaluzaplotecka.milionerzy.model.tiles.CommunityChestTile;
+import com.kaluzaplotecka.milionerzy.model.tiles.PropertyTile;
+import com.kaluzaplotecka.milionerzy.model.tiles.Tile;
+
+/**
+ * Tworzy standardową planszę gry (40 pól województwa świętokrzyskiego).
+ * 
+ * <p>Definicja pól jest wspólna dla modelu i widoku planszy
+ * ({@code BoardComponent}), ale sama klasa nie zależy od JavaFX - z niej
+ * korzysta też host bez interfejsu graficznego.
+ * 
+ * @see Board
+ */
+public final class BoardFactory {
+
+    // Stała definicja pól planszy: nazwa, typ, [kolor, cena]
+    private static final String[][] BOARD_TILES = {
+        // Dolna krawędź (od START w prawo)
+        {"START", "corner"},
+        {"Kielce\nCentrum", "property", "#8B4513", "60"},
+        {"Szansa", "chance"},
+        {"Kielce\nHerby", "property", "#8B4513", "60"},
+        {"Podatek\nDochodowy", "tax"},
+        {"Dworzec\nKielce", "railroad"},
+        {"Sandomierz", "property", "#87CEEB", "100"},
+        {"Szansa", "chance"},
+        {"Ostrowiec\nŚw.", "property", "#87CEEB", "100"},
+        {"Starachowice", "property", "#87CEEB", "120"},
+        
+        // Róg - Więzienie
+        {"WIĘZIENIE", "corner"},
+        
+        // Lewa krawędź (od Więzienia w górę)
+        {"Jędrzejów", "property", "#FF69B4", "140"},
+        {"Elektrownia", "utility"},
+        {"Busko-Zdrój", "property", "#FF69B4", "140"},
+        {"Pińczów", "property", "#FF69B4", "160"},
+        {"Dworzec\nSkarżysko", "railroad"},
+        {"Końskie", "property", "#FFA500", "180"},
+        {"Skarbonka", "chest"},
+        {"Skarżysko\nKamienna", "property", "#FFA500", "180"},
+        {"Suchedniów", "property", "#FFA500", "200"},
+        
+        // Róg - Darmowy Parking
+        {"DARMOWY\nPARKING", "corner"},
+        
+        // Górna krawędź (od Parkingu w prawo)
+        {"Chęciny", "property", "#FF0000", "220"},
+        {"Szansa", "chance"},
+        {"Piekoszów", "property", "#FF0000", "220"},
+        {"Morawica", "property", "#FF0000", "240"},
+        {"Dworzec\nStarachowice", "railroad"},
+        {"Włoszczowa", "property", "#FFFF00", "260"},
+        {"Wąchock", "property", "#FFFF00", "260"},
+        {"Wodociągi", "utility"},
+        {"Opatów", "property", "#FFFF00", "280"},
+        
+        // Róg - Idź do więzienia
+        {"IDŹ DO\nWIĘZIENIA", "corner"},
+        
+        // Prawa krawędź (od Idź do więzienia w dół)
+        {"Staszów", "property", "#008000", "300"},
+        {"Zagnańsk", "property", "#008000", "300"},
+        {"Skarbonka", "chest"},
+        {"Łagów", "property", "#008000", "320"},
+        {"Dworzec\nJędrzejów", "railroad"},
+        {"Szansa", "chance"},
+        {"Ciekoty", "property", "#00008B", "350"},
+        {"Podatek\nOd luksusu", "tax"},
+        {"Św. Katarzyna", "property", "#00008B", "400"}
+    };
+
+    private BoardFactory() {}
+
+    /**
+     * Zwraca definicję pól planszy (nie modyfikować).
+     */
+    public static String[][] getBoardTiles() {
+        return BOARD_TILES;
+    }
+
+    /**
+     * Tworzy nową planszę z kompletem pól.
+     *
+     * @return plansza gotowa do {@link GameState}
+     */
+    public static Board createDefaultBoard() {
+        List<Tile> tiles = new ArrayList<>();
+        
+        tiles.add(new Tile(0, "START"));
+        for (int i = 1; i <= 9; i++) tiles.add(createTileFromData(i, BOARD_TILES[i]));
+        tiles.add(new Tile(10, "WIĘZIENIE"));
+        for (int i = 11; i <= 19; i++) tiles.add(createTileFromData(i, BOARD_TILES[i]));
+        tiles.add(new Tile(20, "DARMOWY PARKING"));
+        for (int i = 21; i <= 29; i++) tiles.add(createTileFromData(i, BOARD_TILES[i]));
+        tiles.add(new Tile(30, "IDŹ DO WIĘZIENIA"));
+        for (int i = 31; i <= 39; i++) tiles.add(createTileFromData(i, BOARD_TILES[i]));
+        
+        return new Board(tiles);
+    }
+    
+    private static Tile createTileFromData(int pos, String[] data) {
+        String name = data[0].replace("\n", " ");
+        String type = data[1];
+        switch (type) {
+            case "property":
+                int price;
+                try {
+                    price = Integer.parseInt(data[3]);
+                } catch (NumberFormatException e) {
+                    System.err.println("Warning: Invalid price format for property '" + name + "' at position " + pos + ". Using default value 100.");
+                    price = 100; // Default property price
+                }
+                return new PropertyTile(pos, name, price, price / 10);
+            case "chance": return new ChanceTile(pos, name);
+            case "chest": return new CommunityChestTile(pos, name);
+            case "railroad": return new PropertyTile(pos, name, 200, 25);
+            case "utility": return new PropertyTile(pos, name, 150, 20);
+            default: return new Tile(pos, name);
+        }
+    }
+}
@@ -0,0 +1,318 @@
+package com.kaluzaplotecka.milionerzy.model;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+import com.kaluzaplotecka.milionerzy.manager.MovementManager;
+import com.kaluzaplotecka.milionerzy.model.cards.EventCard;
+import com.kaluzaplotecka.milionerzy.model.tiles.ChanceTile;
+import com.kaluzaplotecka.milionerzy.model.tiles.CommunityChestTile;
+import com.kaluzaplotecka.milionerzy.model.tiles.PropertyTile;
+import com.kaluzaplotecka.milionerzy.model.tiles.Tile;
+
+/**
+ * Niezmienny obraz stanu gry w jednej wersji.
+ *
+ * <p>Tworzony przez wątek, który zmienia {@link GameState}, po każdej
+ * komendzie. Inne wątki (interfejs, wysyłka snapshotów do klientów,
+ * autozapis) czytają go bez blokad - nic go już nie zmieni.
+ *
+ * <p>Kolejne wersje współdzielą niezmienione części: rekord gracza lub pola,
+ * którego wartości się nie zmieniły, jest brany z poprzedniego snapshotu,
+ * a gdy nie zmieniło się żadne pole, cała lista pól jest ta sama. Po typowej
+ * komendzie (rzut i ruch) powstaje więc kilka małych rekordów, a nie kopia
+ * całego grafu obiektów.
+ *
+ * @param version wersja stanu ({@link GameState#getStateVersion()})
+ * @param players gracze w kolejności tur
+ * @param tiles pola planszy w kolejności pozycji
+ * @param currentPlayerId gracz, którego jest tura (lub null)
+ * @param roundNumber numer rundy
+ * @param hasRolled czy aktualny gracz już rzucił
+ * @param auction trwająca aukcja (lub null)
+ * @param chanceDeck karty Szansy w kolejności ciągnięcia
+ * @param communityChestDeck karty Kasy Społecznej w kolejności ciągnięcia
+ * @param dice ziarno i licznik rzutów kostek (lub null bez ziarna)
+ */
+public record GameSnapshot(
+    long version,
+    List<PlayerSnapshot> players,
+    List<TileSnapshot> tiles,
+    String currentPlayerId,
+    int roundNumber,
+    boolean hasRolled,
+    AuctionSnapshot auction,
+    List<EventCard> chanceDeck,
+    List<EventCard> communityChestDeck,
+    DiceSnapshot dice
+) implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    /** Rodzaj pola - wystarcza do odtworzenia planszy. */
+    public enum TileKind { PLAIN, PROPERTY, CHANCE, COMMUNITY_CHEST }
+
+    /**
+     * Gracz w danej wersji.
+     *
+     * @param properties pozycje posiadanych nieruchomości
+     */
+    public record PlayerSnapshot(String id, String username, int money, int position,
+                                 boolean inJail, int jailTurns, List<Integer> properties)
+            implements Serializable {
+
+        private boolean matches(Player p) {
+            return money == p.getMoney() && position == p.getPosition()
+                && inJail == p.isInJail() && jailTurns == p.getJailTurns()
+                && id.equals(p.getId()) && sameProperties(p.getOwnedProperties());
+        }
+
+        private boolean sameProperties(List<PropertyTile> owned) {
+            if (owned.size() != properties.size()) return false;
+            for (int i = 0; i < owned.size(); i++) {
+                if (owned.get(i).getPosition() != properties.get(i)) return false;
+            }
+            return true;
+        }
+
+        private static PlayerSnapshot of(Player p) {
+            List<Integer> properties = new ArrayList<>();
+            for (PropertyTile pt : p.getOwnedProperties()) properties.add(pt.getPosition());
+            return new PlayerSnapshot(p.getId(), p.getUsername(), p.getMoney(), p.getPosition(),
+                p.isInJail(), p.getJailTurns(), List.copyOf(properties));
+        }
+    }
+
+    /**
+     * Pole planszy w danej wersji; pola własności nieruchomości są puste
+     * dla pól innych niż {@link TileKind#PROPERTY}.
+     */
+    public record TileSnapshot(int position, TileKind kind, String name, int price, int baseRent,
+                               String ownerId, int houses, boolean mortgaged) implements Serializable {
+
+        private boolean matches(Tile t) {
+            if (!(t instanceof PropertyTile pt)) return true; // pola bez stanu się nie zmieniają
+            String owner = pt.getOwner() != null ? pt.getOwner().getId() : null;
+            return houses == pt.getHouses() && mortgaged == pt.isMortgaged()
+                && (ownerId == null ? owner == null : ownerId.equals(owner));
+        }
+
+        private static TileSnapshot of(Tile t) {
+            if (t instanceof PropertyTile pt) {
+                return new TileSnapshot(pt.getPosition(), TileKind.PROPERTY, pt.getCity(), pt.getPrice(),
+                    pt.getBaseRent(), pt.getOwner() != null ? pt.getOwner().getId() : null,
+                    pt.getHouses(), pt.isMortgaged());
+            }
+            TileKind kind = t instanceof ChanceTile ? TileKind.CHANCE
+                : t instanceof CommunityChestTile ? TileKind.COMMUNITY_CHEST
+                : TileKind.PLAIN;
+            return new TileSnapshot(t.getPosition(), kind, t.getName(), 0, 0, null, 0, false);
+        }
+
+        private Tile toTile() {
+            return switch (kind) {
+                case PROPERTY -> {
+                    PropertyTile pt = new PropertyTile(position, name, price, baseRent);
+                    pt.setHouses(houses);
+                    pt.setMortgaged(mortgaged);
+                    yield pt;
+                }
+                case CHANCE -> new ChanceTile(position, name);
+                case COMMUNITY_CHEST -> new CommunityChestTile(position, name);
+                case PLAIN -> new Tile(position, name);
+            };
+        }
+    }
+
+    /** Trwająca aukcja w danej wersji. */
+    public record AuctionSnapshot(String id, int position, List<String> participantIds,
+                                  List<String> passedIds, String highestBidderId, int highestBid,
+                                  int minimumBid, Auction.Status status, long startedAt)
+            implements Serializable {
+
+        private static AuctionSnapshot of(Auction a) {
+            return new AuctionSnapshot(a.getId(), a.getProperty().getPosition(),
+                ids(a.getParticipants()), ids(a.getPassedPlayers()),
+                a.getHighestBidder() != null ? a.getHighestBidder().getId() : null,
+                a.getHighestBid(), a.getMinimumBid(), a.getStatus(), a.getStartedAt());
+        }
+
+        private static List<String> ids(Collection<Player> players) {
+            return players.stream().map(Player::getId).toList();
+        }
+    }
+
+    /** Ziarno kostek i liczba wykonanych rzutów (tryb lockstep). */
+    public record DiceSnapshot(long seed, long rolls) implements Serializable {
+
+        private static DiceSnapshot of(MovementManager movement, DiceSnapshot previous) {
+            if (!movement.isSeeded()) return null;
+            if (previous != null && previous.seed == movement.getSeed()
+                    && previous.rolls == movement.getRollCount()) {
+                return previous;
+            }
+            return new DiceSnapshot(movement.getSeed(), movement.getRollCount());
+        }
+    }
+
+    // === TWORZENIE ===
+
+    /**
+     * Tworzy snapshot bez współdzielenia z poprzednią wersją.
+     */
+    public static GameSnapshot of(GameState state) {
+        return of(state, null);
+    }
+
+    /**
+     * Tworzy snapshot, biorąc z {@code previous} wszystkie niezmienione części.
+     * Musi być wołane z wątku, który zmienia stan.
+     *
+     * @param state aktualny stan gry
+     * @param previous poprzedni snapshot tego samego stanu (lub null)
+     */
+    public static GameSnapshot of(GameState state, GameSnapshot previous) {
+        List<PlayerSnapshot> players = new ArrayList<>();
+        for (Player p : state.getPlayers()) {
+            PlayerSnapshot old = previous != null ? previous.player(p.getId()) : null;
+            players.add(old != null && old.matches(p) ? old : PlayerSnapshot.of(p));
+        }
+
+        List<Tile> boardTiles = state.getBoard().getTiles();
+        List<TileSnapshot> tiles;
+        if (previous != null && previous.tiles.size() == boardTiles.size()) {
+            TileSnapshot[] shared = previous.tiles.toArray(new TileSnapshot[0]);
+            boolean changed = false;
+            for (int i = 0; i < shared.length; i++) {
+                if (!shared[i].matches(boardTiles.get(i))) {
+                    shared[i] = TileSnapshot.of(boardTiles.get(i));
+                    changed = true;
+                }
+            }
+            tiles = changed ? List.of(shared) : previous.tiles;
+        } else {
+            tiles = boardTiles.stream().map(TileSnapshot::of).toList();
+        }
+
+        Player current = state.getCurrentPlayer();
+        Auction auction = state.getCurrentAuction();
+        return new GameSnapshot(
+            state.getStateVersion(),
+            List.copyOf(players),
+            tiles,
+            current != null ? current.getId() : null,
+            state.getRoundNumber(),
+            state.hasRolled(),
+            auction != null ? AuctionSnapshot.of(auction) : null,
+            deck(state.chanceDeck, previous != null ? previous.chanceDeck : null),
+            deck(state.communityChestDeck, previous != null ? previous.communityChestDeck : null),
+            DiceSnapshot.of(state.getMovementManager(), previous != null ? previous.dice : null)
+        );
+    }
+
+    private static List<EventCard> deck(Collection<EventCard> deck, List<EventCard> previous) {
+        if (deck == null || deck.isEmpty()) return List.of();
+        if (previous != null && previous.size() == deck.size()) {
+            int i = 0;
+            boolean same = true;
+            for (EventCard card : deck) {
+                if (previous.get(i++) != card) { same = false; break; }
+            }
+            if (same) return previous;
+        }
+        // Karty nie zmieniają się po utworzeniu - wystarczy kopia kolejności
+        return List.copyOf(deck);
+    }
+
+    // === ODCZYT ===
+
+    /**
+     * Zwraca gracza o podanym id lub null.
+     */
+    public PlayerSnapshot player(String id) {
+        for (PlayerSnapshot p : players) {
+            if (p.id().equals(id)) return p;
+        }
+        return null;
+    }
+
+    /**
+     * Zwraca gracza, którego jest tura, lub null.
+     */
+    public PlayerSnapshot currentPlayer() {
+        return currentPlayerId != null ? player(currentPlayerId) : null;
+    }
+
+    /**
+     * Zwraca pole na podanej pozycji lub null.
+     */
+    public TileSnapshot tile(int position) {
+        return position >= 0 && position < tiles.size() && tiles.get(position).position() == position
+            ? tiles.get(position)
+            : tiles.stream().filter(t -> t.position() == position).findFirst().orElse(null);
+    }
+
+    // === ODTWARZANIE ===
+
+    /**
+     * Buduje nowy, niezależny {@link GameState} z tego snapshotu - do zapisu
+     * gry albo pełnej synchronizacji klienta. Nie wymaga dostępu do stanu
+     * autorytatywnego.
+     */
+    public GameState toGameState() {
+        List<Tile> boardTiles = new ArrayList<>(tiles.size());
+        for (TileSnapshot t : tiles) boardTiles.add(t.toTile());
+        Board board = new Board(boardTiles);
+
+        List<Player> restored = new ArrayList<>(players.size());
+        for (PlayerSnapshot ps : players) {
+            Player p = new Player(ps.id(), ps.username(), ps.money());
+            p.setPosition(ps.position());
+            p.setJailState(ps.inJail(), ps.jailTurns());
+            for (int position : ps.properties()) {
+                if (board.getTile(position) instanceof PropertyTile pt) {
+                    pt.setOwner(p);
+                    p.addProperty(pt);
+                }
+            }
+            restored.add(p);
+        }
+
+        GameState state = new GameState(board, restored);
+        state.getTurnManager().setCurrentPlayerById(currentPlayerId);
+        state.getTurnManager().setRoundNumber(roundNumber);
+        state.getTurnManager().setHasRolled(hasRolled);
+        chanceDeck.forEach(state::addChanceCard);
+        communityChestDeck.forEach(state::addCommunityChestCard);
+        if (auction != null && board.getTile(auction.position()) instanceof PropertyTile pt) {
+            state.getPropertyManager().setCurrentAuction(Auction.restore(auction.id(), pt,
+                players(restored, auction.participantIds()), players(restored, auction.passedIds()),
+                find(restored, auction.highestBidderId()), auction.highestBid(), auction.minimumBid(),
+                auction.status(), auction.startedAt()));
+        }
+        if (dice != null) {
+            state.getMovementManager().restoreSeed(dice.seed(), dice.rolls());
+        }
+        state.setStateVersion(version);
+        return state;
+    }
+
+    private static List<Player> players(List<Player> all, List<String> ids) {
+        List<Player> result = new ArrayList<>();
+        for (String id : ids) {
+            Player p = find(all, id);
+            if (p != null) result.add(p);
+        }
+        return result;
+    }
+
+    private static Player find(List<Player> all, String id) {
+        if (id == null) return null;
+        for (Player p : all) {
+            if (p.getId().equals(id)) return p;
+        }
+        return null;
+    }
+}
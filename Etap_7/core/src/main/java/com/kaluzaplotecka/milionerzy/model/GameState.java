@@ -0,0 +1,335 @@
+package com.kaluzaplotecka.milionerzy.model;
+
+
+import java.io.Serializable;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.List;
+import java.util.Random;
+
+import com.kaluzaplotecka.milionerzy.events.GameEvent;
+import com.kaluzaplotecka.milionerzy.events.GameEventListener;
+import com.kaluzaplotecka.milionerzy.manager.BankManager;
+import com.kaluzaplotecka.milionerzy.manager.MovementManager;
+import com.kaluzaplotecka.milionerzy.manager.PropertyManager;
+import com.kaluzaplotecka.milionerzy.manager.TurnManager;
+import com.kaluzaplotecka.milionerzy.model.cards.EventCard;
+import com.kaluzaplotecka.milionerzy.model.tiles.PropertyTile;
+import com.kaluzaplotecka.milionerzy.model.tiles.Tile;
+
+/**
+ * Główna klasa zarządzająca stanem gry.
+ * 
+ * <p>Implementuje wzorzec Fasady (Facade), delegując odpowiedzialności
+ * do wyspecjalizowanych managerów:
+ * <ul>
+ *   <li>{@link TurnManager} - zarządzanie turami i rundami</li>
+ *   <li>{@link MovementManager} - ruch graczy i rzuty kostką</li>
+ *   <li>{@link BankManager} - operacje bankowe i bankructwa</li>
+ *   <li>{@link PropertyManager} - handel i aukcje nieruchomości</li>
+ * </ul>
+ * 
+ * <p>Klasa implementuje również wzorzec Observer dla systemu zdarzeń,
+ * umożliwiając reagowanie na zmiany stanu gry (np. przez UI lub sieć).
+ * 
+ * @see TurnManager
+ * @see MovementManager
+ * @see BankManager
+ * @see PropertyManager
+ */
+public class GameState implements Serializable {
+    private static final long serialVersionUID = 1L;
+    
+    // Core Data
+    private Board board;
+    Deque<EventCard> chanceDeck;
+    Deque<EventCard> communityChestDeck;
+    public static final int PASS_START_REWARD = 200;
+    
+    /** Wersja stanu nadawana przez hosta przy każdej synchronizacji. */
+    private long stateVersion;
+
+    // Managers (Facade pattern)
+    private TurnManager turnManager;
+    private MovementManager movementManager;
+    private BankManager bankManager;
+    private PropertyManager propertyManager;
+
+    public GameState(Board board, List<Player> players){
+        this.board = board;
+        this.chanceDeck = new ArrayDeque<>();
+        this.communityChestDeck = new ArrayDeque<>();
+        
+        // Initialize Managers
+        this.turnManager = new TurnManager(players);
+        this.movementManager = new MovementManager();
+        this.bankManager = new BankManager();
+        this.propertyManager = new PropertyManager();
+    }
+    
+    // === Getters for Managers (Optional, but useful for deep access if needed) ===
+    public TurnManager getTurnManager() { return turnManager; }
+    public MovementManager getMovementManager() { return movementManager; }
+    public BankManager getBankManager() { return bankManager; }
+    public PropertyManager getPropertyManager() { return propertyManager; }
+
+    public Board getBoard(){ return board; }
+
+    public long getStateVersion() { return stateVersion; }
+    public void setStateVersion(long stateVersion) { this.stateVersion = stateVersion; }
+
+    public Player getCurrentPlayer(){
+        return turnManager.getCurrentPlayer();
+    }
+
+    public boolean hasRolled() {
+        return turnManager.hasRolled();
+    }
+
+    public int rollDice(){
+        return movementManager.rollDice();
+    }
+
+    /**
+     * Pozwala wstrzyknąć kontrolowany Random dla testów.
+     * Użyj new Random(seed) dla deterministycznych wyników.
+     */
+    public void setRandom(Random rand) {
+        movementManager.setRandom(rand);
+    }
+
+    /**
+     * Ustawia ziarno gry: kostki liczone z ziarna i kolejność kart w taliach.
+     *
+     * <p>Tryb lockstep - każda kopia stanu z tym samym ziarnem, po tych
+     * samych komendach, dochodzi do tego samego wyniku.
+     */
+    public void setSeed(long seed) {
+        movementManager.setSeed(seed);
+        Random shuffle = new Random(seed);
+        chanceDeck = shuffled(chanceDeck, shuffle);
+        communityChestDeck = shuffled(communityChestDeck, shuffle);
+    }
+
+    private static Deque<EventCard> shuffled(Deque<EventCard> deck, Random random) {
+        List<EventCard> cards = new ArrayList<>(deck);
+        Collections.shuffle(cards, random);
+        return new ArrayDeque<>(cards);
+    }
+
+    public void moveCurrentPlayer(){
+        turnManager.setHasRolled(true);
+        movementManager.moveCurrentPlayer(this);
+    }
+
+    public void moveCurrentPlayer(int steps){
+        turnManager.setHasRolled(true);
+        movementManager.moveCurrentPlayer(this, steps);
+    }
+
+    /**
+     * Move a specific player by given steps, handle passing Start reward and landing effects.
+     * This is testable because it accepts explicit steps.
+     */
+    public void movePlayerBy(Player p, int steps){
+        movementManager.movePlayerBy(this, p, steps);
+    }
+
+    public void nextTurn(){
+        turnManager.nextTurn();
+        // Round change handled within turnManager, we can check getRoundNumber() if needed.
+        
+        fireEvent(new GameEvent(
+            GameEvent.Type.TURN_STARTED,
+            getCurrentPlayer(),
+            "Tura gracza " + getCurrentPlayer().getUsername()
+        ));
+    }
+
+    public void handleBankruptcy(Player p){
+        bankManager.handleBankruptcy(this, p);
+    }
+
+    public boolean isGameOver(){
+        return turnManager.isGameOver();
+    }
+    
+    public Player getWinner(){
+        return turnManager.getWinner();
+    }
+
+    /**
+     * Return the tile the current player is standing on, or null.
+     */
+    public Tile getCurrentTile(){
+        Player p = getCurrentPlayer();
+        if (p == null || board == null) return null;
+        return board.getTile(p.getPosition());
+    }
+
+    /**
+     * Check whether the current player can buy the property they landed on.
+     * This does not modify game state.
+     */
+    public boolean canCurrentPlayerBuy(){
+        return propertyManager.canCurrentPlayerBuy(this);
+    }
+
+    /**
+     * Attempt to buy the property the current player is on. Returns true when purchase succeeded.
+     * UI should call this when the player chooses to buy.
+     */
+    public boolean buyCurrentProperty(){
+        boolean success = propertyManager.buyCurrentProperty(this);
+        if (success) {
+            Player p = getCurrentPlayer();
+             fireEvent(new GameEvent(
+                GameEvent.Type.PROPERTY_BOUGHT,
+                p,
+                getCurrentTile(),
+                p.getUsername() + " kupił " + ((PropertyTile)getCurrentTile()).getCity()
+            ));
+            // Implicitly logic might expect turn change after buy, 
+            // but original buyCurrentProperty didn't do it. 
+            // Host usually calls nextTurn after processing BUY_PROPERTY message.
+        }
+        return success;
+    }
+
+    /* --- Event card / deck helpers --- */
+
+    public void addChanceCard(EventCard card){
+        if (card == null) return;
+        chanceDeck.addLast(card);
+    }
+
+    public void addCommunityChestCard(EventCard card){
+        if (card == null) return;
+        communityChestDeck.addLast(card);
+    }
+
+    /** Draws the top chance card, rotates it to the bottom, and returns it (or null if empty). */
+    public EventCard drawChanceCard(){
+        if (chanceDeck == null || chanceDeck.isEmpty()) return null;
+        EventCard c = chanceDeck.removeFirst();
+        chanceDeck.addLast(c);
+        return c;
+    }
+
+    /** Draws the top community chest card, rotates it to the bottom, and returns it (or null if empty). */
+    public EventCard drawCommunityChestCard(){
+        if (communityChestDeck == null || communityChestDeck.isEmpty()) return null;
+        EventCard c = communityChestDeck.removeFirst();
+        communityChestDeck.addLast(c);
+        return c;
+    }
+
+    public void executeChanceCardFor(Player p){
+        EventCard c = drawChanceCard();
+        if (c != null) c.execute(this, p);
+    }
+
+    public void executeCommunityChestCardFor(Player p){
+        EventCard c = drawCommunityChestCard();
+        if (c != null) c.execute(this, p);
+    }
+
+    // === SYSTEM ZDARZEŃ (OBSERVER PATTERN) ===
+    
+    private transient List<GameEventListener> eventListeners;
+    
+    /**
+     * Zwraca listę eventListeners, inicjalizując ją jeśli potrzeba (np. po deserializacji).
+     */
+    private List<GameEventListener> getEventListeners() {
+        if (eventListeners == null) {
+            eventListeners = new ArrayList<>();
+        }
+        return eventListeners;
+    }
+    
+    public void addEventListener(GameEventListener listener) {
+        if (listener != null && !getEventListeners().contains(listener)) {
+            getEventListeners().add(listener);
+        }
+    }
+    
+    public void removeEventListener(GameEventListener listener) {
+        getEventListeners().remove(listener);
+    }
+    
+    /**
+     * Wysyła zdarzenie do wszystkich nasłuchujących.
+     */
+    public void fireEvent(GameEvent event) {
+        for (GameEventListener listener : getEventListeners()) {
+            try {
+                listener.onGameEvent(event);
+            } catch (Exception e) {
+                System.err.println("Błąd w listenerze: " + e.getMessage());
+            }
+        }
+    }
+    
+    // === SYSTEM HANDLU ===
+    
+    public boolean proposeTrade(TradeOffer offer) {
+        return propertyManager.proposeTrade(this, offer);
+    }
+    
+    public boolean acceptTrade() {
+        return propertyManager.acceptTrade(this);
+    }
+    
+    public boolean rejectTrade() {
+        return propertyManager.rejectTrade(this);
+    }
+    
+    public boolean cancelTrade() {
+        return propertyManager.cancelTrade(this);
+    }
+    
+    public TradeOffer getPendingTrade() {
+        return propertyManager.getPendingTrade();
+    }
+    
+    // === SYSTEM AUKCJI ===
+    
+    public boolean startAuction(PropertyTile property) {
+        return propertyManager.startAuction(this, property);
+    }
+    
+    public boolean placeBid(Player bidder, int amount) {
+        return propertyManager.placeBid(this, bidder, amount);
+    }
+    
+    public void passAuction(Player player) {
+        propertyManager.passAuction(this, player);
+        if (!hasActiveAuction()) {
+            // Auction ended, turn should pass
+            nextTurn();
+        }
+    }
+    
+    public void endAuction() {
+        propertyManager.endAuction(this);
+    }
+    
+    public Auction getCurrentAuction() {
+        return propertyManager.getCurrentAuction();
+    }
+    
+    public boolean hasActiveAuction() {
+        return propertyManager.hasActiveAuction();
+    }
+    
+    public List<Player> getPlayers() {
+        return turnManager.getPlayers();
+    }
+    
+    public int getRoundNumber() {
+        return turnManager.getRoundNumber();
+    }
+}
@@ -106,6 +106,18 @@ public class Player implements Serializable {
         return money;
     }
 
+    /**
+     * Ustawia ilość pieniędzy gracza.
+     * 
+     * <p>Używane przy synchronizacji sieciowej, gdy host przesyła
+     * bezwzględny stan konta.
+     *
+     * @param money nowa ilość pieniędzy
+     */
+    public void setMoney(int money) {
+        this.money = money;
+    }
+
     /**
      * Zwraca aktualną pozycję gracza na planszy.
      *
@@ -210,6 +222,19 @@ public class Player implements Serializable {
         this.jailTurns = 0;
     }
     
+    /**
+     * Ustawia status więzienia i licznik tur.
+     * 
+     * <p>Używane przy synchronizacji sieciowej.
+     *
+     * @param inJail czy gracz jest w więzieniu
+     * @param jailTurns liczba tur spędzonych w więzieniu
+     */
+    public void setJailState(boolean inJail, int jailTurns) {
+        this.inJail = inJail;
+        this.jailTurns = jailTurns;
+    }
+    
     /**
      * Zwiększa licznik tur spędzonych w więzieniu.
      */
@@ -0,0 +1,22 @@
+package com.kaluzaplotecka.milionerzy.model;
+
+import java.io.Serializable;
+
+/**
+ * Gracz w lobby (przed startem gry) - rozsyłany w {@code PLAYER_LIST}.
+ * 
+ * <p>Używany zarówno przez widok lobby, jak i przez host bez interfejsu
+ * graficznego, więc nie należy do pakietu widoków.
+ */
+public class PlayerInfo implements Serializable {
+    private static final long serialVersionUID = 1L;
+    public final String id;
+    public final String name;
+    public final boolean isHost;
+    
+    public PlayerInfo(String id, String name, boolean isHost) {
+        this.id = id;
+        this.name = name;
+        this.isHost = isHost;
+    }
+}
@@ -53,13 +53,19 @@ public class SaveManager {
     /**
      * Inicjalizuje katalog zapisów jeśli nie istnieje.
      */
-    private static void ensureSaveDir() throws IOException {
-        Path savePath = Paths.get(SAVE_DIR);
+    private static void ensureSaveDir(Path savePath) throws IOException {
         if (!Files.exists(savePath)) {
             Files.createDirectories(savePath);
         }
     }
     
+    /**
+     * Zwraca domyślny katalog zapisów.
+     */
+    public static Path getSaveDir() {
+        return Paths.get(SAVE_DIR);
+    }
+    
     /**
      * Zapisuje stan gry do pliku.
      * @param gameState stan gry do zapisania
@@ -67,7 +73,18 @@ public class SaveManager {
      * @return nazwa pliku zapisu
      */
     public static String save(GameState gameState, String saveName) throws IOException {
-        ensureSaveDir();
+        return save(gameState, saveName, getSaveDir());
+    }
+    
+    /**
+     * Zapisuje stan gry do pliku w podanym katalogu (np. autosave serwera).
+     * @param gameState stan gry do zapisania
+     * @param saveName nazwa zapisu (opcjonalna, jeśli null generowana automatycznie)
+     * @param dir katalog zapisów
+     * @return nazwa pliku zapisu
+     */
+    public static String save(GameState gameState, String saveName, Path dir) throws IOException {
+        ensureSaveDir(dir);
         
         String timestamp = LocalDateTime.now().format(DATE_FORMAT);
         String filename;
@@ -80,7 +97,7 @@ public class SaveManager {
             filename = safeName + "_" + timestamp + SAVE_EXTENSION;
         }
         
-        Path savePath = Paths.get(SAVE_DIR, filename);
+        Path savePath = dir.resolve(filename);
         
         try (ObjectOutputStream oos = new ObjectOutputStream(
                 new FileOutputStream(savePath.toFile()))) {
@@ -131,7 +148,7 @@ public class SaveManager {
         List<SaveInfo> saves = new ArrayList<>();
         
         try {
-            ensureSaveDir();
+            ensureSaveDir(getSaveDir());
             
             try (DirectoryStream<Path> stream = Files.newDirectoryStream(
                     Paths.get(SAVE_DIR), "*" + SAVE_EXTENSION)) {
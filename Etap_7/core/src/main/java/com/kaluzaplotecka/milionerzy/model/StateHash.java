@@ -0,0 +1,133 @@
+package com.kaluzaplotecka.milionerzy.model;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import com.kaluzaplotecka.milionerzy.model.tiles.PropertyTile;
+import com.kaluzaplotecka.milionerzy.model.tiles.Tile;
+
+/**
+ * Skrót kanonicznego stanu gry do wykrywania rozjazdu kopii stanu.
+ *
+ * <p>Obejmuje to, co decyduje o przebiegu gry: pieniądze, pozycje i więzienie
+ * graczy, właścicieli, domy i zastaw nieruchomości, turę oraz aukcję. Nie
+ * obejmuje niczego, co może się legalnie różnić między kopiami (np. id
+ * aukcji, czasu jej rozpoczęcia, kolejności kart w pamięci).
+ *
+ * <p>Skrót jest XOR-em skrótów składowych (gracz, pole, tura, aukcja). Zmiana
+ * jednej składowej kosztuje dwa XOR-y, więc host może go aktualizować
+ * przyrostowo przy każdej zmianie, a klient - policzyć od zera
+ * ({@link #of(GameState)}) i porównać z wartością od hosta.
+ *
+ * <p><b>Uwaga:</b> Klasa nie jest thread-safe.
+ */
+public final class StateHash {
+
+    // Różne stałe dla rodzajów składowych - gracz i pole o tych samych liczbach nie znoszą się
+    private static final long PLAYER = 0x5DEECE66DL;
+    private static final long TILE = 0x2545F4914F6CDD1DL;
+    private static final long TURN = 0x9E3779B97F4A7C15L;
+    private static final long AUCTION = 0xC2B2AE3D27D4EB4FL;
+
+    private final Map<String, Long> players = new HashMap<>();
+    private final Map<Integer, Long> tiles = new HashMap<>();
+    private long turn;
+    private long auction;
+    private long value;
+
+    /**
+     * Liczy skrót stanu od zera.
+     */
+    public static long of(GameState state) {
+        StateHash hash = new StateHash();
+        hash.reset(state);
+        return hash.value();
+    }
+
+    /**
+     * Liczy wszystkie składowe od nowa (np. po pełnym snapshocie).
+     */
+    public void reset(GameState state) {
+        players.clear();
+        tiles.clear();
+        turn = 0;
+        auction = 0;
+        value = 0;
+        for (Player p : state.getPlayers()) updatePlayer(p);
+        for (Tile t : state.getBoard().getTiles()) {
+            if (t instanceof PropertyTile pt) updateTile(pt);
+        }
+        updateTurn(state);
+        updateAuction(state.getCurrentAuction());
+    }
+
+    // === AKTUALIZACJA PRZYROSTOWA ===
+
+    public void updatePlayer(Player p) {
+        long h = mix(PLAYER ^ p.getId().hashCode(), p.getMoney(), p.getPosition(),
+            p.isInJail() ? 1 : 0, p.getJailTurns());
+        replace(players.put(p.getId(), h), h);
+    }
+
+    /**
+     * Usuwa składową gracza, który odpadł z gry.
+     */
+    public void removePlayer(String id) {
+        replace(players.remove(id), null);
+    }
+
+    public void updateTile(PropertyTile pt) {
+        long h = mix(TILE ^ pt.getPosition(), id(pt.getOwner()), pt.getHouses(),
+            pt.isMortgaged() ? 1 : 0, 0);
+        replace(tiles.put(pt.getPosition(), h), h);
+    }
+
+    public void updateTurn(GameState state) {
+        long h = mix(TURN, id(state.getCurrentPlayer()), state.getRoundNumber(),
+            state.hasRolled() ? 1 : 0, 0);
+        value ^= turn ^ h;
+        turn = h;
+    }
+
+    public void updateAuction(Auction a) {
+        long h = 0;
+        if (a != null) {
+            long passed = 0;
+            for (Player p : a.getPassedPlayers()) passed ^= p.getId().hashCode();
+            h = mix(AUCTION ^ (a.getProperty() != null ? a.getProperty().getPosition() : -1),
+                id(a.getHighestBidder()), a.getHighestBid(), a.getStatus().ordinal(), passed);
+        }
+        value ^= auction ^ h;
+        auction = h;
+    }
+
+    public long value() {
+        return value;
+    }
+
+    // === POMOCNICZE ===
+
+    private void replace(Long old, Long now) {
+        if (old != null) value ^= old;
+        if (now != null) value ^= now;
+    }
+
+    private static long id(Player p) {
+        return p != null ? p.getId().hashCode() : 0;
+    }
+
+    private static long mix(long key, long a, long b, long c, long d) {
+        long h = key;
+        h = avalanche(h ^ a);
+        h = avalanche(h ^ b);
+        h = avalanche(h ^ c);
+        return avalanche(h ^ d);
+    }
+
+    // Finalizator SplitMix64 - każdy bit wejścia zmienia połowę bitów wyniku
+    private static long avalanche(long z) {
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+}
@@ -73,6 +73,12 @@ public class PropertyTile extends Tile {
      * @return cena zakupu
      */
     public int getPrice() { return price; }
+
+    /**
+     * Zwraca bazowy czynsz (bez domów).
+     * @return bazowy czynsz
+     */
+    public int getBaseRent() { return baseRent; }
     
     /**
      * Zwraca właściciela nieruchomości.
@@ -86,6 +92,30 @@ public class PropertyTile extends Tile {
      */
     public void setOwner(Player owner) { this.owner = owner; }
 
+    /**
+     * Zwraca liczbę wybudowanych domów.
+     * @return liczba domów (0-5)
+     */
+    public int getHouses() { return houses; }
+    
+    /**
+     * Ustawia liczbę wybudowanych domów.
+     * @param houses liczba domów (0-5)
+     */
+    public void setHouses(int houses) { this.houses = houses; }
+    
+    /**
+     * Sprawdza, czy nieruchomość jest zastawiona.
+     * @return {@code true} jeśli nieruchomość jest zastawiona
+     */
+    public boolean isMortgaged() { return mortgaged; }
+    
+    /**
+     * Ustawia status zastawu.
+     * @param mortgaged nowy status zastawu
+     */
+    public void setMortgaged(boolean mortgaged) { this.mortgaged = mortgaged; }
+
     /**
      * Sprawdza, czy nieruchomość ma właściciela.
      * @return {@code true} jeśli nieruchomość ma właściciela
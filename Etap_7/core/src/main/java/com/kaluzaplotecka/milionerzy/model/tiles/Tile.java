@@ -45,6 +45,13 @@ public class Tile implements Serializable {
      */
     public int getPosition(){ return position; }
 
+    /**
+     * Zwraca nazwę wyświetlaną pola.
+     *
+     * @return nazwa pola
+     */
+    public String getName(){ return name; }
+
     /**
      * Wywoływane gdy gracz staje na tym polu.
      * 
@@ -0,0 +1,7 @@
+module com.kaluzaplotecka.milionerzy.core {
+    exports com.kaluzaplotecka.milionerzy.events;
+    exports com.kaluzaplotecka.milionerzy.manager;
+    exports com.kaluzaplotecka.milionerzy.model;
+    exports com.kaluzaplotecka.milionerzy.model.tiles;
+    exports com.kaluzaplotecka.milionerzy.model.cards;
+}
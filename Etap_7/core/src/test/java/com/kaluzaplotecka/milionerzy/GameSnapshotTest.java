@@ -0,0 +1,88 @@
+package com.kaluzaplotecka.milionerzy;
+
+import org.junit.jupiter.api.*;
+
+import com.kaluzaplotecka.milionerzy.model.Board;
+import com.kaluzaplotecka.milionerzy.model.GameSnapshot;
+import com.kaluzaplotecka.milionerzy.model.GameState;
+import com.kaluzaplotecka.milionerzy.model.Player;
+import com.kaluzaplotecka.milionerzy.model.tiles.PropertyTile;
+import com.kaluzaplotecka.milionerzy.model.tiles.Tile;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Testy niezmiennych snapshotów stanu gry.
+ */
+public class GameSnapshotTest {
+
+    private GameState state;
+
+    @BeforeEach
+    void setUp() {
+        List<Tile> tiles = new ArrayList<>();
+        tiles.add(new Tile(0, "START"));
+        tiles.add(new PropertyTile(1, "Kielce", 100, 20));
+        tiles.add(new PropertyTile(2, "Sandomierz", 120, 25));
+        tiles.add(new Tile(3, "Szansa"));
+        List<Player> players = new ArrayList<>();
+        players.add(new Player("p1", "Ala", 1500));
+        players.add(new Player("p2", "Olek", 1500));
+        state = new GameState(new Board(tiles), players);
+    }
+
+    @Test
+    @DisplayName("Niezmienione części są współdzielone z poprzednim snapshotem")
+    void testStructuralSharing() {
+        GameSnapshot first = GameSnapshot.of(state);
+
+        state.getPlayers().get(0).setPosition(3);
+        GameSnapshot second = GameSnapshot.of(state, first);
+
+        assertNotSame(first.player("p1"), second.player("p1"));
+        assertEquals(3, second.player("p1").position());
+        assertSame(first.player("p2"), second.player("p2"));
+        assertSame(first.tiles(), second.tiles(), "Plansza bez zmian - ta sama lista");
+
+        Player ala = state.getPlayers().get(0);
+        PropertyTile kielce = (PropertyTile) state.getBoard().getTile(1);
+        kielce.setOwner(ala);
+        ala.addProperty(kielce);
+        GameSnapshot third = GameSnapshot.of(state, second);
+
+        assertNotSame(second.tiles(), third.tiles());
+        assertSame(second.tile(0), third.tile(0));
+        assertSame(second.tile(2), third.tile(2));
+        assertEquals("p1", third.tile(1).ownerId());
+        assertEquals(List.of(1), third.player("p1").properties());
+        assertNull(second.tile(1).ownerId(), "Poprzedni snapshot się nie zmienia");
+    }
+
+    @Test
+    @DisplayName("Stan odtworzony ze snapshotu odpowiada oryginałowi")
+    void testToGameState() {
+        Player ala = state.getPlayers().get(0);
+        PropertyTile sandomierz = (PropertyTile) state.getBoard().getTile(2);
+        sandomierz.setOwner(ala);
+        sandomierz.setHouses(2);
+        ala.addProperty(sandomierz);
+        ala.deductMoney(120);
+        state.nextTurn();
+        state.setStateVersion(7);
+
+        GameState copy = GameSnapshot.of(state).toGameState();
+
+        assertEquals(7, copy.getStateVersion());
+        assertEquals("p2", copy.getCurrentPlayer().getId());
+        assertEquals(1380, copy.getPlayers().get(0).getMoney());
+        PropertyTile restored = (PropertyTile) copy.getBoard().getTile(2);
+        assertSame(copy.getPlayers().get(0), restored.getOwner());
+        assertEquals(2, restored.getHouses());
+        assertEquals(1, copy.getPlayers().get(0).getOwnedProperties().size());
+        assertEquals("Szansa", copy.getBoard().getTile(3).getName());
+        assertNotSame(sandomierz, restored);
+    }
+}
@@ -132,4 +132,58 @@ public class GameStateTest {
         assertTrue(found, "Should fire TURN_STARTED event");
         assertEquals(b, state.getCurrentPlayer());
     }
+
+    @Test
+    public void seededDice_sameSequenceOnEveryCopy() {
+        Board board = new Board(java.util.List.of(new Tile(0,"S")));
+        GameState host = new GameState(board, List.of(new Player("A", "A", 100)));
+        GameState client = new GameState(board, List.of(new Player("A", "A", 100)));
+        host.setSeed(42L);
+        client.setSeed(42L);
+
+        for (int i = 0; i < 50; i++) {
+            int roll = host.rollDice();
+            assertTrue(roll >= 2 && roll <= 12, "Roll out of range: " + roll);
+            assertEquals(roll, client.rollDice(), "Roll " + i + " differs");
+        }
+
+        // A state restored from a snapshot continues the same sequence
+        GameState restored = com.kaluzaplotecka.milionerzy.model.GameSnapshot.of(host).toGameState();
+        for (int i = 0; i < 10; i++) {
+            assertEquals(host.rollDice(), restored.rollDice());
+        }
+    }
+
+    @Test
+    public void stateHash_incrementalMatchesFullAndDetectsChanges() {
+        PropertyTile prop = new PropertyTile(1, "Prop", 50, 10);
+        Board board = new Board(new ArrayList<>(List.of(new Tile(0, "S"), prop)));
+        Player a = new Player("A", "A", 100);
+        Player b = new Player("B", "B", 100);
+        GameState state = new GameState(board, new ArrayList<>(List.of(a, b)));
+
+        com.kaluzaplotecka.milionerzy.model.StateHash hash = new com.kaluzaplotecka.milionerzy.model.StateHash();
+        hash.reset(state);
+        long initial = hash.value();
+        assertEquals(com.kaluzaplotecka.milionerzy.model.StateHash.of(state), initial);
+
+        prop.setOwner(a);
+        a.addProperty(prop);
+        a.deductMoney(50);
+        hash.updateTile(prop);
+        hash.updatePlayer(a);
+        assertNotEquals(initial, hash.value());
+        assertEquals(com.kaluzaplotecka.milionerzy.model.StateHash.of(state), hash.value());
+
+        state.nextTurn();
+        hash.updateTurn(state);
+        assertEquals(com.kaluzaplotecka.milionerzy.model.StateHash.of(state), hash.value());
+
+        // Cofnięcie zmiany przywraca skrót
+        a.addMoney(50);
+        hash.updatePlayer(a);
+        a.deductMoney(50);
+        hash.updatePlayer(a);
+        assertEquals(com.kaluzaplotecka.milionerzy.model.StateHash.of(state), hash.value());
+    }
 }
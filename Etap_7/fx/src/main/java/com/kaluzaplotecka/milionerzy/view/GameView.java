@@ -1,6 +1,6 @@
 package com.kaluzaplotecka.milionerzy.view;
 
-import com.kaluzaplotecka.milionerzy.manager.SoundManager;
+import com.kaluzaplotecka.milionerzy.view.utils.SoundManager;
 import javafx.application.Platform;
 import javafx.geometry.Insets;
 import javafx.geometry.Pos;
@@ -14,17 +14,18 @@ import javafx.animation.KeyFrame;
 
 import com.kaluzaplotecka.milionerzy.events.GameEvent;
 import com.kaluzaplotecka.milionerzy.events.GameEventListener;
-import com.kaluzaplotecka.milionerzy.model.Board;
+import com.kaluzaplotecka.milionerzy.model.BoardFactory;
+import com.kaluzaplotecka.milionerzy.model.GameSnapshot;
 import com.kaluzaplotecka.milionerzy.model.GameState;
 import com.kaluzaplotecka.milionerzy.model.Player;
+import com.kaluzaplotecka.milionerzy.network.ClientStateSync;
+import com.kaluzaplotecka.milionerzy.network.GameAuthority;
 import com.kaluzaplotecka.milionerzy.network.GameMessage;
+import com.kaluzaplotecka.milionerzy.network.GameMessageProcessor;
 import com.kaluzaplotecka.milionerzy.network.NetworkGameEventListener;
 import com.kaluzaplotecka.milionerzy.network.NetworkManager;
 import com.kaluzaplotecka.milionerzy.model.SaveManager;
-import com.kaluzaplotecka.milionerzy.model.tiles.ChanceTile;
-import com.kaluzaplotecka.milionerzy.model.tiles.CommunityChestTile;
 import com.kaluzaplotecka.milionerzy.model.tiles.PropertyTile;
-import com.kaluzaplotecka.milionerzy.model.tiles.Tile;
 import com.kaluzaplotecka.milionerzy.view.components.AuctionComponent;
 import com.kaluzaplotecka.milionerzy.view.components.BoardComponent;
 import com.kaluzaplotecka.milionerzy.view.components.DiceComponent;
@@ -35,7 +36,6 @@ import java.util.Optional;
 import java.util.List;
 import java.util.Map;
 import java.util.HashMap;
-import java.util.ArrayList;
 
 /**
  * Główny widok gry - plansza z graczami, kostką i panelami.
@@ -49,6 +49,10 @@ import java.util.ArrayList;
  * </ul>
  * 
  * <p>Implementuje {@link GameEventListener} do reaktywności na zdarzenia gry.
+ *
+ * <p>U hosta i w grze lokalnej stan zmienia {@link GameAuthority} na własnym
+ * wątku - widok tylko kolejkuje akcje i rysuje ostatni opublikowany snapshot,
+ * więc logika gry nie czeka na klatki JavaFX ani na otwarte okna dialogowe.
  * 
  * @see GameState
  * @see BoardComponent
@@ -60,10 +64,15 @@ public class GameView implements GameEventListener {
     private final List<Player> players;
     private PlayerPanelComponent[] playerPanels;
     private GameState gameState;
+    // Host/gra lokalna: stan zmienia autorytet, widok rysuje snapshot (viewState)
+    private GameAuthority authority;
+    private GameSnapshot viewState;
     private NetworkManager networkManager;
     private String playerId;
     private AuctionComponent auctionView;
     private NetworkStatusBox networkStatusBox;
+    private NetworkGameEventListener networkEventListener;
+    private ClientStateSync clientStateSync;
     
     private BoardComponent boardComponent;
     private DiceComponent diceComponent;
@@ -81,11 +90,6 @@ public class GameView implements GameEventListener {
         
         setupDiceComponent();
         
-        if (networkManager != null) {
-            setupNetworkListeners();
-            this.networkStatusBox = new NetworkStatusBox(networkManager);
-        }
-        
         // Initialize AuctionComponent
         this.auctionView = new AuctionComponent();
         this.auctionView.setLocalPlayerId(playerId);
@@ -93,16 +97,61 @@ public class GameView implements GameEventListener {
 
         // Initialize GameState
         if (networkManager == null || networkManager.getMode() == NetworkManager.Mode.HOST) {
-            this.gameState = new GameState(createBoardModel(), players);
-            this.gameState.addEventListener(this);
-            
-            // Register network event listener for host to broadcast events to clients
-            if (networkManager != null && networkManager.getMode() == NetworkManager.Mode.HOST) {
-                GameState gs = this.gameState;
-                this.gameState.addEventListener(new NetworkGameEventListener(networkManager, () -> gs));
+            if (networkManager != null) {
+                // Register network event listener for host to broadcast events to clients
+                this.networkEventListener = new NetworkGameEventListener(networkManager, () -> this.gameState);
             }
+            startAuthority(new GameState(BoardFactory.createDefaultBoard(), players));
+        } else {
+            // Client waits for sync
+            this.clientStateSync = new ClientStateSync(networkManager);
+        }
+        
+        if (networkManager != null) {
+            setupNetworkListeners();
+            this.networkStatusBox = new NetworkStatusBox(networkManager);
+        }
+    }
+
+    /**
+     * Host/gra lokalna: przekazuje stan autorytetowi gry. Od tej chwili
+     * stan zmienia tylko wątek autorytetu, a widok dostaje snapshoty.
+     */
+    private void startAuthority(GameState state) {
+        if (authority != null) authority.stop();
+        
+        this.gameState = state;
+        state.addEventListener(this);
+        if (networkEventListener != null) {
+            state.addEventListener(networkEventListener);
+        }
+        this.authority = new GameAuthority(state, networkManager);
+        this.viewState = authority.getSnapshot();
+        authority.setSnapshotListener(snapshot -> Platform.runLater(() -> {
+            this.viewState = snapshot;
+            refreshBoard();
+            updateRollButtonState();
+        }));
+        if (networkManager != null) {
+            // Nowi klienci dostają snapshot - wątek I/O nie dotyka stanu autorytatywnego
+            networkManager.setSnapshotProvider(authority::getSnapshot);
         }
-        // Client waits for sync
+    }
+
+    /**
+     * Stan do wyświetlania: snapshot autorytetu (host/gra lokalna) albo
+     * snapshot zsynchronizowanej kopii (klient, zmieniana na wątku JavaFX).
+     */
+    private GameSnapshot displayState() {
+        if (authority != null) return viewState;
+        return gameState != null ? GameSnapshot.of(gameState) : null;
+    }
+
+    private Player findPlayer(GameState state, String id) {
+        return state.getPlayers().stream()
+            .filter(pl -> pl.getId().equals(id))
+            .findFirst()
+            .orElse(null);
     }
     
     private void setupDiceComponent() {
@@ -115,27 +164,23 @@ public class GameView implements GameEventListener {
         auctionView.setOnBid(amount -> {
             if (networkManager != null) {
                 networkManager.send(new GameMessage(GameMessage.MessageType.AUCTION_BID, playerId, amount));
-            } else if (gameState != null) {
-                Player p = gameState.getPlayers().stream()
-                    .filter(pl -> pl.getId().equals(playerId))
-                    .findFirst()
-                    .orElse(null);
-                if (p != null) {
-                    gameState.placeBid(p, amount);
-                }
+            } else if (authority != null) {
+                authority.execute(state -> {
+                    Player p = findPlayer(state, playerId);
+                    if (p != null) state.placeBid(p, amount);
+                });
             }
         });
         
         auctionView.setOnPass(() -> {
             if (networkManager != null) {
                 networkManager.send(new GameMessage(GameMessage.MessageType.AUCTION_PASS, playerId));
-            } else if (gameState != null) {
+            } else if (authority != null) {
                 // Local game logic
-                Player p = gameState.getPlayers().stream()
-                     .filter(pl -> pl.getId().equals(playerId))
-                     .findFirst()
-                     .orElse(null);
-                 if (p != null) gameState.passAuction(p);
+                authority.execute(state -> {
+                    Player p = findPlayer(state, playerId);
+                    if (p != null) state.passAuction(p);
+                });
             }
         });
     }
@@ -144,27 +189,17 @@ public class GameView implements GameEventListener {
         if (networkManager == null) return;
         
         networkManager.setMessageHandler(msg -> {
+            if (authority != null) {
+                // Host: akcje graczy idą prosto do autorytetu, z pominięciem wątku JavaFX
+                authority.submit(msg);
+                return;
+            }
             Platform.runLater(() -> {
-                if (msg.getType() == GameMessage.MessageType.GAME_STATE_SYNC) {
-                    if (msg.getPayload() instanceof GameState newState) {
-                        System.out.println("Otrzymano synchronizację stanu gry!");
-                        
-                        Map<String, Integer> oldPositions = new HashMap<>();
-                        for (Player p : this.players) {
-                            oldPositions.put(p.getId(), p.getPosition());
-                        }
-                        
-                        this.gameState = newState;
-                        this.players.clear();
-                        this.players.addAll(this.gameState.getPlayers());
-                        
-                        this.gameState.addEventListener(this);
-                        
-                        // Update components
-                        boardComponent.refreshPawns(this.players, oldPositions);
-                        
-                        refreshBoard(); 
-                        updateRollButtonState();
+                if (msg.getType() == GameMessage.MessageType.GAME_STATE_SYNC
+                        || msg.getType() == GameMessage.MessageType.STATE_DELTA
+                        || msg.getType() == GameMessage.MessageType.LOCKSTEP_COMMAND) {
+                    if (clientStateSync != null) {
+                        applyStateSync(msg);
                     }
                 } else if (msg.getType() == GameMessage.MessageType.DICE_RESULT) {
                     if (msg.getPayload() instanceof Integer val) {
@@ -184,25 +219,48 @@ public class GameView implements GameEventListener {
                     handleMove(msg);
                 }
                 
-                // Allow both Host and Client to process remaining messages in GameState
-                // (e.g. AUCTION_*, END_TURN, NEXT_TURN)
-                // Allow both Host and Client to process remaining messages in GameState
+                // Client: process remaining messages in GameState
                 // (e.g. AUCTION_*, END_TURN, NEXT_TURN)
                 if (gameState != null) {
                      System.out.println("client debug processing msg: " + msg.getType() + " sender: " + msg.getSenderId());
-                     boolean isHost = networkManager.getMode() == NetworkManager.Mode.HOST;
-                     gameState.processNetworkMessage(msg, isHost, networkManager);
+                     GameMessageProcessor.process(gameState, msg, false, networkManager);
                 }
             });
         });
     }
 
-    private void handleMove(GameMessage msg) {
-        String senderId = msg.getSenderId();
-        if (networkManager.getMode() == NetworkManager.Mode.HOST && senderId.equals(this.playerId)) {
-            return;
+    /**
+     * Klient: stosuje pełny snapshot, różnicę stanu lub komendę lockstep
+     * i odświeża widok.
+     */
+    private void applyStateSync(GameMessage msg) {
+        Map<String, Integer> oldPositions = new HashMap<>();
+        for (Player p : this.players) {
+            oldPositions.put(p.getId(), p.getPosition());
+        }
+        
+        if (!clientStateSync.handle(msg)) return;
+        
+        GameState syncedState = clientStateSync.getState();
+        if (syncedState != this.gameState) {
+            System.out.println("Otrzymano synchronizację stanu gry!");
+            this.gameState = syncedState;
+            this.gameState.addEventListener(this);
         }
+        this.players.clear();
+        this.players.addAll(this.gameState.getPlayers());
+        
+        // Update components (lockstep: ruch animują zdarzenia lokalnego stanu)
+        if (msg.getType() != GameMessage.MessageType.LOCKSTEP_COMMAND) {
+            boardComponent.refreshPawns(this.players, oldPositions);
+        }
+        
+        refreshBoard(); 
+        updateRollButtonState();
+    }
 
+    private void handleMove(GameMessage msg) {
+        String senderId = msg.getSenderId();
         Player player = players.stream()
             .filter(p -> p.getId().equals(senderId))
             .findFirst()
@@ -231,60 +289,55 @@ public class GameView implements GameEventListener {
              boolean isClient = networkManager != null && networkManager.getMode() == NetworkManager.Mode.CLIENT;
              if (isClient) {
                  networkManager.send(new GameMessage(GameMessage.MessageType.BUY_PROPERTY, playerId));
-             } else {
-                 // Host or Local game: directly update game state
-                 if (gameState != null) {
-                     Player currentPlayer = gameState.getPlayers().stream()
-                         .filter(p -> p.getId().equals(playerId))
-                         .findFirst()
-                         .orElse(null);
-                     if (currentPlayer != null && gameState.buyCurrentProperty()) {
+             } else if (authority != null) {
+                 // Host or Local game: update game state on the authority thread
+                 authority.execute(state -> {
+                     if (findPlayer(state, playerId) != null && state.buyCurrentProperty()) {
                          // Event fired by GameState; just trigger next turn
-                         gameState.nextTurn();
+                         state.nextTurn();
                      }
-                 }
+                 });
              }
          } else {
              boolean isClient = networkManager != null && networkManager.getMode() == NetworkManager.Mode.CLIENT;
              if (isClient) {
                  networkManager.send(new GameMessage(GameMessage.MessageType.DECLINE_PURCHASE, playerId));
-             } else {
-                 // Host or Local game: start auction
-                 if (gameState != null) {
-                     gameState.startAuction(tile);
-                 }
+             } else if (authority != null) {
+                 // Host or Local game: start auction (tile looked up in the authoritative board)
+                 authority.execute(state -> {
+                     if (state.getBoard().getTile(tile.getPosition()) instanceof PropertyTile pt) {
+                         state.startAuction(pt);
+                     }
+                 });
              }
          }
     }
 
 
     private void refreshBoard() {
-        if (gameState == null) {
+        GameSnapshot snapshot = displayState();
+        if (snapshot == null) {
             // In client mode, gameState can be null before the first synchronization.
             // In that case, there is nothing to refresh yet.
             return;
         }
-        for (Player p : gameState.getPlayers()) {
-             // Using ID or Index. Players list in GameView is kept in sync with GameState.
-             // Assuming players list order matches panels order (as created in createScene)
-             int index = players.indexOf(p);
-             if (index == -1) {
-                 // Try by ID
-                 for(int i=0; i<players.size(); i++) {
-                     if (players.get(i).getId().equals(p.getId())) {
-                         index = i; 
-                         break;
-                     }
+        for (GameSnapshot.PlayerSnapshot p : snapshot.players()) {
+             // Panels are created in the order of the players list (see createScene)
+             int index = -1;
+             for(int i=0; i<players.size(); i++) {
+                 if (players.get(i).getId().equals(p.id())) {
+                     index = i; 
+                     break;
                  }
              }
 
              if (index >= 0 && index < playerPanels.length && playerPanels[index] != null) {
-                 playerPanels[index].update(p);
+                 playerPanels[index].update(p.money(), p.properties().size());
              }
         }
         
-        if (gameState != null && boardComponent != null) {
-            boardComponent.refreshTiles(gameState.getBoard().getTiles());
+        if (boardComponent != null) {
+            boardComponent.refreshTiles(snapshot);
         }
     }
     
@@ -344,7 +397,9 @@ public class GameView implements GameEventListener {
 
     private void saveGame(String saveName) {
          try {
-             String filename = SaveManager.save(gameState, saveName);
+             GameSnapshot snapshot = displayState();
+             if (snapshot == null) throw new IllegalStateException("Brak stanu gry do zapisania");
+             String filename = SaveManager.save(snapshot.toGameState(), saveName);
              Alert alert = new Alert(Alert.AlertType.INFORMATION);
              alert.setTitle("Zapis gry");
              alert.setHeaderText(null);
@@ -370,23 +425,14 @@ public class GameView implements GameEventListener {
                 System.err.println("Failed to play sound: " + e.getMessage());
             }
 
-            final int result;
-            if (networkManager != null && networkManager.getMode() == NetworkManager.Mode.CLIENT) {
-                // Client mode: use local dice component logic
-                result = diceComponent.roll();
-            } else {
-                // Host/Local: use GameState logic (Mockable)
-                result = gameState.rollDice();
-                // Update visual
-                diceComponent.animateDiceRoll(result);
-            }
-            
             if (networkManager != null && networkManager.getMode() == NetworkManager.Mode.CLIENT) {
-                // Send result to host
+                // Client mode: use local dice component logic, send result to host
+                int result = diceComponent.roll();
                 networkManager.send(new GameMessage(GameMessage.MessageType.ROLL_DICE, playerId, result));
-            } else {
-                // Host plays immediately with this result
-                gameState.moveCurrentPlayer(result);
+            } else if (authority != null) {
+                // Host/Local: roll with GameState logic (Mockable) on the authority thread;
+                // the dice animation follows the DICE_ROLLED event
+                authority.execute(state -> state.moveCurrentPlayer(state.rollDice()));
             }
         }
     }
@@ -401,6 +447,7 @@ public class GameView implements GameEventListener {
         pauseDialog.getButtonTypes().setAll(resumeButton, menuButton);
         pauseDialog.showAndWait().ifPresent(response -> {
             if (response == menuButton) {
+                if (authority != null) authority.stop();
                 if (networkManager != null) {
                     GameMessage msg = new GameMessage(GameMessage.MessageType.DISCONNECT, playerId, "Player left game");
                     msg.setBroadcast(true);
@@ -420,13 +467,9 @@ public class GameView implements GameEventListener {
         stage.setResizable(true);
         stage.show();
         
-        // Host: broadcast initial game state to all clients
-        if (networkManager != null && networkManager.getMode() == NetworkManager.Mode.HOST && gameState != null) {
-            networkManager.send(new GameMessage(
-                GameMessage.MessageType.GAME_STATE_SYNC,
-                playerId,
-                gameState
-            ));
+        // Host: broadcast initial game state to all clients (later only deltas)
+        if (networkEventListener != null && authority != null) {
+            authority.execute(state -> networkEventListener.broadcastSnapshot());
         }
         
         // Update UI state
@@ -434,51 +477,19 @@ public class GameView implements GameEventListener {
     }
 
     public void setGameState(GameState loadedState) {
-        this.gameState = loadedState;
         this.players.clear();
         this.players.addAll(loadedState.getPlayers());
-        loadedState.addEventListener(this);
+        if (clientStateSync != null) {
+            this.gameState = loadedState;
+            loadedState.addEventListener(this);
+            clientStateSync.setState(loadedState);
+        } else {
+            startAuthority(loadedState);
+        }
         // Also refresh components
         boardComponent.refreshPawns(this.players, null);
     }
     
-    private Board createBoardModel() {
-        String[][] boardTiles = BoardComponent.getBoardTiles();
-        List<Tile> tiles = new ArrayList<>();
-        
-        tiles.add(new Tile(0, "START"));
-        for (int i = 1; i <= 9; i++) tiles.add(createTileFromData(i, boardTiles[i]));
-        tiles.add(new Tile(10, "WIĘZIENIE"));
-        for (int i = 11; i <= 19; i++) tiles.add(createTileFromData(i, boardTiles[i]));
-        tiles.add(new Tile(20, "DARMOWY PARKING"));
-        for (int i = 21; i <= 29; i++) tiles.add(createTileFromData(i, boardTiles[i]));
-        tiles.add(new Tile(30, "IDŹ DO WIĘZIENIA"));
-        for (int i = 31; i <= 39; i++) tiles.add(createTileFromData(i, boardTiles[i]));
-        
-        return new Board(tiles);
-    }
-    
-    private Tile createTileFromData(int pos, String[] data) {
-        String name = data[0].replace("\n", " ");
-        String type = data[1];
-        switch (type) {
-            case "property":
-                int price;
-                try {
-                    price = Integer.parseInt(data[3]);
-                } catch (NumberFormatException e) {
-                    System.err.println("Warning: Invalid price format for property '" + name + "' at position " + pos + ". Using default value 100.");
-                    price = 100; // Default property price
-                }
-                return new PropertyTile(pos, name, price, price / 10);
-            case "chance": return new ChanceTile(pos, name);
-            case "chest": return new CommunityChestTile(pos, name);
-            case "railroad": return new PropertyTile(pos, name, 200, 25);
-            case "utility": return new PropertyTile(pos, name, 150, 20);
-            default: return new Tile(pos, name);
-        }
-    }
-
     @Override
     public void onGameEvent(GameEvent event) {
         switch (event.getType()) {
@@ -504,8 +515,10 @@ public class GameView implements GameEventListener {
                 }
             }
             case AUCTION_BID -> {
-                if (gameState.getCurrentAuction() != null) {
-                     Platform.runLater(() -> auctionView.updateAuction(gameState.getCurrentAuction()));
+                // Host: zdarzenie przychodzi z wątku autorytetu - aukcja z tej chwili
+                com.kaluzaplotecka.milionerzy.model.Auction auction = gameState.getCurrentAuction();
+                if (auction != null) {
+                     Platform.runLater(() -> auctionView.updateAuction(auction));
                 }
             }
             case AUCTION_ENDED -> {
@@ -533,47 +546,51 @@ public class GameView implements GameEventListener {
         if (event.getType() == GameEvent.Type.TURN_STARTED) {
              Platform.runLater(this::updateRollButtonState);
         }
-        
-        // Host: broadcast state to all clients after any significant event
-        if (networkManager != null && networkManager.getMode() == NetworkManager.Mode.HOST && gameState != null) {
-            networkManager.send(new GameMessage(
-                GameMessage.MessageType.GAME_STATE_SYNC,
-                playerId,
-                gameState
-            ));
-        }
+        // Host: zmiany stanu rozsyła NetworkGameEventListener jako różnice
     }
 
     private void updateRollButtonState() {
         if (diceComponent == null) return;
+        GameSnapshot snapshot = displayState();
         
         // Client before sync: disable button
-        if (gameState == null) {
+        if (snapshot == null) {
             diceComponent.setRollButtonState(false, "Oczekiwanie...");
             return;
         }
         
         boolean isMyTurn = false;
-        Player current = gameState.getCurrentPlayer();
+        GameSnapshot.PlayerSnapshot current = snapshot.currentPlayer();
         
         if (networkManager != null && (networkManager.getMode() == NetworkManager.Mode.CLIENT || networkManager.getMode() == NetworkManager.Mode.HOST)) {
-             if (current != null && current.getId().equals(playerId)) isMyTurn = true;
+             if (current != null && current.id().equals(playerId)) isMyTurn = true;
         } else {
              isMyTurn = true; // Local
         }
         
         if (isMyTurn) {
-            if (gameState.hasRolled()) {
+            if (snapshot.hasRolled()) {
                  diceComponent.setRollButtonState(false, "Rzucono");
             } else {
                  diceComponent.setRollButtonState(true, "🎲  Losuj");
             }
         } else {
-            String name = current != null ? current.getUsername() : "";
+            String name = current != null ? current.username() : "";
             diceComponent.setRollButtonState(false, "Tura: " + name);
         }
     }
+    /**
+     * Zwraca stan gry: u hosta i w grze lokalnej stan autorytatywny
+     * (zmieniany na wątku {@link #getAuthority()}), u klienta zsynchronizowaną kopię.
+     */
     public GameState getGameState() {
         return gameState;
     }
+
+    /**
+     * Zwraca autorytet gry (null u klienta).
+     */
+    public GameAuthority getAuthority() {
+        return authority;
+    }
 }
@@ -23,6 +23,7 @@ import java.util.UUID;
 
 import com.kaluzaplotecka.milionerzy.model.GameState;
 import com.kaluzaplotecka.milionerzy.model.Player;
+import com.kaluzaplotecka.milionerzy.model.PlayerInfo;
 import com.kaluzaplotecka.milionerzy.network.GameMessage;
 import com.kaluzaplotecka.milionerzy.network.NetworkManager;
 import com.kaluzaplotecka.milionerzy.view.components.GameButton;
@@ -567,17 +568,4 @@ public class LobbyView {
         fade.setToValue(1);
         fade.play();
     }
-    
-    public static class PlayerInfo implements java.io.Serializable {
-        private static final long serialVersionUID = 1L;
-        public final String id;
-        public final String name;
-        public final boolean isHost;
-        
-        public PlayerInfo(String id, String name, boolean isHost) {
-            this.id = id;
-            this.name = name;
-            this.isHost = isHost;
-        }
-    }
 }
@@ -15,9 +15,13 @@ import javafx.scene.text.Font;
 import javafx.scene.text.FontWeight;
 import javafx.util.Duration;
 
+import com.kaluzaplotecka.milionerzy.network.NetworkManager;
+import com.kaluzaplotecka.milionerzy.network.PeerHealth;
+
 /**
  * Komponent UI wyświetlający status komunikacji sieciowej.
- * Pokazuje informacje o wysyłanych wiadomościach, potwierdzeniach i błędach.
+ * Pokazuje informacje o wysyłanych wiadomościach, potwierdzeniach i błędach
+ * oraz bieżący ping (RTT i jitter z heartbeatu).
  */
 public class NetworkStatusBox extends VBox {
     
@@ -45,6 +49,7 @@ public class NetworkStatusBox extends VBox {
     }
     
     private final VBox messageContainer;
+    private final Label latencyLabel;
     
     public NetworkStatusBox() {
         setAlignment(Pos.TOP_RIGHT);
@@ -81,7 +86,11 @@ public class NetworkStatusBox extends VBox {
         headerLabel.setFont(Font.font("System", FontWeight.BOLD, 12));
         headerLabel.setTextFill(Color.web("#2d3436"));
         
-        header.getChildren().addAll(headerIcon, headerLabel);
+        // Ping - wypełniany po pierwszym pomiarze heartbeatu
+        latencyLabel = new Label();
+        latencyLabel.setFont(Font.font("System", FontWeight.NORMAL, 11));
+        
+        header.getChildren().addAll(headerIcon, headerLabel, latencyLabel);
         
         // Kontener na wiadomości
         messageContainer = new VBox(4);
@@ -94,7 +103,7 @@ public class NetworkStatusBox extends VBox {
         setManaged(false);
     }
     
-    public NetworkStatusBox(com.kaluzaplotecka.milionerzy.network.NetworkManager networkManager) {
+    public NetworkStatusBox(NetworkManager networkManager) {
         this();
         if (networkManager != null) {
             networkManager.setSendingCallback(msg -> 
@@ -103,11 +112,21 @@ public class NetworkStatusBox extends VBox {
             networkManager.setAckCallback(msg -> 
                 javafx.application.Platform.runLater(() -> showConfirmed(msg.getType().toString())));
                 
-            networkManager.setNackCallback(msg -> 
-                javafx.application.Platform.runLater(() -> showError(msg.getType().toString(), "Błąd wysyłania"))); // Use NACK payload if available?
+            // Host odrzuca komendę od razu - pokaż graczowi powód z NACK
+            networkManager.setNackCallback((msg, reason) -> 
+                javafx.application.Platform.runLater(() -> showError(msg.getType().toString(), reason.getMessage())));
                 
             networkManager.setTimeoutCallback(msg -> 
                 javafx.application.Platform.runLater(() -> showTimeout(msg.getType().toString())));
+            
+            // Host pokazuje najgorszego klienta, klient - połączenie z hostem
+            networkManager.setHeartbeatCallback(snapshot -> {
+                PeerHealth.Snapshot shown = networkManager.getMode() == NetworkManager.Mode.HOST
+                    ? worstPeer(networkManager) : snapshot;
+                if (shown != null) {
+                    javafx.application.Platform.runLater(() -> showLatency(shown));
+                }
+            });
         }
     }
     
@@ -177,6 +196,38 @@ public class NetworkStatusBox extends VBox {
         showStatus(StatusType.RETRYING, actionName + " (próba " + attempt + ")");
     }
     
+    /**
+     * Pokazuje bieżący ping i jitter. Kolor zależy od stanu połączenia.
+     */
+    public void showLatency(PeerHealth.Snapshot snapshot) {
+        String color = switch (snapshot.status()) {
+            case HEALTHY -> "#27ae60";
+            case LAGGING -> "#f39c12";
+            case DEAD -> "#e74c3c";
+        };
+        String text;
+        if (snapshot.status() != PeerHealth.Status.HEALTHY || snapshot.lastRttMs() < 0) {
+            text = "brak odpowiedzi (" + snapshot.missedBeats() + ")";
+        } else {
+            text = String.format("%.0f ms ±%.0f", snapshot.meanRttMs(), snapshot.jitterMs());
+        }
+        latencyLabel.setText(text);
+        latencyLabel.setTextFill(Color.web(color));
+        checkVisibility();
+    }
+    
+    private static PeerHealth.Snapshot worstPeer(NetworkManager networkManager) {
+        PeerHealth.Snapshot worst = null;
+        for (PeerHealth.Snapshot peer : networkManager.getPeerHealth().values()) {
+            if (worst == null
+                    || peer.status().compareTo(worst.status()) > 0
+                    || (peer.status() == worst.status() && peer.meanRttMs() > worst.meanRttMs())) {
+                worst = peer;
+            }
+        }
+        return worst;
+    }
+    
     /**
      * Tworzy pojedynczy element statusu.
      */
@@ -247,7 +298,8 @@ public class NetworkStatusBox extends VBox {
      * Sprawdza czy box powinien być widoczny.
      */
     private void checkVisibility() {
-        boolean hasMessages = !messageContainer.getChildren().isEmpty();
+        boolean hasMessages = !messageContainer.getChildren().isEmpty()
+            || !latencyLabel.getText().isEmpty();
         setVisible(hasMessages);
         setManaged(hasMessages);
     }
@@ -1,6 +1,6 @@
 package com.kaluzaplotecka.milionerzy.view;
 
-import com.kaluzaplotecka.milionerzy.manager.SoundManager;
+import com.kaluzaplotecka.milionerzy.view.utils.SoundManager;
 import com.kaluzaplotecka.milionerzy.view.components.GameButton;
 import com.kaluzaplotecka.milionerzy.view.utils.UIConstants;
 import com.kaluzaplotecka.milionerzy.view.utils.ViewFactory;
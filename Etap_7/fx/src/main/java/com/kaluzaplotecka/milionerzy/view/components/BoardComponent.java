@@ -18,6 +18,8 @@ import javafx.scene.text.FontWeight;
 import javafx.scene.text.TextAlignment;
 import javafx.util.Duration;
 
+import com.kaluzaplotecka.milionerzy.model.BoardFactory;
+import com.kaluzaplotecka.milionerzy.model.GameSnapshot;
 import com.kaluzaplotecka.milionerzy.model.Player;
 import com.kaluzaplotecka.milionerzy.model.tiles.PropertyTile;
 import com.kaluzaplotecka.milionerzy.model.tiles.Tile;
@@ -39,62 +41,8 @@ public class BoardComponent extends StackPane {
     private static final double TILE_WIDTH = 50;
     private static final double TILE_HEIGHT = 75;
 
-    // Stała definicja pól planszy
-    private static final String[][] BOARD_TILES = {
-        // Dolna krawędź (od START w prawo)
-        {"START", "corner"},
-        {"Kielce\nCentrum", "property", "#8B4513", "60"},
-        {"Szansa", "chance"},
-        {"Kielce\nHerby", "property", "#8B4513", "60"},
-        {"Podatek\nDochodowy", "tax"},
-        {"Dworzec\nKielce", "railroad"},
-        {"Sandomierz", "property", "#87CEEB", "100"},
-        {"Szansa", "chance"},
-        {"Ostrowiec\nŚw.", "property", "#87CEEB", "100"},
-        {"Starachowice", "property", "#87CEEB", "120"},
-        
-        // Róg - Więzienie
-        {"WIĘZIENIE", "corner"},
-        
-        // Lewa krawędź (od Więzienia w górę)
-        {"Jędrzejów", "property", "#FF69B4", "140"},
-        {"Elektrownia", "utility"},
-        {"Busko-Zdrój", "property", "#FF69B4", "140"},
-        {"Pińczów", "property", "#FF69B4", "160"},
-        {"Dworzec\nSkarżysko", "railroad"},
-        {"Końskie", "property", "#FFA500", "180"},
-        {"Skarbonka", "chest"},
-        {"Skarżysko\nKamienna", "property", "#FFA500", "180"},
-        {"Suchedniów", "property", "#FFA500", "200"},
-        
-        // Róg - Darmowy Parking
-        {"DARMOWY\nPARKING", "corner"},
-        
-        // Górna krawędź (od Parkingu w prawo)
-        {"Chęciny", "property", "#FF0000", "220"},
-        {"Szansa", "chance"},
-        {"Piekoszów", "property", "#FF0000", "220"},
-        {"Morawica", "property", "#FF0000", "240"},
-        {"Dworzec\nStarachowice", "railroad"},
-        {"Włoszczowa", "property", "#FFFF00", "260"},
-        {"Wąchock", "property", "#FFFF00", "260"},
-        {"Wodociągi", "utility"},
-        {"Opatów", "property", "#FFFF00", "280"},
-        
-        // Róg - Idź do więzienia
-        {"IDŹ DO\nWIĘZIENIA", "corner"},
-        
-        // Prawa krawędź (od Idź do więzienia w dół)
-        {"Staszów", "property", "#008000", "300"},
-        {"Zagnańsk", "property", "#008000", "300"},
-        {"Skarbonka", "chest"},
-        {"Łagów", "property", "#008000", "320"},
-        {"Dworzec\nJędrzejów", "railroad"},
-        {"Szansa", "chance"},
-        {"Ciekoty", "property", "#00008B", "350"},
-        {"Podatek\nOd luksusu", "tax"},
-        {"Św. Katarzyna", "property", "#00008B", "400"}
-    };
+    // Definicja pól planszy (wspólna z modelem)
+    private static final String[][] BOARD_TILES = BoardFactory.getBoardTiles();
 
     private final Pane boardContainer;
     private final Pane playerLayer;
@@ -566,7 +514,7 @@ public class BoardComponent extends StackPane {
     }
 
     public static String[][] getBoardTiles() {
-        return BOARD_TILES;
+        return BoardFactory.getBoardTiles();
     }
     
     /**
@@ -577,36 +525,47 @@ public class BoardComponent extends StackPane {
         
         for (Tile t : tiles) {
             if (t instanceof PropertyTile pt) {
-                StackPane tileView = tileMap.get(pt.getPosition()); // getId() to pozycja
-                if (tileView != null) {
-                    // Znajdź ramkę (ownerBorder)
-                    tileView.getChildren().stream()
-                        .filter(n -> "ownerBorder".equals(n.getId()))
-                        .findFirst()
-                        .ifPresent(node -> {
-                            Rectangle border = (Rectangle) node;
-                            Player owner = pt.getOwner();
-                            if (owner != null) {
-                                // Ustalamy kolor właściciela.
-                                // Możemy to zrobić sprytniej mapując gracza na kolor, 
-                                // ale tutaj pobierzmy z paneli graczy lub przypiszmy (zasada 4 kolorów).
-                                // Ponieważ BoardComponent sam rysuje pionki i zna kolory:
-                                String color = getPlayerColor(owner);
-                                border.setStroke(Color.web(color));
-                            } else {
-                                border.setStroke(Color.TRANSPARENT);
-                            }
-                        });
-                }
+                setOwnerBorder(pt.getPosition(), pt.getOwner() != null ? pt.getOwner().getId() : null);
+            }
+        }
+    }
+
+    /**
+     * Odświeża ramki właścicieli na podstawie snapshotu stanu gry.
+     */
+    public void refreshTiles(GameSnapshot snapshot) {
+        if (snapshot == null) return;
+
+        for (GameSnapshot.TileSnapshot t : snapshot.tiles()) {
+            if (t.kind() == GameSnapshot.TileKind.PROPERTY) {
+                setOwnerBorder(t.position(), t.ownerId());
             }
         }
     }
+
+    private void setOwnerBorder(int position, String ownerId) {
+        StackPane tileView = tileMap.get(position); // getId() to pozycja
+        if (tileView == null) return;
+        // Znajdź ramkę (ownerBorder)
+        tileView.getChildren().stream()
+            .filter(n -> "ownerBorder".equals(n.getId()))
+            .findFirst()
+            .ifPresent(node -> {
+                Rectangle border = (Rectangle) node;
+                if (ownerId != null) {
+                    // Kolor właściciela - BoardComponent sam rysuje pionki i zna kolory
+                    border.setStroke(Color.web(getPlayerColor(ownerId)));
+                } else {
+                    border.setStroke(Color.TRANSPARENT);
+                }
+            });
+    }
     
-    private String getPlayerColor(Player p) {
+    private String getPlayerColor(String playerId) {
         // Znajdź index gracza w liście
         int idx = -1;
         for (int i=0; i<players.size(); i++) {
-             if (players.get(i).getId().equals(p.getId())) {
+             if (players.get(i).getId().equals(playerId)) {
                  idx = i;
                  break;
              }
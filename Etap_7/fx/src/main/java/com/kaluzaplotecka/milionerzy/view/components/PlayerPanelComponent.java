@@ -79,7 +79,11 @@ public class PlayerPanelComponent extends VBox {
     }
     
     public void update(Player p) {
-        moneyLabel.setText(String.format("%,d", p.getMoney()));
-        propertiesLabel.setText("🏠 " + p.getOwnedProperties().size() + " nieruchomości");
+        update(p.getMoney(), p.getOwnedProperties().size());
+    }
+
+    public void update(int money, int propertyCount) {
+        moneyLabel.setText(String.format("%,d", money));
+        propertiesLabel.setText("🏠 " + propertyCount + " nieruchomości");
     }
 }
@@ -1,4 +1,4 @@
-package com.kaluzaplotecka.milionerzy.manager;
+package com.kaluzaplotecka.milionerzy.view.utils;
 
 import javafx.scene.media.AudioClip;
 import java.net.URL;
@@ -1,4 +1,6 @@
 module com.kaluzaplotecka.milionerzy {
+    requires transitive com.kaluzaplotecka.milionerzy.net;
+
     requires javafx.controls;
     requires javafx.fxml;
     requires transitive javafx.graphics;
@@ -11,10 +13,5 @@ module com.kaluzaplotecka.milionerzy {
     opens com.kaluzaplotecka.milionerzy to javafx.fxml;
 
     exports com.kaluzaplotecka.milionerzy;
-    exports com.kaluzaplotecka.milionerzy.model;
     exports com.kaluzaplotecka.milionerzy.view;
-    exports com.kaluzaplotecka.milionerzy.events;
-    exports com.kaluzaplotecka.milionerzy.network;
-    exports com.kaluzaplotecka.milionerzy.model.tiles;
-    exports com.kaluzaplotecka.milionerzy.model.cards;
-}
\ No newline at end of file
+}
@@ -0,0 +1,130 @@
+package com.kaluzaplotecka.milionerzy.loadtest;
+
+import java.util.Locale;
+
+/**
+ * Histogram opóźnień o stałym rozmiarze do liczenia percentyli.
+ *
+ * <p>Pomiary (w mikrosekundach) trafiają do kubełków logarytmiczno-liniowych:
+ * wartości poniżej {@value #LINEAR_BUCKETS} µs mają własne kubełki, a każdy
+ * kolejny przedział potęgi dwójki dzieli się na {@value #SUB_BUCKETS} równe
+ * części. Błąd percentyla to najwyżej ~3%, a pamięć nie rośnie z liczbą
+ * pomiarów - generator może mierzyć godzinami.
+ *
+ * <p>Każdy klient ma własny histogram, łączony po teście przez
+ * {@link #merge(LatencyHistogram)}.
+ */
+public final class LatencyHistogram {
+
+    private static final int SUB_BUCKET_BITS = 5;
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+    private static final int LINEAR_BUCKETS = 2 * SUB_BUCKETS;
+    // Wartości od 2^40 µs (ponad 12 dni) trafiają do ostatniego kubełka
+    private static final int MAX_EXPONENT = 40;
+    private static final int BUCKETS = LINEAR_BUCKETS + (MAX_EXPONENT - SUB_BUCKET_BITS - 1) * SUB_BUCKETS;
+
+    private final long[] counts = new long[BUCKETS];
+    private long count;
+    private long sumMicros;
+    private long minMicros = Long.MAX_VALUE;
+    private long maxMicros;
+
+    /**
+     * Dodaje pomiar.
+     *
+     * @param nanos opóźnienie w nanosekundach (ujemne są pomijane)
+     */
+    public synchronized void record(long nanos) {
+        if (nanos < 0) return;
+        long micros = nanos / 1000;
+        counts[bucketOf(micros)]++;
+        count++;
+        sumMicros += micros;
+        if (micros < minMicros) minMicros = micros;
+        if (micros > maxMicros) maxMicros = micros;
+    }
+
+    /**
+     * Dodaje wszystkie pomiary z innego histogramu.
+     */
+    public void merge(LatencyHistogram other) {
+        long[] otherCounts;
+        long otherCount, otherSum, otherMin, otherMax;
+        synchronized (other) {
+            otherCounts = other.counts.clone();
+            otherCount = other.count;
+            otherSum = other.sumMicros;
+            otherMin = other.minMicros;
+            otherMax = other.maxMicros;
+        }
+        synchronized (this) {
+            for (int i = 0; i < BUCKETS; i++) counts[i] += otherCounts[i];
+            count += otherCount;
+            sumMicros += otherSum;
+            minMicros = Math.min(minMicros, otherMin);
+            maxMicros = Math.max(maxMicros, otherMax);
+        }
+    }
+
+    public synchronized long getCount() { return count; }
+
+    /**
+     * Zwraca percentyl w milisekundach (0 bez pomiarów).
+     *
+     * @param percentile od 0 do 100, np. 99.9
+     */
+    public synchronized double percentileMs(double percentile) {
+        if (count == 0) return 0;
+        long rank = Math.max(1, (long) Math.ceil(percentile / 100.0 * count));
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += counts[i];
+            if (seen >= rank) {
+                // Środek kubełka, ale nie poza zakresem zmierzonych wartości
+                long value = Math.clamp(midpointOf(i), minMicros, maxMicros);
+                return value / 1000.0;
+            }
+        }
+        return maxMicros / 1000.0;
+    }
+
+    public synchronized double minMs() { return count == 0 ? 0 : minMicros / 1000.0; }
+    public synchronized double maxMs() { return maxMicros / 1000.0; }
+    public synchronized double meanMs() { return count == 0 ? 0 : sumMicros / 1000.0 / count; }
+
+    /**
+     * Zapisuje podsumowanie jako obiekt JSON (liczba pomiarów, min, średnia,
+     * p50, p90, p99, p99.9, max - w milisekundach).
+     */
+    public synchronized String toJson() {
+        return String.format(Locale.ROOT,
+            "{\"count\": %d, \"min\": %.3f, \"mean\": %.3f, \"p50\": %.3f, \"p90\": %.3f, "
+                + "\"p99\": %.3f, \"p999\": %.3f, \"max\": %.3f}",
+            count, minMs(), meanMs(), percentileMs(50), percentileMs(90),
+            percentileMs(99), percentileMs(99.9), maxMs());
+    }
+
+    @Override
+    public synchronized String toString() {
+        return String.format(Locale.ROOT, "n=%d p50=%.2f ms p90=%.2f ms p99=%.2f ms max=%.2f ms",
+            count, percentileMs(50), percentileMs(90), percentileMs(99), maxMs());
+    }
+
+    // === KUBEŁKI ===
+
+    private static int bucketOf(long micros) {
+        if (micros < LINEAR_BUCKETS) return (int) micros;
+        int exponent = 63 - Long.numberOfLeadingZeros(micros);
+        if (exponent >= MAX_EXPONENT) return BUCKETS - 1;
+        int sub = (int) (micros >>> (exponent - SUB_BUCKET_BITS)) & (SUB_BUCKETS - 1);
+        return LINEAR_BUCKETS + (exponent - SUB_BUCKET_BITS - 1) * SUB_BUCKETS + sub;
+    }
+
+    private static long midpointOf(int bucket) {
+        if (bucket < LINEAR_BUCKETS) return bucket;
+        int exponent = (bucket - LINEAR_BUCKETS) / SUB_BUCKETS + SUB_BUCKET_BITS + 1;
+        int sub = (bucket - LINEAR_BUCKETS) % SUB_BUCKETS;
+        long width = 1L << (exponent - SUB_BUCKET_BITS);
+        return (1L << exponent) + sub * width + width / 2;
+    }
+}
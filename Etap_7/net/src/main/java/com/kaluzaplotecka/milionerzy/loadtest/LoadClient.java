@@ -0,0 +1,306 @@
+package com.kaluzaplotecka.milionerzy.loadtest;
+
+import java.io.IOException;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import com.kaluzaplotecka.milionerzy.model.Auction;
+import com.kaluzaplotecka.milionerzy.model.GameState;
+import com.kaluzaplotecka.milionerzy.model.Player;
+import com.kaluzaplotecka.milionerzy.model.tiles.PropertyTile;
+import com.kaluzaplotecka.milionerzy.model.tiles.Tile;
+import com.kaluzaplotecka.milionerzy.network.ClientStateSync;
+import com.kaluzaplotecka.milionerzy.network.CommandBatch;
+import com.kaluzaplotecka.milionerzy.network.GameMessage;
+import com.kaluzaplotecka.milionerzy.network.NetworkManager;
+import com.kaluzaplotecka.milionerzy.network.PendingMessageTracker;
+import com.kaluzaplotecka.milionerzy.network.RejectReason;
+import com.kaluzaplotecka.milionerzy.network.Transport;
+
+/**
+ * Klient bez interfejsu generujący ruch w jednym pokoju.
+ *
+ * <p>Trzyma kopię stanu przez {@link ClientStateSync} i przy każdym takcie
+ * ({@link #tick()}) wybiera losowo legalną akcję: rzut w swojej turze, zakup
+ * albo rezygnację (aukcja) na wolnej nieruchomości, ofertę lub pas w aukcji,
+ * koniec tury. Naraz ma najwyżej jedną niepotwierdzoną akcję - następną
+ * wybiera dopiero na stanie, który już ją uwzględnia. Z
+ * {@link #setBatchTurns(boolean)} całą turę wysyła jedną paczką komend
+ * ({@link CommandBatch}) - bez aukcji po rezygnacji z zakupu.
+ *
+ * <p>Mierzy dwa opóźnienia każdej akcji: do ACK/NACK hosta i do pierwszej
+ * aktualizacji stanu, która ją zawiera (wersja stanu wyższa niż przy
+ * wysłaniu). W aukcji aktualizacja może pochodzić od oferty innego gracza,
+ * więc drugi pomiar jest tam przybliżony.
+ */
+public class LoadClient {
+
+    // Prawdopodobieństwa decyzji losowych
+    private static final double BUY_PROBABILITY = 0.7;
+    private static final double BID_PROBABILITY = 0.5;
+
+    // Akcja bez potwierdzenia albo zmiany stanu przez tyle czasu jest porzucana
+    private static final long STALL_NANOS = TimeUnit.SECONDS.toNanos(5);
+
+    private final String playerId;
+    private final String roomCode;
+    private final boolean owner;
+    private final int playersPerRoom;
+    private final Random random;
+    private final NetworkManager network;
+    private final ClientStateSync sync;
+
+    private final LatencyHistogram ackLatency = new LatencyHistogram();
+    private final LatencyHistogram stateLatency = new LatencyHistogram();
+    private final Map<RejectReason, Long> rejectReasons = new EnumMap<>(RejectReason.class);
+
+    // Bieżąca akcja - chronione blokadą klienta
+    private GameMessage pending;
+    private long pendingSentAt;
+    private long pendingVersion;
+    private boolean pendingAnswered;
+    private boolean pendingApplied;
+    private boolean declinedThisTurn;
+    private boolean batchTurns;
+    private boolean startRequested;
+    private boolean measuring;
+
+    // Liczniki - chronione blokadą klienta
+    private long sent;
+    private long acknowledged;
+    private long rejected;
+    private long timeouts;
+    private long stalled;
+
+    /**
+     * @param owner czy klient zakłada pokój (rozpoczyna grę po zebraniu graczy)
+     * @param seed ziarno decyzji klienta
+     */
+    public LoadClient(String playerId, String roomCode, boolean owner, int playersPerRoom,
+                      long seed, boolean virtualThreads) {
+        this.playerId = playerId;
+        this.roomCode = roomCode;
+        this.owner = owner;
+        this.playersPerRoom = playersPerRoom;
+        this.random = new Random(seed);
+        this.network = new NetworkManager(playerId, virtualThreads);
+        this.sync = new ClientStateSync(network);
+
+        network.setMessageHandler(this::onMessage);
+        network.setAckCallback(this::onAck);
+        network.setNackCallback(this::onNack);
+        network.setTimeoutCallback(this::onTimeout);
+    }
+
+    public void setTransport(Transport transport) {
+        network.setTransport(transport);
+    }
+
+    /**
+     * Ustawia wysyłanie całej tury jedną paczką komend (przed połączeniem).
+     */
+    public synchronized void setBatchTurns(boolean batchTurns) {
+        this.batchTurns = batchTurns;
+    }
+
+    /**
+     * Łączy się z hostem i dołącza do pokoju.
+     */
+    public void connect(String host, int port) throws IOException {
+        network.connectToHost(host, port, "Bot " + playerId, roomCode);
+    }
+
+    /**
+     * Włącza wykonywanie akcji i pomiary (po starcie gier we wszystkich pokojach).
+     */
+    public synchronized void startMeasuring() {
+        measuring = true;
+    }
+
+    /**
+     * Kończy wykonywanie akcji i rozłącza klienta.
+     */
+    public void stop() {
+        synchronized (this) {
+            measuring = false;
+        }
+        network.stop();
+    }
+
+    // === ODBIÓR ===
+
+    private synchronized void onMessage(GameMessage msg) {
+        if (msg.getType() == GameMessage.MessageType.PLAYER_LIST) {
+            // Serwer bez automatycznego startu czeka na START_GAME od założyciela
+            if (owner && !startRequested && msg.getPayload() instanceof List<?> lobby
+                    && lobby.size() >= playersPerRoom) {
+                startRequested = true;
+                network.send(new GameMessage(GameMessage.MessageType.START_GAME, playerId, null));
+            }
+            return;
+        }
+        if (sync.handle(msg) && pending != null && !pendingApplied
+                && sync.getState().getStateVersion() > pendingVersion) {
+            pendingApplied = true;
+            stateLatency.record(System.nanoTime() - pendingSentAt);
+            completeIfDone();
+        }
+    }
+
+    private synchronized void onAck(GameMessage msg) {
+        if (!isPending(msg)) return;
+        acknowledged++;
+        pendingAnswered = true;
+        ackLatency.record(System.nanoTime() - pendingSentAt);
+        completeIfDone();
+    }
+
+    private synchronized void onNack(GameMessage msg, RejectReason reason) {
+        if (!isPending(msg)) return;
+        // Paczka przerwana po części kroków zmieniła stan - akcja się odbyła
+        if (msg.getStepsApplied() > 0) {
+            acknowledged++;
+        } else {
+            rejected++;
+        }
+        rejectReasons.merge(reason, 1L, Long::sum);
+        ackLatency.record(System.nanoTime() - pendingSentAt);
+        pending = null;
+    }
+
+    private synchronized void onTimeout(GameMessage msg) {
+        if (!isPending(msg)) return;
+        timeouts++;
+        pending = null;
+    }
+
+    private boolean isPending(GameMessage msg) {
+        return pending != null && msg.getSequence() == pending.getSequence();
+    }
+
+    private void completeIfDone() {
+        if (pendingAnswered && pendingApplied) pending = null;
+    }
+
+    // === AKCJE ===
+
+    /**
+     * Wykonuje legalną akcję, jeśli klient ma ruch i nie czeka na poprzednią.
+     */
+    public synchronized void tick() {
+        if (!measuring) return;
+        if (pending != null) {
+            if (System.nanoTime() - pendingSentAt > STALL_NANOS) {
+                // ACK przyszedł, ale zmiana stanu nie (albo odwrotnie)
+                stalled++;
+                pending = null;
+            }
+            return;
+        }
+        GameState state = sync.getState();
+        if (state == null || state.isGameOver()) return;
+        GameMessage action = chooseAction(state);
+        if (action == null) return;
+
+        pending = action;
+        pendingSentAt = System.nanoTime();
+        pendingVersion = state.getStateVersion();
+        pendingAnswered = false;
+        pendingApplied = false;
+        sent++;
+        network.send(action);
+    }
+
+    private GameMessage chooseAction(GameState state) {
+        Player me = findPlayer(state);
+        if (me == null) return null;  // bankrut
+
+        if (state.hasActiveAuction()) {
+            Auction auction = state.getCurrentAuction();
+            if (!auction.getParticipants().contains(me) || auction.getPassedPlayers().contains(me)
+                    || me.equals(auction.getHighestBidder())) {
+                return null;
+            }
+            int bid = auction.getMinimumAcceptableBid();
+            if (me.getMoney() >= bid && random.nextDouble() < BID_PROBABILITY) {
+                return action(GameMessage.MessageType.AUCTION_BID, bid);
+            }
+            return action(GameMessage.MessageType.AUCTION_PASS, null);
+        }
+
+        Player current = state.getCurrentPlayer();
+        if (current == null || !current.getId().equals(playerId)) return null;
+        if (!state.hasRolled()) {
+            declinedThisTurn = false;
+            if (batchTurns) return turnBatch();
+            return action(GameMessage.MessageType.ROLL_DICE, null);
+        }
+        Tile tile = state.getCurrentTile();
+        if (tile instanceof PropertyTile property && !property.isOwned() && !declinedThisTurn) {
+            if (state.canCurrentPlayerBuy() && random.nextDouble() < BUY_PROBABILITY) {
+                return action(GameMessage.MessageType.BUY_PROPERTY, null);
+            }
+            // Jedna aukcja na turę - po aukcji bez zwycięzcy pole zostaje wolne
+            declinedThisTurn = true;
+            return action(GameMessage.MessageType.DECLINE_PURCHASE, null);
+        }
+        return action(GameMessage.MessageType.END_TURN, null);
+    }
+
+    /**
+     * Tura w jednej wiadomości: rzut, zakup wolnego pola (z
+     * prawdopodobieństwem jak przy pojedynczych akcjach) i koniec tury.
+     */
+    private GameMessage turnBatch() {
+        CommandBatch batch = new CommandBatch().then(GameMessage.MessageType.ROLL_DICE);
+        if (random.nextDouble() < BUY_PROBABILITY) {
+            batch.thenIf(CommandBatch.Condition.CAN_BUY, 0, GameMessage.MessageType.BUY_PROPERTY);
+        }
+        return batch.thenIf(CommandBatch.Condition.MY_TURN, 0, GameMessage.MessageType.END_TURN)
+            .toMessage(playerId);
+    }
+
+    private GameMessage action(GameMessage.MessageType type, Object payload) {
+        return new GameMessage(type, playerId, payload);
+    }
+
+    private Player findPlayer(GameState state) {
+        for (Player p : state.getPlayers()) {
+            if (p.getId().equals(playerId)) return p;
+        }
+        return null;
+    }
+
+    // === WYNIKI ===
+
+    /**
+     * Zwraca czy gra w pokoju klienta się zakończyła.
+     */
+    public synchronized boolean isGameOver() {
+        GameState state = sync.getState();
+        return state != null && state.isGameOver();
+    }
+
+    /**
+     * Zwraca czy klient dostał stan gry (gra w pokoju wystartowała).
+     */
+    public synchronized boolean isInGame() {
+        return sync.getState() != null;
+    }
+
+    public synchronized long getSent() { return sent; }
+    public synchronized long getAcknowledged() { return acknowledged; }
+    public synchronized long getRejected() { return rejected; }
+    public synchronized long getTimeouts() { return timeouts; }
+    public synchronized long getStalled() { return stalled; }
+    public synchronized long getDesyncCount() { return sync.getDesyncCount(); }
+    public synchronized Map<RejectReason, Long> getRejectReasons() { return new EnumMap<>(rejectReasons); }
+    public LatencyHistogram getAckLatency() { return ackLatency; }
+    public LatencyHistogram getStateLatency() { return stateLatency; }
+    public PendingMessageTracker.Stats getRetransmitStats() { return network.getRetransmitStats(); }
+    public String getPlayerId() { return playerId; }
+    public String getRoomCode() { return roomCode; }
+}
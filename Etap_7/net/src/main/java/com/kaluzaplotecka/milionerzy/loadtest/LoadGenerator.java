@@ -0,0 +1,167 @@
+package com.kaluzaplotecka.milionerzy.loadtest;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import com.kaluzaplotecka.milionerzy.network.RejectReason;
+import com.kaluzaplotecka.milionerzy.network.Transport;
+
+/**
+ * Generator obciążenia: {@code rooms × playersPerRoom} klientów
+ * ({@link LoadClient}) gra jednocześnie przeciw jednemu hostowi.
+ *
+ * <p>Przebieg: wszyscy klienci łączą się i dołączają do pokoi
+ * {@code LOAD-0}, {@code LOAD-1}..., założyciel każdego pokoju rozpoczyna
+ * grę, a po starcie gier (albo po {@value #START_TIMEOUT_SECONDS} s) przez
+ * {@code durationSeconds} każdy klient dostaje takty w tempie
+ * {@code actionsPerSecond}. Na koniec liczniki i histogramy klientów są
+ * łączone w {@link LoadReport}.
+ *
+ * <p>Takty wszystkich klientów obsługuje jedna mała pula wątków - samo
+ * taktowanie nie wymaga wątku na klienta. Wątki sieci klientów to wątki
+ * {@link com.kaluzaplotecka.milionerzy.network.NetworkManager} (przy
+ * tysiącach klientów warto włączyć wątki wirtualne).
+ *
+ * @see LoadTestConfig
+ */
+public class LoadGenerator {
+
+    /** Prefiks kodów pokoi generatora. */
+    public static final String ROOM_PREFIX = "LOAD-";
+
+    private static final long START_TIMEOUT_SECONDS = 10;
+
+    private final LoadTestConfig config;
+    private Transport transport;
+
+    public LoadGenerator(LoadTestConfig config) {
+        this.config = config;
+    }
+
+    /**
+     * Ustawia transport klientów (domyślnie TCP; w pamięci - dla hosta
+     * w tym samym procesie).
+     */
+    public void setTransport(Transport transport) {
+        this.transport = transport;
+    }
+
+    /**
+     * Wykonuje przebieg i zwraca raport. Blokuje na czas testu.
+     */
+    public LoadReport run() throws InterruptedException {
+        List<LoadClient> clients = createClients();
+        int connectErrors = connectAll(clients);
+        waitForGames(clients);
+
+        int threads = Math.clamp(Runtime.getRuntime().availableProcessors() / 2, 1, 4);
+        ScheduledExecutorService ticker = Executors.newScheduledThreadPool(threads,
+            Thread.ofPlatform().name("milionerzy-load-", 0).daemon(true).factory());
+        long periodMicros = Math.max(1, Math.round(1_000_000 / config.getActionsPerSecond()));
+        Random offsets = new Random(config.getSeed());
+
+        System.out.println("Pomiar: " + clients.size() + " klientów przez " + config.getDurationSeconds() + " s");
+        long startedAt = System.nanoTime();
+        for (LoadClient client : clients) {
+            client.startMeasuring();
+            // Rozłożenie taktów w okresie - klienci nie ruszają jednocześnie
+            long offset = (long) (offsets.nextDouble() * periodMicros);
+            ticker.scheduleAtFixedRate(() -> {
+                try {
+                    client.tick();
+                } catch (RuntimeException e) {
+                    // Wyjątek zatrzymałby takty klienta do końca testu
+                    System.err.println("Błąd klienta " + client.getPlayerId() + ": " + e);
+                }
+            }, offset, periodMicros, TimeUnit.MICROSECONDS);
+        }
+        try {
+            TimeUnit.SECONDS.sleep(config.getDurationSeconds());
+        } finally {
+            ticker.shutdownNow();
+        }
+        double elapsedSeconds = (System.nanoTime() - startedAt) / 1e9;
+
+        LoadReport report = collect(clients, connectErrors, elapsedSeconds);
+        for (LoadClient client : clients) client.stop();
+        return report;
+    }
+
+    private List<LoadClient> createClients() {
+        List<LoadClient> clients = new ArrayList<>();
+        long baseSeed = config.getSeed() != 0 ? config.getSeed() : System.nanoTime();
+        for (int room = 0; room < config.getRooms(); room++) {
+            for (int i = 0; i < config.getPlayersPerRoom(); i++) {
+                LoadClient client = new LoadClient("load-" + room + "-" + i, ROOM_PREFIX + room, i == 0,
+                    config.getPlayersPerRoom(), baseSeed + clients.size(), config.isVirtualThreads());
+                if (transport != null) client.setTransport(transport);
+                client.setBatchTurns(config.isBatchTurns());
+                clients.add(client);
+            }
+        }
+        return clients;
+    }
+
+    /**
+     * Łączy klientów po kolei (założyciel pokoju pierwszy).
+     *
+     * @return liczba nieudanych połączeń
+     */
+    private int connectAll(List<LoadClient> clients) {
+        int errors = 0;
+        for (LoadClient client : clients) {
+            try {
+                client.connect(config.getHost(), config.getPort());
+            } catch (IOException e) {
+                errors++;
+                System.err.println("Klient " + client.getPlayerId() + " nie połączył się: " + e.getMessage());
+            }
+        }
+        return errors;
+    }
+
+    private void waitForGames(List<LoadClient> clients) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(START_TIMEOUT_SECONDS);
+        while (System.nanoTime() < deadline) {
+            if (clients.stream().allMatch(LoadClient::isInGame)) return;
+            Thread.sleep(50);
+        }
+        long waiting = clients.stream().filter(c -> !c.isInGame()).count();
+        System.err.println("Gra nie wystartowała dla " + waiting + " klientów - pomiar bez nich");
+    }
+
+    private LoadReport collect(List<LoadClient> clients, int connectErrors, double elapsedSeconds) {
+        LatencyHistogram ackLatency = new LatencyHistogram();
+        LatencyHistogram stateLatency = new LatencyHistogram();
+        Map<RejectReason, Long> reasons = new EnumMap<>(RejectReason.class);
+        Set<String> started = new HashSet<>();
+        Set<String> finished = new HashSet<>();
+        long sent = 0, acknowledged = 0, rejected = 0, timeouts = 0, stalled = 0, retries = 0, desyncs = 0;
+        for (LoadClient client : clients) {
+            ackLatency.merge(client.getAckLatency());
+            stateLatency.merge(client.getStateLatency());
+            client.getRejectReasons().forEach((reason, count) -> reasons.merge(reason, count, Long::sum));
+            if (client.isInGame()) started.add(client.getRoomCode());
+            if (client.isGameOver()) finished.add(client.getRoomCode());
+            sent += client.getSent();
+            acknowledged += client.getAcknowledged();
+            rejected += client.getRejected();
+            timeouts += client.getTimeouts();
+            stalled += client.getStalled();
+            retries += client.getRetransmitStats().retries();
+            desyncs += client.getDesyncCount();
+        }
+        return new LoadReport(config, elapsedSeconds, clients.size(), connectErrors, started.size(),
+            finished.size(), sent, acknowledged, rejected, timeouts, stalled, retries, desyncs,
+            reasons, ackLatency, stateLatency);
+    }
+}
@@ -0,0 +1,113 @@
+package com.kaluzaplotecka.milionerzy.loadtest;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.EnumMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.StringJoiner;
+
+import com.kaluzaplotecka.milionerzy.network.RejectReason;
+
+/**
+ * Wynik przebiegu generatora obciążenia.
+ *
+ * <p>{@link #toJson()} daje raport do dalszej obróbki (planowanie pojemności,
+ * porównania między wersjami), {@link #toString()} - krótkie podsumowanie
+ * na konsolę. Opóźnienia są w milisekundach.
+ *
+ * @param config konfiguracja przebiegu
+ * @param elapsedSeconds rzeczywisty czas pomiaru
+ * @param clients liczba klientów
+ * @param connectErrors klienci, którzy nie połączyli się z hostem
+ * @param roomsStarted pokoje, w których gra wystartowała
+ * @param gamesFinished pokoje, w których gra dobiegła końca w trakcie pomiaru
+ * @param sent wysłane akcje
+ * @param acknowledged akcje potwierdzone (ACK)
+ * @param rejected akcje odrzucone (NACK)
+ * @param timeouts akcje bez odpowiedzi po wszystkich ponowieniach
+ * @param stalled akcje porzucone bez potwierdzenia lub zmiany stanu
+ * @param retries ponowne wysłania wiadomości
+ * @param desyncs wykryte rozjazdy stanu klientów z hostem
+ * @param rejectReasons odrzucenia według powodu
+ * @param ackLatency opóźnienie akcja -> ACK/NACK
+ * @param stateLatency opóźnienie akcja -> aktualizacja stanu
+ */
+public record LoadReport(LoadTestConfig config, double elapsedSeconds, int clients, int connectErrors,
+                         int roomsStarted, int gamesFinished, long sent, long acknowledged, long rejected,
+                         long timeouts, long stalled, long retries, long desyncs,
+                         Map<RejectReason, Long> rejectReasons,
+                         LatencyHistogram ackLatency, LatencyHistogram stateLatency) {
+
+    public LoadReport {
+        rejectReasons = rejectReasons.isEmpty()
+            ? new EnumMap<>(RejectReason.class) : new EnumMap<>(rejectReasons);
+    }
+
+    /**
+     * Zwraca przepustowość - potwierdzone akcje na sekundę.
+     */
+    public double throughput() {
+        return elapsedSeconds > 0 ? acknowledged / elapsedSeconds : 0;
+    }
+
+    /**
+     * Zwraca liczbę błędów: nieudane połączenia, odrzucenia, timeouty
+     * i porzucone akcje.
+     */
+    public long errors() {
+        return connectErrors + rejected + timeouts + stalled;
+    }
+
+    /**
+     * Zapisuje raport jako JSON.
+     */
+    public String toJson() {
+        StringJoiner reasons = new StringJoiner(", ", "{", "}");
+        rejectReasons.forEach((reason, count) -> reasons.add("\"" + reason.name() + "\": " + count));
+        return String.format(Locale.ROOT, """
+            {
+              "config": %s,
+              "elapsedSeconds": %.3f,
+              "clients": %d,
+              "connectErrors": %d,
+              "roomsStarted": %d,
+              "gamesFinished": %d,
+              "actions": {"sent": %d, "acknowledged": %d, "rejected": %d, "timeouts": %d, "stalled": %d},
+              "throughputPerSecond": %.3f,
+              "errors": %d,
+              "retries": %d,
+              "desyncs": %d,
+              "rejectReasons": %s,
+              "ackLatencyMs": %s,
+              "stateLatencyMs": %s
+            }
+            """,
+            config.toJson(), elapsedSeconds, clients, connectErrors, roomsStarted, gamesFinished,
+            sent, acknowledged, rejected, timeouts, stalled, throughput(), errors(), retries, desyncs,
+            reasons, ackLatency.toJson(), stateLatency.toJson());
+    }
+
+    /**
+     * Zapisuje raport JSON do pliku.
+     */
+    public void write(Path file) throws IOException {
+        Path parent = file.toAbsolutePath().getParent();
+        if (parent != null) Files.createDirectories(parent);
+        Files.writeString(file, toJson(), StandardCharsets.UTF_8);
+    }
+
+    @Override
+    public String toString() {
+        return String.format(Locale.ROOT,
+            "Klienci: %d (błędy połączenia: %d), pokoje: %d, czas: %.1f s%n"
+                + "Akcje: wysłane %d, ACK %d, NACK %d, timeout %d, porzucone %d - %.1f akcji/s%n"
+                + "Akcja -> ACK:   %s%n"
+                + "Akcja -> stan:  %s",
+            clients, connectErrors, roomsStarted, elapsedSeconds,
+            sent, acknowledged, rejected, timeouts, stalled, throughput(),
+            ackLatency, stateLatency);
+    }
+}
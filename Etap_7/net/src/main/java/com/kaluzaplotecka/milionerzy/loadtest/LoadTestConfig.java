@@ -0,0 +1,232 @@
+package com.kaluzaplotecka.milionerzy.loadtest;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Locale;
+import java.util.Properties;
+
+import com.kaluzaplotecka.milionerzy.network.NetworkManager;
+import com.kaluzaplotecka.milionerzy.network.NetworkThreads;
+
+/**
+ * Konfiguracja generatora obciążenia.
+ *
+ * <p>Wczytywana z pliku {@code .properties}; brakujące klucze mają wartości
+ * domyślne:
+ * <pre>
+ * host=localhost
+ * port=5555
+ * rooms=10
+ * playersPerRoom=4
+ * actionsPerSecond=2
+ * durationSeconds=60
+ * seed=0
+ * virtualThreads=false
+ * batchTurns=false
+ * report=loadtest-report.json
+ * embedded=false
+ * embedded.inMemory=false
+ * embedded.lockstep=false
+ * </pre>
+ *
+ * <p>{@code actionsPerSecond} to górna granica tempa każdego klienta - klient
+ * działa tylko wtedy, gdy ma legalny ruch (swoja tura albo aukcja), więc
+ * pokój wykonuje najwyżej tyle akcji na sekundę. {@code seed} różny od 0
+ * powtarza te same decyzje klientów. {@code batchTurns=true} wysyła całą
+ * turę (rzut, zakup, koniec tury) jedną paczką komend. Z {@code embedded=true} generator sam
+ * uruchamia serwer dedykowany na {@code port} (z {@code embedded.inMemory}
+ * - w pamięci, bez TCP).
+ *
+ * @see LoadGenerator
+ */
+public class LoadTestConfig {
+
+    /** Plik konfiguracji szukany w katalogu roboczym, gdy nie podano innego. */
+    public static final String DEFAULT_FILE = "loadtest.properties";
+
+    private String host = "localhost";
+    private int port = NetworkManager.DEFAULT_PORT;
+    private int rooms = 10;
+    private int playersPerRoom = 4;
+    private double actionsPerSecond = 2;
+    private long durationSeconds = 60;
+    private long seed = 0;
+    private boolean virtualThreads = NetworkThreads.virtualThreadsByDefault();
+    private boolean batchTurns = false;
+    private Path report = Path.of("loadtest-report.json");
+    private boolean embedded = false;
+    private boolean embeddedInMemory = false;
+    private boolean embeddedLockstep = false;
+
+    /**
+     * Wczytuje konfigurację z pliku.
+     *
+     * @throws IOException gdy nie da się odczytać pliku
+     * @throws IllegalArgumentException gdy wartość jest nieprawidłowa
+     */
+    public static LoadTestConfig load(Path file) throws IOException {
+        Properties properties = new Properties();
+        try (Reader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            properties.load(reader);
+        }
+        return fromProperties(properties);
+    }
+
+    /**
+     * Tworzy konfigurację z właściwości (klucze jak w opisie klasy).
+     *
+     * @throws IllegalArgumentException gdy wartość jest nieprawidłowa
+     */
+    public static LoadTestConfig fromProperties(Properties properties) {
+        LoadTestConfig config = new LoadTestConfig();
+        config.setHost(properties.getProperty("host", config.host).trim());
+        config.setPort((int) longValue(properties, "port", config.port));
+        config.setRooms((int) longValue(properties, "rooms", config.rooms));
+        config.setPlayersPerRoom((int) longValue(properties, "playersPerRoom", config.playersPerRoom));
+        config.setActionsPerSecond(doubleValue(properties, "actionsPerSecond", config.actionsPerSecond));
+        config.setDurationSeconds(longValue(properties, "durationSeconds", config.durationSeconds));
+        config.setSeed(longValue(properties, "seed", config.seed));
+        config.setVirtualThreads(booleanValue(properties, "virtualThreads", config.virtualThreads));
+        config.setBatchTurns(booleanValue(properties, "batchTurns", config.batchTurns));
+        String report = properties.getProperty("report");
+        if (report != null && !report.isBlank()) {
+            config.setReport(Path.of(report.trim()));
+        }
+        config.setEmbedded(booleanValue(properties, "embedded", config.embedded));
+        config.setEmbeddedInMemory(booleanValue(properties, "embedded.inMemory", config.embeddedInMemory));
+        config.setEmbeddedLockstep(booleanValue(properties, "embedded.lockstep", config.embeddedLockstep));
+        return config;
+    }
+
+    private static long longValue(Properties properties, String key, long defaultValue) {
+        String value = properties.getProperty(key);
+        if (value == null || value.isBlank()) return defaultValue;
+        try {
+            return Long.parseLong(value.trim());
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Nieprawidłowa wartość " + key + ": " + value);
+        }
+    }
+
+    private static double doubleValue(Properties properties, String key, double defaultValue) {
+        String value = properties.getProperty(key);
+        if (value == null || value.isBlank()) return defaultValue;
+        try {
+            return Double.parseDouble(value.trim());
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Nieprawidłowa wartość " + key + ": " + value);
+        }
+    }
+
+    private static boolean booleanValue(Properties properties, String key, boolean defaultValue) {
+        return Boolean.parseBoolean(properties.getProperty(key, String.valueOf(defaultValue)).trim());
+    }
+
+    /**
+     * Zapisuje konfigurację jako obiekt JSON (do raportu).
+     */
+    public String toJson() {
+        return String.format(Locale.ROOT,
+            "{\"host\": \"%s\", \"port\": %d, \"rooms\": %d, \"playersPerRoom\": %d, "
+                + "\"actionsPerSecond\": %.3f, \"durationSeconds\": %d, \"seed\": %d, \"batchTurns\": %b, "
+                + "\"embedded\": %b, \"embeddedInMemory\": %b, \"embeddedLockstep\": %b}",
+            host.replace("\\", "\\\\").replace("\"", "\\\""), port, rooms, playersPerRoom,
+            actionsPerSecond, durationSeconds, seed, batchTurns, embedded, embeddedInMemory, embeddedLockstep);
+    }
+
+    // === GETTERY I SETTERY ===
+
+    public String getHost() { return host; }
+    public int getPort() { return port; }
+    public int getRooms() { return rooms; }
+    public int getPlayersPerRoom() { return playersPerRoom; }
+    public double getActionsPerSecond() { return actionsPerSecond; }
+    public long getDurationSeconds() { return durationSeconds; }
+    public long getSeed() { return seed; }
+    public boolean isVirtualThreads() { return virtualThreads; }
+    public boolean isBatchTurns() { return batchTurns; }
+    public Path getReport() { return report; }
+    public boolean isEmbedded() { return embedded; }
+    public boolean isEmbeddedInMemory() { return embeddedInMemory; }
+    public boolean isEmbeddedLockstep() { return embeddedLockstep; }
+
+    public void setHost(String host) {
+        if (host == null || host.isBlank()) throw new IllegalArgumentException("host nie może być pusty");
+        this.host = host;
+    }
+
+    public void setPort(int port) {
+        if (port < 1 || port > 65535) throw new IllegalArgumentException("Nieprawidłowy port: " + port);
+        this.port = port;
+    }
+
+    public void setRooms(int rooms) {
+        if (rooms < 1) throw new IllegalArgumentException("rooms musi być >= 1");
+        this.rooms = rooms;
+    }
+
+    /**
+     * @param playersPerRoom liczba klientów w pokoju (co najmniej 2); założyciel
+     *        pokoju rozpoczyna grę, gdy wszyscy dołączą
+     */
+    public void setPlayersPerRoom(int playersPerRoom) {
+        if (playersPerRoom < 2) throw new IllegalArgumentException("playersPerRoom musi być >= 2");
+        this.playersPerRoom = playersPerRoom;
+    }
+
+    /**
+     * @param actionsPerSecond docelowe tempo akcji jednego klienta
+     */
+    public void setActionsPerSecond(double actionsPerSecond) {
+        if (!(actionsPerSecond > 0)) throw new IllegalArgumentException("actionsPerSecond musi być > 0");
+        this.actionsPerSecond = actionsPerSecond;
+    }
+
+    /**
+     * @param durationSeconds czas pomiaru (po starcie gier we wszystkich pokojach)
+     */
+    public void setDurationSeconds(long durationSeconds) {
+        if (durationSeconds < 1) throw new IllegalArgumentException("durationSeconds musi być >= 1");
+        this.durationSeconds = durationSeconds;
+    }
+
+    /**
+     * @param seed ziarno decyzji klientów (0 - losowe przy każdym uruchomieniu)
+     */
+    public void setSeed(long seed) {
+        this.seed = seed;
+    }
+
+    public void setVirtualThreads(boolean virtualThreads) {
+        this.virtualThreads = virtualThreads;
+    }
+
+    /**
+     * @param batchTurns czy klienci wysyłają turę jedną paczką komend
+     */
+    public void setBatchTurns(boolean batchTurns) {
+        this.batchTurns = batchTurns;
+    }
+
+    /**
+     * @param report plik raportu JSON (null - bez zapisu)
+     */
+    public void setReport(Path report) {
+        this.report = report;
+    }
+
+    public void setEmbedded(boolean embedded) {
+        this.embedded = embedded;
+    }
+
+    public void setEmbeddedInMemory(boolean embeddedInMemory) {
+        this.embeddedInMemory = embeddedInMemory;
+    }
+
+    public void setEmbeddedLockstep(boolean embeddedLockstep) {
+        this.embeddedLockstep = embeddedLockstep;
+    }
+}
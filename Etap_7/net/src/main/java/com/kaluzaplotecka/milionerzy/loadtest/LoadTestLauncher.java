@@ -0,0 +1,83 @@
+package com.kaluzaplotecka.milionerzy.loadtest;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import com.kaluzaplotecka.milionerzy.network.InMemoryTransport;
+import com.kaluzaplotecka.milionerzy.server.DedicatedServer;
+import com.kaluzaplotecka.milionerzy.server.ServerConfig;
+
+/**
+ * Punkt wejścia generatora obciążenia.
+ *
+ * <p>Uruchamia {@link LoadGenerator} z konfiguracją z pliku podanego jako
+ * pierwszy argument albo z {@value LoadTestConfig#DEFAULT_FILE} w katalogu
+ * roboczym (jeśli istnieje), wypisuje podsumowanie i zapisuje raport JSON:
+ * <pre>
+ * java -cp core/target/classes:net/target/classes com.kaluzaplotecka.milionerzy.loadtest.LoadTestLauncher loadtest.properties
+ * </pre>
+ */
+public class LoadTestLauncher {
+
+    /**
+     * Główna metoda uruchamiająca test obciążenia.
+     *
+     * @param args opcjonalnie ścieżka pliku konfiguracji
+     */
+    static void main(String[] args) throws Exception {
+        Path configFile = args.length > 0 ? Path.of(args[0]) : Path.of(LoadTestConfig.DEFAULT_FILE);
+        LoadTestConfig config;
+        if (Files.exists(configFile)) {
+            config = LoadTestConfig.load(configFile);
+            System.out.println("Konfiguracja: " + configFile.toAbsolutePath());
+        } else if (args.length > 0) {
+            System.err.println("Brak pliku konfiguracji: " + configFile);
+            return;
+        } else {
+            config = new LoadTestConfig();
+        }
+
+        LoadReport report = run(config);
+        System.out.println(report);
+        if (config.getReport() != null) {
+            report.write(config.getReport());
+            System.out.println("Raport: " + config.getReport().toAbsolutePath());
+        }
+    }
+
+    /**
+     * Wykonuje przebieg, z serwerem dedykowanym w tym procesie, jeśli
+     * konfiguracja tego wymaga.
+     */
+    public static LoadReport run(LoadTestConfig config) throws IOException, InterruptedException {
+        LoadGenerator generator = new LoadGenerator(config);
+        DedicatedServer server = null;
+        if (config.isEmbedded()) {
+            server = new DedicatedServer(embeddedServerConfig(config));
+            if (config.isEmbeddedInMemory()) {
+                InMemoryTransport transport = new InMemoryTransport();
+                server.getRoomServer().setTransport(transport);
+                generator.setTransport(transport);
+            }
+            server.start();
+        }
+        try {
+            return generator.run();
+        } finally {
+            if (server != null) server.stop();
+        }
+    }
+
+    private static ServerConfig embeddedServerConfig(LoadTestConfig config) {
+        ServerConfig serverConfig = new ServerConfig();
+        serverConfig.setPort(config.getPort());
+        serverConfig.setMaxRooms(Math.max(serverConfig.getMaxRooms(), config.getRooms()));
+        serverConfig.setMaxPlayers(config.getPlayersPerRoom());
+        serverConfig.setAutoStartPlayers(config.getPlayersPerRoom());
+        serverConfig.setLockstep(config.isEmbeddedLockstep());
+        serverConfig.setVirtualThreads(config.isVirtualThreads());
+        serverConfig.setAutosaveIntervalSeconds(0);
+        return serverConfig;
+    }
+}
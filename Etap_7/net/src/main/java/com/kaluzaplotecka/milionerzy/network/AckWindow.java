@@ -0,0 +1,116 @@
+package com.kaluzaplotecka.milionerzy.network;
+
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Okno potwierdzeń hosta dla jednego połączenia.
+ *
+ * <p>Zbiera numery sekwencyjne przetworzonych wiadomości klienta i zamienia
+ * je na zbiorcze potwierdzenie: numer, do którego potwierdzono wszystko
+ * (skumulowane ACK), oraz przedziały potwierdzone ponad nim (selektywne ACK)
+ * - np. gdy wiadomość o numerze 5 została odrzucona, a 6-9 przetworzone.
+ * Wiele przetworzonych wiadomości daje więc jedną ramkę ACK.
+ *
+ * <p>Liczba przedziałów jest ograniczona do {@link #MAX_RANGES}; przy
+ * przepełnieniu najstarszy przedział jest porzucany (był już wysłany
+ * w poprzednich potwierdzeniach).
+ */
+public final class AckWindow {
+
+    /** Maksymalna liczba przedziałów selektywnych w jednym ACK. */
+    public static final int MAX_RANGES = 16;
+
+    private long ackedThrough;
+    // Przedziały rozłączne, niesąsiadujące, wszystkie powyżej ackedThrough + 1
+    private final TreeMap<Long, Long> ranges = new TreeMap<>();
+    private boolean dirty;
+
+    /**
+     * Zapisuje numer przetworzonej wiadomości.
+     *
+     * @param sequence numer sekwencyjny (> 0)
+     * @return true jeśli wcześniej nie było niewysłanych potwierdzeń
+     *         (wywołujący powinien zaplanować wysłanie ACK)
+     */
+    public synchronized boolean record(long sequence) {
+        if (sequence <= 0) return false;
+        boolean firstPending = !dirty;
+        // Ponowienie już potwierdzonej wiadomości - potwierdź jeszcze raz
+        dirty = true;
+        addSequence(sequence);
+        return firstPending;
+    }
+
+    private void addSequence(long sequence) {
+        if (sequence <= ackedThrough) return;
+
+        if (sequence == ackedThrough + 1) {
+            ackedThrough = sequence;
+            Map.Entry<Long, Long> first = ranges.firstEntry();
+            if (first != null && first.getKey() == ackedThrough + 1) {
+                ackedThrough = first.getValue();
+                ranges.pollFirstEntry();
+            }
+            return;
+        }
+
+        long start = sequence;
+        long end = sequence;
+        Map.Entry<Long, Long> lower = ranges.floorEntry(sequence);
+        if (lower != null) {
+            if (lower.getValue() >= sequence) return;
+            if (lower.getValue() == sequence - 1) {
+                start = lower.getKey();
+                ranges.remove(lower.getKey());
+            }
+        }
+        Map.Entry<Long, Long> higher = ranges.higherEntry(sequence);
+        if (higher != null && higher.getKey() == sequence + 1) {
+            end = higher.getValue();
+            ranges.remove(higher.getKey());
+        }
+        ranges.put(start, end);
+        if (ranges.size() > MAX_RANGES) {
+            ranges.pollFirstEntry();
+        }
+    }
+
+    /**
+     * Sprawdza czy od ostatniego potwierdzenia pojawiły się nowe numery.
+     */
+    public synchronized boolean isDirty() {
+        return dirty;
+    }
+
+    /**
+     * Dołącza bieżące potwierdzenie do wiadomości (ACK lub innej ramki
+     * wysyłanej tylko do tego klienta) i zeruje znacznik zmian.
+     *
+     * @return true jeśli było co potwierdzić
+     */
+    public synchronized boolean attachTo(GameMessage message) {
+        if (!dirty) return false;
+        message.setAckInfo(ackedThrough, getRanges());
+        dirty = false;
+        return true;
+    }
+
+    public synchronized long getAckedThrough() {
+        return ackedThrough;
+    }
+
+    /**
+     * Zwraca przedziały selektywne jako pary [od, do] lub null, gdy ich nie ma.
+     */
+    public synchronized long[] getRanges() {
+        if (ranges.isEmpty()) return null;
+        long[] result = new long[ranges.size() * 2];
+        int i = 0;
+        for (Map.Entry<Long, Long> range : ranges.entrySet()) {
+            result[i++] = range.getKey();
+            result[i++] = range.getValue();
+        }
+        return result;
+    }
+}
@@ -0,0 +1,493 @@
+package com.kaluzaplotecka.milionerzy.network;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.StreamCorruptedException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import com.kaluzaplotecka.milionerzy.model.Auction;
+import com.kaluzaplotecka.milionerzy.model.Player;
+import com.kaluzaplotecka.milionerzy.model.tiles.PropertyTile;
+
+/**
+ * Zwarty kodek binarny dla {@link GameMessage}.
+ *
+ * <p>Zamiast deskryptorów klas serializacji Javy zapisuje tylko pola:
+ * typ wiadomości jako jeden bajt, flagi obecności pól, numer sekwencyjny
+ * i potwierdzenia jako varint, liczby całkowite jako varint (zigzag)
+ * i napisy w UTF-8.
+ * Payload poprzedza znacznik typu; znane typy mają własny format:
+ * <ul>
+ *   <li>{@code Integer}, {@code Long}, {@code Boolean}, {@code String}</li>
+ *   <li>{@code int[]} (wynik kostek), {@code String[]} (dane CONNECT)</li>
+ *   <li>{@link PropertyTile} (oferta kupna), {@link Auction}</li>
+ *   <li>{@link StateDelta} (synchronizacja stanu)</li>
+ * </ul>
+ * Pozostałe obiekty (np. pełny {@code GameState}, wysyłany tylko przy
+ * starcie i resynchronizacji) są osadzane jako serializacja Javy.
+ *
+ * <p>Obiekty odczytane z {@code PropertyTile} i {@code Auction} są kopiami
+ * odłączonymi od stanu gry - tak samo jak przy serializacji Javy.
+ */
+public final class BinaryWireCodec implements WireCodec {
+
+    public static final BinaryWireCodec INSTANCE = new BinaryWireCodec();
+
+    /** Nazwa kodeka przy uzgadnianiu (z wersją formatu). */
+    public static final String NAME = "bin2";
+
+    private static final byte MAGIC = (byte) 0xB1;
+
+    // Flagi obecności pól
+    private static final int F_BROADCAST = 1;
+    private static final int F_SENDER = 1 << 1;
+    private static final int F_TARGET = 1 << 2;
+    private static final int F_ACK = 1 << 3;
+    private static final int F_NACK = 1 << 4;
+    private static final int F_SEQUENCE = 1 << 5;
+
+    // Znaczniki typu payloadu
+    private static final int T_NULL = 0;
+    private static final int T_INT = 1;
+    private static final int T_LONG = 2;
+    private static final int T_BOOLEAN = 3;
+    private static final int T_STRING = 4;
+    private static final int T_INT_ARRAY = 5;
+    private static final int T_STRING_ARRAY = 6;
+    private static final int T_PROPERTY = 7;
+    private static final int T_AUCTION = 8;
+    private static final int T_STATE_DELTA = 9;
+    private static final int T_OBJECT = 10;
+
+    private static final GameMessage.MessageType[] TYPES = GameMessage.MessageType.values();
+    private static final Auction.Status[] AUCTION_STATUSES = Auction.Status.values();
+
+    private BinaryWireCodec() {}
+
+    @Override
+    public String getName() {
+        return NAME;
+    }
+
+    @Override
+    public boolean recognizes(byte[] body, int offset, int length) {
+        return length >= 1 && body[offset] == MAGIC;
+    }
+
+    // === KODOWANIE ===
+
+    @Override
+    public void encode(GameMessage message, ByteArrayOutputStream bytes) throws IOException {
+        DataOutputStream out = new DataOutputStream(bytes);
+
+        int flags = 0;
+        if (message.getBroadcastFlag()) flags |= F_BROADCAST;
+        if (message.getSenderId() != null) flags |= F_SENDER;
+        if (message.getTargetId() != null) flags |= F_TARGET;
+        if (message.hasAck()) flags |= F_ACK;
+        if (message.getNackFor() != 0 || message.getNackReason() != null) flags |= F_NACK;
+        if (message.getSequence() != 0) flags |= F_SEQUENCE;
+
+        out.writeByte(MAGIC);
+        out.writeByte(message.getType().ordinal());
+        out.writeByte(flags);
+        if (message.getSequence() != 0) writeVarLong(out, message.getSequence());
+        if (message.getSenderId() != null) writeString(out, message.getSenderId());
+        if (message.getTargetId() != null) writeString(out, message.getTargetId());
+        out.writeLong(message.getTimestamp());
+        if (message.hasAck()) writeAcks(out, message.getAckThrough(), message.getAckRanges());
+        if ((flags & F_NACK) != 0) {
+            writeVarLong(out, message.getNackFor());
+            writeNullableString(out, message.getNackReason());
+            writeVarLong(out, message.getStepsApplied());
+        }
+
+        writePayload(out, message.getPayload());
+        out.flush();
+    }
+
+    private void writePayload(DataOutputStream out, Object payload) throws IOException {
+        if (payload == null) {
+            out.writeByte(T_NULL);
+        } else if (payload instanceof Integer i) {
+            out.writeByte(T_INT);
+            writeVarInt(out, i);
+        } else if (payload instanceof Long l) {
+            out.writeByte(T_LONG);
+            out.writeLong(l);
+        } else if (payload instanceof Boolean b) {
+            out.writeByte(T_BOOLEAN);
+            out.writeBoolean(b);
+        } else if (payload instanceof String s) {
+            out.writeByte(T_STRING);
+            writeString(out, s);
+        } else if (payload instanceof int[] arr) {
+            out.writeByte(T_INT_ARRAY);
+            writeVarInt(out, arr.length);
+            for (int v : arr) writeVarInt(out, v);
+        } else if (payload instanceof String[] arr) {
+            out.writeByte(T_STRING_ARRAY);
+            writeVarInt(out, arr.length);
+            for (String s : arr) writeNullableString(out, s);
+        } else if (payload instanceof PropertyTile tile) {
+            out.writeByte(T_PROPERTY);
+            writeProperty(out, tile);
+        } else if (payload instanceof Auction auction) {
+            out.writeByte(T_AUCTION);
+            writeAuction(out, auction);
+        } else if (payload instanceof StateDelta delta) {
+            out.writeByte(T_STATE_DELTA);
+            writeStateDelta(out, delta);
+        } else {
+            byte[] serialized = JavaSerializationCodec.writeObject(payload);
+            out.writeByte(T_OBJECT);
+            writeVarInt(out, serialized.length);
+            out.write(serialized);
+        }
+    }
+
+    private void writeAcks(DataOutputStream out, long ackThrough, long[] ranges) throws IOException {
+        writeVarLong(out, ackThrough);
+        int pairs = ranges != null ? ranges.length / 2 : 0;
+        writeVarInt(out, ranges != null ? pairs + 1 : 0);
+        // Przedział jako początek i długość - zwykle mieszczą się w 1-2 bajtach
+        for (int i = 0; i < pairs; i++) {
+            writeVarLong(out, ranges[2 * i]);
+            writeVarLong(out, ranges[2 * i + 1] - ranges[2 * i]);
+        }
+    }
+
+    private void writePlayer(DataOutputStream out, Player p) throws IOException {
+        writeNullableString(out, p.getId());
+        writeNullableString(out, p.getUsername());
+        writeVarInt(out, p.getMoney());
+        writeVarInt(out, p.getPosition());
+        out.writeBoolean(p.isInJail());
+        writeVarInt(out, p.getJailTurns());
+    }
+
+    private void writeProperty(DataOutputStream out, PropertyTile tile) throws IOException {
+        writeVarInt(out, tile.getPosition());
+        writeNullableString(out, tile.getCity());
+        writeVarInt(out, tile.getPrice());
+        writeVarInt(out, tile.getBaseRent());
+        writeVarInt(out, tile.getHouses());
+        out.writeBoolean(tile.isMortgaged());
+        out.writeBoolean(tile.getOwner() != null);
+        if (tile.getOwner() != null) writePlayer(out, tile.getOwner());
+    }
+
+    private void writeAuction(DataOutputStream out, Auction auction) throws IOException {
+        List<Player> participants = auction.getParticipants();
+        writeNullableString(out, auction.getId());
+        writeProperty(out, auction.getProperty());
+        writeVarInt(out, participants.size());
+        for (Player p : participants) writePlayer(out, p);
+        // Spasowani i najwyższy oferent jako indeksy uczestników
+        List<Player> passed = auction.getPassedPlayers();
+        writeVarInt(out, passed.size());
+        for (Player p : passed) writeVarInt(out, participants.indexOf(p));
+        writeVarInt(out, auction.getHighestBidder() != null
+            ? participants.indexOf(auction.getHighestBidder()) : -1);
+        writeVarInt(out, auction.getHighestBid());
+        writeVarInt(out, auction.getMinimumBid());
+        out.writeByte(auction.getStatus().ordinal());
+        out.writeLong(auction.getStartedAt());
+    }
+
+    private void writeStateDelta(DataOutputStream out, StateDelta delta) throws IOException {
+        writeVarLong(out, delta.getBaseVersion());
+        writeVarLong(out, delta.getVersion());
+        out.writeLong(delta.getStateHash());
+
+        writeVarInt(out, delta.getPlayers().size());
+        for (StateDelta.PlayerDelta p : delta.getPlayers()) {
+            writeNullableString(out, p.id());
+            writeVarInt(out, p.money());
+            writeVarInt(out, p.position());
+            out.writeBoolean(p.inJail());
+            writeVarInt(out, p.jailTurns());
+        }
+
+        writeVarInt(out, delta.getTiles().size());
+        for (StateDelta.TileDelta t : delta.getTiles()) {
+            writeVarInt(out, t.position());
+            writeNullableString(out, t.ownerId());
+            writeVarInt(out, t.houses());
+            out.writeBoolean(t.mortgaged());
+        }
+
+        List<String> order = delta.getPlayerOrder();
+        writeVarInt(out, order != null ? order.size() + 1 : 0);
+        if (order != null) {
+            for (String id : order) writeNullableString(out, id);
+        }
+
+        out.writeBoolean(delta.isTurnChanged());
+        if (delta.isTurnChanged()) {
+            writeNullableString(out, delta.getCurrentPlayerId());
+            writeVarInt(out, delta.getRoundNumber());
+            out.writeBoolean(delta.hasRolled());
+        }
+
+        out.writeBoolean(delta.isAuctionChanged());
+        if (delta.isAuctionChanged()) {
+            out.writeBoolean(delta.getAuction() != null);
+            if (delta.getAuction() != null) writeAuction(out, delta.getAuction());
+        }
+    }
+
+    // === DEKODOWANIE ===
+
+    @Override
+    public GameMessage decode(byte[] body, int offset, int length) throws IOException {
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(body, offset, length));
+        if (in.readByte() != MAGIC) {
+            throw new StreamCorruptedException("Brak znacznika kodeka binarnego");
+        }
+        int typeIndex = in.readUnsignedByte();
+        if (typeIndex >= TYPES.length) {
+            throw new StreamCorruptedException("Nieznany typ wiadomości: " + typeIndex);
+        }
+        int flags = in.readUnsignedByte();
+
+        long sequence = (flags & F_SEQUENCE) != 0 ? readVarLong(in) : 0;
+        String senderId = (flags & F_SENDER) != 0 ? readString(in) : null;
+        String targetId = (flags & F_TARGET) != 0 ? readString(in) : null;
+        long timestamp = in.readLong();
+        long ackThrough = 0;
+        long[] ackRanges = null;
+        if ((flags & F_ACK) != 0) {
+            ackThrough = readVarLong(in);
+            int pairs = readLength(in) - 1;
+            if (pairs > AckWindow.MAX_RANGES) {
+                throw new StreamCorruptedException("Zbyt wiele przedziałów ACK: " + pairs);
+            }
+            if (pairs >= 0) {
+                ackRanges = new long[2 * pairs];
+                for (int i = 0; i < pairs; i++) {
+                    ackRanges[2 * i] = readVarLong(in);
+                    ackRanges[2 * i + 1] = ackRanges[2 * i] + readVarLong(in);
+                }
+            }
+        }
+        long nackFor = 0;
+        String nackReason = null;
+        int stepsApplied = 0;
+        if ((flags & F_NACK) != 0) {
+            nackFor = readVarLong(in);
+            nackReason = readNullableString(in);
+            stepsApplied = Math.toIntExact(readVarLong(in));
+        }
+        Object payload = readPayload(in);
+
+        GameMessage msg = new GameMessage(sequence, TYPES[typeIndex], senderId, targetId, payload, timestamp);
+        msg.setBroadcast((flags & F_BROADCAST) != 0);
+        msg.setAckInfo(ackThrough, ackRanges);
+        msg.setNackInfo(nackFor, nackReason, stepsApplied);
+        return msg;
+    }
+
+    private Object readPayload(DataInputStream in) throws IOException {
+        int tag = in.readUnsignedByte();
+        switch (tag) {
+            case T_NULL: return null;
+            case T_INT: return readVarInt(in);
+            case T_LONG: return in.readLong();
+            case T_BOOLEAN: return in.readBoolean();
+            case T_STRING: return readString(in);
+            case T_INT_ARRAY: {
+                int[] arr = new int[readLength(in)];
+                for (int i = 0; i < arr.length; i++) arr[i] = readVarInt(in);
+                return arr;
+            }
+            case T_STRING_ARRAY: {
+                String[] arr = new String[readLength(in)];
+                for (int i = 0; i < arr.length; i++) arr[i] = readNullableString(in);
+                return arr;
+            }
+            case T_PROPERTY: return readProperty(in);
+            case T_AUCTION: return readAuction(in);
+            case T_STATE_DELTA: return readStateDelta(in);
+            case T_OBJECT: {
+                byte[] serialized = new byte[readLength(in)];
+                in.readFully(serialized);
+                return JavaSerializationCodec.readObject(serialized, 0, serialized.length);
+            }
+            default:
+                throw new StreamCorruptedException("Nieznany typ payloadu: " + tag);
+        }
+    }
+
+    private Player readPlayer(DataInputStream in) throws IOException {
+        String id = readNullableString(in);
+        String username = readNullableString(in);
+        Player p = new Player(id, username, readVarInt(in));
+        p.setPosition(readVarInt(in));
+        boolean inJail = in.readBoolean();
+        p.setJailState(inJail, readVarInt(in));
+        return p;
+    }
+
+    private PropertyTile readProperty(DataInputStream in) throws IOException {
+        int position = readVarInt(in);
+        String city = readNullableString(in);
+        int price = readVarInt(in);
+        int baseRent = readVarInt(in);
+        PropertyTile tile = new PropertyTile(position, city, price, baseRent);
+        tile.setHouses(readVarInt(in));
+        tile.setMortgaged(in.readBoolean());
+        if (in.readBoolean()) {
+            tile.setOwner(readPlayer(in));
+        }
+        return tile;
+    }
+
+    private Auction readAuction(DataInputStream in) throws IOException {
+        String id = readNullableString(in);
+        PropertyTile property = readProperty(in);
+        int count = readLength(in);
+        List<Player> participants = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) participants.add(readPlayer(in));
+        int passedCount = readLength(in);
+        List<Player> passed = new ArrayList<>(passedCount);
+        for (int i = 0; i < passedCount; i++) passed.add(participantAt(participants, readVarInt(in)));
+        Player highestBidder = participantAt(participants, readVarInt(in));
+        int highestBid = readVarInt(in);
+        int minimumBid = readVarInt(in);
+        int statusIndex = in.readUnsignedByte();
+        if (statusIndex >= AUCTION_STATUSES.length) {
+            throw new StreamCorruptedException("Nieznany status aukcji: " + statusIndex);
+        }
+        long startedAt = in.readLong();
+        return Auction.restore(id, property, participants, passed, highestBidder,
+            highestBid, minimumBid, AUCTION_STATUSES[statusIndex], startedAt);
+    }
+
+    private static Player participantAt(List<Player> participants, int index) throws IOException {
+        if (index < 0) return null;
+        if (index >= participants.size()) {
+            throw new StreamCorruptedException("Nieprawidłowy indeks uczestnika aukcji: " + index);
+        }
+        return participants.get(index);
+    }
+
+    private StateDelta readStateDelta(DataInputStream in) throws IOException {
+        StateDelta delta = new StateDelta(readVarLong(in), readVarLong(in));
+        delta.setStateHash(in.readLong());
+
+        int players = readLength(in);
+        for (int i = 0; i < players; i++) {
+            String id = readNullableString(in);
+            int money = readVarInt(in);
+            int position = readVarInt(in);
+            boolean inJail = in.readBoolean();
+            delta.addPlayer(new StateDelta.PlayerDelta(id, money, position, inJail, readVarInt(in)));
+        }
+
+        int tiles = readLength(in);
+        for (int i = 0; i < tiles; i++) {
+            int position = readVarInt(in);
+            String ownerId = readNullableString(in);
+            int houses = readVarInt(in);
+            delta.addTile(new StateDelta.TileDelta(position, ownerId, houses, in.readBoolean()));
+        }
+
+        int orderSize = readLength(in);
+        if (orderSize > 0) {
+            List<String> order = new ArrayList<>(orderSize - 1);
+            for (int i = 0; i < orderSize - 1; i++) order.add(readNullableString(in));
+            delta.setPlayerOrder(order);
+        }
+
+        if (in.readBoolean()) {
+            String currentPlayerId = readNullableString(in);
+            int roundNumber = readVarInt(in);
+            delta.setTurn(currentPlayerId, roundNumber, in.readBoolean());
+        }
+
+        if (in.readBoolean()) {
+            delta.setAuction(in.readBoolean() ? readAuction(in) : null);
+        }
+        return delta;
+    }
+
+    // === POMOCNICZE ===
+
+    private static void writeVarInt(DataOutputStream out, int value) throws IOException {
+        writeVarLong(out, value);
+    }
+
+    private static int readVarInt(DataInputStream in) throws IOException {
+        long value = readVarLong(in);
+        if (value < Integer.MIN_VALUE || value > Integer.MAX_VALUE) {
+            throw new StreamCorruptedException("Wartość poza zakresem int: " + value);
+        }
+        return (int) value;
+    }
+
+    private static void writeVarLong(DataOutputStream out, long value) throws IOException {
+        long zigzag = (value << 1) ^ (value >> 63);
+        while ((zigzag & ~0x7FL) != 0) {
+            out.writeByte((int) ((zigzag & 0x7F) | 0x80));
+            zigzag >>>= 7;
+        }
+        out.writeByte((int) zigzag);
+    }
+
+    private static long readVarLong(DataInputStream in) throws IOException {
+        long zigzag = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            int b = in.readUnsignedByte();
+            zigzag |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return (zigzag >>> 1) ^ -(zigzag & 1);
+            }
+        }
+        throw new StreamCorruptedException("Zbyt długi varint");
+    }
+
+    private static int readLength(DataInputStream in) throws IOException {
+        int length = readVarInt(in);
+        if (length < 0 || length > FrameCodec.MAX_FRAME_SIZE) {
+            throw new StreamCorruptedException("Nieprawidłowa długość: " + length);
+        }
+        return length;
+    }
+
+    private static void writeString(DataOutputStream out, String s) throws IOException {
+        byte[] utf8 = s.getBytes(StandardCharsets.UTF_8);
+        writeVarInt(out, utf8.length);
+        out.write(utf8);
+    }
+
+    private static String readString(DataInputStream in) throws IOException {
+        byte[] utf8 = new byte[readLength(in)];
+        in.readFully(utf8);
+        return new String(utf8, StandardCharsets.UTF_8);
+    }
+
+    private static void writeNullableString(DataOutputStream out, String s) throws IOException {
+        if (s == null) {
+            writeVarInt(out, -1);
+        } else {
+            writeString(out, s);
+        }
+    }
+
+    private static String readNullableString(DataInputStream in) throws IOException {
+        int length = readVarInt(in);
+        if (length == -1) return null;
+        if (length < 0 || length > FrameCodec.MAX_FRAME_SIZE) {
+            throw new StreamCorruptedException("Nieprawidłowa długość: " + length);
+        }
+        byte[] utf8 = new byte[length];
+        in.readFully(utf8);
+        return new String(utf8, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,145 @@
+package com.kaluzaplotecka.milionerzy.network;
+
+import com.kaluzaplotecka.milionerzy.model.GameState;
+import com.kaluzaplotecka.milionerzy.model.StateHash;
+
+/**
+ * Utrzymuje lokalną kopię stanu gry po stronie klienta.
+ *
+ * <p>Przyjmuje pełne snapshoty ({@code GAME_STATE_SYNC}) i różnice
+ * ({@code STATE_DELTA}). Różnica jest stosowana tylko wtedy, gdy jej wersja
+ * bazowa zgadza się z wersją lokalnego stanu. W przeciwnym razie klient
+ * wysyła {@code RESYNC_REQUEST} i czeka na pełny snapshot.
+ *
+ * <p>W trybie lockstep zamiast różnic przychodzą komendy graczy
+ * ({@code LOCKSTEP_COMMAND}). Klient wykonuje je sam na lokalnym stanie
+ * z ziarnem gry; numer komendy pełni rolę wersji, z tą samą obsługą luk.
+ *
+ * <p>Różnice i komendy niosą skrót stanu hosta ({@link StateHash}). Po ich
+ * zastosowaniu klient liczy skrót swojej kopii; przy niezgodności (np. po
+ * lokalnym rozliczeniu aukcji) prosi o pełny stan tylko dla siebie. Dzięki
+ * temu host nie musi profilaktycznie rozsyłać pełnych snapshotów.
+ *
+ * @see StateDelta
+ * @see Lockstep
+ */
+public class ClientStateSync {
+
+    private final NetworkManager networkManager;
+    private GameState state;
+    private boolean resyncRequested;
+    private long desyncCount;
+
+    public ClientStateSync(NetworkManager networkManager) {
+        this.networkManager = networkManager;
+    }
+
+    /**
+     * Obsługuje wiadomość synchronizacji stanu.
+     *
+     * @param msg odebrana wiadomość
+     * @return {@code true} jeśli lokalny stan został zaktualizowany
+     */
+    public boolean handle(GameMessage msg) {
+        if (msg.getType() == GameMessage.MessageType.GAME_STATE_SYNC) {
+            if (msg.getPayload() instanceof GameState newState) {
+                state = newState;
+                resyncRequested = false;
+                return true;
+            }
+        } else if (msg.getType() == GameMessage.MessageType.STATE_DELTA) {
+            if (msg.getPayload() instanceof StateDelta delta) {
+                return applyDelta(delta);
+            }
+        } else if (msg.getType() == GameMessage.MessageType.LOCKSTEP_COMMAND) {
+            return applyCommand(msg);
+        }
+        return false;
+    }
+
+    private boolean applyCommand(GameMessage frame) {
+        long index = Lockstep.index(frame);
+        GameMessage command = Lockstep.command(frame);
+        if (command == null) return false;
+        if (state != null && index <= state.getStateVersion()) {
+            // Komenda zawarta już w snapshocie
+            return false;
+        }
+        if (state == null || index != state.getStateVersion() + 1) {
+            requestResync(index - 1, index);
+            return false;
+        }
+        // Zdarzenia gry (rzut, ruch, aukcja) powstają lokalnie - jak u hosta
+        GameMessageProcessor.process(state, command, true, null);
+        state.setStateVersion(index);
+        if (Lockstep.shortHash(StateHash.of(state)) != Lockstep.stateHash(frame)) {
+            reportDesync(index);
+        }
+        return true;
+    }
+
+    private boolean applyDelta(StateDelta delta) {
+        if (state != null && delta.getVersion() <= state.getStateVersion()) {
+            // Starsza lub już zastosowana różnica (np. przyszła przed snapshotem)
+            return false;
+        }
+        if (state == null || delta.getBaseVersion() != state.getStateVersion()) {
+            requestResync(delta.getBaseVersion(), delta.getVersion());
+            return false;
+        }
+        delta.applyTo(state);
+        if (StateHash.of(state) != delta.getStateHash()) {
+            reportDesync(delta.getVersion());
+        }
+        return true;
+    }
+
+    private void reportDesync(long version) {
+        desyncCount++;
+        if (resyncRequested) return;
+        System.out.println("Skrót stanu w wersji " + version + " różni się od hosta - prośba o pełną synchronizację");
+        sendResyncRequest();
+    }
+
+    private void requestResync(long baseVersion, long version) {
+        if (resyncRequested) return;
+        long localVersion = state != null ? state.getStateVersion() : -1;
+        System.out.println("Luka w wersjach stanu (lokalna " + localVersion + ", zmiana "
+            + baseVersion + "->" + version + ") - prośba o pełną synchronizację");
+        sendResyncRequest();
+    }
+
+    private void sendResyncRequest() {
+        resyncRequested = true;
+        long localVersion = state != null ? state.getStateVersion() : -1;
+        if (networkManager != null) {
+            networkManager.send(new GameMessage(
+                GameMessage.MessageType.RESYNC_REQUEST,
+                networkManager.getPlayerId(),
+                localVersion
+            ));
+        }
+    }
+
+    /**
+     * Zwraca liczbę wykrytych rozjazdów stanu z hostem.
+     */
+    public long getDesyncCount() {
+        return desyncCount;
+    }
+
+    /**
+     * Zwraca lokalny stan gry lub {@code null} przed pierwszą synchronizacją.
+     */
+    public GameState getState() {
+        return state;
+    }
+
+    /**
+     * Ustawia lokalny stan (np. wczytany z zapisu).
+     */
+    public void setState(GameState state) {
+        this.state = state;
+        this.resyncRequested = false;
+    }
+}
@@ -0,0 +1,176 @@
+package com.kaluzaplotecka.milionerzy.network;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Kilka komend gracza wysłanych jedną wiadomością
+ * {@link GameMessage.MessageType#COMMAND_BATCH} - cała tura w jednej
+ * wymianie z hostem zamiast osobnego ACK dla rzutu, zakupu i końca tury.
+ *
+ * <p>Kroki są wykonywane po kolei. Krok może mieć warunek
+ * ({@link Condition}) sprawdzany na stanie po poprzednich krokach, np.
+ * "rzuć; jeśli pole jest wolne i kosztuje najwyżej 200 - kup; jeśli to
+ * nadal twoja tura - zakończ ją" ({@link #turn(int)}). Krok z niespełnionym
+ * warunkiem jest pomijany. Host wykonuje całą paczkę jako jedną komendę
+ * autorytetu - bez komend innych graczy pomiędzy krokami - i odpowiada
+ * jednym ACK oraz jedną zmianą stanu. Odrzucony krok przerywa paczkę:
+ * host odsyła NACK z jego powodem, a wykonane już kroki zostają (rzutu
+ * nie da się cofnąć bez zdradzenia wyniku). NACK podaje liczbę wykonanych
+ * kroków osobno od powodu ({@link GameMessage#getStepsApplied()}).
+ *
+ * <p>Na łączu paczka to tablica {@code int[]} po {@value #INTS_PER_STEP}
+ * liczby na krok: typ komendy, warunek, limit warunku i argument (wynik
+ * rzutu lub kwota oferty, 0 = brak).
+ *
+ * @see GameMessageProcessor
+ */
+public final class CommandBatch {
+
+    /** Najwięcej kroków w jednej paczce. */
+    public static final int MAX_STEPS = 8;
+
+    static final int INTS_PER_STEP = 4;
+
+    private static final GameMessage.MessageType[] TYPES = GameMessage.MessageType.values();
+    private static final Condition[] CONDITIONS = Condition.values();
+
+    /** Warunek wykonania kroku, sprawdzany dla gracza wysyłającego paczkę. */
+    public enum Condition {
+        /** Krok zawsze wykonywany. */
+        ALWAYS,
+        /** Gracz stoi na wolnej nieruchomości, stać go na nią i kosztuje najwyżej limit (0 = bez limitu). */
+        CAN_BUY,
+        /** Nadal jest tura gracza (np. zakup jej nie zakończył). */
+        MY_TURN
+    }
+
+    /**
+     * Krok paczki.
+     *
+     * @param type komenda gracza ({@link Lockstep#COMMAND_TYPES})
+     * @param condition warunek wykonania
+     * @param limit parametr warunku
+     * @param argument wynik rzutu lub kwota oferty (0 = brak)
+     */
+    public record Step(GameMessage.MessageType type, Condition condition, int limit, int argument) {
+
+        /**
+         * Tworzy wiadomość kroku od gracza wysyłającego paczkę.
+         */
+        GameMessage toMessage(String senderId) {
+            return new GameMessage(type, senderId, argument != 0 ? Integer.valueOf(argument) : null);
+        }
+    }
+
+    private final List<Step> steps = new ArrayList<>();
+
+    /**
+     * Dodaje krok wykonywany zawsze.
+     */
+    public CommandBatch then(GameMessage.MessageType type) {
+        return add(new Step(type, Condition.ALWAYS, 0, 0));
+    }
+
+    /**
+     * Dodaje krok z argumentem (wynik rzutu, kwota oferty).
+     */
+    public CommandBatch then(GameMessage.MessageType type, int argument) {
+        return add(new Step(type, Condition.ALWAYS, 0, argument));
+    }
+
+    /**
+     * Dodaje krok wykonywany tylko, gdy warunek jest spełniony.
+     */
+    public CommandBatch thenIf(Condition condition, int limit, GameMessage.MessageType type) {
+        return add(new Step(type, condition, limit, 0));
+    }
+
+    private CommandBatch add(Step step) {
+        if (!Lockstep.isCommand(step.type()) || step.type() == GameMessage.MessageType.COMMAND_BATCH) {
+            throw new IllegalArgumentException("Krok paczki nie jest komendą gracza: " + step.type());
+        }
+        if (steps.size() == MAX_STEPS) {
+            throw new IllegalArgumentException("Paczka może mieć najwyżej " + MAX_STEPS + " kroków");
+        }
+        steps.add(step);
+        return this;
+    }
+
+    /**
+     * Typowa tura: rzut, zakup pola kosztującego najwyżej {@code maxPrice}
+     * i koniec tury, jeśli zakup jej nie zakończył.
+     */
+    public static CommandBatch turn(int maxPrice) {
+        return new CommandBatch()
+            .then(GameMessage.MessageType.ROLL_DICE)
+            .thenIf(Condition.CAN_BUY, maxPrice, GameMessage.MessageType.BUY_PROPERTY)
+            .thenIf(Condition.MY_TURN, 0, GameMessage.MessageType.END_TURN);
+    }
+
+    public List<Step> getSteps() {
+        return Collections.unmodifiableList(steps);
+    }
+
+    /**
+     * Tworzy wiadomość do wysłania przez {@link NetworkManager#send(GameMessage)}.
+     */
+    public GameMessage toMessage(String senderId) {
+        return new GameMessage(GameMessage.MessageType.COMMAND_BATCH, senderId, encode());
+    }
+
+    // === KODOWANIE ===
+
+    /**
+     * Zapisuje kroki jako payload wiadomości.
+     */
+    public int[] encode() {
+        int[] data = new int[steps.size() * INTS_PER_STEP];
+        int i = 0;
+        for (Step step : steps) {
+            data[i++] = step.type().ordinal();
+            data[i++] = step.condition().ordinal();
+            data[i++] = step.limit();
+            data[i++] = step.argument();
+        }
+        return data;
+    }
+
+    /**
+     * Odczytuje paczkę z payloadu wiadomości lub zwraca null, gdy payload
+     * nie jest poprawną paczką (pusta, za długa, nieznany krok).
+     */
+    public static CommandBatch decode(Object payload) {
+        if (!(payload instanceof int[] data) || data.length == 0 || data.length % INTS_PER_STEP != 0
+                || data.length > MAX_STEPS * INTS_PER_STEP) {
+            return null;
+        }
+        CommandBatch batch = new CommandBatch();
+        for (int i = 0; i < data.length; i += INTS_PER_STEP) {
+            int type = data[i];
+            int condition = data[i + 1];
+            if (type < 0 || type >= TYPES.length || condition < 0 || condition >= CONDITIONS.length) return null;
+            try {
+                batch.add(new Step(TYPES[type], CONDITIONS[condition], data[i + 2], data[i + 3]));
+            } catch (IllegalArgumentException e) {
+                return null;
+            }
+        }
+        return batch;
+    }
+
+    /**
+     * Zwraca paczkę bez argumentów rzutów - w trybie lockstep wynik liczy
+     * ziarno, a nie klient (jak {@link Lockstep#sanitize(GameMessage)}).
+     */
+    CommandBatch withoutDiceResults() {
+        CommandBatch copy = new CommandBatch();
+        for (Step step : steps) {
+            copy.steps.add(step.type() == GameMessage.MessageType.ROLL_DICE
+                ? new Step(step.type(), step.condition(), step.limit(), 0)
+                : step);
+        }
+        return copy;
+    }
+}
@@ -0,0 +1,118 @@
+package com.kaluzaplotecka.milionerzy.network;
+
+/**
+ * Okno ostatnich komend gracza po stronie hosta - chroni przed ponownym
+ * wykonaniem komendy, którą klient wysłał drugi raz po zgubionym lub
+ * spóźnionym ACK (np. podwójny rzut albo drugi zakup).
+ *
+ * <p>Dla każdego numeru sekwencyjnego pamięta, czy komenda czeka na
+ * wynik, czy została potwierdzona, czy odrzucona (z powodem). Ponowienie
+ * nie trafia do logiki gry - host odsyła zapamiętany ACK/NACK albo, gdy
+ * wyniku jeszcze nie ma, pomija kopię (wynik i tak zostanie wysłany).
+ *
+ * <p>Okno jest pierścieniem o stałej pojemności ({@value #CAPACITY} ostatnich
+ * numerów), więc zajmuje stałą pamięć na klienta. Numery sprzed okna, które
+ * host już potwierdził, rozpoznaje {@link AckWindow} sesji.
+ *
+ * @see NetworkManager
+ */
+public final class DedupWindow {
+
+    /** Liczba ostatnich numerów sekwencyjnych pamiętanych w oknie. */
+    public static final int CAPACITY = 64;
+
+    /** Wynik sprawdzenia numeru komendy. */
+    public enum Verdict {
+        /** Nowa komenda - przekazać logice gry. */
+        NEW,
+        /** Kopia komendy, która jeszcze czeka na wynik. */
+        IN_FLIGHT,
+        /** Kopia komendy potwierdzonej. */
+        ACKED,
+        /** Kopia komendy odrzuconej. */
+        REJECTED,
+        /** Numer sprzed okna - nieznany. */
+        EXPIRED
+    }
+
+    private static final byte EMPTY = 0;
+    private static final byte PENDING = 1;
+    private static final byte DONE_ACK = 2;
+    private static final byte DONE_NACK = 3;
+
+    private final long[] sequences = new long[CAPACITY];
+    private final byte[] states = new byte[CAPACITY];
+    private final String[] reasons = new String[CAPACITY];
+    private final int[] steps = new int[CAPACITY];
+    private long highest;
+
+    /**
+     * Sprawdza numer odebranej komendy; nowy numer zapisuje jako
+     * oczekujący na wynik.
+     *
+     * @param sequence numer sekwencyjny (> 0)
+     */
+    public synchronized Verdict check(long sequence) {
+        int slot = slotOf(sequence);
+        if (sequences[slot] == sequence && states[slot] != EMPTY) {
+            return switch (states[slot]) {
+                case DONE_ACK -> Verdict.ACKED;
+                case DONE_NACK -> Verdict.REJECTED;
+                default -> Verdict.IN_FLIGHT;
+            };
+        }
+        if (sequence <= highest - CAPACITY) return Verdict.EXPIRED;
+
+        sequences[slot] = sequence;
+        states[slot] = PENDING;
+        reasons[slot] = null;
+        steps[slot] = 0;
+        if (sequence > highest) highest = sequence;
+        return Verdict.NEW;
+    }
+
+    /**
+     * Zapisuje wynik komendy.
+     *
+     * @param sequence numer sekwencyjny
+     * @param nackReason kod powodu odrzucenia albo null dla ACK
+     */
+    public void complete(long sequence, String nackReason) {
+        complete(sequence, nackReason, 0);
+    }
+
+    /**
+     * Zapisuje wynik paczki komend odrzuconej po {@code stepsApplied}
+     * wykonanych krokach - kopia dostanie ten sam NACK.
+     */
+    public synchronized void complete(long sequence, String nackReason, int stepsApplied) {
+        int slot = slotOf(sequence);
+        // Wynik komendy spoza okna (albo nieśledzonej) nie nadpisuje innej
+        if (sequences[slot] != sequence || states[slot] == EMPTY) return;
+        states[slot] = nackReason == null ? DONE_ACK : DONE_NACK;
+        reasons[slot] = nackReason;
+        steps[slot] = stepsApplied;
+    }
+
+    /**
+     * Zwraca kod powodu odrzucenia komendy (null, gdy nie była odrzucona
+     * albo wypadła z okna).
+     */
+    public synchronized String getRejectReason(long sequence) {
+        int slot = slotOf(sequence);
+        return sequences[slot] == sequence && states[slot] == DONE_NACK ? reasons[slot] : null;
+    }
+
+    /**
+     * Zwraca liczbę kroków wykonanych przed odrzuceniem komendy (0, gdy
+     * nie była odrzucona albo wypadła z okna).
+     */
+    public synchronized int getStepsApplied(long sequence) {
+        int slot = slotOf(sequence);
+        return sequences[slot] == sequence && states[slot] == DONE_NACK ? steps[slot] : 0;
+    }
+
+    private static int slotOf(long sequence) {
+        return (int) Math.floorMod(sequence, (long) CAPACITY);
+    }
+}
@@ -0,0 +1,71 @@
+package com.kaluzaplotecka.milionerzy.network;
+
+import java.io.IOException;
+
+/**
+ * Wiadomość wraz z jej zakodowanymi ramkami, współdzielonymi między odbiorcami.
+ *
+ * <p>Przy broadcaście host koduje wiadomość raz dla każdego używanego kodeka
+ * (zwykle jednego), a nie raz dla każdego klienta. Te same bajty ramki trafiają
+ * do kolejek wszystkich połączeń, więc koszt CPU broadcastu nie rośnie
+ * z liczbą klientów.
+ *
+ * <p>Wiadomość odebrana od klienta zachowuje swoją oryginalną ramkę - przekazanie
+ * jej dalej (relay) do klientów z tym samym kodekiem nie wymaga ponownego
+ * kodowania.
+ *
+ * <p>Ramki zwracane przez {@link #frameFor(WireCodec)} nie mogą być modyfikowane.
+ */
+public final class EncodedMessage {
+
+    // Liczba kodeków jest mała (patrz FrameCodec), więc wystarczy tablica
+    private static final int MAX_CODECS = 4;
+
+    private final GameMessage message;
+    private final WireCodec[] codecs = new WireCodec[MAX_CODECS];
+    private final byte[][] frames = new byte[MAX_CODECS][];
+    private int count;
+
+    public EncodedMessage(GameMessage message) {
+        this.message = message;
+    }
+
+    /**
+     * Tworzy obiekt dla wiadomości odebranej w podanej ramce.
+     *
+     * @param message zdekodowana wiadomość
+     * @param codec kodek, którym ramka była zakodowana
+     * @param frame pełna ramka (nagłówek + ciało)
+     */
+    static EncodedMessage received(GameMessage message, WireCodec codec, byte[] frame) {
+        EncodedMessage encoded = new EncodedMessage(message);
+        encoded.codecs[0] = codec;
+        encoded.frames[0] = frame;
+        encoded.count = 1;
+        return encoded;
+    }
+
+    public GameMessage getMessage() {
+        return message;
+    }
+
+    /**
+     * Zwraca ramkę wiadomości w danym kodeku, kodując ją przy pierwszym użyciu.
+     *
+     * @param codec kodek odbiorcy
+     * @return bajty ramki (współdzielone - tylko do odczytu)
+     * @throws IOException gdy kodowanie się nie powiedzie
+     */
+    public synchronized byte[] frameFor(WireCodec codec) throws IOException {
+        for (int i = 0; i < count; i++) {
+            if (codecs[i] == codec) return frames[i];
+        }
+        byte[] frame = FrameCodec.encode(message, codec);
+        if (count < MAX_CODECS) {
+            codecs[count] = codec;
+            frames[count] = frame;
+            count++;
+        }
+        return frame;
+    }
+}
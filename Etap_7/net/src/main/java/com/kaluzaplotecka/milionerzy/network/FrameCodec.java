@@ -0,0 +1,170 @@
+package com.kaluzaplotecka.milionerzy.network;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.StreamCorruptedException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Ramkowanie wiadomości {@link GameMessage} na potrzeby transportu TCP.
+ *
+ * <p>Każda ramka to 4-bajtowa długość (big-endian) i ciało wiadomości.
+ * Dzięki stałemu nagłówkowi host oparty o selektor może składać ramki
+ * z kawałków odczytanych z nieblokujących kanałów, a klient czyta je
+ * zwykłym {@link DataInputStream}.
+ *
+ * <p>Ciało kodowane jest wybranym {@link WireCodec}. Dekodowanie rozpoznaje
+ * kodek po pierwszych bajtach ciała, więc ramki różnych kodeków mogą się
+ * przeplatać w jednym strumieniu (np. podczas uzgadniania kodeka).
+ */
+public final class FrameCodec {
+
+    /** Rozmiar nagłówka ramki (długość ciała). */
+    public static final int HEADER_SIZE = 4;
+
+    /** Maksymalny rozmiar ciała ramki - chroni przed uszkodzonym strumieniem. */
+    public static final int MAX_FRAME_SIZE = 8 * 1024 * 1024;
+
+    /** Kodek używany przed uzgodnieniem i jako zapasowy. */
+    public static final WireCodec DEFAULT_CODEC = JavaSerializationCodec.INSTANCE;
+
+    // Kodeki w kolejności preferencji
+    private static final WireCodec[] CODECS = {
+        BinaryWireCodec.INSTANCE,
+        JavaSerializationCodec.INSTANCE
+    };
+
+    private FrameCodec() {}
+
+    /**
+     * Koduje wiadomość do pełnej ramki kodekiem domyślnym.
+     *
+     * @param message wiadomość do zakodowania
+     * @return bajty ramki gotowe do zapisu
+     * @throws IOException gdy serializacja się nie powiedzie
+     */
+    public static byte[] encode(GameMessage message) throws IOException {
+        return encode(message, DEFAULT_CODEC);
+    }
+
+    /**
+     * Koduje wiadomość do pełnej ramki (nagłówek + ciało).
+     *
+     * @param message wiadomość do zakodowania
+     * @param codec kodek ciała
+     * @return bajty ramki gotowe do zapisu
+     * @throws IOException gdy kodowanie się nie powiedzie
+     */
+    public static byte[] encode(GameMessage message, WireCodec codec) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(256);
+        // Miejsce na nagłówek uzupełniane po zakodowaniu
+        bytes.write(new byte[HEADER_SIZE]);
+        codec.encode(message, bytes);
+        byte[] frame = bytes.toByteArray();
+        writeLength(frame, frame.length - HEADER_SIZE);
+        return frame;
+    }
+
+    /**
+     * Dekoduje ciało ramki (bez nagłówka).
+     *
+     * @param body bufor z danymi
+     * @param offset początek ciała
+     * @param length długość ciała
+     * @return odczytana wiadomość
+     * @throws IOException gdy dane są uszkodzone
+     */
+    public static GameMessage decode(byte[] body, int offset, int length) throws IOException {
+        return codecOf(body, offset, length).decode(body, offset, length);
+    }
+
+    /**
+     * Rozpoznaje kodek, którym zakodowano ciało ramki.
+     *
+     * @throws StreamCorruptedException gdy żaden kodek nie rozpoznaje danych
+     */
+    public static WireCodec codecOf(byte[] body, int offset, int length) throws StreamCorruptedException {
+        for (WireCodec codec : CODECS) {
+            if (codec.recognizes(body, offset, length)) {
+                return codec;
+            }
+        }
+        throw new StreamCorruptedException("Nie rozpoznano kodeka ramki");
+    }
+
+    /**
+     * Odczytuje blokująco jedną ramkę ze strumienia.
+     *
+     * @param in strumień wejściowy
+     * @return odczytana wiadomość
+     * @throws IOException gdy strumień się zakończył lub jest uszkodzony
+     */
+    public static GameMessage read(DataInputStream in) throws IOException {
+        int length = in.readInt();
+        checkLength(length);
+        byte[] body = new byte[length];
+        in.readFully(body);
+        return decode(body, 0, length);
+    }
+
+    /**
+     * Sprawdza poprawność długości odczytanej z nagłówka.
+     *
+     * @param length długość ciała
+     * @throws StreamCorruptedException gdy długość jest spoza zakresu
+     */
+    public static void checkLength(int length) throws StreamCorruptedException {
+        if (length < 0 || length > MAX_FRAME_SIZE) {
+            throw new StreamCorruptedException("Nieprawidłowa długość ramki: " + length);
+        }
+    }
+
+    /**
+     * Zwraca nazwy obsługiwanych kodeków w kolejności preferencji
+     * (przesyłane przez klienta w CONNECT).
+     */
+    public static String supportedCodecNames() {
+        List<String> names = new ArrayList<>();
+        for (WireCodec codec : CODECS) {
+            names.add(codec.getName());
+        }
+        return String.join(",", names);
+    }
+
+    /**
+     * Wybiera pierwszy kodek z listy drugiej strony, który jest też na liście
+     * dozwolonych lokalnie.
+     *
+     * @param requested nazwy od drugiej strony rozdzielone przecinkami (może być {@code null})
+     * @param allowed nazwy dozwolone lokalnie rozdzielone przecinkami
+     * @return wybrany kodek lub {@link #DEFAULT_CODEC} gdy brak wspólnego
+     */
+    public static WireCodec negotiate(String requested, String allowed) {
+        if (requested == null || allowed == null) return DEFAULT_CODEC;
+        List<String> allowedNames = List.of(allowed.split(","));
+        for (String name : requested.split(",")) {
+            WireCodec codec = forName(name.trim());
+            if (codec != null && allowedNames.contains(codec.getName())) return codec;
+        }
+        return DEFAULT_CODEC;
+    }
+
+    /**
+     * Zwraca kodek o podanej nazwie lub {@code null}.
+     */
+    public static WireCodec forName(String name) {
+        for (WireCodec codec : CODECS) {
+            if (codec.getName().equals(name)) return codec;
+        }
+        return null;
+    }
+
+    private static void writeLength(byte[] frame, int length) {
+        frame[0] = (byte) (length >>> 24);
+        frame[1] = (byte) (length >>> 16);
+        frame[2] = (byte) (length >>> 8);
+        frame[3] = (byte) length;
+    }
+}
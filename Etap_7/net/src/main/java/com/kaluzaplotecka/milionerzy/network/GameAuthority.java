@@ -0,0 +1,216 @@
+package com.kaluzaplotecka.milionerzy.network;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+import com.kaluzaplotecka.milionerzy.model.GameSnapshot;
+import com.kaluzaplotecka.milionerzy.model.GameState;
+import com.kaluzaplotecka.milionerzy.model.StateHash;
+
+/**
+ * Autorytet gry jednego pokoju - jedyny wątek, który modyfikuje stan gry.
+ *
+ * <p>Wiadomości z sieci ({@link #submit(GameMessage)}) i akcje lokalnego
+ * interfejsu ({@link #execute(Consumer)}) trafiają do jednej kolejki
+ * i są stosowane po kolei na wątku autorytetu. Managery gry (np.
+ * {@code TurnManager}) nie są thread-safe, więc nikt inny nie może
+ * zmieniać stanu. Zdarzenia gry są wywoływane na tym wątku - widok
+ * przenosi je sam na wątek JavaFX.
+ *
+ * <p>Po każdej komendzie autorytet publikuje niezmienny
+ * {@link GameSnapshot}, współdzielący z poprzednim wszystko, czego komenda
+ * nie zmieniła. Interfejs, autozapis i wysyłka pełnych snapshotów do nowych
+ * klientów czytają go bez blokad, więc nie czekają na wątek autorytetu,
+ * a autorytet nie czeka na klatki JavaFX.
+ *
+ * <p>W trybie lockstep ({@link #setLockstep(boolean)}) autorytet po
+ * przyjęciu komendy gracza podbija wersję stanu i rozsyła samą komendę
+ * ({@link Lockstep}); klienci wykonują ją na swoich kopiach stanu.
+ *
+ * @see GameMessageProcessor
+ */
+public class GameAuthority {
+
+    private final GameState state;
+    private final NetworkManager network;
+    private final ExecutorService loop;
+    private volatile Thread loopThread;
+    private volatile GameSnapshot snapshot;
+    private volatile Consumer<GameSnapshot> snapshotListener;
+    private volatile boolean lockstep;
+
+    /**
+     * Tworzy autorytet na wątku platformowym (demon).
+     *
+     * @param state stan gry, którym od teraz zarządza autorytet
+     * @param network sieć hosta do potwierdzeń ACK (null w grze lokalnej)
+     */
+    public GameAuthority(GameState state, NetworkManager network) {
+        this(state, network, "milionerzy-authority", NetworkThreads.virtualThreadsByDefault());
+    }
+
+    /**
+     * @param name nazwa wątku autorytetu
+     * @param virtual czy użyć wątku wirtualnego (wiele pokoi w jednej JVM)
+     */
+    public GameAuthority(GameState state, NetworkManager network, String name, boolean virtual) {
+        this.state = state;
+        this.network = network;
+        ThreadFactory factory = virtual
+            ? Thread.ofVirtual().name(name).factory()
+            : Thread.ofPlatform().name(name).daemon(true).factory();
+        this.loop = Executors.newSingleThreadExecutor(factory);
+        this.snapshot = GameSnapshot.of(state);
+        loop.execute(() -> loopThread = Thread.currentThread());
+    }
+
+    // === KOMENDY ===
+
+    /**
+     * Kolejkuje wiadomość od gracza (wywoływane przez czytniki sieci hosta).
+     */
+    public void submit(GameMessage msg) {
+        if (lockstep) {
+            if (Lockstep.isCommand(msg.getType())) enqueue(() -> applyLockstep(msg), false);
+            return;
+        }
+        enqueue(() -> GameMessageProcessor.process(state, msg, true, network));
+    }
+
+    /**
+     * Wykonuje komendę i rozsyła ją jako kolejną ramkę lockstep. Snapshot
+     * z nową wersją jest publikowany przed ramką - dołączający klient, który
+     * dostanie go razem z ramką, rozpozna ją po numerze i pominie.
+     */
+    private void applyLockstep(GameMessage msg) {
+        GameMessage command = Lockstep.sanitize(msg);
+        boolean accepted = GameMessageProcessor.process(state, command, true, network);
+        if (accepted) state.setStateVersion(state.getStateVersion() + 1);
+        publishSnapshot();
+        if (accepted && network != null) {
+            network.send(Lockstep.frame(command, state.getStateVersion(), StateHash.of(state)));
+        }
+    }
+
+    /**
+     * Kolejkuje akcję lokalnego interfejsu (rzut, zakup, licytacja).
+     */
+    public void execute(Consumer<GameState> command) {
+        enqueue(() -> command.accept(state));
+    }
+
+    /**
+     * Odczytuje wartość ze stanu na wątku autorytetu (po wcześniejszych komendach).
+     */
+    public <T> CompletableFuture<T> query(Function<GameState, T> query) {
+        CompletableFuture<T> result = new CompletableFuture<>();
+        try {
+            loop.execute(() -> {
+                try {
+                    result.complete(query.apply(state));
+                } catch (RuntimeException e) {
+                    result.completeExceptionally(e);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            result.completeExceptionally(e);
+        }
+        return result;
+    }
+
+    private void enqueue(Runnable command) {
+        enqueue(command, true);
+    }
+
+    private void enqueue(Runnable command, boolean publish) {
+        try {
+            loop.execute(() -> {
+                try {
+                    command.run();
+                } catch (RuntimeException e) {
+                    System.err.println("Błąd komendy gry: " + e.getMessage());
+                }
+                if (publish) publishSnapshot();
+            });
+        } catch (RejectedExecutionException e) {
+            // Autorytet zatrzymany (koniec gry lub wyjście do menu)
+        }
+    }
+
+    // === SNAPSHOTY ===
+
+    private void publishSnapshot() {
+        GameSnapshot next = GameSnapshot.of(state, snapshot);
+        snapshot = next;
+        Consumer<GameSnapshot> listener = snapshotListener;
+        if (listener != null) {
+            try {
+                listener.accept(next);
+            } catch (RuntimeException e) {
+                System.err.println("Błąd w odbiorcy snapshotu: " + e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Zwraca ostatni opublikowany snapshot. Zmiany idą przez
+     * {@link #execute(Consumer)}; niezależny {@link GameState} (np. do zapisu)
+     * daje {@link GameSnapshot#toGameState()}.
+     */
+    public GameSnapshot getSnapshot() {
+        return snapshot;
+    }
+
+    /**
+     * Ustawia odbiorcę snapshotów wywoływanego na wątku autorytetu po
+     * każdej komendzie.
+     */
+    public void setSnapshotListener(Consumer<GameSnapshot> listener) {
+        this.snapshotListener = listener;
+    }
+
+    // === LOCKSTEP ===
+
+    /**
+     * Włącza tryb lockstep: {@link #submit(GameMessage)} przyjmuje tylko
+     * komendy graczy i rozsyła je zamiast wyników. Stan powinien mieć już
+     * ustawione ziarno, a zdarzenia gry nie powinny trafiać do
+     * {@link NetworkGameEventListener}.
+     */
+    public void setLockstep(boolean lockstep) {
+        this.lockstep = lockstep;
+    }
+
+    public boolean isLockstep() {
+        return lockstep;
+    }
+
+    // === CYKL ŻYCIA ===
+
+    /**
+     * Zatrzymuje autorytet; komendy już w kolejce zostaną wykonane.
+     */
+    public void stop() {
+        loop.shutdown();
+    }
+
+    /**
+     * Sprawdza czy bieżący wątek jest wątkiem autorytetu.
+     */
+    public boolean isAuthorityThread() {
+        return Thread.currentThread() == loopThread;
+    }
+
+    /**
+     * Zwraca stan autorytatywny. Wolno go czytać i zmieniać tylko z wątku
+     * autorytetu (w komendach); pozostali korzystają z {@link #getSnapshot()}.
+     */
+    public GameState getState() {
+        return state;
+    }
+}
@@ -0,0 +1,314 @@
+package com.kaluzaplotecka.milionerzy.network;
+
+import java.io.Serializable;
+import java.util.Set;
+
+/**
+ * Wiadomość sieciowa przesyłana między graczami.
+ * Serializowalna do przesyłania przez socket.
+ * 
+ * <p>Wiadomości wymagające ACK dostają przy wysyłaniu numer sekwencyjny,
+ * rosnący w obrębie połączenia. Host potwierdza je zbiorczo: jedno ACK
+ * niesie numer, do którego potwierdzono wszystko ({@link #getAckThrough()}),
+ * oraz przedziały potwierdzone ponad nim ({@link #getAckRanges()}).
+ * Potwierdzenie może też być dołączone do innej wiadomości od hosta.
+ * 
+ * <p>W drugą stronę numer oznacza pozycję w strumieniu broadcastów hosta
+ * (patrz {@link ReplayBuffer}) - klient pamięta ostatni widziany numer
+ * i podaje go przy wznawianiu sesji.
+ */
+public class GameMessage implements Serializable {
+    private static final long serialVersionUID = 3L;  // Incremented for new fields
+    
+    public enum MessageType {
+        // Kontrola połączenia
+        CONNECT,            // gracz próbuje się połączyć
+        CONNECT_ACCEPTED,   // host przyjął połączenie (payload: kodek, token sesji)
+        DISCONNECT,         // gracz się rozłącza
+        PING,               // sprawdzenie połączenia
+        PONG,               // odpowiedź na ping
+        
+        // System ACK
+        ACK,                // potwierdzenie odebrania wiadomości
+        NACK,               // odrzucenie/błąd przetwarzania wiadomości
+        
+        // Synchronizacja stanu
+        GAME_STATE_SYNC,    // pełna synchronizacja stanu gry
+        STATE_DELTA,        // różnica stanu względem poprzedniej wersji
+        RESYNC_REQUEST,     // klient wykrył lukę w wersjach i prosi o pełny stan
+        PLAYER_LIST,        // lista graczy
+        
+        // Akcje gracza
+        ROLL_DICE,          // gracz rzuca kostką
+        MOVE,               // gracz się porusza
+        DICE_RESULT,        // wynik rzutu kostką
+        NEXT_TURN,          // gracz kończy turę
+        BUY_PROPERTY,       // gracz kupuje nieruchomość
+        DECLINE_PURCHASE,   // gracz rezygnuje z kupna
+        PROPERTY_OFFER,     // gracz stanął na nieruchomości do kupienia
+        END_TURN,           // gracz kończy turę
+        MONEY_UPDATE,       // aktualizacja pieniędzy
+
+        
+        // Handel
+        TRADE_OFFER,        // oferta wymiany
+        TRADE_RESPONSE,     // odpowiedź na ofertę (akceptacja/odrzucenie)
+        
+        // Aukcja
+        AUCTION_START,      // rozpoczęcie aukcji
+        AUCTION_BID,        // licytacja
+        AUCTION_PASS,       // rezygnacja z licytacji
+        AUCTION_ENDED,      // zakończenie aukcji
+        
+        // Czat
+        CHAT,               // wiadomość czatu
+        
+        // Kontrola gry
+        START_GAME,         // host rozpoczyna grę
+        GAME_START,         // gra wystartowała (broadcast do wszystkich)
+        PAUSE_GAME,         // pauza
+        RESUME_GAME,        // wznowienie
+        
+        // Błędy
+        ERROR,              // komunikat błędu
+        
+        // Typy dodane później - tylko na końcu: kodek "bin2" przesyła numer
+        // typu (ordinal), więc wstawienie w środek zmieniłoby numery pozostałych
+        RESUME,             // klient wznawia sesję po zerwaniu połączenia
+        LOCKSTEP_COMMAND,   // uporządkowana komenda gracza w trybie lockstep (patrz Lockstep)
+        COMMAND_BATCH       // kilka komend gracza w jednej wiadomości (patrz CommandBatch)
+    }
+    
+    // Typy wiadomości wymagające potwierdzenia ACK
+    private static final Set<MessageType> ACK_REQUIRED_TYPES = Set.of(
+        MessageType.ROLL_DICE,
+        MessageType.BUY_PROPERTY,
+        MessageType.DECLINE_PURCHASE,
+        MessageType.AUCTION_BID,
+        MessageType.AUCTION_PASS,
+        MessageType.TRADE_OFFER,
+        MessageType.TRADE_RESPONSE,
+        MessageType.END_TURN,
+        MessageType.COMMAND_BATCH
+    );
+    
+    // Typy tylko przekazywane między graczami - host potwierdza samo przekazanie
+    private static final Set<MessageType> RELAY_ONLY_TYPES = Set.of(
+        MessageType.TRADE_OFFER,
+        MessageType.TRADE_RESPONSE
+    );
+    
+    // Typy kosmetyczne - ich treść jest też w STATE_DELTA, więc wolny klient może je pominąć
+    private static final Set<MessageType> COSMETIC_TYPES = Set.of(
+        MessageType.DICE_RESULT,
+        MessageType.MOVE,
+        MessageType.MONEY_UPDATE
+    );
+    
+    private final MessageType type;        // typ wiadomości
+    private final String senderId;         // ID gracza wysyłającego
+    private final String targetId;         // ID gracza docelowego (null = broadcast)
+    private final Object payload;          // dane wiadomości
+    private final long timestamp;          // czas wysłania
+    private boolean broadcast = false;     // czy rozgłosić do wszystkich
+    private long sequence;                 // numer w połączeniu (0 = bez numeru)
+    private long ackThrough;               // potwierdzone wszystkie numery <= ackThrough
+    private long[] ackRanges;              // potwierdzone przedziały [od, do] powyżej ackThrough
+    private long nackFor;                  // dla NACK - numer odrzuconej wiadomości
+    private String nackReason;             // powód odrzucenia (NACK lub odrzucona wysłana wiadomość)
+    private int stepsApplied;              // dla NACK paczki komend - liczba wykonanych kroków
+    
+    public GameMessage(MessageType type, String senderId, String targetId, Object payload) {
+        this.type = type;
+        this.senderId = senderId;
+        this.targetId = targetId;
+        this.payload = payload;
+        this.timestamp = System.currentTimeMillis();
+    }
+    
+    /**
+     * Odtwarza wiadomość z pól odczytanych przez {@link BinaryWireCodec}.
+     */
+    GameMessage(long sequence, MessageType type, String senderId, String targetId,
+                Object payload, long timestamp) {
+        this.sequence = sequence;
+        this.type = type;
+        this.senderId = senderId;
+        this.targetId = targetId;
+        this.payload = payload;
+        this.timestamp = timestamp;
+    }
+    
+    public GameMessage(MessageType type, String senderId, Object payload) {
+        this(type, senderId, null, payload);
+    }
+    
+    public GameMessage(MessageType type, String senderId) {
+        this(type, senderId, null, null);
+    }
+    
+    // === Factory methods dla ACK/NACK ===
+    
+    /**
+     * Tworzy zbiorcze ACK potwierdzające wiele wiadomości naraz.
+     * 
+     * @param ackThrough wszystkie numery do tego włącznie są potwierdzone
+     * @param ackRanges pary [od, do] potwierdzone ponad {@code ackThrough} (może być null)
+     */
+    public static GameMessage createAck(long ackThrough, long[] ackRanges, String senderId, String targetId) {
+        GameMessage ack = new GameMessage(MessageType.ACK, senderId, targetId, null);
+        ack.setAckInfo(ackThrough, ackRanges);
+        return ack;
+    }
+    
+    /**
+     * Tworzy wiadomość NACK odrzucającą wiadomość z podaniem powodu.
+     */
+    public static GameMessage createNack(long sequence, String senderId, String targetId, String reason) {
+        return createNack(sequence, senderId, targetId, reason, 0);
+    }
+    
+    /**
+     * Tworzy NACK paczki komend przerwanej po {@code stepsApplied}
+     * wykonanych krokach (patrz {@link CommandBatch}).
+     */
+    public static GameMessage createNack(long sequence, String senderId, String targetId,
+                                         String reason, int stepsApplied) {
+        GameMessage nack = new GameMessage(MessageType.NACK, senderId, targetId, null);
+        nack.setNackInfo(sequence, reason, stepsApplied);
+        return nack;
+    }
+
+    // === Gettery ===
+    
+    public long getSequence() { return sequence; }
+    public MessageType getType() { return type; }
+    public String getSenderId() { return senderId; }
+    public String getTargetId() { return targetId; }
+    public Object getPayload() { return payload; }
+    public long getTimestamp() { return timestamp; }
+    public long getAckThrough() { return ackThrough; }
+    public long[] getAckRanges() { return ackRanges; }
+    public long getNackFor() { return nackFor; }
+    public String getNackReason() { return nackReason; }
+    
+    /**
+     * Zwraca liczbę kroków paczki komend wykonanych przez hosta przed
+     * odrzuceniem (0 - stan się nie zmienił). Dotyczy NACK i odrzuconej
+     * wysłanej wiadomości przekazanej do callbacku NACK.
+     */
+    public int getStepsApplied() { return stepsApplied; }
+    
+    /**
+     * Zwraca powód odrzucenia z NACK (null dla innych wiadomości).
+     */
+    public RejectReason getRejectReason() {
+        return type == MessageType.NACK ? RejectReason.fromCode(nackReason) : null;
+    }
+    
+    /**
+     * Sprawdza czy wiadomość niesie potwierdzenia (własne ACK lub dołączone).
+     */
+    public boolean hasAck() {
+        return ackThrough > 0 || ackRanges != null;
+    }
+    
+    /**
+     * Sprawdza czy ten typ wiadomości wymaga potwierdzenia ACK.
+     */
+    public boolean requiresAck() {
+        return ACK_REQUIRED_TYPES.contains(type);
+    }
+    
+    /**
+     * Sprawdza czy typ wiadomości host tylko przekazuje innym graczom
+     * (wymiana) - bez wykonania, więc potwierdza go sieć hosta po relay.
+     */
+    public static boolean isRelayOnly(MessageType type) {
+        return RELAY_ONLY_TYPES.contains(type);
+    }
+    
+    /**
+     * Sprawdza czy wiadomość jest kosmetyczna (animacje, powiadomienia)
+     * i może zostać odrzucona dla wolnego klienta bez utraty spójności stanu.
+     */
+    public boolean isCosmetic() {
+        return isCosmetic(type);
+    }
+    
+    public static boolean isCosmetic(MessageType type) {
+        return COSMETIC_TYPES.contains(type);
+    }
+    
+    /**
+     * Zwraca czytelną nazwę akcji (do wyświetlania w UI).
+     */
+    public String getActionName() {
+        return switch (type) {
+            case ROLL_DICE -> "Rzut kostką";
+            case BUY_PROPERTY -> "Zakup nieruchomości";
+            case DECLINE_PURCHASE -> "Odmowa zakupu";
+            case AUCTION_BID -> "Licytacja";
+            case AUCTION_PASS -> "Pas w aukcji";
+            case TRADE_OFFER -> "Oferta wymiany";
+            case TRADE_RESPONSE -> "Odpowiedź na wymianę";
+            case END_TURN -> "Zakończenie tury";
+            case COMMAND_BATCH -> "Tura";
+            default -> type.name();
+        };
+    }
+    
+    /**
+     * Tworzy kopię wiadomości do przekazania dalej (relay) - bez numeru
+     * i potwierdzeń nadawcy, które dotyczą tylko jego połączenia.
+     */
+    GameMessage relayCopy() {
+        GameMessage copy = new GameMessage(0, type, senderId, targetId, payload, timestamp);
+        copy.broadcast = broadcast;
+        return copy;
+    }
+    
+    /** Flaga broadcast ustawiona jawnie (bez uwzględnienia braku odbiorcy). */
+    boolean getBroadcastFlag() {
+        return broadcast;
+    }
+    
+    /** Nadaje numer sekwencyjny (wysyłający, przed wysłaniem). */
+    void setSequence(long sequence) {
+        this.sequence = sequence;
+    }
+    
+    /** Dołącza potwierdzenia - także do wiadomości innego typu niż ACK. */
+    void setAckInfo(long ackThrough, long[] ackRanges) {
+        this.ackThrough = ackThrough;
+        this.ackRanges = ackRanges;
+    }
+    
+    /**
+     * Zapisuje w wysłanej wiadomości, z jakim powodem host ją odrzucił.
+     */
+    void setRejected(String reason, int stepsApplied) {
+        this.nackReason = reason;
+        this.stepsApplied = stepsApplied;
+    }
+    
+    void setNackInfo(long nackFor, String nackReason, int stepsApplied) {
+        this.nackFor = nackFor;
+        this.nackReason = nackReason;
+        this.stepsApplied = stepsApplied;
+    }
+    
+    public boolean isBroadcast() {
+        return broadcast || targetId == null;
+    }
+    
+    public void setBroadcast(boolean broadcast) {
+        this.broadcast = broadcast;
+    }
+    
+    @Override
+    public String toString() {
+        return String.format("GameMessage[%s seq=%d from %s to %s]", 
+            type, sequence, senderId, targetId != null ? targetId : "ALL");
+    }
+}
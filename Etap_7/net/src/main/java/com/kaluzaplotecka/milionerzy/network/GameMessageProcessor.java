@@ -0,0 +1,395 @@
+package com.kaluzaplotecka.milionerzy.network;
+
+import com.kaluzaplotecka.milionerzy.events.GameEvent;
+import com.kaluzaplotecka.milionerzy.model.Auction;
+import com.kaluzaplotecka.milionerzy.model.GameState;
+import com.kaluzaplotecka.milionerzy.model.Player;
+import com.kaluzaplotecka.milionerzy.model.tiles.PropertyTile;
+import com.kaluzaplotecka.milionerzy.model.tiles.Tile;
+
+/**
+ * Stosuje wiadomości sieciowe do stanu gry.
+ *
+ * <p>Host wykonuje akcje graczy (rzut, zakup, licytacja, koniec tury) po
+ * sprawdzeniu, czyja jest tura, i potwierdza je ACK. Akcję, której nie
+ * może wykonać, od razu odrzuca przez NACK z {@link RejectReason} - klient
+ * nie czeka na timeout. Paczkę komend ({@link CommandBatch}) wykonuje
+ * krok po kroku i potwierdza jednym ACK. Klient odtwarza zdarzenia aukcji i zmiany tury
+ * rozgłoszone przez hosta.
+ *
+ * <p>Wydzielone z {@link GameState}, żeby model nie zależał od pakietu
+ * {@code network}.
+ */
+public final class GameMessageProcessor {
+
+    private GameMessageProcessor() {}
+
+    /**
+     * Przetwarza wiadomość sieciową i aktualizuje stan gry.
+     *
+     * @return {@code true} jeśli host wykonał akcję gracza
+     */
+    public static boolean process(GameState state, GameMessage msg, boolean isHost) {
+        return process(state, msg, isHost, null);
+    }
+
+    /**
+     * Przetwarza wiadomość sieciową; host potwierdza wykonaną akcję lub
+     * odrzuca ją z powodem przez {@code networkManager} (może być null).
+     *
+     * <p>Z {@code isHost = true} metoda wykonuje też komendy trybu lockstep
+     * na kopii stanu klienta - logika jest ta sama, więc wynik też.
+     *
+     * @return {@code true} jeśli host wykonał akcję gracza (np. rzut w jego
+     *         turze) - także część paczki komend przerwanej dalej NACK
+     */
+    public static boolean process(GameState state, GameMessage msg, boolean isHost,
+                                  NetworkManager networkManager) {
+        if (state == null || msg == null) return false;
+
+        Outcome outcome = apply(state, msg, isHost);
+        if (isHost && outcome.rejected() != null) {
+            System.out.println("Odrzucono " + msg.getType() + " od " + msg.getSenderId() + ": " + outcome.rejected());
+        }
+        if (isHost && msg.requiresAck() && networkManager != null) {
+            if (outcome.processed()) {
+                networkManager.sendAck(msg.getSequence(), msg.getSenderId());
+            } else if (outcome.rejected() != null) {
+                // Paczka przerwana po wykonanych krokach - NACK mówi, ile ich było
+                networkManager.sendNack(msg.getSequence(), msg.getSenderId(),
+                    outcome.rejected(), outcome.stepsApplied());
+            }
+        }
+        return outcome.processed() || outcome.stepsApplied() > 0;
+    }
+
+    /**
+     * Wynik komendy: wykonana albo odrzucona z powodem (oba puste - nic do
+     * zrobienia). Odrzucona paczka podaje liczbę kroków wykonanych przed
+     * odrzuconym.
+     */
+    private record Outcome(boolean processed, RejectReason rejected, int stepsApplied) {
+
+        Outcome(boolean processed, RejectReason rejected) {
+            this(processed, rejected, 0);
+        }
+    }
+
+    /**
+     * Stosuje wiadomość do stanu bez wysyłania ACK/NACK.
+     */
+    private static Outcome apply(GameState state, GameMessage msg, boolean isHost) {
+        boolean processed = false;
+        RejectReason rejected = null;
+        int stepsApplied = 0;
+        
+        switch (msg.getType()) {
+            case ROLL_DICE -> {
+                if (isHost) {
+                    String senderId = msg.getSenderId();
+                    Player p = state.getCurrentPlayer();
+                    System.out.println("[DEBUG ROLL_DICE] senderId=" + senderId + ", currentPlayer=" + (p != null ? p.getId() : "null"));
+                    rejected = checkTurn(state, senderId);
+                    if (rejected == null && state.hasRolled()) {
+                        rejected = RejectReason.ALREADY_ROLLED;
+                    }
+                    if (rejected == null) {
+                        // Jeśli klient przysłał wynik rzutu (int[] lub Integer), użyj go
+                        Object payload = msg.getPayload();
+                        if (payload instanceof Integer steps) {
+                            state.moveCurrentPlayer(steps);
+                        } else if (payload instanceof int[] stepsArr && stepsArr.length > 0) {
+                             // Obsługa int[] dla wstecznej kompatybilności (z testami)
+                             int sum = 0;
+                             for (int s : stepsArr) sum += s;
+                             state.moveCurrentPlayer(sum);
+                        } else {
+                            // Fallback: serwer losuje
+                            state.moveCurrentPlayer();
+                        }
+                        
+                        // Mark rolled handled by moveCurrentPlayer
+                        processed = true;
+                    }
+                }
+            }
+            case BUY_PROPERTY -> {
+                if (isHost) {
+                   rejected = checkPurchase(state, msg.getSenderId());
+                   if (rejected == null && !state.canCurrentPlayerBuy()) {
+                       rejected = RejectReason.INSUFFICIENT_FUNDS;
+                   }
+                   if (rejected == null) {
+                        if (state.buyCurrentProperty()) {
+                            state.nextTurn();
+                            processed = true;
+                        } else {
+                            rejected = RejectReason.NOT_FOR_SALE;
+                        }
+                   }
+                }
+            }
+            case DECLINE_PURCHASE -> {
+                if (isHost) {
+                   rejected = checkPurchase(state, msg.getSenderId());
+                   if (rejected == null) {
+                       state.startAuction((PropertyTile) state.getCurrentTile());
+                       processed = true;
+                   }
+                }
+            }
+            case AUCTION_START -> {
+                if (!isHost && msg.getPayload() instanceof Auction auction) {
+                    state.getPropertyManager().setCurrentAuction(auction);
+                     state.fireEvent(new GameEvent(
+                        GameEvent.Type.AUCTION_STARTED,
+                        null,
+                        auction,
+                        "Rozpoczęto aukcję: " + auction.getProperty().getCity()
+                    ));
+                }
+            }
+            case AUCTION_BID -> {
+                if (isHost) {
+                    String senderId = msg.getSenderId();
+                    Object payload = msg.getPayload();
+                    
+                    Player bidder = state.getPlayers().stream()
+                        .filter(p -> p.getId().equals(senderId))
+                        .findFirst()
+                        .orElse(null);
+                        
+                    rejected = checkAuction(state, bidder);
+                    if (rejected == null) {
+                        if (payload instanceof Integer amount) {
+                            rejected = checkBid(state.getCurrentAuction(), bidder, amount);
+                            if (rejected == null) {
+                                processed = state.placeBid(bidder, amount);
+                                if (!processed) rejected = RejectReason.BID_TOO_LOW;
+                            }
+                        } else if (payload instanceof String s && "pass".equals(s)) {
+                            state.passAuction(bidder);
+                            processed = true;
+                        } else {
+                            rejected = RejectReason.INVALID_PAYLOAD;
+                        }
+                    }
+                } else {
+                    if (state.hasActiveAuction()) {
+                       String senderId = msg.getSenderId();
+                       Object payload = msg.getPayload();
+                       System.out.println("GameState Client AUCTION_BID: sender=" + senderId + " payload=" + payload);
+                       Player bidder = state.getPlayers().stream()
+                            .filter(p -> p.getId().equals(senderId))
+                            .findFirst()
+                            .orElse(null);
+                            
+                       if (bidder != null && payload instanceof Integer amount) {
+                           System.out.println("GameState Client: placing bid for " + bidder.getUsername());
+                           state.getPropertyManager().getCurrentAuction().placeBid(bidder, amount);
+                           
+                           state.fireEvent(new GameEvent(
+                                GameEvent.Type.AUCTION_BID,
+                                bidder,
+                                amount,
+                                bidder.getUsername() + " licytuje: " + amount
+                           ));
+                       } else {
+                           System.out.println("GameState Client: Bidder not found or invalid payload. Bidder=" + (bidder==null?"null":bidder.getId()));
+                       }
+                    }
+                }
+            }
+            case AUCTION_PASS -> {
+                if (isHost) {
+                     String senderId = msg.getSenderId();
+                     Player bidder = state.getPlayers().stream()
+                        .filter(p -> p.getId().equals(senderId))
+                        .findFirst()
+                        .orElse(null);
+                     rejected = checkAuction(state, bidder);
+                     if (rejected == null) {
+                         state.passAuction(bidder);
+                         processed = true;
+                     }
+                } else {
+                    if (state.hasActiveAuction()) {
+                        String senderId = msg.getSenderId();
+                        Player bidder = state.getPlayers().stream()
+                            .filter(p -> p.getId().equals(senderId))
+                            .findFirst()
+                            .orElse(null);
+                        
+                        if (bidder != null) {
+                            state.getPropertyManager().getCurrentAuction().pass(bidder);
+                             state.fireEvent(new GameEvent(
+                                GameEvent.Type.AUCTION_BID,
+                                bidder,
+                                "pass",
+                                bidder.getUsername() + " pasuje"
+                           ));
+                        }
+                    }
+                }
+            }
+            case AUCTION_ENDED -> {
+                if (!isHost) {
+                     Object payload = msg.getPayload();
+                     if (payload instanceof Auction finalAuction) {
+                         state.getPropertyManager().setCurrentAuction(finalAuction);
+                         
+                         if (finalAuction.getHighestBidder() != null && finalAuction.getProperty() != null) {
+                             Tile t = state.getBoard().getTile(finalAuction.getProperty().getPosition());
+                             if (t instanceof PropertyTile pt) {
+                                 Player localWinner = state.getPlayers().stream()
+                                     .filter(p -> p.getId().equals(finalAuction.getHighestBidder().getId()))
+                                     .findFirst().orElse(null);
+                                 if (localWinner != null) {
+                                     pt.setOwner(localWinner);
+                                     localWinner.addProperty(pt);
+                                     localWinner.deductMoney(finalAuction.getHighestBid());
+                                 }
+                             }
+                         }
+                     }
+                     
+                     Player winner = state.getPropertyManager().getCurrentAuction() != null 
+                             ? state.getPropertyManager().getCurrentAuction().getHighestBidder() : null;
+                     
+                     state.fireEvent(new GameEvent(
+                        GameEvent.Type.AUCTION_ENDED,
+                        winner,
+                        state.getPropertyManager().getCurrentAuction(),
+                        "Aukcja zakończona"
+                    ));
+                     state.getPropertyManager().setCurrentAuction(null);
+                }
+            }
+
+            case END_TURN -> {
+                if (isHost) {
+                    rejected = checkTurn(state, msg.getSenderId());
+                    if (rejected == null) {
+                        state.nextTurn();
+                        processed = true;
+                    }
+                }
+            }
+            case NEXT_TURN -> {
+                if (!isHost) {
+                     String newCurrentPlayerId = msg.getSenderId();
+                     if (state.getTurnManager().setCurrentPlayerById(newCurrentPlayerId)) {
+                         Player currentPlayer = state.getTurnManager().getCurrentPlayer();
+                         if (currentPlayer != null) {
+                             state.fireEvent(new GameEvent(
+                                GameEvent.Type.TURN_STARTED,
+                                currentPlayer,
+                                "Tura gracza " + currentPlayer.getUsername()
+                            ));
+                         }
+                     }
+                }
+            }
+
+            case COMMAND_BATCH -> {
+                if (isHost) {
+                    Outcome batch = processBatch(state, msg);
+                    processed = batch.processed();
+                    rejected = batch.rejected();
+                    stepsApplied = batch.stepsApplied();
+                }
+            }
+
+            default -> {
+            }
+        }
+        return new Outcome(processed, rejected, stepsApplied);
+    }
+
+    // === PACZKI KOMEND (host) ===
+
+    /**
+     * Wykonuje kroki paczki po kolei jako kroki jednej komendy - bez
+     * osobnych ACK. Kroki z niespełnionym warunkiem są pomijane, a pierwszy
+     * odrzucony przerywa paczkę. Odrzucony krok niczego nie zmienia, więc
+     * stan to stan po {@code stepsApplied} wykonanych krokach - wcześniejszych
+     * (np. rzutu) nie da się cofnąć bez zdradzenia wyniku.
+     */
+    private static Outcome processBatch(GameState state, GameMessage msg) {
+        CommandBatch batch = CommandBatch.decode(msg.getPayload());
+        if (batch == null) return new Outcome(false, RejectReason.INVALID_PAYLOAD);
+        String senderId = msg.getSenderId();
+        int applied = 0;
+        for (CommandBatch.Step step : batch.getSteps()) {
+            if (!conditionHolds(state, senderId, step)) continue;
+            Outcome outcome = apply(state, step.toMessage(senderId), true);
+            if (!outcome.processed()) {
+                System.out.println("Paczka od " + senderId + " przerwana na " + step.type()
+                    + " po " + applied + " krokach");
+                return new Outcome(false, outcome.rejected() != null ? outcome.rejected() : RejectReason.OTHER,
+                    applied);
+            }
+            applied++;
+        }
+        return new Outcome(true, null);
+    }
+
+    /**
+     * Sprawdza warunek kroku na stanie po poprzednich krokach.
+     */
+    private static boolean conditionHolds(GameState state, String senderId, CommandBatch.Step step) {
+        return switch (step.condition()) {
+            case ALWAYS -> true;
+            case MY_TURN -> checkTurn(state, senderId) == null;
+            case CAN_BUY -> checkPurchase(state, senderId) == null && state.canCurrentPlayerBuy()
+                && (step.limit() <= 0 || ((PropertyTile) state.getCurrentTile()).getPrice() <= step.limit());
+        };
+    }
+
+    // === WALIDACJA KOMEND (host) ===
+
+    /**
+     * Sprawdza, czy gracz może teraz wykonać akcję w swojej turze.
+     */
+    private static RejectReason checkTurn(GameState state, String senderId) {
+        Player p = state.getCurrentPlayer();
+        if (p == null || !p.getId().equals(senderId)) return RejectReason.NOT_YOUR_TURN;
+        if (state.hasActiveAuction()) return RejectReason.AUCTION_IN_PROGRESS;
+        return null;
+    }
+
+    /**
+     * Sprawdza decyzję o zakupie: po rzucie, na wolnej nieruchomości.
+     */
+    private static RejectReason checkPurchase(GameState state, String senderId) {
+        RejectReason turn = checkTurn(state, senderId);
+        if (turn != null) return turn;
+        if (!state.hasRolled()) return RejectReason.NOT_ROLLED;
+        Tile t = state.getCurrentTile();
+        if (!(t instanceof PropertyTile pt) || pt.isOwned()) return RejectReason.NOT_FOR_SALE;
+        return null;
+    }
+
+    /**
+     * Sprawdza, czy gracz bierze udział w trwającej aukcji.
+     */
+    private static RejectReason checkAuction(GameState state, Player bidder) {
+        if (bidder == null) return RejectReason.UNKNOWN_PLAYER;
+        Auction auction = state.getCurrentAuction();
+        if (auction == null || !auction.isActive()) return RejectReason.NO_ACTIVE_AUCTION;
+        if (!auction.getParticipants().contains(bidder) || auction.getPassedPlayers().contains(bidder)) {
+            return RejectReason.NOT_IN_AUCTION;
+        }
+        return null;
+    }
+
+    /**
+     * Sprawdza ofertę tak jak {@link Auction#placeBid(Player, int)}, ale
+     * z powodem odrzucenia.
+     */
+    private static RejectReason checkBid(Auction auction, Player bidder, int amount) {
+        if (bidder.getMoney() < amount) return RejectReason.INSUFFICIENT_FUNDS;
+        if (amount < auction.getMinimumAcceptableBid()) return RejectReason.BID_TOO_LOW;
+        return null;
+    }
+}
@@ -0,0 +1,341 @@
+package com.kaluzaplotecka.milionerzy.network;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.net.BindException;
+import java.net.ConnectException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.SocketAddress;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executor;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Transport w pamięci: host i klienci w jednej JVM wymieniają wiadomości
+ * przez kolejki, bez gniazd i portów systemu.
+ *
+ * <p>Jeden obiekt transportu to osobna "sieć" - host i jego klienci muszą
+ * dostać ten sam obiekt ({@link NetworkManager#setTransport(Transport)}),
+ * a port jest tylko kluczem hosta w tej sieci. Testy z własnym transportem
+ * mogą więc działać równolegle bez kolizji portów.
+ *
+ * <p>Domyślnie wiadomości nie są kodowane: odbiorca dostaje tę samą
+ * instancję {@link GameMessage}. Wyjątkiem są wiadomości z modyfikowalnymi
+ * obiektami modelu (stan gry, aukcja, pole) - każdy odbiorca dostaje
+ * własną kopię przez kodek połączenia, tak jak przy TCP. Z
+ * {@code encodeFrames = true} kodowana jest każda wiadomość, co sprawdza
+ * też kodeki.
+ *
+ * <p>Limit ramek kolejki klienta działa jak w {@link NioHostServer}
+ * (kosmetyczne są odrzucane, potem klient jest rozłączany); limit bajtów
+ * nie ma tu zastosowania.
+ */
+public final class InMemoryTransport implements Transport {
+
+    // Znacznik końca strumienia w kolejce klienta
+    private static final GameMessage END_OF_STREAM =
+        new GameMessage(GameMessage.MessageType.DISCONNECT, null, null);
+
+    private final Map<Integer, MemoryServer> servers = new ConcurrentHashMap<>();
+    private final AtomicInteger nextClientPort = new AtomicInteger(1);
+    private final boolean encodeFrames;
+
+    public InMemoryTransport() {
+        this(false);
+    }
+
+    /**
+     * @param encodeFrames czy kodować każdą wiadomość kodekiem połączenia
+     */
+    public InMemoryTransport(boolean encodeFrames) {
+        this.encodeFrames = encodeFrames;
+    }
+
+    public boolean isEncodeFrames() { return encodeFrames; }
+
+    @Override
+    public Server newServer(Handler handler, int ioThreads) {
+        return new MemoryServer(handler);
+    }
+
+    @Override
+    public Link connect(String host, int port) throws IOException {
+        MemoryServer server = servers.get(port);
+        if (server == null || !server.running) {
+            throw new ConnectException("Brak hosta w pamięci na porcie " + port);
+        }
+        return server.accept();
+    }
+
+    // === PRZEKAZYWANIE WIADOMOŚCI ===
+
+    /**
+     * Czy odbiorca może dostać tę samą instancję wiadomości - ładunek jest
+     * niezmienny albo nikt go nie modyfikuje po wysłaniu.
+     */
+    private static boolean isShareable(GameMessage message) {
+        Object payload = message.getPayload();
+        return payload == null
+            || payload instanceof Integer || payload instanceof Long
+            || payload instanceof Boolean || payload instanceof String
+            || payload instanceof int[] || payload instanceof String[]
+            || (payload instanceof StateDelta delta && delta.getAuction() == null);
+    }
+
+    /**
+     * Zwraca wiadomość od hosta dla klienta: tę samą albo zdekodowaną
+     * z ramki (ramka kodowana raz na kodek, dekodowana przez każdego odbiorcę).
+     */
+    private GameMessage toClient(EncodedMessage encoded, WireCodec codec) throws IOException {
+        GameMessage message = encoded.getMessage();
+        if (!encodeFrames && isShareable(message)) return message;
+        byte[] frame = encoded.frameFor(codec);
+        return FrameCodec.decode(frame, FrameCodec.HEADER_SIZE, frame.length - FrameCodec.HEADER_SIZE);
+    }
+
+    /**
+     * Zwraca wiadomość od klienta dla hosta, z ramką do ponownego użycia
+     * przy przekazaniu dalej, jeśli była kodowana.
+     */
+    private EncodedMessage toHost(GameMessage message, WireCodec codec) throws IOException {
+        if (!encodeFrames && isShareable(message)) return new EncodedMessage(message);
+        byte[] frame = FrameCodec.encode(message, codec);
+        int length = frame.length - FrameCodec.HEADER_SIZE;
+        GameMessage copy = FrameCodec.decode(frame, FrameCodec.HEADER_SIZE, length);
+        return EncodedMessage.received(copy, codec, frame);
+    }
+
+    // === SERWER ===
+
+    /**
+     * Host w pamięci. Zdarzenia wszystkich połączeń obsługuje po kolei jedna
+     * kolejka zadań - jak jedna pętla I/O {@link NioHostServer}.
+     */
+    private final class MemoryServer implements Server {
+        private final Handler handler;
+        private final Set<MemoryConnection> connections = ConcurrentHashMap.newKeySet();
+        private ExecutorService workers;
+        private Executor loop;
+        private volatile boolean running;
+        private int port;
+        private volatile int maxQueuedFrames = NioHostServer.DEFAULT_MAX_QUEUED_FRAMES;
+        private volatile SlowConsumerPolicy slowConsumerPolicy = SlowConsumerPolicy.COLLAPSE_STATE;
+
+        MemoryServer(Handler handler) {
+            this.handler = handler;
+        }
+
+        @Override
+        public void start(int port) throws IOException {
+            if (running) throw new IllegalStateException("Serwer już działa");
+            if (servers.putIfAbsent(port, this) != null) {
+                throw new BindException("Port " + port + " jest już zajęty w tej sieci");
+            }
+            this.port = port;
+            workers = NetworkThreads.newTaskExecutor("milionerzy-mem-io", false);
+            loop = NetworkThreads.serial(workers);
+            running = true;
+        }
+
+        @Override
+        public void stop() {
+            if (!running) return;
+            running = false;
+            servers.remove(port, this);
+            for (MemoryConnection connection : connections) {
+                connection.closeNow();
+            }
+            // Zakolejkowane zadania (rozłączenia) jeszcze się wykonają
+            workers.shutdown();
+        }
+
+        @Override
+        public boolean isRunning() { return running; }
+
+        @Override
+        public void setOutboundLimits(int maxFrames, long maxBytes) {
+            if (maxFrames < 1 || maxBytes < 1) throw new IllegalArgumentException("Limity kolejki muszą być dodatnie");
+            this.maxQueuedFrames = maxFrames;
+        }
+
+        @Override
+        public void setSlowConsumerPolicy(SlowConsumerPolicy policy) {
+            this.slowConsumerPolicy = policy;
+        }
+
+        Link accept() {
+            InetSocketAddress address = new InetSocketAddress(
+                InetAddress.getLoopbackAddress(), nextClientPort.getAndIncrement());
+            MemoryConnection connection = new MemoryConnection(this, address);
+            connections.add(connection);
+            loop.execute(() -> handler.onConnected(connection));
+            return connection.link;
+        }
+    }
+
+    // === POŁĄCZENIE ===
+
+    /**
+     * Połączenie po stronie hosta. Wiadomości do klienta trafiają od razu
+     * do kolejki czytanej przez {@link MemoryLink}.
+     */
+    private final class MemoryConnection implements Connection {
+        private final MemoryServer server;
+        private final SocketAddress remoteAddress;
+        private final BlockingQueue<GameMessage> toClient = new LinkedBlockingQueue<>();
+        private final MemoryLink link = new MemoryLink(this);
+        private final AtomicBoolean closed = new AtomicBoolean(false);
+        private volatile String playerId;
+        private volatile WireCodec codec = FrameCodec.DEFAULT_CODEC;
+        private volatile Object attachment;
+
+        // Metryki - zapisywane pod blokadą połączenia
+        private volatile int statMaxQueuedFrames;
+        private volatile long statSentFrames;
+        private volatile long statDroppedFrames;
+
+        MemoryConnection(MemoryServer server, SocketAddress remoteAddress) {
+            this.server = server;
+            this.remoteAddress = remoteAddress;
+        }
+
+        @Override
+        public void send(GameMessage message) {
+            send(new EncodedMessage(message));
+        }
+
+        @Override
+        public void send(EncodedMessage message) {
+            if (closed.get()) return;
+            GameMessage delivered;
+            try {
+                delivered = toClient(message, codec);
+            } catch (IOException e) {
+                System.err.println("Błąd kodowania wiadomości do klienta: " + e.getMessage());
+                return;
+            }
+            enqueue(delivered);
+        }
+
+        private synchronized void enqueue(GameMessage message) {
+            if (closed.get()) return;
+            if (toClient.size() >= server.maxQueuedFrames) {
+                if (server.slowConsumerPolicy != SlowConsumerPolicy.DISCONNECT
+                        && message.isCosmetic()) {
+                    statDroppedFrames++;
+                    return;
+                }
+                System.err.println("Klient " + (playerId != null ? playerId : remoteAddress)
+                    + " nie nadąża (kolejka: " + toClient.size() + " ramek) - rozłączanie");
+                abort();
+                return;
+            }
+            toClient.add(message);
+            statSentFrames++;
+            int depth = toClient.size();
+            if (depth > statMaxQueuedFrames) statMaxQueuedFrames = depth;
+        }
+
+        @Override
+        public void execute(Runnable task) {
+            server.loop.execute(task);
+        }
+
+        @Override
+        public void abort() {
+            toClient.clear();
+            closeNow();
+        }
+
+        @Override
+        public void close() {
+            // Zakolejkowane wiadomości zostają - klient przeczyta je przed końcem strumienia
+            closeNow();
+        }
+
+        void closeNow() {
+            if (!closed.compareAndSet(false, true)) return;
+            toClient.add(END_OF_STREAM);
+            server.connections.remove(this);
+            server.loop.execute(() -> server.handler.onDisconnected(this));
+        }
+
+        @Override public SocketAddress getRemoteAddress() { return remoteAddress; }
+        @Override public String getPlayerId() { return playerId; }
+        @Override public void setPlayerId(String playerId) { this.playerId = playerId; }
+        @Override public boolean isOpen() { return !closed.get(); }
+        @Override public WireCodec getCodec() { return codec; }
+        @Override public void setCodec(WireCodec codec) { this.codec = codec; }
+        @Override public Object getAttachment() { return attachment; }
+        @Override public void setAttachment(Object attachment) { this.attachment = attachment; }
+
+        @Override
+        public NioHostServer.QueueStats getQueueStats() {
+            // Bez zapisu zbiorczego - każda wiadomość to jedno przekazanie
+            return new NioHostServer.QueueStats(toClient.size(), 0, statMaxQueuedFrames,
+                statSentFrames, statSentFrames, statDroppedFrames, 0);
+        }
+    }
+
+    /**
+     * Strona klienta połączenia w pamięci.
+     */
+    private final class MemoryLink implements Link {
+        private final MemoryConnection connection;
+
+        MemoryLink(MemoryConnection connection) {
+            this.connection = connection;
+        }
+
+        @Override
+        public void write(GameMessage message, WireCodec codec) throws IOException {
+            if (connection.closed.get()) throw new EOFException("Połączenie zamknięte");
+            EncodedMessage received;
+            try {
+                received = toHost(message, codec);
+            } catch (IOException e) {
+                System.err.println("Błąd kodowania wiadomości do hosta: " + e.getMessage());
+                return;
+            }
+            MemoryServer server = connection.server;
+            server.loop.execute(() -> {
+                if (connection.isOpen()) server.handler.onMessage(connection, received);
+            });
+        }
+
+        @Override
+        public void flush() {
+            // Wiadomości są przekazywane od razu
+        }
+
+        @Override
+        public GameMessage read() throws IOException {
+            GameMessage message;
+            try {
+                message = connection.toClient.take();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException("Przerwano odczyt");
+            }
+            if (message == END_OF_STREAM) {
+                // Kolejne odczyty też kończą się końcem strumienia
+                connection.toClient.add(END_OF_STREAM);
+                throw new EOFException("Połączenie zamknięte");
+            }
+            return message;
+        }
+
+        @Override
+        public void close() {
+            connection.closeNow();
+        }
+    }
+}
@@ -0,0 +1,74 @@
+package com.kaluzaplotecka.milionerzy.network;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.StreamCorruptedException;
+
+/**
+ * Kodek oparty o standardową serializację Javy.
+ *
+ * <p>Domyślny i zawsze dostępny - używany przed uzgodnieniem kodeka
+ * oraz z klientami, które nie obsługują {@link BinaryWireCodec}.
+ * Ciało zaczyna się od nagłówka strumienia {@code 0xACED}.
+ */
+public final class JavaSerializationCodec implements WireCodec {
+
+    public static final JavaSerializationCodec INSTANCE = new JavaSerializationCodec();
+
+    /** Nazwa kodeka przy uzgadnianiu. */
+    public static final String NAME = "java";
+
+    private static final byte MAGIC_0 = (byte) 0xAC;
+    private static final byte MAGIC_1 = (byte) 0xED;
+
+    private JavaSerializationCodec() {}
+
+    @Override
+    public String getName() {
+        return NAME;
+    }
+
+    @Override
+    public void encode(GameMessage message, ByteArrayOutputStream out) throws IOException {
+        try (ObjectOutputStream oos = new ObjectOutputStream(out)) {
+            oos.writeObject(message);
+        }
+    }
+
+    @Override
+    public GameMessage decode(byte[] body, int offset, int length) throws IOException {
+        Object obj = readObject(body, offset, length);
+        if (obj instanceof GameMessage msg) {
+            return msg;
+        }
+        throw new StreamCorruptedException("Ramka nie zawiera GameMessage: " + obj);
+    }
+
+    @Override
+    public boolean recognizes(byte[] body, int offset, int length) {
+        return length >= 2 && body[offset] == MAGIC_0 && body[offset + 1] == MAGIC_1;
+    }
+
+    /**
+     * Serializuje dowolny obiekt (używane też przez kodek binarny
+     * dla payloadów bez własnego formatu).
+     */
+    static byte[] writeObject(Object obj) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(256);
+        try (ObjectOutputStream oos = new ObjectOutputStream(bytes)) {
+            oos.writeObject(obj);
+        }
+        return bytes.toByteArray();
+    }
+
+    static Object readObject(byte[] body, int offset, int length) throws IOException {
+        try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(body, offset, length))) {
+            return in.readObject();
+        } catch (ClassNotFoundException e) {
+            throw new IOException("Nieznana klasa w ramce: " + e.getMessage(), e);
+        }
+    }
+}
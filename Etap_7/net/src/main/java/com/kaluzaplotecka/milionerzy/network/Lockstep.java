@@ -0,0 +1,144 @@
+package com.kaluzaplotecka.milionerzy.network;
+
+import java.util.Arrays;
+import java.util.Set;
+
+import com.kaluzaplotecka.milionerzy.model.StateHash;
+
+/**
+ * Ramki trybu lockstep.
+ *
+ * <p>W trybie lockstep host nie rozsyła wyników (rzutów, ruchów, pieniędzy,
+ * różnic stanu). Na starcie gry wszyscy dostają ziarno gry
+ * ({@code GameState.setSeed}), a potem host rozsyła tylko przyjęte komendy
+ * graczy w ustalonej kolejności. Każdy klient wykonuje je na swojej kopii
+ * stanu tą samą logiką ({@link GameMessageProcessor}), więc kostki i talie
+ * dają u wszystkich te same wyniki.
+ *
+ * <p>Komenda zajmuje jedną ramkę {@link GameMessage.MessageType#LOCKSTEP_COMMAND}
+ * z tablicą {@code int[] {numer, typ komendy, skrót stanu, kwota}} - kilka
+ * bajtów niezależnie od rozmiaru stanu ({@link CommandBatch} dopisuje
+ * zamiast kwoty swoje kroki). Numer komendy to wersja stanu, do
+ * której prowadzi: klient pomija komendy zawarte już w snapshocie, a przy
+ * luce prosi o pełny stan ({@code RESYNC_REQUEST}). Skrót
+ * ({@link StateHash}, skrócony do 31 bitów) to stan hosta po komendzie -
+ * klient z innym wynikiem też prosi o pełny stan.
+ *
+ * <p>Ziarno zna każdy klient, więc może przewidzieć rzuty - tryb jest dla
+ * gier, w których ruch sieciowy jest ważniejszy niż ta przewaga.
+ *
+ * @see ClientStateSync
+ * @see GameAuthority#setLockstep(boolean)
+ */
+public final class Lockstep {
+
+    /** Komendy graczy wykonywane przez wszystkie kopie stanu. */
+    public static final Set<GameMessage.MessageType> COMMAND_TYPES = Set.of(
+        GameMessage.MessageType.ROLL_DICE,
+        GameMessage.MessageType.BUY_PROPERTY,
+        GameMessage.MessageType.DECLINE_PURCHASE,
+        GameMessage.MessageType.AUCTION_BID,
+        GameMessage.MessageType.AUCTION_PASS,
+        GameMessage.MessageType.END_TURN,
+        GameMessage.MessageType.COMMAND_BATCH
+    );
+
+    private static final GameMessage.MessageType[] TYPES = GameMessage.MessageType.values();
+
+    private Lockstep() {}
+
+    /**
+     * Czy wiadomość tego typu jest komendą gracza trybu lockstep.
+     */
+    public static boolean isCommand(GameMessage.MessageType type) {
+        return COMMAND_TYPES.contains(type);
+    }
+
+    /**
+     * Zwraca komendę w postaci wykonywanej przez host i klientów: bez danych,
+     * których klient nie może narzucić (wynik rzutu liczy ziarno), z pasem
+     * w aukcji jako {@code AUCTION_PASS}, paczka komend bez wyników rzutów
+     * (null, gdy jest niepoprawna - wtedy host ją odrzuci). Numer wiadomości zostaje - host
+     * potwierdza nim komendę.
+     */
+    static GameMessage sanitize(GameMessage msg) {
+        GameMessage.MessageType type = msg.getType();
+        Object payload = null;
+        if (type == GameMessage.MessageType.AUCTION_BID) {
+            if (msg.getPayload() instanceof Integer amount) {
+                payload = amount;
+            } else {
+                type = GameMessage.MessageType.AUCTION_PASS;
+            }
+        } else if (type == GameMessage.MessageType.COMMAND_BATCH) {
+            CommandBatch batch = CommandBatch.decode(msg.getPayload());
+            if (batch != null) payload = batch.withoutDiceResults().encode();
+        }
+        return new GameMessage(msg.getSequence(), type, msg.getSenderId(), null, payload, msg.getTimestamp());
+    }
+
+    /**
+     * Tworzy ramkę rozsyłaną do klientów dla przyjętej komendy.
+     *
+     * @param command komenda po {@link #sanitize(GameMessage)}
+     * @param index wersja stanu po wykonaniu komendy
+     * @param stateHash skrót stanu po wykonaniu komendy
+     */
+    static GameMessage frame(GameMessage command, long index, long stateHash) {
+        int hash = shortHash(stateHash);
+        int[] payload;
+        if (command.getPayload() instanceof Integer amount) {
+            payload = new int[]{Math.toIntExact(index), command.getType().ordinal(), hash, amount};
+        } else if (command.getPayload() instanceof int[] steps) {
+            // Paczka komend - kroki dopisane za nagłówkiem ramki
+            payload = new int[3 + steps.length];
+            payload[0] = Math.toIntExact(index);
+            payload[1] = command.getType().ordinal();
+            payload[2] = hash;
+            System.arraycopy(steps, 0, payload, 3, steps.length);
+        } else {
+            payload = new int[]{Math.toIntExact(index), command.getType().ordinal(), hash};
+        }
+        GameMessage frame = new GameMessage(GameMessage.MessageType.LOCKSTEP_COMMAND, command.getSenderId(), payload);
+        frame.setBroadcast(true);
+        return frame;
+    }
+
+    /**
+     * Zwraca numer komendy z ramki (-1 gdy ramka jest uszkodzona).
+     */
+    public static long index(GameMessage frame) {
+        return frame.getPayload() instanceof int[] data && data.length >= 3 ? data[0] : -1;
+    }
+
+    /**
+     * Zwraca skrót stanu hosta zapisany w ramce.
+     */
+    public static int stateHash(GameMessage frame) {
+        return frame.getPayload() instanceof int[] data && data.length >= 3 ? data[2] : 0;
+    }
+
+    /**
+     * Skraca {@link StateHash} do 31 bitów przesyłanych w ramce (liczba
+     * nieujemna - krótszy zapis w kodeku binarnym).
+     */
+    public static int shortHash(long stateHash) {
+        return (int) ((stateHash ^ (stateHash >>> 32)) & 0x7FFFFFFF);
+    }
+
+    /**
+     * Odtwarza komendę gracza z ramki lub zwraca null, gdy ramka nie niesie
+     * znanej komendy.
+     */
+    public static GameMessage command(GameMessage frame) {
+        if (!(frame.getPayload() instanceof int[] data) || data.length < 3) return null;
+        if (data[1] < 0 || data[1] >= TYPES.length || !isCommand(TYPES[data[1]])) return null;
+        Object payload = null;
+        if (TYPES[data[1]] == GameMessage.MessageType.COMMAND_BATCH) {
+            payload = Arrays.copyOfRange(data, 3, data.length);
+        } else if (data.length > 3) {
+            payload = Integer.valueOf(data[3]);
+        }
+        return new GameMessage(TYPES[data[1]], frame.getSenderId(), payload);
+    }
+}
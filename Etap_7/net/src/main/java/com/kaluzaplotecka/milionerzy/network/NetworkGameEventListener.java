@@ -16,10 +16,14 @@ import java.util.function.Supplier;
  * <p>Główne funkcjonalności:
  * <ul>
  *   <li>Mapowanie zdarzeń gry na wiadomości sieciowe</li>
- *   <li>Rozgłaszanie stanu gry przy zmianie tury</li>
+ *   <li>Rozsyłanie różnic stanu ({@link StateDelta}) po każdym zdarzeniu</li>
  *   <li>Synchronizacja aukcji, ruchu i zmian pieniędzy</li>
  * </ul>
  * 
+ * <p>Pełny snapshot stanu wysyłany jest tylko raz na początku
+ * ({@link #broadcastSnapshot()}); później klienci dostają wyłącznie
+ * różnice z rosnącym numerem wersji.
+ * 
  * @see GameEventListener
  * @see NetworkManager
  */
@@ -27,6 +31,7 @@ public class NetworkGameEventListener implements GameEventListener {
 
     private final NetworkManager networkManager;
     private final Supplier<GameState> gameStateSupplier;
+    private final StateDeltaTracker deltaTracker = new StateDeltaTracker();
 
     /**
      * Tworzy nowy listener zdarzeń sieciowych.
@@ -46,11 +51,6 @@ public class NetworkGameEventListener implements GameEventListener {
             return;
         }
 
-        // Przy zmianie tury - wyślij pełny sync stanu gry do wszystkich klientów
-        if (event.getType() == GameEvent.Type.TURN_STARTED) {
-            broadcastGameStateSync();
-        }
-
         MessageType msgType = mapEventTypeToMessageType(event.getType());
         if (msgType != null) {
             Object payload = event.getData();
@@ -90,22 +90,50 @@ public class NetworkGameEventListener implements GameEventListener {
             msg.setBroadcast(true);
             networkManager.send(msg);
         }
+
+        broadcastStateDelta();
     }
 
     /**
-     * Wysyła pełny stan gry do wszystkich klientów.
-     * Wywoływane przy każdej zmianie tury dla pełnej synchronizacji.
+     * Wysyła pełny stan gry do wszystkich klientów i ustawia go jako
+     * bazę dla kolejnych różnic. Wywoływane na początku gry.
      */
-    private void broadcastGameStateSync() {
+    public void broadcastSnapshot() {
         GameState currentState = gameStateSupplier.get();
-        if (currentState != null) {
-            GameMessage syncMsg = new GameMessage(
-                MessageType.GAME_STATE_SYNC,
+        if (currentState == null) return;
+        
+        deltaTracker.captureBaseline(currentState);
+        GameMessage syncMsg = new GameMessage(
+            MessageType.GAME_STATE_SYNC,
+            networkManager.getPlayerId(),
+            currentState
+        );
+        syncMsg.setBroadcast(true);
+        networkManager.send(syncMsg);
+    }
+
+    /**
+     * Wysyła różnicę stanu względem ostatniej wersji (jeśli coś się zmieniło).
+     * Przy braku stanu bazowego wysyła pełny snapshot.
+     */
+    private void broadcastStateDelta() {
+        GameState currentState = gameStateSupplier.get();
+        if (currentState == null) return;
+        
+        if (!deltaTracker.hasBaseline()) {
+            broadcastSnapshot();
+            return;
+        }
+        
+        StateDelta delta = deltaTracker.diff(currentState);
+        if (delta != null) {
+            GameMessage deltaMsg = new GameMessage(
+                MessageType.STATE_DELTA,
                 networkManager.getPlayerId(),
-                currentState
+                delta
             );
-            syncMsg.setBroadcast(true);
-            networkManager.send(syncMsg);
+            deltaMsg.setBroadcast(true);
+            networkManager.send(deltaMsg);
         }
     }
 
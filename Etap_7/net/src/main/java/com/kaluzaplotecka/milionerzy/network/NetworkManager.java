@@ -0,0 +1,1517 @@
+package com.kaluzaplotecka.milionerzy.network;
+
+import java.io.*;
+import java.net.*;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+import com.kaluzaplotecka.milionerzy.model.GameSnapshot;
+import com.kaluzaplotecka.milionerzy.model.GameState;
+
+/**
+ * Zarządza komunikacją sieciową między graczami.
+ * Obsługuje tryb hosta (serwera) i klienta.
+ * 
+ * <p>Połączenia zapewnia {@link Transport}. Domyślny {@link TcpTransport}:
+ * host działa na {@link NioHostServer} - kilka pętli I/O obsługuje
+ * wszystkich klientów, klient używa zwykłego blokującego gniazda, a obie
+ * strony wymieniają ramki kodowane przez {@link FrameCodec}.
+ * {@link InMemoryTransport} łączy hosta i klientów w jednej JVM kolejkami.
+ * 
+ * <p>Wysyłanie z klienta nie blokuje wywołującego (np. wątku FX): ramki
+ * trafiają do kolejki opróżnianej przez wątek piszący, który łączy
+ * oczekujące ramki w jeden flush. W trybie wątków wirtualnych
+ * ({@link NetworkThreads}) czytnik, pisarz i obsługa wiadomości hosta
+ * działają na wątkach wirtualnych.
+ * 
+ * <p>Wiadomości klienta wymagające ACK dostają kolejne numery sekwencyjne
+ * połączenia. Host zbiera numery przetworzonych wiadomości w
+ * {@link AckWindow} i potwierdza je jedną ramką ACK na paczkę odczytu,
+ * albo dołącza potwierdzenie do snapshotu lub NACK wysyłanego temu klientowi.
+ * 
+ * <p>Obie strony wysyłają co {@link #DEFAULT_HEARTBEAT_INTERVAL_MS} ms PING
+ * i mierzą RTT z odpowiedzi PONG ({@link PeerHealth}). Partner, który nie
+ * odpowiada na kolejne PINGi, jest oznaczany jako opóźniony, a potem
+ * rozłączany - także przy półotwartym połączeniu TCP, gdzie zapis się nie
+ * kończy błędem.
+ * 
+ * <p>Broadcasty hosta są numerowane i trzymane w {@link ReplayBuffer}.
+ * Klient, któremu zerwało się połączenie, łączy się ponownie i wysyła
+ * RESUME z tokenem sesji z CONNECT_ACCEPTED i numerem ostatniej odebranej
+ * ramki - host dosyła tylko brakujące ramki (albo snapshot, gdy bufor
+ * już ich nie ma) i zachowuje stan potwierdzeń ACK gracza.
+ */
+public class NetworkManager {
+    
+    public enum Mode { HOST, CLIENT, OFFLINE }
+    
+    private Mode mode = Mode.OFFLINE;
+    private String playerId;
+    
+    // Serwer (host)
+    private Transport transport = TcpTransport.INSTANCE;
+    private Transport.Server server;
+    private int ioThreads = NioHostServer.DEFAULT_IO_THREADS;
+    private int maxQueuedFrames = NioHostServer.DEFAULT_MAX_QUEUED_FRAMES;
+    private long maxQueuedBytes = NioHostServer.DEFAULT_MAX_QUEUED_BYTES;
+    private SlowConsumerPolicy slowConsumerPolicy = SlowConsumerPolicy.COLLAPSE_STATE;
+    private final List<Transport.Connection> clients = new CopyOnWriteArrayList<>();
+    private final Map<Transport.Connection, ClientSession> sessions = new ConcurrentHashMap<>();
+    
+    // Strumień broadcastów hosta i wznawianie sesji
+    public static final long SESSION_RESUME_WINDOW_MS = 60_000;
+    private volatile long sessionResumeWindowMs = SESSION_RESUME_WINDOW_MS;
+    private final Object streamLock = new Object();
+    private long outboundSequence;
+    private int replayCapacity = ReplayBuffer.DEFAULT_CAPACITY;
+    private ReplayBuffer replayBuffer;
+    private final Map<String, ClientSession> sessionsByToken = new ConcurrentHashMap<>();
+    
+    // Widzowie - osobny strumień tylko do odczytu
+    public static final String SPECTATOR_FLAG = "spectator";
+    private final Set<Transport.Connection> spectators = ConcurrentHashMap.newKeySet();
+    private long spectatorDelayMs;
+    private SpectatorFanout spectatorFanout;
+    
+    // Lockstep - komendy graczy rozsyła autorytet, nie przekaźnik
+    private volatile boolean lockstep;
+    
+    // Klient
+    private volatile Transport.Link clientLink;
+    private Thread clientThread;
+    private Thread clientWriterThread;
+    private final BlockingQueue<GameMessage> clientOutbound = new LinkedBlockingQueue<>();
+    private static final GameMessage END_OF_STREAM =
+        new GameMessage(GameMessage.MessageType.DISCONNECT, null, null);
+    private static final long WRITER_DRAIN_TIMEOUT_MS = 500;
+    private volatile WireCodec clientCodec = FrameCodec.DEFAULT_CODEC;
+    private final AtomicLong clientSequence = new AtomicLong();
+    // Ponowione komendy pominięte przez okno duplikatów (host)
+    private final AtomicLong suppressedDuplicates = new AtomicLong();
+    
+    // Wznawianie sesji (klient)
+    private static final int RESUME_ATTEMPTS = 5;
+    private static final long RESUME_BACKOFF_MS = 250;
+    private String clientHost;
+    private int clientPort;
+    private String clientRoomCode;
+    private volatile String sessionToken;
+    private volatile long lastSeenSequence;
+    private volatile boolean resumePending;
+    private volatile boolean spectator;
+    private int resumeAttempts;
+    
+    // Kodeki oferowane przy CONNECT (klient) lub akceptowane (host)
+    private String offeredCodecs = FrameCodec.supportedCodecNames();
+    
+    // Callback na otrzymane wiadomości
+    private Consumer<GameMessage> messageHandler;
+    
+    // Callback na zmiany połączenia
+    private Consumer<String> connectionHandler;
+
+    // Provider stanu gry (dla hosta) i zakodowany snapshot dla dołączających
+    private volatile Supplier<GameState> gameStateProvider;
+    private volatile Supplier<GameSnapshot> snapshotProvider;
+    private final SnapshotCache snapshotCache = new SnapshotCache();
+    private static final int MAX_SNAPSHOT_CATCH_UP = 64;
+    
+    // System ACK
+    private final PendingMessageTracker pendingTracker;
+    private Consumer<GameMessage> sendingCallback;    // wywoływane przy wysyłaniu
+    private Consumer<GameMessage> ackCallback;        // wywoływane po ACK
+    private BiConsumer<GameMessage, RejectReason> nackCallback; // wywoływane po NACK
+    private Consumer<GameMessage> timeoutCallback;    // wywoływane po timeout
+    
+    private volatile boolean running = false;
+    
+    // Heartbeat
+    public static final long DEFAULT_HEARTBEAT_INTERVAL_MS = 1000;
+    public static final int DEFAULT_LAG_AFTER_MISSED = 2;
+    public static final int DEFAULT_EVICT_AFTER_MISSED = 5;
+    private long heartbeatIntervalMs = DEFAULT_HEARTBEAT_INTERVAL_MS;
+    private int lagAfterMissed = DEFAULT_LAG_AFTER_MISSED;
+    private int evictAfterMissed = DEFAULT_EVICT_AFTER_MISSED;
+    private volatile long heartbeatGeneration;
+    private volatile TimingWheel.Timeout heartbeatTask;
+    private volatile PeerHealth hostHealth = new PeerHealth();
+    private Consumer<PeerHealth.Snapshot> heartbeatCallback;
+    
+    // Wątki wirtualne (opcjonalnie)
+    private final boolean virtualThreads;
+    private ExecutorService hostWorkers;
+    private Executor hostInbound = Runnable::run;
+    
+    public static final int DEFAULT_PORT = 5555;
+    
+    public NetworkManager(String playerId) {
+        this(playerId, NetworkThreads.virtualThreadsByDefault());
+    }
+    
+    /**
+     * @param playerId ID lokalnego gracza
+     * @param virtualThreads czy używać wątków wirtualnych (patrz {@link NetworkThreads})
+     */
+    public NetworkManager(String playerId, boolean virtualThreads) {
+        this.playerId = playerId;
+        this.virtualThreads = virtualThreads;
+        // Timeouty ACK na współdzielonym kole czasowym - bez wątku na tracker
+        this.pendingTracker = new PendingMessageTracker();
+        
+        // Skonfiguruj callbacki trackera
+        pendingTracker.setResendCallback(this::resendMessage);
+        pendingTracker.setAckCallback(msg -> {
+            if (ackCallback != null) ackCallback.accept(msg);
+        });
+        pendingTracker.setNackCallback((msg, reason) -> {
+            if (nackCallback != null) nackCallback.accept(msg, RejectReason.fromCode(reason));
+        });
+        pendingTracker.setTimeoutCallback(msg -> {
+            if (timeoutCallback != null) timeoutCallback.accept(msg);
+        });
+    }
+    
+    private String roomCode;
+
+    // === TRYB HOSTA (SERWERA) ===
+    
+    /**
+     * Uruchamia serwer na podanym porcie.
+     */
+    public void startHost(int port, String roomCode) throws IOException {
+        Transport.Handler handler = beginHosting(roomCode);
+        server = transport.newServer(handler, ioThreads);
+        server.setOutboundLimits(maxQueuedFrames, maxQueuedBytes);
+        server.setSlowConsumerPolicy(slowConsumerPolicy);
+        try {
+            server.start(port);
+        } catch (IOException e) {
+            server = null;
+            mode = Mode.OFFLINE;
+            running = false;
+            throw e;
+        }
+        
+        startHeartbeat();
+        System.out.println("Host uruchomiony na porcie " + port + " kod pokoju: " + roomCode
+            + " (wątki I/O: " + ioThreads + (virtualThreads ? ", wątki wirtualne" : "") + ")");
+    }
+    
+    /**
+     * Uruchamia host jednego pokoju na serwerze współdzielonym przez wiele
+     * pokoi ({@link RoomServer}). Nie otwiera portu - serwer kieruje do
+     * zwróconego odbiorcy zdarzenia połączeń z kodem tego pokoju.
+     * 
+     * @param roomCode kod pokoju
+     * @return odbiorca zdarzeń połączeń pokoju
+     */
+    Transport.Handler startRoom(String roomCode) {
+        Transport.Handler handler = beginHosting(roomCode);
+        startHeartbeat();
+        return handler;
+    }
+    
+    private Transport.Handler beginHosting(String roomCode) {
+        if (running) throw new IllegalStateException("NetworkManager już działa");
+        
+        mode = Mode.HOST;
+        running = true;
+        this.roomCode = roomCode;
+        outboundSequence = 0;
+        replayBuffer = new ReplayBuffer(replayCapacity);
+        sessionsByToken.clear();
+        spectators.clear();
+        spectatorFanout = new SpectatorFanout(spectatorDelayMs, virtualThreads);
+        if (virtualThreads) {
+            // Obsługa wiadomości poza pętlą I/O, po kolei, na wątkach wirtualnych
+            hostWorkers = NetworkThreads.newTaskExecutor("milionerzy-host", true);
+            hostInbound = NetworkThreads.serial(hostWorkers);
+        } else {
+            hostInbound = Runnable::run;
+        }
+        return new HostHandler();
+    }
+    
+    public void startHost(String roomCode) throws IOException {
+        startHost(DEFAULT_PORT, roomCode);
+    }
+    
+    // === TRYB KLIENTA ===
+    
+    /**
+     * Łączy się z hostem.
+     */
+    public void connectToHost(String host, int port, String playerName, String roomCode) throws IOException {
+        connect(host, port, playerName, roomCode, false);
+    }
+    
+    /**
+     * Łączy się z hostem jako widz: dostaje tylko (opcjonalnie opóźniony)
+     * strumień zmian stanu i nie może wysyłać komend gry. Widz nie ma sesji -
+     * po zerwaniu połączenia łączy się od nowa.
+     */
+    public void connectAsSpectator(String host, int port, String name, String roomCode) throws IOException {
+        connect(host, port, name, roomCode, true);
+    }
+    
+    private void connect(String host, int port, String playerName, String roomCode, boolean asSpectator)
+            throws IOException {
+        if (running) throw new IllegalStateException("NetworkManager już działa");
+        
+        mode = Mode.CLIENT;
+        running = true;
+        spectator = asSpectator;
+        
+        clientCodec = FrameCodec.DEFAULT_CODEC;
+        clientOutbound.clear();
+        clientSequence.set(0);
+        sessionToken = null;
+        lastSeenSequence = 0;
+        resumeAttempts = 0;
+        clientHost = host;
+        clientPort = port;
+        clientRoomCode = roomCode;
+        
+        // Wysyłamy informację o połączeniu z kodem pokoju i listą kodeków
+        // Payload: String[] { roomCode, playerName, codecs [, "spectator"] }
+        String[] connect = asSpectator
+            ? new String[]{roomCode, playerName, offeredCodecs, SPECTATOR_FLAG}
+            : new String[]{roomCode, playerName, offeredCodecs};
+        try {
+            openClientConnection(new GameMessage(GameMessage.MessageType.CONNECT, playerId, connect));
+        } catch (IOException e) {
+            mode = Mode.OFFLINE;
+            running = false;
+            throw e;
+        }
+        
+        // Wątek nasłuchujący
+        clientThread = NetworkThreads.start("milionerzy-client-reader", this::runClientReader, virtualThreads);
+        
+        startHeartbeat();
+        System.out.println("Połączono z hostem " + host + ":" + port);
+    }
+    
+    /**
+     * Otwiera połączenie z hostem, wysyła pierwszą ramkę (CONNECT lub RESUME)
+     * przed zakolejkowanymi i uruchamia wątek piszący.
+     */
+    private void openClientConnection(GameMessage first) throws IOException {
+        // Poprzedni pisarz (po zerwaniu) nie może pisać do nowego połączenia
+        stopClientWriter(false);
+        hostHealth = new PeerHealth();
+        
+        Transport.Link link = transport.connect(clientHost, clientPort);
+        try {
+            link.write(first, clientCodec);
+            link.flush();
+        } catch (IOException e) {
+            link.close();
+            throw e;
+        }
+        clientLink = link;
+        
+        clientWriterThread = NetworkThreads.start("milionerzy-client-writer",
+            () -> runClientWriter(link), virtualThreads);
+    }
+    
+    /**
+     * Pętla wątku czytającego klienta. Po zerwaniu połączenia próbuje wznowić
+     * sesję; dopiero gdy to się nie uda, zgłasza rozłączenie.
+     */
+    private void runClientReader() {
+        do {
+            readFromHost();
+        } while (running && resumeSession());
+        
+        if (connectionHandler != null) {
+            connectionHandler.accept("Rozłączono z hostem");
+        }
+    }
+    
+    /**
+     * Czyta wiadomości od hosta do zamknięcia bieżącego połączenia.
+     */
+    private void readFromHost() {
+        Transport.Link link = clientLink;
+        while (running) {
+            try {
+                GameMessage msg = link.read();
+                
+                // Host wybrał kodek - kolejne ramki do hosta kodujemy nim
+                if (msg.getType() == GameMessage.MessageType.CONNECT_ACCEPTED) {
+                    onConnectAccepted(msg);
+                    continue;
+                }
+                
+                // Host odrzucił wznowienie (sesja wygasła) - nie próbuj ponownie
+                if (msg.getType() == GameMessage.MessageType.DISCONNECT && resumePending) {
+                    System.out.println("Host odrzucił wznowienie sesji: " + msg.getPayload());
+                    sessionToken = null;
+                    continue;
+                }
+                
+                // Pozycja w strumieniu broadcastów - do wznowienia sesji
+                if (msg.getSequence() > lastSeenSequence) {
+                    lastSeenSequence = msg.getSequence();
+                }
+                
+                // Heartbeat - odpowiedź i pomiar RTT, bez przekazywania dalej
+                if (msg.getType() == GameMessage.MessageType.PING) {
+                    writeToHost(new GameMessage(GameMessage.MessageType.PONG, playerId, msg.getPayload()));
+                    continue;
+                } else if (msg.getType() == GameMessage.MessageType.PONG) {
+                    onPong(hostHealth, "host", msg);
+                    continue;
+                }
+                
+                // Obsłuż ACK/NACK - odrzucenie przed potwierdzeniami,
+                // bo dołączone zbiorcze ACK może obejmować odrzucony numer
+                if (msg.getType() == GameMessage.MessageType.NACK) {
+                    pendingTracker.reject(msg.getNackFor(), msg.getNackReason(), msg.getStepsApplied());
+                }
+                if (msg.hasAck()) {
+                    pendingTracker.acknowledge(msg.getAckThrough(), msg.getAckRanges());
+                }
+                if (msg.getType() == GameMessage.MessageType.ACK
+                        || msg.getType() == GameMessage.MessageType.NACK) {
+                    continue;
+                }
+                
+                if (messageHandler != null) {
+                    messageHandler.accept(msg);
+                }
+            } catch (EOFException e) {
+                // Połączenie zamknięte
+                break;
+            } catch (IOException e) {
+                if (running) {
+                    System.err.println("Błąd odbioru: " + e.getMessage());
+                }
+                break;
+            }
+        }
+        // Zamknięcie odblokowuje pisarza czekającego na zapis do martwego gniazda
+        link.close();
+    }
+    
+    /**
+     * Zapisuje kodek i token sesji z CONNECT_ACCEPTED.
+     * Payload: String[] { codec, token } (starszy host: sam kodek).
+     */
+    private void onConnectAccepted(GameMessage msg) {
+        String codecName = null;
+        if (msg.getPayload() instanceof String[] parts && parts.length >= 2) {
+            codecName = parts[0];
+            sessionToken = parts[1];
+        } else if (msg.getPayload() instanceof String name) {
+            codecName = name;
+        }
+        WireCodec codec = codecName != null ? FrameCodec.forName(codecName) : null;
+        if (codec != null) {
+            clientCodec = codec;
+            System.out.println("Uzgodniono kodek: " + codec.getName());
+        }
+        if (resumePending) {
+            resumePending = false;
+            resumeAttempts = 0;
+            hostHealth = new PeerHealth();
+            if (connectionHandler != null) {
+                connectionHandler.accept("Wznowiono połączenie z hostem");
+            }
+        }
+    }
+    
+    /**
+     * Próbuje wznowić sesję po zerwaniu połączenia: łączy się ponownie
+     * (z rosnącymi odstępami) i wysyła RESUME z tokenem sesji i numerem
+     * ostatniej odebranej ramki. Host dośle tylko brakujące ramki.
+     * 
+     * @return true jeśli nowe połączenie jest otwarte i RESUME wysłane
+     */
+    private boolean resumeSession() {
+        while (running && sessionToken != null && resumeAttempts < RESUME_ATTEMPTS) {
+            long backoff = RESUME_BACKOFF_MS << resumeAttempts;
+            resumeAttempts++;
+            if (resumeAttempts == 1 && connectionHandler != null) {
+                connectionHandler.accept("Utracono połączenie z hostem - wznawianie...");
+            }
+            try {
+                Thread.sleep(backoff);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return false;
+            }
+            if (!running || sessionToken == null) return false;
+            
+            resumePending = true;
+            try {
+                // Payload: String[] { roomCode, token, lastSeenSequence, codecs }
+                openClientConnection(new GameMessage(GameMessage.MessageType.RESUME, playerId,
+                    new String[]{clientRoomCode, sessionToken, Long.toString(lastSeenSequence), offeredCodecs}));
+                if (!running) {
+                    // stop() w trakcie łączenia - zamknij nowe połączenie
+                    clientLink.close();
+                    return false;
+                }
+                System.out.println("Wznawianie sesji (próba " + resumeAttempts + ", ostatnia ramka "
+                    + lastSeenSequence + ")");
+                return true;
+            } catch (IOException e) {
+                resumePending = false;
+                System.err.println("Wznowienie nieudane: " + e.getMessage());
+            }
+        }
+        return false;
+    }
+    
+    public void connectToHost(String host, String playerName, String roomCode) throws IOException {
+        connectToHost(host, DEFAULT_PORT, playerName, roomCode);
+    }
+    
+    /**
+     * Wysyła wiadomość. Host broadcastuje do wszystkich klientów,
+     * klient wysyła do hosta.
+     */
+    public void send(GameMessage message) {
+        if (mode == Mode.OFFLINE) return;
+        
+        // Widz tylko prosi o pełny stan i się żegna - host i tak odrzuca resztę
+        if (mode == Mode.CLIENT && spectator
+                && message.getType() != GameMessage.MessageType.RESYNC_REQUEST
+                && message.getType() != GameMessage.MessageType.DISCONNECT) {
+            return;
+        }
+        
+        // Numer sekwencyjny połączenia - tylko wiadomości potwierdzane,
+        // więc numery potwierdzone przez hosta nie mają luk
+        if (mode == Mode.CLIENT && message.requiresAck() && message.getSequence() == 0) {
+            message.setSequence(clientSequence.incrementAndGet());
+        }
+        
+        // Powiadom o wysyłaniu (tylko klient śledzi odpowiedzi)
+        if (mode == Mode.CLIENT && sendingCallback != null && message.requiresAck()) {
+            sendingCallback.accept(message);
+        }
+        
+        // Śledź wiadomości wymagające ACK (tylko klient śledzi)
+        if (mode == Mode.CLIENT && message.requiresAck()) {
+            pendingTracker.track(message);
+        }
+        
+        if (mode == Mode.HOST) {
+            broadcast(message, null);
+        } else if (mode == Mode.CLIENT) {
+            if (clientLink != null) {
+                writeToHost(message);
+            } else {
+                System.err.println("Błąd wysyłania: brak połączenia z hostem");
+            }
+        }
+    }
+    
+    /**
+     * Przekazuje wiadomość wątkowi piszącemu. Nie blokuje - wysyłają
+     * zarówno wątek UI, jak i tracker ponowień.
+     */
+    private void writeToHost(GameMessage message) {
+        clientOutbound.add(message);
+    }
+    
+    /**
+     * Pętla wątku piszącego klienta. Jedyny wątek, który pisze do połączenia,
+     * więc zapis nie wymaga blokady (brak blokującego I/O pod monitorem).
+     * Ramki są kodowane tutaj, kodekiem uzgodnionym do chwili zapisu.
+     */
+    private void runClientWriter(Transport.Link link) {
+        try {
+            while (true) {
+                GameMessage message = clientOutbound.take();
+                // Wszystkie oczekujące ramki idą jednym flush
+                do {
+                    if (message == END_OF_STREAM) {
+                        link.flush();
+                        return;
+                    }
+                    link.write(message, clientCodec);
+                } while ((message = clientOutbound.poll()) != null);
+                link.flush();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (IOException e) {
+            if (running) {
+                System.err.println("Błąd wysyłania: " + e.getMessage());
+            }
+        }
+    }
+    
+    /**
+     * Zatrzymuje wątek piszący klienta.
+     * 
+     * @param drain czy dać mu chwilę na wysłanie zakolejkowanych ramek
+     */
+    private void stopClientWriter(boolean drain) {
+        Thread writer = clientWriterThread;
+        if (writer == null) return;
+        if (drain) {
+            clientOutbound.add(END_OF_STREAM);
+        }
+        try {
+            if (drain) writer.join(WRITER_DRAIN_TIMEOUT_MS);
+            writer.interrupt();
+            writer.join(WRITER_DRAIN_TIMEOUT_MS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        clientWriterThread = null;
+    }
+    
+    /**
+     * Ponownie wysyła wiadomość (przy timeout).
+     */
+    private void resendMessage(GameMessage message) {
+        System.out.println("Ponowne wysyłanie: " + message.getActionName());
+        if (mode == Mode.CLIENT) {
+            writeToHost(message);
+        }
+    }
+    
+    /**
+     * Wysyła wiadomość do klientów jako kolejną ramkę strumienia hosta.
+     * Numer, bufor powtórek i kolejki klientów są aktualizowane pod jedną
+     * blokadą, więc każdy klient dostaje ramki w kolejności numerów, a klient
+     * wznawiający sesję nie zgubi ramki między powtórką a nowymi broadcastami.
+     * Ramka jest kodowana raz na kodek i współdzielona.
+     * 
+     * @param except połączenie pomijane (nadawca przy relay) lub null
+     */
+    private void broadcast(GameMessage message, Transport.Connection except) {
+        synchronized (streamLock) {
+            message.setSequence(++outboundSequence);
+            EncodedMessage encoded = new EncodedMessage(message);
+            replayBuffer.add(outboundSequence, encoded, except != null ? except.getPlayerId() : null);
+            for (Transport.Connection client : clients) {
+                // Klient przed CONNECT/RESUME dostanie stan z handshake'u
+                if (client != except && client.getPlayerId() != null) {
+                    client.send(encoded);
+                }
+            }
+            // Widzowie na osobnym wątku - ich liczba nie opóźnia graczy
+            spectatorFanout.publish(encoded);
+        }
+    }
+    
+    /**
+     * Wysyła wiadomość do konkretnego gracza (tylko host).
+     */
+    public void sendTo(String targetPlayerId, GameMessage message) {
+        if (mode != Mode.HOST) return;
+        
+        Transport.Connection client = findClient(targetPlayerId);
+        if (client != null) {
+            client.send(message);
+        }
+    }
+    
+    // === ZATRZYMANIE ===
+    
+    public void stop() {
+        running = false;
+        stopHeartbeat();
+        
+        if (mode == Mode.HOST) {
+            // Pętle I/O zamykają wszystkie połączenia klientów
+            if (server != null) {
+                server.stop();
+                server = null;
+            } else {
+                // Pokój na współdzielonym serwerze - zamknij tylko swoich klientów
+                for (Transport.Connection client : clients) client.close();
+                for (Transport.Connection watcher : spectators) watcher.close();
+            }
+            if (spectatorFanout != null) spectatorFanout.stop();
+            spectators.clear();
+            clients.clear();
+            sessions.clear();
+            sessionsByToken.clear();
+            if (hostWorkers != null) {
+                hostWorkers.shutdown();
+                hostWorkers = null;
+            }
+            
+        } else if (mode == Mode.CLIENT) {
+            // Daj pisarzowi chwilę na wysłanie zakolejkowanych ramek (np. DISCONNECT)
+            stopClientWriter(true);
+            Transport.Link link = clientLink;
+            if (link != null) link.close();
+            clientOutbound.clear();
+        }
+        
+        mode = Mode.OFFLINE;
+        pendingTracker.shutdown();
+        System.out.println("NetworkManager zatrzymany");
+    }
+    
+    // === HEARTBEAT ===
+    
+    private void startHeartbeat() {
+        long generation = ++heartbeatGeneration;
+        scheduleHeartbeat(generation);
+    }
+    
+    private void stopHeartbeat() {
+        heartbeatGeneration++;
+        TimingWheel.Timeout task = heartbeatTask;
+        if (task != null) task.cancel();
+    }
+    
+    private void scheduleHeartbeat(long generation) {
+        if (heartbeatIntervalMs <= 0) return;
+        heartbeatTask = TimingWheel.shared().schedule(() -> heartbeat(generation), heartbeatIntervalMs);
+    }
+    
+    /**
+     * Jedno uderzenie heartbeatu (wątek koła czasowego - nie blokuje).
+     */
+    private void heartbeat(long generation) {
+        // Zadanie z poprzedniego uruchomienia (po stop/start) - zakończ łańcuch
+        if (!running || generation != heartbeatGeneration) return;
+        
+        if (mode == Mode.HOST) {
+            purgeExpiredSessions();
+            // Jedna ramka PING współdzielona przez wszystkich klientów
+            EncodedMessage ping = new EncodedMessage(
+                new GameMessage(GameMessage.MessageType.PING, playerId, System.nanoTime()));
+            for (Transport.Connection client : clients) {
+                ClientSession session = sessions.get(client);
+                if (session == null) continue;
+                int missed = session.health.onPingSent();
+                if (missed >= evictAfterMissed) {
+                    System.out.println("Gracz " + peerKey(client) + " nie odpowiada (" + missed
+                        + " pominiętych PING) - rozłączanie");
+                    client.abort();
+                    continue;
+                }
+                if (missed > 0) notifyHeartbeat(session.health, peerKey(client));
+                client.send(ping);
+            }
+        } else if (mode == Mode.CLIENT) {
+            PeerHealth health = hostHealth;
+            int missed = health.onPingSent();
+            if (missed >= evictAfterMissed) {
+                System.out.println("Host nie odpowiada (" + missed + " pominiętych PING) - rozłączanie");
+                notifyHeartbeat(health, "host");
+                // Zamknięcie przerywa czytnik, który zgłasza rozłączenie
+                Transport.Link link = clientLink;
+                if (link != null) link.close();
+                return;
+            }
+            if (missed > 0) notifyHeartbeat(health, "host");
+            writeToHost(new GameMessage(GameMessage.MessageType.PING, playerId, System.nanoTime()));
+        }
+        
+        scheduleHeartbeat(generation);
+    }
+    
+    /**
+     * Liczy RTT z odesłanego znacznika czasu PINGa.
+     */
+    private void onPong(PeerHealth health, String peerId, GameMessage pong) {
+        if (pong.getPayload() instanceof Long sentAt) {
+            health.onPong((System.nanoTime() - sentAt) / 1_000_000.0);
+            notifyHeartbeat(health, peerId);
+        }
+    }
+    
+    private void notifyHeartbeat(PeerHealth health, String peerId) {
+        Consumer<PeerHealth.Snapshot> callback = heartbeatCallback;
+        if (callback != null) {
+            callback.accept(health.snapshot(peerId, lagAfterMissed, evictAfterMissed));
+        }
+    }
+    
+    private static String peerKey(Transport.Connection client) {
+        return client.getPlayerId() != null
+            ? client.getPlayerId() : String.valueOf(client.getRemoteAddress());
+    }
+    
+    // === WYSYŁANIE ACK/NACK (dla hosta) ===
+    
+    /**
+     * Potwierdza przetworzenie wiadomości gracza. ACK nie jest wysyłane od
+     * razu - wszystkie potwierdzenia z bieżącej paczki odczytu idą jedną
+     * ramką (lub razem z inną wiadomością do tego gracza).
+     * 
+     * @param sequence numer sekwencyjny potwierdzanej wiadomości
+     */
+    public void sendAck(long sequence, String toPlayerId) {
+        if (mode != Mode.HOST) return;
+        
+        Transport.Connection connection = findClient(toPlayerId);
+        ClientSession session = connection != null ? sessions.get(connection) : null;
+        if (session == null) return;
+        session.dedup.complete(sequence, null);
+        acknowledge(connection, session, sequence);
+    }
+    
+    private void acknowledge(Transport.Connection connection, ClientSession session, long sequence) {
+        AckWindow window = session.ackWindow;
+        if (window.record(sequence)) {
+            connection.execute(() -> flushAck(connection, window));
+        }
+    }
+    
+    /**
+     * Wysyła zaległe potwierdzenia jedną ramką ACK (jeśli nie zostały
+     * w międzyczasie dołączone do innej wiadomości).
+     */
+    private void flushAck(Transport.Connection connection, AckWindow window) {
+        GameMessage ack = GameMessage.createAck(0, null, playerId, connection.getPlayerId());
+        if (window.attachTo(ack)) {
+            connection.send(ack);
+        }
+    }
+    
+    /**
+     * Wysyła NACK do gracza odrzucając wiadomość.
+     */
+    public void sendNack(long sequence, String toPlayerId, String reason) {
+        sendNack(sequence, toPlayerId, reason, 0);
+    }
+    
+    private void sendNack(long sequence, String toPlayerId, String reason, int stepsApplied) {
+        if (mode != Mode.HOST) return;
+        
+        Transport.Connection connection = findClient(toPlayerId);
+        if (connection == null) return;
+        GameMessage nack = GameMessage.createNack(sequence, playerId, toPlayerId, reason, stepsApplied);
+        // Odrzucony numer też jest załatwiony - bez niego zbiorcze ACK
+        // nie przesunęłoby się dalej (klient obsługuje NACK przed ACK)
+        ClientSession session = sessions.get(connection);
+        if (session != null) {
+            session.dedup.complete(sequence, reason, stepsApplied);
+            session.ackWindow.record(sequence);
+        }
+        sendWithAck(connection, nack);
+    }
+    
+    /**
+     * Odrzuca komendę gracza od razu, z kodem powodu - klient nie czeka
+     * na timeout ani nie ponawia wysyłania.
+     */
+    public void sendNack(long sequence, String toPlayerId, RejectReason reason) {
+        sendNack(sequence, toPlayerId, reason.name(), 0);
+    }
+    
+    /**
+     * Odrzuca paczkę komend przerwaną po {@code stepsApplied} wykonanych
+     * krokach - klient wie, że stan mimo to się zmienił.
+     */
+    public void sendNack(long sequence, String toPlayerId, RejectReason reason, int stepsApplied) {
+        sendNack(sequence, toPlayerId, reason.name(), stepsApplied);
+    }
+    
+    /**
+     * Wysyła wiadomość do jednego klienta, dołączając zaległe potwierdzenia.
+     */
+    private void sendWithAck(Transport.Connection connection, GameMessage message) {
+        ClientSession session = sessions.get(connection);
+        if (session != null) session.ackWindow.attachTo(message);
+        connection.send(message);
+    }
+    
+    private Transport.Connection findClient(String targetPlayerId) {
+        for (Transport.Connection client : clients) {
+            if (targetPlayerId.equals(client.getPlayerId())) {
+                return client;
+            }
+        }
+        return null;
+    }
+    
+    /**
+     * Usuwa sesje rozłączonych graczy, którzy nie wrócili w
+     * {@link #SESSION_RESUME_WINDOW_MS}.
+     */
+    private void purgeExpiredSessions() {
+        long now = System.currentTimeMillis();
+        sessionsByToken.values().removeIf(session ->
+            session.disconnectedAt > 0 && now - session.disconnectedAt > sessionResumeWindowMs);
+    }
+    
+    // === GETTERY I SETTERY ===
+    
+    public Mode getMode() { return mode; }
+    public String getRoomCode() { return roomCode; }
+    public String getPlayerId() { return playerId; }
+    public boolean isRunning() { return running; }
+    public int getConnectedClientsCount() { return clients.size(); }
+    public long getSnapshotBuildCount() { return snapshotCache.getBuildCount(); }
+    public long getSuppressedDuplicates() { return suppressedDuplicates.get(); }
+    public int getSpectatorCount() { return spectators.size(); }
+    public boolean isSpectator() { return spectator; }
+    
+    /**
+     * Ustawia opóźnienie strumienia widzów (np. przeciw podglądaniu gry
+     * przez graczy). Działa przy następnym {@link #startHost}.
+     */
+    public void setSpectatorDelayMs(long delayMs) {
+        if (delayMs < 0) throw new IllegalArgumentException("Opóźnienie nie może być ujemne");
+        this.spectatorDelayMs = delayMs;
+    }
+    public boolean isVirtualThreads() { return virtualThreads; }
+    
+    /**
+     * Tryb lockstep: host nie przekazuje dalej komend graczy - klienci
+     * dostają je uporządkowane od autorytetu gry ({@link Lockstep}).
+     */
+    public void setLockstep(boolean lockstep) {
+        this.lockstep = lockstep;
+    }
+    public boolean isLockstep() { return lockstep; }
+    
+    /**
+     * Ustawia transport połączeń (np. {@link InMemoryTransport} dla botów
+     * i testów). Działa przy następnym {@link #startHost} lub połączeniu.
+     */
+    public void setTransport(Transport transport) {
+        if (transport == null) throw new IllegalArgumentException("Transport nie może być null");
+        this.transport = transport;
+    }
+    public Transport getTransport() { return transport; }
+    
+    /**
+     * Ustawia liczbę pętli I/O serwera. Działa przy następnym {@link #startHost}.
+     */
+    public void setIoThreads(int ioThreads) {
+        if (ioThreads < 1) throw new IllegalArgumentException("ioThreads musi być >= 1");
+        this.ioThreads = ioThreads;
+    }
+    
+    /**
+     * Ustawia listę kodeków (nazwy rozdzielone przecinkami, w kolejności
+     * preferencji). Klient oferuje je w CONNECT, host akceptuje tylko je.
+     * Np. {@code "java"} wyłącza kodek binarny.
+     */
+    public void setOfferedCodecs(String codecNames) {
+        this.offeredCodecs = codecNames;
+    }
+    
+    /**
+     * Zwraca kodek używany przez klienta do wysyłania ramek do hosta.
+     */
+    public WireCodec getClientCodec() { return clientCodec; }
+    
+    /**
+     * Ustawia limity kolejki wychodzącej każdego klienta (host).
+     * Działa przy następnym {@link #startHost}.
+     */
+    public void setOutboundLimits(int maxFrames, long maxBytes) {
+        if (maxFrames < 1 || maxBytes < 1) throw new IllegalArgumentException("Limity kolejki muszą być dodatnie");
+        this.maxQueuedFrames = maxFrames;
+        this.maxQueuedBytes = maxBytes;
+    }
+    
+    /**
+     * Ustawia zachowanie hosta wobec klientów, którzy nie nadążają z odbiorem.
+     */
+    public void setSlowConsumerPolicy(SlowConsumerPolicy policy) {
+        this.slowConsumerPolicy = policy;
+        if (server != null) server.setSlowConsumerPolicy(policy);
+    }
+    
+    /**
+     * Zwraca statystyki kolejek wychodzących klientów (host), kluczem jest
+     * ID gracza lub adres, jeśli gracz jeszcze się nie przedstawił.
+     */
+    public Map<String, NioHostServer.QueueStats> getClientQueueStats() {
+        Map<String, NioHostServer.QueueStats> stats = new LinkedHashMap<>();
+        for (Transport.Connection client : clients) {
+            stats.put(peerKey(client), client.getQueueStats());
+        }
+        return stats;
+    }
+    
+    /**
+     * Ustawia liczbę ostatnich broadcastów trzymanych do wznawiania sesji
+     * (host). Działa przy następnym {@link #startHost}.
+     */
+    public void setReplayCapacity(int capacity) {
+        if (capacity < 1) throw new IllegalArgumentException("Pojemność bufora musi być >= 1");
+        this.replayCapacity = capacity;
+    }
+    
+    /**
+     * Ustawia, jak długo host czeka na wznowienie sesji rozłączonego gracza
+     * (host). Po tym czasie handler wiadomości dostaje za gracza DISCONNECT.
+     */
+    public void setSessionResumeWindow(long windowMs) {
+        if (windowMs < 0) throw new IllegalArgumentException("Okno wznowienia musi być >= 0");
+        this.sessionResumeWindowMs = windowMs;
+    }
+    
+    /**
+     * Ustawia heartbeat. Działa przy następnym uruchomieniu hosta lub połączeniu.
+     * 
+     * @param intervalMs odstęp między PINGami (0 wyłącza heartbeat)
+     * @param lagAfterMissed po tylu pominiętych PINGach partner jest opóźniony
+     * @param evictAfterMissed po tylu pominiętych PINGach partner jest rozłączany
+     */
+    public void setHeartbeat(long intervalMs, int lagAfterMissed, int evictAfterMissed) {
+        if (intervalMs < 0 || lagAfterMissed < 1 || evictAfterMissed < lagAfterMissed) {
+            throw new IllegalArgumentException("Nieprawidłowe parametry heartbeatu");
+        }
+        this.heartbeatIntervalMs = intervalMs;
+        this.lagAfterMissed = lagAfterMissed;
+        this.evictAfterMissed = evictAfterMissed;
+    }
+    
+    /**
+     * Zwraca stan połączeń wyznaczony z heartbeatu: host - każdego klienta
+     * (kluczem jak w {@link #getClientQueueStats()}), klient - hosta (klucz "host").
+     */
+    public Map<String, PeerHealth.Snapshot> getPeerHealth() {
+        Map<String, PeerHealth.Snapshot> health = new LinkedHashMap<>();
+        if (mode == Mode.HOST) {
+            for (Transport.Connection client : clients) {
+                ClientSession session = sessions.get(client);
+                if (session == null) continue;
+                String key = peerKey(client);
+                health.put(key, session.health.snapshot(key, lagAfterMissed, evictAfterMissed));
+            }
+        } else if (mode == Mode.CLIENT) {
+            health.put("host", hostHealth.snapshot("host", lagAfterMissed, evictAfterMissed));
+        }
+        return health;
+    }
+    
+    /**
+     * Ustawia callback wywoływany po każdym pomiarze RTT i pominiętym PINGu
+     * (z wątku sieciowego).
+     */
+    public void setHeartbeatCallback(Consumer<PeerHealth.Snapshot> callback) {
+        this.heartbeatCallback = callback;
+    }
+    
+    public void setMessageHandler(Consumer<GameMessage> handler) {
+        this.messageHandler = handler;
+    }
+    
+    public void setConnectionHandler(Consumer<String> handler) {
+        this.connectionHandler = handler;
+    }
+
+    public void setGameStateProvider(Supplier<GameState> provider) {
+        this.gameStateProvider = provider;
+        this.snapshotProvider = null;
+        snapshotCache.invalidate();
+    }
+
+    /**
+     * Ustawia źródło niezmiennych snapshotów (host z autorytetem gry).
+     * Wersja snapshotu wystarcza do sprawdzenia zakodowanego stanu, więc
+     * pełny {@link GameState} jest odtwarzany tylko przy zmianie wersji.
+     */
+    public void setSnapshotProvider(Supplier<GameSnapshot> provider) {
+        this.snapshotProvider = provider;
+        this.gameStateProvider = null;
+        snapshotCache.invalidate();
+    }
+    
+    // === Callbacki ACK ===
+    
+    public void setSendingCallback(Consumer<GameMessage> callback) {
+        this.sendingCallback = callback;
+    }
+    
+    public void setAckCallback(Consumer<GameMessage> callback) {
+        this.ackCallback = callback;
+    }
+    
+    /**
+     * Ustawia callback odrzucenia wiadomości przez hosta - wywoływany
+     * z wysłaną wiadomością i powodem z NACK.
+     */
+    public void setNackCallback(BiConsumer<GameMessage, RejectReason> callback) {
+        this.nackCallback = callback;
+    }
+    
+    public void setTimeoutCallback(Consumer<GameMessage> callback) {
+        this.timeoutCallback = callback;
+    }
+    
+    public PendingMessageTracker getPendingTracker() {
+        return pendingTracker;
+    }
+    
+    /**
+     * Zwraca statystyki retransmisji połączenia z hostem (klient):
+     * ponowienia, timeouty i bieżący RTO.
+     */
+    public PendingMessageTracker.Stats getRetransmitStats() {
+        return pendingTracker.getStats();
+    }
+    
+    /**
+     * Stan hosta związany z graczem. Przeżywa zerwanie połączenia - przy
+     * wznowieniu sesji jest przepinany na nowe połączenie.
+     */
+    private static final class ClientSession {
+        final AckWindow ackWindow = new AckWindow();
+        final DedupWindow dedup = new DedupWindow();
+        volatile PeerHealth health = new PeerHealth();
+        String token;
+        String playerId;
+        volatile Transport.Connection connection;
+        volatile long disconnectedAt;
+        volatile boolean left;
+        TimingWheel.Timeout expiry;
+        
+        ClientSession(Transport.Connection connection) {
+            this.connection = connection;
+        }
+    }
+    
+    // === OBSŁUGA KLIENTÓW (DLA HOSTA) ===
+    
+    /**
+     * Odbiera zdarzenia z pętli I/O serwera. Obsługuje handshake CONNECT
+     * (weryfikacja kodu pokoju) i przekazywanie wiadomości broadcast.
+     * 
+     * <p>Lista klientów jest aktualizowana od razu na pętli I/O, a obsługa
+     * wiadomości i callbacki idą przez {@code hostInbound} - w trybie
+     * wirtualnym po kolei na wątku wirtualnym, inaczej bezpośrednio.
+     */
+    private class HostHandler implements Transport.Handler {
+        
+        @Override
+        public void onConnected(Transport.Connection connection) {
+            sessions.put(connection, new ClientSession(connection));
+            clients.add(connection);
+            hostInbound.execute(() -> {
+                if (connectionHandler != null) {
+                    connectionHandler.accept("Nowy gracz połączony: " + connection.getRemoteAddress());
+                }
+            });
+        }
+        
+        @Override
+        public void onMessage(Transport.Connection connection, EncodedMessage encoded) {
+            GameMessage msg = encoded.getMessage();
+            // Heartbeat od razu na pętli I/O - kolejka obsługi zawyżałaby RTT
+            if (msg.getType() == GameMessage.MessageType.PING) {
+                connection.send(new GameMessage(GameMessage.MessageType.PONG, playerId,
+                    connection.getPlayerId(), msg.getPayload()));
+                return;
+            } else if (msg.getType() == GameMessage.MessageType.PONG) {
+                ClientSession session = sessions.get(connection);
+                if (session != null) onPong(session.health, peerKey(connection), msg);
+                return;
+            }
+            hostInbound.execute(() -> handleMessage(connection, encoded));
+        }
+        
+        private void handleMessage(Transport.Connection connection, EncodedMessage encoded) {
+            GameMessage msg = encoded.getMessage();
+            
+            // Widz nie wysyła komend - obsługujemy tylko prośbę o pełny stan
+            if (spectators.contains(connection)) {
+                if (msg.getType() == GameMessage.MessageType.RESYNC_REQUEST) {
+                    synchronized (streamLock) {
+                        spectatorFanout.resync(connection, currentSnapshot());
+                    }
+                }
+                return;
+            }
+            
+            // Zapisz ID gracza przy pierwszym połączeniu
+            if (msg.getType() == GameMessage.MessageType.CONNECT) {
+                handleConnect(connection, msg);
+                return;
+            }
+            
+            // Powrót gracza po zerwaniu połączenia
+            if (msg.getType() == GameMessage.MessageType.RESUME) {
+                handleResume(connection, msg);
+                return;
+            }
+            
+            // Luka w wersjach stanu - wyślij pełny snapshot tylko temu klientowi
+            if (msg.getType() == GameMessage.MessageType.RESYNC_REQUEST) {
+                sendSnapshot(connection);
+                return;
+            }
+            
+            // Ponowiona komenda - bez ponownego wykonania
+            if (msg.requiresAck() && msg.getSequence() > 0 && isDuplicate(connection, msg)) {
+                return;
+            }
+            
+            // Gracz wychodzi sam - po zamknięciu połączenia nie czekamy na jego powrót
+            if (msg.getType() == GameMessage.MessageType.DISCONNECT) {
+                ClientSession session = sessions.get(connection);
+                if (session != null) session.left = true;
+            }
+            
+            // Inne wiadomości
+            if (messageHandler != null) {
+                messageHandler.accept(msg);
+            }
+            
+            if (msg.isBroadcast() && !(lockstep && Lockstep.isCommand(msg.getType()))) {
+                // Relay jako ramka strumienia hosta - z numerem do wznawiania sesji
+                broadcast(msg.relayCopy(), connection);
+            }
+            
+            if (msg.requiresAck() && GameMessage.isRelayOnly(msg.getType())) {
+                relayToTarget(connection, msg);
+            }
+        }
+        
+        /**
+         * Wymiany host nie wykonuje - przekazuje je adresatowi i potwierdza
+         * przekazanie. Broadcast poszedł już do wszystkich, a wiadomość do
+         * samego hosta obsłużył messageHandler. NACK tylko, gdy adresata nie ma.
+         */
+        private void relayToTarget(Transport.Connection connection, GameMessage msg) {
+            if (!msg.isBroadcast() && !playerId.equals(msg.getTargetId())) {
+                Transport.Connection target = findClient(msg.getTargetId());
+                if (target == null) {
+                    sendNack(msg.getSequence(), connection.getPlayerId(), RejectReason.UNKNOWN_TARGET);
+                    return;
+                }
+                target.send(msg.relayCopy());
+            }
+            sendAck(msg.getSequence(), connection.getPlayerId());
+        }
+        
+        /**
+         * Sprawdza komendę w oknie duplikatów sesji. Kopia już rozstrzygniętej
+         * komendy dostaje ten sam ACK/NACK; kopia czekającej - nic, bo wynik
+         * zostanie wysłany, gdy logika gry go ustali.
+         */
+        private boolean isDuplicate(Transport.Connection connection, GameMessage msg) {
+            ClientSession session = sessions.get(connection);
+            if (session == null) return false;
+            long sequence = msg.getSequence();
+            DedupWindow.Verdict verdict = session.dedup.check(sequence);
+            switch (verdict) {
+                case NEW -> {
+                    return false;
+                }
+                case EXPIRED -> {
+                    // Sprzed okna - potwierdzony numer nie wraca do logiki gry
+                    if (sequence > session.ackWindow.getAckedThrough()) return false;
+                    acknowledge(connection, session, sequence);
+                }
+                case ACKED -> acknowledge(connection, session, sequence);
+                case REJECTED -> sendWithAck(connection, GameMessage.createNack(sequence, playerId,
+                    connection.getPlayerId(), session.dedup.getRejectReason(sequence),
+                    session.dedup.getStepsApplied(sequence)));
+                case IN_FLIGHT -> { }
+            }
+            suppressedDuplicates.incrementAndGet();
+            System.out.println("Pominięto ponowioną komendę " + msg.getType() + " #" + sequence
+                + " od " + connection.getPlayerId() + " (" + verdict + ")");
+            return true;
+        }
+        
+        @Override
+        public void onDisconnected(Transport.Connection connection) {
+            if (spectators.remove(connection)) {
+                spectatorFanout.remove(connection);
+                return;
+            }
+            clients.remove(connection);
+            ClientSession session = sessions.remove(connection);
+            // Sesja przepięta na nowe połączenie (wznowienie) - stare nic nie zgłasza
+            boolean current = false;
+            synchronized (streamLock) {
+                if (session != null && session.connection == connection) {
+                    session.disconnectedAt = System.currentTimeMillis();
+                    current = true;
+                    if (!session.left && connection.getPlayerId() != null) {
+                        // Bez tokenu sesji gracz nie może wrócić - nie ma na co czekać
+                        long window = session.token != null ? sessionResumeWindowMs : 0;
+                        long disconnectedAt = session.disconnectedAt;
+                        String leaving = connection.getPlayerId();
+                        session.expiry = TimingWheel.shared().schedule(
+                            () -> expireSession(session, disconnectedAt, leaving), window);
+                    }
+                }
+            }
+            purgeExpiredSessions();
+            if (!current) return;
+            hostInbound.execute(() -> {
+                if (connectionHandler != null && connection.getPlayerId() != null) {
+                    connectionHandler.accept("Gracz " + connection.getPlayerId() + " rozłączony");
+                }
+            });
+        }
+        
+        /**
+         * Gracz nie wrócił w oknie wznowienia - logika gry dostaje za niego
+         * DISCONNECT, tak jakby wyszedł sam (np. pokój usuwa go z lobby).
+         * Zadanie koła czasowego tylko przekazuje je do kolejki obsługi.
+         */
+        private void expireSession(ClientSession session, long disconnectedAt, String leaving) {
+            synchronized (streamLock) {
+                // Wznowiona albo już zamknięta przy zatrzymaniu hosta
+                if (!running || session.disconnectedAt != disconnectedAt) return;
+                sessionsByToken.values().remove(session);
+            }
+            System.out.println("Sesja gracza " + leaving + " wygasła");
+            hostInbound.execute(() -> {
+                if (messageHandler != null) {
+                    messageHandler.accept(new GameMessage(GameMessage.MessageType.DISCONNECT, leaving, "Session expired"));
+                }
+            });
+        }
+        
+        /**
+         * Wysyła pełny stan gry (z jego wersją) do jednego klienta.
+         * Snapshot niesie numer strumienia, który obejmuje - ramka jest
+         * współdzielona przez wszystkich dołączających do zmiany wersji stanu,
+         * a broadcasty wysłane od jej zbudowania są dosyłane z bufora powtórek.
+         */
+        private void sendSnapshot(Transport.Connection connection) {
+            synchronized (streamLock) {
+                EncodedMessage snapshot = currentSnapshot();
+                if (snapshot == null) return;
+                List<EncodedMessage> missed = List.of();
+                long covered = snapshot.getMessage().getSequence();
+                if (covered < outboundSequence) {
+                    missed = replayBuffer.since(covered, connection.getPlayerId());
+                    if (missed == null || missed.size() > MAX_SNAPSHOT_CATCH_UP) {
+                        // Za dużo do dosłania - taniej zbudować snapshot od nowa
+                        snapshotCache.invalidate();
+                        snapshot = currentSnapshot();
+                        if (snapshot == null) return;
+                        missed = List.of();
+                    }
+                }
+                connection.send(snapshot);
+                for (EncodedMessage frame : missed) {
+                    connection.send(frame);
+                }
+            }
+        }
+        
+        private EncodedMessage currentSnapshot() {
+            long version;
+            Supplier<GameState> state;
+            Supplier<GameSnapshot> snapshots = snapshotProvider;
+            Supplier<GameState> states = gameStateProvider;
+            if (snapshots != null) {
+                GameSnapshot snapshot = snapshots.get();
+                if (snapshot == null) return null;
+                version = snapshot.version();
+                state = snapshot::toGameState;
+            } else if (states != null) {
+                GameState currentState = states.get();
+                if (currentState == null) return null;
+                version = currentState.getStateVersion();
+                state = () -> currentState;
+            } else {
+                return null;
+            }
+            return snapshotCache.get(version, () -> {
+                // Bez adresata i potwierdzeń - te same bajty idą do każdego klienta
+                GameMessage snapshot = new GameMessage(
+                    GameMessage.MessageType.GAME_STATE_SYNC, playerId, state.get());
+                snapshot.setSequence(outboundSequence);
+                return snapshot;
+            });
+        }
+        
+        private void handleConnect(Transport.Connection connection, GameMessage msg) {
+            String playerName = "Unknown";
+            String requestedCodecs = null;
+            
+            boolean asSpectator = false;
+            
+            Object payload = msg.getPayload();
+            // Bez ID gracza albo nazwy nie ma sesji ani miejsca w pokoju
+            if (msg.getSenderId() == null
+                    || (payload instanceof String[] parts && parts.length >= 2 && parts[1] == null)) {
+                System.out.println("Odrzucono połączenie: brak ID lub nazwy gracza.");
+                connection.send(new GameMessage(GameMessage.MessageType.DISCONNECT, playerId, "Player Id Required"));
+                connection.close();
+                return;
+            }
+            if (payload instanceof String[] parts && parts.length >= 2) {
+                String code = parts[0];
+                playerName = parts[1];
+                // Starsi klienci nie podają kodeków - zostają przy serializacji Javy
+                requestedCodecs = parts.length >= 3 ? parts[2] : null;
+                asSpectator = parts.length >= 4 && SPECTATOR_FLAG.equals(parts[3]);
+                
+                // Validate Room Code
+                if (roomCode != null && !roomCode.equals(code)) {
+                    System.out.println("Odrzucono połączenie: nieprawidłowy kod pokoju. Otrzymano: " + code + ", Oczekiwano: " + roomCode);
+                    connection.send(new GameMessage(GameMessage.MessageType.DISCONNECT, playerId, "Invalid Room Code"));
+                    connection.close();
+                    return;
+                }
+            } else if (payload instanceof String name) {
+                // Support legacy/simple connection if code validation disabled
+                if (roomCode != null) {
+                    System.out.println("Odrzucono połączenie: brak kodu pokoju (legacy format).");
+                    connection.send(new GameMessage(GameMessage.MessageType.DISCONNECT, playerId, "Room Code Required"));
+                    connection.close();
+                    return;
+                }
+                playerName = name;
+            } else {
+                return;
+            }
+            
+            if (asSpectator) {
+                handleSpectate(connection, msg.getSenderId(), playerName, requestedCodecs);
+                return;
+            }
+            
+            ClientSession session = sessions.get(connection);
+            synchronized (streamLock) {
+                // Od tej chwili klient dostaje broadcasty - po snapshocie
+                connection.setPlayerId(msg.getSenderId());
+                
+                if (requestedCodecs != null) {
+                    WireCodec codec = FrameCodec.negotiate(requestedCodecs, offeredCodecs);
+                    connection.setCodec(codec);
+                    // Payload: String[] { codec, token sesji }
+                    String token = UUID.randomUUID().toString();
+                    if (session != null) {
+                        session.token = token;
+                        session.playerId = msg.getSenderId();
+                        sessionsByToken.put(token, session);
+                    }
+                    connection.send(new GameMessage(GameMessage.MessageType.CONNECT_ACCEPTED,
+                        playerId, msg.getSenderId(), new String[]{codec.getName(), token}));
+                }
+                
+                // Jeśli mamy providera stanu (jesteśmy hostem), wyślij stan gry
+                sendSnapshot(connection);
+            }
+            
+            if (messageHandler != null) {
+                messageHandler.accept(new GameMessage(GameMessage.MessageType.CONNECT, msg.getSenderId(), playerName));
+            }
+            
+            GameMessage broadcastMsg = new GameMessage(GameMessage.MessageType.CONNECT, msg.getSenderId(), playerName);
+            broadcastMsg.setBroadcast(true);
+            broadcast(broadcastMsg, connection);
+        }
+        
+        /**
+         * Przyjmuje widza: bez sesji, ACK i heartbeatu hosta. Widz dostaje
+         * snapshot i dalej tylko strumień {@link SpectatorFanout}; gracze
+         * nie są powiadamiani.
+         */
+        private void handleSpectate(Transport.Connection connection, String spectatorId,
+                                    String name, String requestedCodecs) {
+            clients.remove(connection);
+            sessions.remove(connection);
+            spectators.add(connection);
+            connection.setPlayerId(spectatorId);
+            
+            WireCodec codec = requestedCodecs != null
+                ? FrameCodec.negotiate(requestedCodecs, offeredCodecs)
+                : FrameCodec.DEFAULT_CODEC;
+            connection.setCodec(codec);
+            // Payload: sam kodek - bez tokenu widz nie wznawia sesji
+            connection.send(new GameMessage(GameMessage.MessageType.CONNECT_ACCEPTED,
+                playerId, spectatorId, codec.getName()));
+            synchronized (streamLock) {
+                spectatorFanout.add(connection, currentSnapshot());
+            }
+            
+            hostInbound.execute(() -> {
+                if (connectionHandler != null) {
+                    connectionHandler.accept("Widz " + name + " ogląda grę (widzów: " + spectators.size() + ")");
+                }
+            });
+        }
+        
+        /**
+         * Wznawia sesję gracza na nowym połączeniu.
+         * Payload: String[] { roomCode, token, lastSeenSequence, codecs }.
+         * 
+         * <p>Gracz zachowuje okno ACK, a brakujące broadcasty są dosyłane
+         * z bufora powtórek. Gdy bufor ich już nie ma, gracz dostaje snapshot.
+         */
+        private void handleResume(Transport.Connection connection, GameMessage msg) {
+            if (!(msg.getPayload() instanceof String[] parts) || parts.length < 4) return;
+            if (msg.getSenderId() == null) {
+                System.out.println("Odrzucono wznowienie sesji: brak ID gracza.");
+                connection.send(new GameMessage(GameMessage.MessageType.DISCONNECT, playerId, "Player Id Required"));
+                connection.close();
+                return;
+            }
+            String code = parts[0];
+            long lastSeen;
+            try {
+                lastSeen = Long.parseLong(parts[2]);
+            } catch (NumberFormatException e) {
+                lastSeen = -1;
+            }
+            
+            purgeExpiredSessions();
+            ClientSession session = parts[1] != null ? sessionsByToken.get(parts[1]) : null;
+            if ((roomCode != null && !roomCode.equals(code)) || session == null || lastSeen < 0) {
+                System.out.println("Odrzucono wznowienie sesji gracza " + msg.getSenderId());
+                connection.send(new GameMessage(GameMessage.MessageType.DISCONNECT, playerId, "Session expired"));
+                connection.close();
+                return;
+            }
+            
+            Transport.Connection previous = session.connection;
+            WireCodec codec = FrameCodec.negotiate(parts[3], offeredCodecs);
+            connection.setCodec(codec);
+            List<EncodedMessage> missed;
+            synchronized (streamLock) {
+                session.connection = connection;
+                session.disconnectedAt = 0;
+                if (session.expiry != null) session.expiry.cancel();
+                session.health = new PeerHealth();
+                sessions.put(connection, session);
+                connection.setPlayerId(session.playerId);
+                
+                connection.send(new GameMessage(GameMessage.MessageType.CONNECT_ACCEPTED,
+                    playerId, session.playerId, new String[]{codec.getName(), session.token}));
+                missed = replayBuffer.since(lastSeen, session.playerId);
+                if (missed != null) {
+                    for (EncodedMessage frame : missed) {
+                        connection.send(frame);
+                    }
+                } else {
+                    sendSnapshot(connection);
+                }
+            }
+            // Stare połączenie mogło jeszcze nie zauważyć zerwania (półotwarte TCP)
+            if (previous != connection && clients.contains(previous)) {
+                previous.abort();
+            }
+            System.out.println("Gracz " + session.playerId + " wznowił sesję ("
+                + (missed != null ? "powtórzono " + missed.size() + " ramek" : "snapshot") + ")");
+            
+            if (connectionHandler != null) {
+                connectionHandler.accept("Gracz " + session.playerId + " wznowił połączenie");
+            }
+        }
+    }
+}
@@ -0,0 +1,125 @@
+package com.kaluzaplotecka.milionerzy.network;
+
+import java.util.ArrayDeque;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * Tworzenie wątków warstwy sieciowej w trybie platformowym lub wirtualnym.
+ *
+ * <p>Tryb wirtualny jest opcjonalny: włącza się go konstruktorem
+ * {@link NetworkManager#NetworkManager(String, boolean)} albo właściwością
+ * systemową {@value #VIRTUAL_THREADS_PROPERTY}{@code =true}. Wtedy czytnik
+ * i pisarz klienta oraz obsługa wiadomości hosta działają na wątkach
+ * wirtualnych. Razem ze wspólnym kołem czasowym trackerów ACK
+ * ({@link TimingWheel}) setki botów i wiele pokoi w jednej JVM nie tworzą
+ * tysięcy wątków platformowych.
+ *
+ * <p>Pętle selektora {@link NioHostServer} zawsze działają na kilku wątkach
+ * platformowych - nie blokują, więc wątki wirtualne nic by nie dały.
+ */
+public final class NetworkThreads {
+
+    /** Właściwość systemowa włączająca domyślnie wątki wirtualne. */
+    public static final String VIRTUAL_THREADS_PROPERTY = "milionerzy.net.virtualThreads";
+
+    private NetworkThreads() {}
+
+    /**
+     * Sprawdza czy wątki wirtualne są włączone właściwością systemową.
+     */
+    public static boolean virtualThreadsByDefault() {
+        return Boolean.getBoolean(VIRTUAL_THREADS_PROPERTY);
+    }
+
+    /**
+     * Uruchamia wątek (platformowy wątek jest demonem).
+     *
+     * @param name nazwa wątku
+     * @param task zadanie
+     * @param virtual czy użyć wątku wirtualnego
+     * @return uruchomiony wątek
+     */
+    public static Thread start(String name, Runnable task, boolean virtual) {
+        if (virtual) {
+            return Thread.ofVirtual().name(name).start(task);
+        }
+        return Thread.ofPlatform().name(name).daemon(true).start(task);
+    }
+
+    /**
+     * Tworzy wykonawcę zadań - wątek wirtualny na zadanie albo pulę demonów.
+     *
+     * @param namePrefix prefiks nazw wątków
+     * @param virtual czy użyć wątków wirtualnych
+     */
+    public static ExecutorService newTaskExecutor(String namePrefix, boolean virtual) {
+        ThreadFactory factory = virtual
+            ? Thread.ofVirtual().name(namePrefix + "-", 0).factory()
+            : Thread.ofPlatform().name(namePrefix + "-", 0).daemon(true).factory();
+        return virtual
+            ? Executors.newThreadPerTaskExecutor(factory)
+            : Executors.newCachedThreadPool(factory);
+    }
+
+    /**
+     * Zwraca wykonawcę, który uruchamia zadania po kolei (w kolejności
+     * zlecenia) na wątkach podanego wykonawcy.
+     */
+    public static Executor serial(Executor delegate) {
+        return new SerialExecutor(delegate);
+    }
+
+    /**
+     * Kolejka zadań wykonywanych pojedynczo - zachowuje kolejność
+     * bez trzymania wątku, gdy nie ma pracy.
+     */
+    private static final class SerialExecutor implements Executor {
+        private final Executor delegate;
+        private final ArrayDeque<Runnable> tasks = new ArrayDeque<>();
+        private boolean active;
+
+        SerialExecutor(Executor delegate) {
+            this.delegate = delegate;
+        }
+
+        @Override
+        public void execute(Runnable task) {
+            synchronized (tasks) {
+                tasks.add(task);
+                if (active) return;
+                active = true;
+            }
+            try {
+                delegate.execute(this::drain);
+            } catch (RejectedExecutionException e) {
+                // Wykonawca zamknięty (zatrzymanie sieci) - porzuć zadania
+                synchronized (tasks) {
+                    tasks.clear();
+                    active = false;
+                }
+            }
+        }
+
+        private void drain() {
+            while (true) {
+                Runnable task;
+                synchronized (tasks) {
+                    task = tasks.poll();
+                    if (task == null) {
+                        active = false;
+                        return;
+                    }
+                }
+                try {
+                    task.run();
+                } catch (RuntimeException e) {
+                    System.err.println("Błąd zadania sieciowego: " + e.getMessage());
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,565 @@
+package com.kaluzaplotecka.milionerzy.network;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.SocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedSelectorException;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.Queue;
+import java.util.function.Predicate;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Serwer hosta oparty o {@link Selector} i nieblokujące {@link SocketChannel}.
+ *
+ * <p>Zamiast jednego wątku na klienta, niewielka stała pula pętli I/O
+ * obsługuje akceptowanie połączeń, odczyt i zapis dla wszystkich klientów.
+ * Pętla zerowa dodatkowo akceptuje nowe połączenia i rozdziela je
+ * po kolei między wszystkie pętle.
+ *
+ * <p>Cały dostęp do kanałów odbywa się na wątku pętli, do której kanał należy.
+ * Inne wątki zlecają zapis przez {@link Connection#send(EncodedMessage)},
+ * co tylko pobiera (współdzieloną) ramkę i dodaje ją do kolejki połączenia.
+ *
+ * <p>Kolejka wychodząca każdego połączenia jest ograniczona liczbą ramek
+ * i bajtów. Zakolejkowane ramki są wysyłane jednym zapisem zbiorczym
+ * ({@code gathering write}). Gdy klient nie nadąża, stosowana jest
+ * {@link SlowConsumerPolicy}.
+ *
+ * <p>Serwer hosta w {@link TcpTransport}.
+ *
+ * @see NetworkManager
+ * @see FrameCodec
+ */
+public class NioHostServer implements Transport.Server {
+
+    /** Domyślna liczba pętli I/O. */
+    public static final int DEFAULT_IO_THREADS =
+        Math.max(1, Math.min(4, Runtime.getRuntime().availableProcessors() / 2));
+
+    /** Domyślny limit ramek w kolejce wychodzącej jednego klienta. */
+    public static final int DEFAULT_MAX_QUEUED_FRAMES = 1024;
+
+    /** Domyślny limit bajtów w kolejce wychodzącej jednego klienta. */
+    public static final long DEFAULT_MAX_QUEUED_BYTES = 4L * 1024 * 1024;
+
+    private static final int READ_BUFFER_SIZE = 16 * 1024;
+
+    // Maksymalna liczba ramek w jednym zapisie zbiorczym
+    private static final int MAX_GATHER = 64;
+
+    private final Transport.Handler handler;
+    private final IoLoop[] loops;
+    private final AtomicInteger nextLoop = new AtomicInteger();
+    private ServerSocketChannel serverChannel;
+    private volatile boolean running;
+
+    private volatile int maxQueuedFrames = DEFAULT_MAX_QUEUED_FRAMES;
+    private volatile long maxQueuedBytes = DEFAULT_MAX_QUEUED_BYTES;
+    private volatile SlowConsumerPolicy slowConsumerPolicy = SlowConsumerPolicy.COLLAPSE_STATE;
+
+    /**
+     * Statystyki kolejki wychodzącej połączenia.
+     *
+     * @param queuedFrames ramki aktualnie w kolejce
+     * @param queuedBytes bajty aktualnie w kolejce
+     * @param maxQueuedFrames największa zaobserwowana głębokość kolejki
+     * @param sentFrames ramki wysłane w całości
+     * @param writeCalls liczba zapisów do gniazda (po łączeniu ramek)
+     * @param droppedFrames ramki kosmetyczne odrzucone przez politykę
+     * @param collapsedFrames ramki stanu zastąpione nowszym snapshotem
+     */
+    public record QueueStats(int queuedFrames, long queuedBytes, int maxQueuedFrames,
+                             long sentFrames, long writeCalls, long droppedFrames, long collapsedFrames) {}
+
+    public NioHostServer(Transport.Handler handler) {
+        this(handler, DEFAULT_IO_THREADS);
+    }
+
+    public NioHostServer(Transport.Handler handler, int ioThreads) {
+        if (ioThreads < 1) throw new IllegalArgumentException("ioThreads musi być >= 1");
+        this.handler = handler;
+        this.loops = new IoLoop[ioThreads];
+    }
+
+    /**
+     * Otwiera port i uruchamia pętle I/O.
+     *
+     * @param port port nasłuchiwania
+     * @throws IOException gdy nie udało się otworzyć portu
+     */
+    public void start(int port) throws IOException {
+        if (running) throw new IllegalStateException("Serwer już działa");
+
+        serverChannel = ServerSocketChannel.open();
+        serverChannel.configureBlocking(false);
+        serverChannel.bind(new InetSocketAddress(port));
+
+        for (int i = 0; i < loops.length; i++) {
+            loops[i] = new IoLoop(i);
+        }
+        running = true;
+        loops[0].execute(() -> loops[0].registerAcceptor(serverChannel));
+        for (IoLoop loop : loops) {
+            loop.thread.start();
+        }
+    }
+
+    /**
+     * Zamyka port, wszystkie połączenia i pętle I/O.
+     */
+    public void stop() {
+        running = false;
+        try {
+            if (serverChannel != null) serverChannel.close();
+        } catch (IOException e) { /* ignore */ }
+        for (IoLoop loop : loops) {
+            if (loop != null) loop.shutdown();
+        }
+    }
+
+    public boolean isRunning() { return running; }
+
+    public int getIoThreadCount() { return loops.length; }
+
+    /**
+     * Ustawia limity kolejki wychodzącej każdego klienta. Pojedyncza ramka
+     * jest zawsze przyjmowana do pustej kolejki, nawet jeśli przekracza limit bajtów.
+     */
+    public void setOutboundLimits(int maxFrames, long maxBytes) {
+        if (maxFrames < 1 || maxBytes < 1) throw new IllegalArgumentException("Limity kolejki muszą być dodatnie");
+        this.maxQueuedFrames = maxFrames;
+        this.maxQueuedBytes = maxBytes;
+    }
+
+    public void setSlowConsumerPolicy(SlowConsumerPolicy policy) {
+        this.slowConsumerPolicy = policy;
+    }
+
+    public SlowConsumerPolicy getSlowConsumerPolicy() { return slowConsumerPolicy; }
+
+    // === PĘTLA I/O ===
+
+    private final class IoLoop implements Runnable {
+        private final Selector selector;
+        private final Thread thread;
+        private final Queue<Runnable> tasks = new ConcurrentLinkedQueue<>();
+        private final ArrayDeque<Connection> pendingFlush = new ArrayDeque<>();
+
+        IoLoop(int index) throws IOException {
+            this.selector = Selector.open();
+            this.thread = new Thread(this, "milionerzy-io-" + index);
+            this.thread.setDaemon(true);
+        }
+
+        void execute(Runnable task) {
+            tasks.add(task);
+            if (Thread.currentThread() != thread) {
+                selector.wakeup();
+            }
+        }
+
+        void registerAcceptor(ServerSocketChannel channel) {
+            try {
+                channel.register(selector, SelectionKey.OP_ACCEPT);
+            } catch (IOException e) {
+                System.err.println("Błąd rejestracji serwera: " + e.getMessage());
+            }
+        }
+
+        void register(SocketChannel channel) {
+            try {
+                Connection connection = new Connection(channel, this);
+                connection.key = channel.register(selector, SelectionKey.OP_READ, connection);
+                handler.onConnected(connection);
+            } catch (IOException e) {
+                System.err.println("Błąd rejestracji klienta: " + e.getMessage());
+                try { channel.close(); } catch (IOException ignored) { /* ignore */ }
+            }
+        }
+
+        @Override
+        public void run() {
+            try {
+                while (running) {
+                    // Zadania dodane z wątku pętli nie budzą selektora - nie czekaj, jeśli są
+                    if (tasks.isEmpty()) {
+                        selector.select();
+                    } else {
+                        selector.selectNow();
+                    }
+                    runTasks();
+                    flushPending();
+                    Iterator<SelectionKey> it = selector.selectedKeys().iterator();
+                    while (it.hasNext()) {
+                        SelectionKey key = it.next();
+                        it.remove();
+                        handleKey(key);
+                    }
+                }
+            } catch (IOException | ClosedSelectorException e) {
+                if (running) {
+                    System.err.println("Błąd pętli I/O: " + e.getMessage());
+                }
+            } finally {
+                closeAll();
+            }
+        }
+
+        private void runTasks() {
+            Runnable task;
+            while ((task = tasks.poll()) != null) {
+                try {
+                    task.run();
+                } catch (RuntimeException e) {
+                    System.err.println("Błąd zadania pętli I/O: " + e.getMessage());
+                }
+            }
+        }
+
+        /**
+         * Zaplanowuje zapis dla połączenia po obsłużeniu bieżącej paczki zadań,
+         * dzięki czemu ramki zakolejkowane razem idą jednym zapisem.
+         */
+        void scheduleFlush(Connection connection) {
+            pendingFlush.add(connection);
+        }
+
+        private void flushPending() {
+            Connection connection;
+            while ((connection = pendingFlush.poll()) != null) {
+                connection.flushScheduled = false;
+                if (!connection.isOpen()) continue;
+                try {
+                    connection.onWritable();
+                } catch (IOException | RuntimeException e) {
+                    connection.closeNow();
+                }
+            }
+        }
+
+        private void handleKey(SelectionKey key) {
+            if (!key.isValid()) return;
+            if (key.isAcceptable()) {
+                accept();
+                return;
+            }
+            Connection connection = (Connection) key.attachment();
+            try {
+                if (key.isReadable()) connection.onReadable();
+                if (key.isValid() && key.isWritable()) connection.onWritable();
+            } catch (IOException e) {
+                connection.closeNow();
+            } catch (RuntimeException e) {
+                // Błędna ramka lub wyjątek obsługi zamyka tylko to połączenie, nie całą pętlę
+                System.err.println("Błąd obsługi połączenia: " + e);
+                connection.closeNow();
+            }
+        }
+
+        private void accept() {
+            try {
+                SocketChannel channel;
+                while ((channel = serverChannel.accept()) != null) {
+                    channel.configureBlocking(false);
+                    channel.socket().setTcpNoDelay(true);
+                    IoLoop target = loops[Math.floorMod(nextLoop.getAndIncrement(), loops.length)];
+                    SocketChannel accepted = channel;
+                    target.execute(() -> target.register(accepted));
+                }
+            } catch (IOException e) {
+                if (running) {
+                    System.err.println("Błąd akceptowania połączenia: " + e.getMessage());
+                }
+            }
+        }
+
+        private void closeAll() {
+            for (SelectionKey key : selector.keys()) {
+                if (key.attachment() instanceof Connection connection) {
+                    connection.closeNow();
+                }
+            }
+            try { selector.close(); } catch (IOException e) { /* ignore */ }
+        }
+
+        void shutdown() {
+            selector.wakeup();
+        }
+    }
+
+    // === POŁĄCZENIE KLIENTA ===
+
+    /**
+     * Pojedyncze połączenie klienta obsługiwane przez pętlę I/O.
+     */
+    public final class Connection implements Transport.Connection {
+        private final SocketChannel channel;
+        private final IoLoop loop;
+        private final SocketAddress remoteAddress;
+        private SelectionKey key;
+        private ByteBuffer readBuffer = ByteBuffer.allocate(READ_BUFFER_SIZE);
+        private final ArrayDeque<OutboundFrame> outbound = new ArrayDeque<>();
+        private final ByteBuffer[] gather = new ByteBuffer[MAX_GATHER];
+        private long queuedBytes;
+        private boolean flushScheduled;
+        
+        // Metryki - zapisywane tylko na wątku pętli, czytane z dowolnego wątku
+        private volatile int statQueuedFrames;
+        private volatile long statQueuedBytes;
+        private volatile int statMaxQueuedFrames;
+        private volatile long statSentFrames;
+        private volatile long statWriteCalls;
+        private volatile long statDroppedFrames;
+        private volatile long statCollapsedFrames;
+        private final AtomicBoolean closed = new AtomicBoolean(false);
+        private boolean closeAfterFlush;
+        private volatile String playerId;
+        private volatile WireCodec codec = FrameCodec.DEFAULT_CODEC;
+        private volatile Object attachment;
+
+        Connection(SocketChannel channel, IoLoop loop) throws IOException {
+            this.channel = channel;
+            this.loop = loop;
+            this.remoteAddress = channel.getRemoteAddress();
+        }
+
+        /**
+         * Koduje wiadomość i kolejkuje ją do wysłania. Nie blokuje.
+         */
+        public void send(GameMessage message) {
+            send(new EncodedMessage(message));
+        }
+        
+        /**
+         * Kolejkuje ramkę wiadomości w kodeku tego połączenia. Ramka jest
+         * kodowana najwyżej raz na kodek, niezależnie od liczby odbiorców.
+         */
+        public void send(EncodedMessage message) {
+            if (closed.get()) return;
+            try {
+                // Bajty współdzielone z innymi połączeniami - każde ma własną pozycję
+                ByteBuffer frame = ByteBuffer.wrap(message.frameFor(codec)).asReadOnlyBuffer();
+                GameMessage.MessageType type = message.getMessage().getType();
+                loop.execute(() -> enqueue(new OutboundFrame(frame, type)));
+            } catch (IOException e) {
+                System.err.println("Błąd kodowania wiadomości do klienta: " + e.getMessage());
+            }
+        }
+
+        /**
+         * Uruchamia zadanie na wątku pętli tego połączenia, po obsłużeniu
+         * bieżącej paczki zdarzeń selektora. Zadanie zlecone w trakcie
+         * obsługi odczytu wykona się więc po wszystkich ramkach z tego odczytu.
+         */
+        public void execute(Runnable task) {
+            loop.execute(task);
+        }
+
+        /**
+         * Zamyka połączenie natychmiast, porzucając zakolejkowane ramki
+         * (np. martwy klient, który i tak ich nie odbierze).
+         */
+        public void abort() {
+            loop.execute(this::closeNow);
+        }
+
+        /**
+         * Zamyka połączenie po wysłaniu wszystkich zakolejkowanych ramek.
+         */
+        public void close() {
+            loop.execute(() -> {
+                closeAfterFlush = true;
+                if (outbound.isEmpty()) closeNow();
+            });
+        }
+
+        public SocketAddress getRemoteAddress() { return remoteAddress; }
+        public String getPlayerId() { return playerId; }
+        public void setPlayerId(String playerId) { this.playerId = playerId; }
+        public boolean isOpen() { return !closed.get(); }
+        public WireCodec getCodec() { return codec; }
+        
+        /**
+         * Ustawia kodek dla kolejnych wysyłanych ramek (po uzgodnieniu w CONNECT).
+         */
+        public void setCodec(WireCodec codec) { this.codec = codec; }
+        
+        /**
+         * Obiekt powiązany z połączeniem przez odbiorcę zdarzeń
+         * (np. pokój, do którego {@link RoomServer} skierował klienta).
+         */
+        public Object getAttachment() { return attachment; }
+        public void setAttachment(Object attachment) { this.attachment = attachment; }
+        
+        /**
+         * Zwraca statystyki kolejki wychodzącej (bezpieczne z dowolnego wątku).
+         */
+        public QueueStats getQueueStats() {
+            return new QueueStats(statQueuedFrames, statQueuedBytes, statMaxQueuedFrames,
+                statSentFrames, statWriteCalls, statDroppedFrames, statCollapsedFrames);
+        }
+
+        private void enqueue(OutboundFrame frame) {
+            if (closed.get() || closeAfterFlush) return;
+            SlowConsumerPolicy policy = slowConsumerPolicy;
+            
+            // Nowy pełny snapshot zastępuje starsze, jeszcze niewysłane ramki stanu
+            if (policy == SlowConsumerPolicy.COLLAPSE_STATE
+                    && frame.type() == GameMessage.MessageType.GAME_STATE_SYNC) {
+                statCollapsedFrames += removeQueued(OutboundFrame::isState);
+            }
+            
+            if (wouldOverflow(frame)) {
+                if (policy != SlowConsumerPolicy.DISCONNECT) {
+                    if (GameMessage.isCosmetic(frame.type())) {
+                        statDroppedFrames++;
+                        return;
+                    }
+                    statDroppedFrames += removeQueued(f -> GameMessage.isCosmetic(f.type()));
+                }
+                if (wouldOverflow(frame)) {
+                    System.err.println("Klient " + (playerId != null ? playerId : remoteAddress)
+                        + " nie nadąża (kolejka: " + outbound.size() + " ramek, " + queuedBytes
+                        + " B) - rozłączanie");
+                    closeNow();
+                    return;
+                }
+            }
+            
+            outbound.add(frame);
+            queuedBytes += frame.size();
+            updateQueueStats();
+            if (!flushScheduled) {
+                flushScheduled = true;
+                loop.scheduleFlush(this);
+            }
+        }
+        
+        private boolean wouldOverflow(OutboundFrame frame) {
+            if (outbound.isEmpty()) return false;
+            return outbound.size() + 1 > maxQueuedFrames || queuedBytes + frame.size() > maxQueuedBytes;
+        }
+        
+        /**
+         * Usuwa z kolejki ramki spełniające warunek, z pominięciem ramki
+         * częściowo już wysłanej.
+         *
+         * @return liczba usuniętych ramek
+         */
+        private int removeQueued(Predicate<OutboundFrame> condition) {
+            int removed = 0;
+            Iterator<OutboundFrame> it = outbound.iterator();
+            while (it.hasNext()) {
+                OutboundFrame f = it.next();
+                if (!f.isStarted() && condition.test(f)) {
+                    it.remove();
+                    queuedBytes -= f.size();
+                    removed++;
+                }
+            }
+            if (removed > 0) updateQueueStats();
+            return removed;
+        }
+        
+        private void updateQueueStats() {
+            int depth = outbound.size();
+            statQueuedFrames = depth;
+            statQueuedBytes = queuedBytes;
+            if (depth > statMaxQueuedFrames) statMaxQueuedFrames = depth;
+        }
+
+        private void onReadable() throws IOException {
+            int read = channel.read(readBuffer);
+            if (read < 0) {
+                closeNow();
+                return;
+            }
+            readBuffer.flip();
+            while (readBuffer.remaining() >= FrameCodec.HEADER_SIZE) {
+                int length = readBuffer.getInt(readBuffer.position());
+                FrameCodec.checkLength(length);
+                int frameSize = FrameCodec.HEADER_SIZE + length;
+                if (readBuffer.remaining() < frameSize) {
+                    if (readBuffer.capacity() < frameSize) {
+                        ByteBuffer bigger = ByteBuffer.allocate(frameSize);
+                        bigger.put(readBuffer);
+                        readBuffer = bigger;
+                        return;
+                    }
+                    break;
+                }
+                // Kopia ramki pozwala przekazać ją dalej bez ponownego kodowania
+                int start = readBuffer.arrayOffset() + readBuffer.position();
+                byte[] frame = Arrays.copyOfRange(readBuffer.array(), start, start + frameSize);
+                WireCodec frameCodec = FrameCodec.codecOf(frame, FrameCodec.HEADER_SIZE, length);
+                GameMessage message = frameCodec.decode(frame, FrameCodec.HEADER_SIZE, length);
+                readBuffer.position(readBuffer.position() + frameSize);
+                handler.onMessage(this, EncodedMessage.received(message, frameCodec, frame));
+                if (closed.get()) return;
+            }
+            readBuffer.compact();
+        }
+
+        private void onWritable() throws IOException {
+            while (!outbound.isEmpty()) {
+                // Łączenie ramek - jeden zapis do gniazda dla wielu ramek
+                int n = 0;
+                for (OutboundFrame f : outbound) {
+                    gather[n++] = f.buffer();
+                    if (n == MAX_GATHER) break;
+                }
+                channel.write(gather, 0, n);
+                statWriteCalls++;
+                Arrays.fill(gather, 0, n, null);
+                
+                int completed = 0;
+                while (!outbound.isEmpty() && !outbound.peek().buffer().hasRemaining()) {
+                    queuedBytes -= outbound.poll().size();
+                    statSentFrames++;
+                    completed++;
+                }
+                updateQueueStats();
+                
+                if (completed < n) {
+                    // Bufor gniazda pełny - dokończ, gdy kanał będzie gotowy
+                    key.interestOps(SelectionKey.OP_READ | SelectionKey.OP_WRITE);
+                    return;
+                }
+            }
+            key.interestOps(SelectionKey.OP_READ);
+            if (closeAfterFlush) closeNow();
+        }
+
+        private void closeNow() {
+            if (!closed.compareAndSet(false, true)) return;
+            if (key != null) key.cancel();
+            try { channel.close(); } catch (IOException e) { /* ignore */ }
+            outbound.clear();
+            queuedBytes = 0;
+            updateQueueStats();
+            handler.onDisconnected(this);
+        }
+    }
+
+    /**
+     * Ramka w kolejce wychodzącej wraz z typem wiadomości (dla polityki wolnego klienta).
+     */
+    private record OutboundFrame(ByteBuffer buffer, GameMessage.MessageType type) {
+        int size() { return buffer.limit(); }
+        boolean isStarted() { return buffer.position() > 0; }
+        boolean isState() {
+            return type == GameMessage.MessageType.GAME_STATE_SYNC
+                || type == GameMessage.MessageType.STATE_DELTA;
+        }
+    }
+}
@@ -0,0 +1,107 @@
+package com.kaluzaplotecka.milionerzy.network;
+
+import java.util.Arrays;
+
+/**
+ * Stan połączenia z jednym partnerem wyznaczany z heartbeatu PING/PONG.
+ *
+ * <p>PING niesie znacznik czasu {@link System#nanoTime()} nadawcy, a PONG
+ * go odsyła, więc RTT liczony jest z zegara monotonicznego jednej maszyny.
+ * Przechowywane jest ostatnie {@value #WINDOW} pomiarów (do średniej,
+ * percentyla i histogramu) oraz wygładzony jitter jak w RTP (RFC 3550).
+ *
+ * <p>Każdy PING wysłany, zanim nadszedł PONG na poprzedni, liczy się jako
+ * pominięte uderzenie. Po {@code lagAfter} pominiętych partner jest
+ * {@link Status#LAGGING}, po {@code deadAfter} - {@link Status#DEAD}.
+ */
+public final class PeerHealth {
+
+    /** Liczba pomiarów w oknie kroczącym. */
+    public static final int WINDOW = 64;
+
+    /** Górne granice kubełków histogramu RTT w ms (ostatni kubełek - powyżej). */
+    public static final double[] BUCKET_LIMITS_MS = {1, 2, 5, 10, 20, 50, 100, 200, 500, 1000};
+
+    public enum Status { HEALTHY, LAGGING, DEAD }
+
+    /**
+     * Migawka stanu partnera.
+     *
+     * @param peerId ID gracza (lub adres) partnera
+     * @param lastRttMs ostatni RTT (-1 przed pierwszym pomiarem)
+     * @param meanRttMs średni RTT w oknie
+     * @param p95RttMs 95. percentyl RTT w oknie
+     * @param jitterMs wygładzona zmienność RTT
+     * @param missedBeats kolejne PINGi bez odpowiedzi
+     * @param status stan wynikający z pominiętych uderzeń
+     * @param histogram liczności kubełków {@link #BUCKET_LIMITS_MS} (+1 na wartości większe)
+     */
+    public record Snapshot(String peerId, double lastRttMs, double meanRttMs, double p95RttMs,
+                           double jitterMs, int missedBeats, Status status, int[] histogram) {}
+
+    private final double[] samples = new double[WINDOW];
+    private int sampleCount;
+    private int nextSample;
+    private double lastRtt = -1;
+    private double jitter;
+    private boolean awaitingPong;
+    private int missedBeats;
+
+    /**
+     * Odnotowuje wysłanie PINGa.
+     *
+     * @return liczba kolejnych pominiętych uderzeń
+     */
+    public synchronized int onPingSent() {
+        if (awaitingPong) missedBeats++;
+        awaitingPong = true;
+        return missedBeats;
+    }
+
+    /**
+     * Odnotowuje PONG z pomiarem RTT.
+     */
+    public synchronized void onPong(double rttMs) {
+        awaitingPong = false;
+        missedBeats = 0;
+        if (lastRtt >= 0) {
+            jitter += (Math.abs(rttMs - lastRtt) - jitter) / 16;
+        }
+        lastRtt = rttMs;
+        samples[nextSample] = rttMs;
+        nextSample = (nextSample + 1) % WINDOW;
+        if (sampleCount < WINDOW) sampleCount++;
+    }
+
+    public synchronized int getMissedBeats() {
+        return missedBeats;
+    }
+
+    /**
+     * Tworzy migawkę stanu.
+     *
+     * @param peerId identyfikator partnera do migawki
+     * @param lagAfter liczba pominiętych uderzeń, po której partner jest opóźniony
+     * @param deadAfter liczba pominiętych uderzeń, po której partner jest martwy
+     */
+    public synchronized Snapshot snapshot(String peerId, int lagAfter, int deadAfter) {
+        double[] window = Arrays.copyOf(samples, sampleCount);
+        int[] histogram = new int[BUCKET_LIMITS_MS.length + 1];
+        double sum = 0;
+        for (double rtt : window) {
+            sum += rtt;
+            int bucket = 0;
+            while (bucket < BUCKET_LIMITS_MS.length && rtt > BUCKET_LIMITS_MS[bucket]) bucket++;
+            histogram[bucket]++;
+        }
+        double mean = sampleCount > 0 ? sum / sampleCount : -1;
+        double p95 = -1;
+        if (sampleCount > 0) {
+            Arrays.sort(window);
+            p95 = window[Math.min(sampleCount - 1, (int) Math.ceil(0.95 * sampleCount) - 1)];
+        }
+        Status status = missedBeats >= deadAfter ? Status.DEAD
+            : missedBeats >= lagAfter ? Status.LAGGING : Status.HEALTHY;
+        return new Snapshot(peerId, lastRtt, mean, p95, jitter, missedBeats, status, histogram);
+    }
+}
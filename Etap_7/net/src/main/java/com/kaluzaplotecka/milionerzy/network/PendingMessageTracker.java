@@ -0,0 +1,279 @@
+package com.kaluzaplotecka.milionerzy.network;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentNavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+
+/**
+ * Śledzi wiadomości oczekujące na potwierdzenie ACK.
+ * Automatycznie ponawia wysyłanie przy timeout i wywołuje callbacki.
+ * 
+ * <p>Wiadomości są kluczowane numerem sekwencyjnym (patrz
+ * {@link GameMessage#getSequence()}), więc zbiorcze ACK zdejmuje
+ * cały zakres jednym wywołaniem {@link #acknowledge(long, long[])}.
+ * 
+ * <p>Timeout nie jest stały: {@link RttEstimator} wylicza go z czasów
+ * potwierdzeń, a każde ponowienie podwaja czas oczekiwania. Timeouty
+ * planowane są na współdzielonym {@link TimingWheel}, więc tracker nie
+ * ma własnego wątku.
+ */
+public class PendingMessageTracker {
+    
+    private static final int MAX_RETRIES = 5;
+    
+    /**
+     * Statystyki retransmisji połączenia.
+     * 
+     * @param pending wiadomości oczekujące na ACK
+     * @param acknowledged wiadomości potwierdzone
+     * @param rejected wiadomości odrzucone (NACK) bez zmiany stanu
+     * @param partial paczki komend odrzucone po wykonaniu części kroków
+     * @param retries ponowne wysłania
+     * @param timeouts wiadomości porzucone po wyczerpaniu prób
+     * @param rtoMs bieżący timeout retransmisji
+     * @param smoothedRttMs wygładzony RTT (-1 przed pierwszym pomiarem)
+     */
+    public record Stats(int pending, long acknowledged, long rejected, long partial, long retries, long timeouts,
+                        long rtoMs, double smoothedRttMs) {}
+    
+    /**
+     * Informacje o oczekującej wiadomości.
+     */
+    private static class PendingMessage {
+        final GameMessage message;
+        final long sentAtNanos;
+        volatile int retryCount;
+        volatile TimingWheel.Timeout timeoutTask;
+        
+        PendingMessage(GameMessage message) {
+            this.message = message;
+            this.sentAtNanos = System.nanoTime();
+            this.retryCount = 0;
+        }
+    }
+    
+    private final ConcurrentNavigableMap<Long, PendingMessage> pendingMessages = new ConcurrentSkipListMap<>();
+    private final TimingWheel wheel;
+    private final RttEstimator rtt = new RttEstimator();
+    
+    // Statystyki
+    private final AtomicLong acknowledgedCount = new AtomicLong();
+    private final AtomicLong rejectedCount = new AtomicLong();
+    private final AtomicLong partialCount = new AtomicLong();
+    private final AtomicLong retryCount = new AtomicLong();
+    private final AtomicLong timeoutCount = new AtomicLong();
+    
+    // Callbacki
+    private Consumer<GameMessage> resendCallback;      // wywoływane gdy trzeba ponowić wysłanie
+    private Consumer<GameMessage> ackCallback;         // wywoływane po otrzymaniu ACK
+    private BiConsumer<GameMessage, String> nackCallback; // wywoływane po otrzymaniu NACK (z powodem)
+    private Consumer<GameMessage> timeoutCallback;     // wywoływane po przekroczeniu max prób
+    
+    public PendingMessageTracker() {
+        this(TimingWheel.shared());
+    }
+    
+    /**
+     * Tworzy tracker planujący timeouty na podanym kole (np. w testach).
+     */
+    public PendingMessageTracker(TimingWheel wheel) {
+        this.wheel = wheel;
+    }
+    
+    /**
+     * Rozpoczyna śledzenie wiadomości wymagającej ACK.
+     * @param message wiadomość do śledzenia
+     */
+    public void track(GameMessage message) {
+        if (message == null || !message.requiresAck() || message.getSequence() <= 0) {
+            return;
+        }
+        
+        long sequence = message.getSequence();
+        PendingMessage pending = new PendingMessage(message);
+        pendingMessages.put(sequence, pending);
+        
+        // Zaplanuj sprawdzenie timeout
+        pending.timeoutTask = wheel.schedule(() -> checkTimeout(sequence), rtt.timeoutFor(0));
+    }
+    
+    /**
+     * Przetwarza zbiorcze ACK: potwierdza wszystkie wiadomości o numerach
+     * do {@code ackThrough} włącznie oraz te z podanych przedziałów.
+     * 
+     * @param ackThrough numer potwierdzony skumulowanie (0 = brak)
+     * @param ackRanges pary [od, do] potwierdzone selektywnie (może być null)
+     */
+    public void acknowledge(long ackThrough, long[] ackRanges) {
+        if (ackThrough > 0) {
+            acknowledgeAll(pendingMessages.headMap(ackThrough, true));
+        }
+        if (ackRanges != null) {
+            for (int i = 0; i + 1 < ackRanges.length; i += 2) {
+                acknowledgeAll(pendingMessages.subMap(ackRanges[i], true, ackRanges[i + 1], true));
+            }
+        }
+    }
+    
+    private void acknowledgeAll(Map<Long, PendingMessage> range) {
+        // Kopia kluczy - remove() rozstrzyga wyścig z timeoutem
+        for (Long sequence : range.keySet().toArray(new Long[0])) {
+            acknowledge(sequence);
+        }
+    }
+    
+    /**
+     * Potwierdza otrzymanie wiadomości (ACK).
+     * @param sequence numer wiadomości do potwierdzenia
+     */
+    public void acknowledge(long sequence) {
+        PendingMessage pending = pendingMessages.remove(sequence);
+        if (pending != null) {
+            // Anuluj zaplanowany timeout
+            if (pending.timeoutTask != null) {
+                pending.timeoutTask.cancel();
+            }
+            
+            // Pomiar RTT tylko z wiadomości wysłanych raz (algorytm Karna)
+            if (pending.retryCount == 0) {
+                rtt.addSample((System.nanoTime() - pending.sentAtNanos) / 1_000_000.0);
+            }
+            acknowledgedCount.incrementAndGet();
+            
+            // Wywołaj callback
+            if (ackCallback != null) {
+                ackCallback.accept(pending.message);
+            }
+        }
+    }
+    
+    /**
+     * Odrzuca wiadomość (NACK).
+     * @param sequence numer wiadomości
+     * @param reason powód odrzucenia
+     */
+    public void reject(long sequence, String reason) {
+        reject(sequence, reason, 0);
+    }
+    
+    /**
+     * Odrzuca wiadomość (NACK), podając liczbę kroków paczki komend
+     * wykonanych przez hosta przed odrzuceniem.
+     */
+    public void reject(long sequence, String reason, int stepsApplied) {
+        PendingMessage pending = pendingMessages.remove(sequence);
+        if (pending != null) {
+            // Anuluj zaplanowany timeout
+            if (pending.timeoutTask != null) {
+                pending.timeoutTask.cancel();
+            }
+            // Paczka przerwana w połowie zmieniła stan - to nie zwykłe odrzucenie
+            if (stepsApplied > 0) {
+                partialCount.incrementAndGet();
+            } else {
+                rejectedCount.incrementAndGet();
+            }
+            pending.message.setRejected(reason, stepsApplied);
+            
+            // Wywołaj callback
+            if (nackCallback != null) {
+                nackCallback.accept(pending.message, reason);
+            }
+        }
+    }
+    
+    /**
+     * Sprawdza czy upłynął timeout dla wiadomości (wątek koła czasowego).
+     */
+    private void checkTimeout(long sequence) {
+        PendingMessage pending = pendingMessages.get(sequence);
+        if (pending == null) {
+            return;  // Już potwierdzone lub usunięte
+        }
+        
+        pending.retryCount++;
+        
+        if (pending.retryCount > MAX_RETRIES) {
+            // Przekroczono maksymalną liczbę prób
+            if (pendingMessages.remove(sequence, pending)) {
+                timeoutCount.incrementAndGet();
+                if (timeoutCallback != null) {
+                    timeoutCallback.accept(pending.message);
+                }
+            }
+        } else {
+            // Spróbuj ponownie
+            retryCount.incrementAndGet();
+            if (resendCallback != null) {
+                resendCallback.accept(pending.message);
+            }
+            
+            // Zaplanuj kolejne sprawdzenie - z dłuższym czasem (backoff)
+            pending.timeoutTask = wheel.schedule(
+                () -> checkTimeout(sequence),
+                rtt.timeoutFor(pending.retryCount)
+            );
+        }
+    }
+    
+    /**
+     * Sprawdza czy wiadomość jest w trakcie oczekiwania na ACK.
+     */
+    public boolean isPending(long sequence) {
+        return pendingMessages.containsKey(sequence);
+    }
+    
+    /**
+     * Zwraca liczbę oczekujących wiadomości.
+     */
+    public int getPendingCount() {
+        return pendingMessages.size();
+    }
+    
+    /**
+     * Zwraca bieżący timeout retransmisji w milisekundach.
+     */
+    public long getRetransmitTimeoutMs() {
+        return rtt.getRtoMs();
+    }
+    
+    /**
+     * Zwraca statystyki retransmisji (bezpieczne z dowolnego wątku).
+     */
+    public Stats getStats() {
+        return new Stats(pendingMessages.size(), acknowledgedCount.get(), rejectedCount.get(), partialCount.get(),
+            retryCount.get(), timeoutCount.get(), rtt.getRtoMs(), rtt.getSmoothedRttMs());
+    }
+    
+    /**
+     * Zatrzymuje tracker i anuluje wszystkie oczekujące zadania.
+     * Współdzielone koło czasowe działa dalej.
+     */
+    public void shutdown() {
+        for (PendingMessage pending : pendingMessages.values()) {
+            if (pending.timeoutTask != null) pending.timeoutTask.cancel();
+        }
+        pendingMessages.clear();
+    }
+    
+    // === Settery dla callbacków ===
+    
+    public void setResendCallback(Consumer<GameMessage> callback) {
+        this.resendCallback = callback;
+    }
+    
+    public void setAckCallback(Consumer<GameMessage> callback) {
+        this.ackCallback = callback;
+    }
+    
+    public void setNackCallback(BiConsumer<GameMessage, String> callback) {
+        this.nackCallback = callback;
+    }
+    
+    public void setTimeoutCallback(Consumer<GameMessage> callback) {
+        this.timeoutCallback = callback;
+    }
+}
@@ -0,0 +1,55 @@
+package com.kaluzaplotecka.milionerzy.network;
+
+/**
+ * Powód odrzucenia komendy gracza przez hosta.
+ *
+ * <p>Host sprawdza każdą komendę wymagającą potwierdzenia i odrzuconą od
+ * razu odsyła jako NACK z kodem powodu ({@link #name()}) - klient nie czeka
+ * na timeout i nie ponawia wiadomości, tylko pokazuje graczowi komunikat
+ * ({@link #getMessage()}).
+ *
+ * @see GameMessageProcessor
+ * @see GameMessage#getRejectReason()
+ */
+public enum RejectReason {
+    NOT_YOUR_TURN("To nie twoja tura"),
+    UNKNOWN_PLAYER("Nieznany gracz"),
+    AUCTION_IN_PROGRESS("Trwa aukcja"),
+    ALREADY_ROLLED("Rzut w tej turze już był"),
+    NOT_ROLLED("Najpierw rzuć kostką"),
+    NOT_FOR_SALE("To pole nie jest na sprzedaż"),
+    INSUFFICIENT_FUNDS("Za mało pieniędzy"),
+    NO_ACTIVE_AUCTION("Brak aktywnej aukcji"),
+    NOT_IN_AUCTION("Gracz nie licytuje w tej aukcji"),
+    BID_TOO_LOW("Za niska oferta"),
+    INVALID_PAYLOAD("Nieprawidłowe dane komendy"),
+    GAME_NOT_STARTED("Gra jeszcze się nie rozpoczęła"),
+    UNKNOWN_TARGET("Adresat nie jest połączony"),
+    /** Kod nieznany tej wersji klienta. */
+    OTHER("Komenda odrzucona");
+
+    private final String message;
+
+    RejectReason(String message) {
+        this.message = message;
+    }
+
+    /**
+     * Zwraca komunikat dla gracza.
+     */
+    public String getMessage() {
+        return message;
+    }
+
+    /**
+     * Odczytuje kod powodu z NACK ({@link #OTHER} dla nieznanego lub pustego).
+     */
+    public static RejectReason fromCode(String code) {
+        if (code != null) {
+            for (RejectReason reason : values()) {
+                if (reason.name().equals(code)) return reason;
+            }
+        }
+        return OTHER;
+    }
+}
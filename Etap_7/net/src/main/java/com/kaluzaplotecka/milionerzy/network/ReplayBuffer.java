@@ -0,0 +1,98 @@
+package com.kaluzaplotecka.milionerzy.network;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Bufor cykliczny ostatnich broadcastów hosta do wznawiania sesji.
+ *
+ * <p>Każdy broadcast dostaje kolejny numer strumienia pokoju i trafia tu jako
+ * {@link EncodedMessage} - te same zakodowane ramki, które poszły do klientów.
+ * Klient, który wraca po krótkiej przerwie, podaje ostatni widziany numer
+ * i dostaje tylko brakujące ramki. Gdy brakujące ramki zostały już
+ * nadpisane, host wysyła zamiast nich pełny snapshot stanu.
+ *
+ * <p>Ramka przekazana dalej (relay) pamięta gracza, od którego przyszła -
+ * on jej nie dostał przy broadcaście, więc nie dostaje jej też w powtórce.
+ */
+public final class ReplayBuffer {
+
+    /** Domyślna pojemność bufora w ramkach. */
+    public static final int DEFAULT_CAPACITY = 1024;
+
+    private final long[] sequences;
+    private final EncodedMessage[] messages;
+    private final String[] origins;
+    private int next;
+    private int size;
+
+    public ReplayBuffer(int capacity) {
+        if (capacity < 1) throw new IllegalArgumentException("Pojemność musi być >= 1");
+        this.sequences = new long[capacity];
+        this.messages = new EncodedMessage[capacity];
+        this.origins = new String[capacity];
+    }
+
+    /**
+     * Dodaje ramkę o kolejnym numerze, nadpisując najstarszą przy pełnym buforze.
+     */
+    public void add(long sequence, EncodedMessage message) {
+        add(sequence, message, null);
+    }
+
+    /**
+     * Dodaje ramkę pomijaną przy powtórce dla gracza {@code origin}.
+     *
+     * @param origin gracz, od którego przyszła ramka przekazana dalej, lub null
+     */
+    public synchronized void add(long sequence, EncodedMessage message, String origin) {
+        sequences[next] = sequence;
+        messages[next] = message;
+        origins[next] = origin;
+        next = (next + 1) % messages.length;
+        if (size < messages.length) size++;
+    }
+
+    /**
+     * Zwraca ramki o numerach większych niż {@code lastSeen}, w kolejności.
+     *
+     * @param lastSeen ostatni numer odebrany przez klienta
+     * @return brakujące ramki (pusta lista, gdy klient jest na bieżąco) albo
+     *         null, gdy część z nich została już nadpisana
+     */
+    public List<EncodedMessage> since(long lastSeen) {
+        return since(lastSeen, null);
+    }
+
+    /**
+     * Zwraca ramki o numerach większych niż {@code lastSeen} bez ramek,
+     * które przyszły od gracza {@code playerId}.
+     *
+     * @param lastSeen ostatni numer odebrany przez klienta
+     * @param playerId gracz, dla którego jest powtórka, lub null
+     * @return brakujące ramki albo null, gdy część z nich została już nadpisana
+     */
+    public synchronized List<EncodedMessage> since(long lastSeen, String playerId) {
+        List<EncodedMessage> missed = new ArrayList<>();
+        if (size == 0) return missed;
+        int oldest = (next - size + messages.length) % messages.length;
+        long oldestSequence = sequences[oldest];
+        long latestSequence = sequences[(next - 1 + messages.length) % messages.length];
+        if (lastSeen >= latestSequence) {
+            // Klient z przyszłości (np. po restarcie hosta) nie może być na bieżąco
+            return lastSeen == latestSequence ? missed : null;
+        }
+        if (lastSeen + 1 < oldestSequence) return null;
+        for (int i = 0; i < size; i++) {
+            int index = (oldest + i) % messages.length;
+            if (sequences[index] > lastSeen && (playerId == null || !playerId.equals(origins[index]))) {
+                missed.add(messages[index]);
+            }
+        }
+        return missed;
+    }
+
+    public synchronized int size() {
+        return size;
+    }
+}
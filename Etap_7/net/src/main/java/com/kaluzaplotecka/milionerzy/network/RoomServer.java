@@ -0,0 +1,285 @@
+package com.kaluzaplotecka.milionerzy.network;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.BiConsumer;
+
+/**
+ * Dedykowany host wielu pokoi na jednym porcie.
+ *
+ * <p>Jeden serwer transportu ({@link NioHostServer} przy TCP) przyjmuje
+ * wszystkie połączenia, a pierwsza ramka klienta (CONNECT lub RESUME)
+ * wskazuje kod pokoju. Każdy pokój to
+ * osobny {@link NetworkManager} w trybie hosta - z własną listą graczy,
+ * strumieniem broadcastów, sesjami i stanem gry (przez
+ * {@link NetworkManager#setSnapshotProvider}). Pokoje współdzielą pętle I/O
+ * serwera i koło czasowe, więc kolejny pokój nie dokłada wątków.
+ *
+ * <p>Pokój jest tworzony przy pierwszym CONNECT z nowym kodem - przed jego
+ * uruchomieniem wywoływany jest callback {@link #setRoomCreatedCallback},
+ * w którym podpina się logikę gry. Pokój, w którym przez
+ * {@link #setEmptyRoomTimeout czas bezczynności} nie ma żadnego gracza,
+ * jest zamykany.
+ */
+public class RoomServer {
+
+    /** Domyślny limit pokoi na serwerze. */
+    public static final int DEFAULT_MAX_ROOMS = 256;
+
+    /** ID hosta w pokojach serwera dedykowanego. */
+    public static final String HOST_ID = "host";
+
+    private final Map<String, Room> rooms = new ConcurrentHashMap<>();
+    private Transport transport = TcpTransport.INSTANCE;
+    private Transport.Server server;
+    private int ioThreads = NioHostServer.DEFAULT_IO_THREADS;
+    private int maxRooms = DEFAULT_MAX_ROOMS;
+    private boolean virtualThreads = NetworkThreads.virtualThreadsByDefault();
+    private long emptyRoomTimeoutMs = NetworkManager.SESSION_RESUME_WINDOW_MS;
+    private BiConsumer<String, NetworkManager> roomCreatedCallback;
+    private BiConsumer<String, NetworkManager> roomClosedCallback;
+    private volatile boolean running;
+
+    /**
+     * Pokój: host pokoju i odbiorca zdarzeń jego połączeń.
+     */
+    private record Room(String code, NetworkManager manager, Transport.Handler handler) {}
+
+    /**
+     * Otwiera port i zaczyna przyjmować graczy do pokoi.
+     */
+    public void start(int port) throws IOException {
+        if (running) throw new IllegalStateException("Serwer już działa");
+        server = transport.newServer(new Router(), ioThreads);
+        server.start(port);
+        running = true;
+        System.out.println("Serwer pokoi uruchomiony na porcie " + port
+            + " (wątki I/O: " + ioThreads + ", limit pokoi: " + maxRooms + ")");
+    }
+
+    /**
+     * Zamyka port i wszystkie pokoje.
+     */
+    public void stop() {
+        running = false;
+        if (server != null) server.stop();
+        for (String code : new ArrayList<>(rooms.keySet())) {
+            closeRoom(code);
+        }
+        System.out.println("Serwer pokoi zatrzymany");
+    }
+
+    /**
+     * Zamyka pokój (np. po zakończeniu gry) i rozłącza jego graczy.
+     *
+     * @return true jeśli pokój istniał
+     */
+    public boolean closeRoom(String code) {
+        Room room = rooms.remove(code);
+        if (room == null) return false;
+        shutdown(room);
+        return true;
+    }
+
+    private void shutdown(Room room) {
+        room.manager().stop();
+        System.out.println("Zamknięto pokój " + room.code());
+        if (roomClosedCallback != null) {
+            roomClosedCallback.accept(room.code(), room.manager());
+        }
+    }
+
+    /**
+     * Tworzy i uruchamia pokój. Wywoływane wewnątrz {@code rooms.compute},
+     * więc dwa równoczesne CONNECT z nowym kodem tworzą jeden pokój.
+     */
+    private Room createRoom(String code) {
+        NetworkManager manager = new NetworkManager(HOST_ID, virtualThreads);
+        if (roomCreatedCallback != null) {
+            roomCreatedCallback.accept(code, manager);
+        }
+        Transport.Handler handler = manager.startRoom(code);
+        System.out.println("Utworzono pokój " + code + " (pokoi: " + (rooms.size() + 1) + ")");
+        return new Room(code, manager, handler);
+    }
+
+    /**
+     * Planuje zamknięcie pokoju, jeśli nadal będzie pusty po czasie bezczynności.
+     */
+    private void scheduleIdleCheck(Room room) {
+        TimingWheel.shared().schedule(() -> {
+            boolean[] removed = new boolean[1];
+            rooms.computeIfPresent(room.code(), (code, current) -> {
+                if (current == room && current.manager().getConnectedClientsCount() == 0) {
+                    removed[0] = true;
+                    return null;
+                }
+                return current;
+            });
+            if (removed[0]) shutdown(room);
+        }, emptyRoomTimeoutMs);
+    }
+
+    // === ROUTING POŁĄCZEŃ ===
+
+    /**
+     * Kieruje połączenia do pokoi. Do czasu pierwszej ramki połączenie nie
+     * należy do żadnego pokoju; potem pokój jest zapisany w
+     * {@link Transport.Connection#getAttachment()}.
+     */
+    private class Router implements Transport.Handler {
+
+        @Override
+        public void onConnected(Transport.Connection connection) {
+            // Pokój wiadomo dopiero po CONNECT/RESUME
+        }
+
+        @Override
+        public void onMessage(Transport.Connection connection, EncodedMessage encoded) {
+            if (connection.getAttachment() instanceof Room room) {
+                room.handler().onMessage(connection, encoded);
+                return;
+            }
+
+            GameMessage msg = encoded.getMessage();
+            boolean resume = msg.getType() == GameMessage.MessageType.RESUME;
+            if (msg.getType() != GameMessage.MessageType.CONNECT && !resume) {
+                // PING/inna ramka przed handshake'iem - nie ma jeszcze pokoju
+                return;
+            }
+            if (!(msg.getPayload() instanceof String[] parts) || parts.length < 2 || parts[0] == null) {
+                reject(connection, "Room Code Required");
+                return;
+            }
+            // Bez ID gracza (i nazwy przy dołączeniu) nie zakładaj pokoju ani miejsca w lobby
+            if (msg.getSenderId() == null || (!resume && parts[1] == null)) {
+                reject(connection, "Player Id Required");
+                return;
+            }
+
+            String code = parts[0];
+            String[] rejection = new String[1];
+            Room room = rooms.compute(code, (key, existing) -> {
+                Room target = existing;
+                if (target == null) {
+                    // RESUME do nieistniejącego pokoju - sesja już wygasła
+                    if (resume || !running) {
+                        rejection[0] = "Session expired";
+                        return null;
+                    }
+                    if (rooms.size() >= maxRooms) {
+                        rejection[0] = "Server full";
+                        return null;
+                    }
+                    try {
+                        target = createRoom(key);
+                    } catch (RuntimeException e) {
+                        // Błąd w callbacku nie może zatrzymać pętli I/O
+                        System.err.println("Błąd tworzenia pokoju " + key + ": " + e.getMessage());
+                        rejection[0] = "Room unavailable";
+                        return null;
+                    }
+                }
+                // Dołączenie wewnątrz compute - pokój nie zostanie zamknięty w międzyczasie
+                connection.setAttachment(target);
+                target.handler().onConnected(connection);
+                return target;
+            });
+
+            if (room == null) {
+                reject(connection, rejection[0]);
+                return;
+            }
+            room.handler().onMessage(connection, encoded);
+        }
+
+        @Override
+        public void onDisconnected(Transport.Connection connection) {
+            if (!(connection.getAttachment() instanceof Room room)) return;
+            room.handler().onDisconnected(connection);
+            if (room.manager().getConnectedClientsCount() == 0) {
+                scheduleIdleCheck(room);
+            }
+        }
+
+        private void reject(Transport.Connection connection, String reason) {
+            System.out.println("Odrzucono połączenie " + connection.getRemoteAddress() + ": " + reason);
+            connection.send(new GameMessage(GameMessage.MessageType.DISCONNECT, HOST_ID, reason));
+            connection.close();
+        }
+    }
+
+    // === GETTERY I SETTERY ===
+
+    public boolean isRunning() { return running; }
+    public int getRoomCount() { return rooms.size(); }
+
+    /**
+     * Zwraca host pokoju o podanym kodzie lub null.
+     */
+    public NetworkManager getRoom(String code) {
+        Room room = rooms.get(code);
+        return room != null ? room.manager() : null;
+    }
+
+    public List<String> getRoomCodes() {
+        return new ArrayList<>(rooms.keySet());
+    }
+
+    /**
+     * Ustawia transport połączeń. Działa przy następnym {@link #start}.
+     */
+    public void setTransport(Transport transport) {
+        if (transport == null) throw new IllegalArgumentException("Transport nie może być null");
+        this.transport = transport;
+    }
+
+    /**
+     * Ustawia liczbę pętli I/O serwera. Działa przy następnym {@link #start}.
+     */
+    public void setIoThreads(int ioThreads) {
+        if (ioThreads < 1) throw new IllegalArgumentException("ioThreads musi być >= 1");
+        this.ioThreads = ioThreads;
+    }
+
+    /**
+     * Ustawia tryb wątków wirtualnych dla obsługi wiadomości w pokojach
+     * (patrz {@link NetworkThreads}). Działa dla nowych pokoi.
+     */
+    public void setVirtualThreads(boolean virtualThreads) {
+        this.virtualThreads = virtualThreads;
+    }
+
+    public void setMaxRooms(int maxRooms) {
+        if (maxRooms < 1) throw new IllegalArgumentException("maxRooms musi być >= 1");
+        this.maxRooms = maxRooms;
+    }
+
+    /**
+     * Ustawia, po jakim czasie bez graczy pokój jest zamykany. Domyślnie
+     * tyle, ile trwa okno wznawiania sesji.
+     */
+    public void setEmptyRoomTimeout(long timeoutMs) {
+        if (timeoutMs < 0) throw new IllegalArgumentException("Czas nie może być ujemny");
+        this.emptyRoomTimeoutMs = timeoutMs;
+    }
+
+    /**
+     * Ustawia callback wywoływany dla nowego pokoju przed jego uruchomieniem
+     * (z wątku pętli I/O) - tu ustawia się obsługę wiadomości, provider
+     * stanu gry i heartbeat pokoju.
+     */
+    public void setRoomCreatedCallback(BiConsumer<String, NetworkManager> callback) {
+        this.roomCreatedCallback = callback;
+    }
+
+    /**
+     * Ustawia callback wywoływany po zamknięciu pokoju.
+     */
+    public void setRoomClosedCallback(BiConsumer<String, NetworkManager> callback) {
+        this.roomClosedCallback = callback;
+    }
+}
@@ -0,0 +1,71 @@
+package com.kaluzaplotecka.milionerzy.network;
+
+/**
+ * Adaptacyjny timeout retransmisji wyliczany z pomiarów RTT.
+ *
+ * <p>Wygładzony RTT i jego zmienność liczone są jak w TCP (RFC 6298):
+ * {@code srtt = 7/8 srtt + 1/8 rtt}, {@code rttvar = 3/4 rttvar + 1/4 |srtt - rtt|},
+ * a timeout to {@code srtt + 4 rttvar}, ograniczony do
+ * [{@value #MIN_RTO_MS}, {@value #MAX_RTO_MS}] ms. Przed pierwszym pomiarem
+ * obowiązuje {@value #INITIAL_RTO_MS} ms.
+ *
+ * <p>Pomiary z wiadomości wysłanych ponownie należy pomijać (algorytm Karna) -
+ * nie wiadomo, której kopii dotyczy ACK.
+ */
+public final class RttEstimator {
+
+    public static final long INITIAL_RTO_MS = 1000;
+    public static final long MIN_RTO_MS = 200;
+    public static final long MAX_RTO_MS = 10_000;
+
+    private double srtt = -1;
+    private double rttvar;
+    private long rto = INITIAL_RTO_MS;
+
+    /**
+     * Dodaje pomiar czasu od wysłania do potwierdzenia.
+     *
+     * @param rttMs zmierzony RTT w milisekundach
+     */
+    public synchronized void addSample(double rttMs) {
+        if (rttMs < 0) return;
+        if (srtt < 0) {
+            srtt = rttMs;
+            rttvar = rttMs / 2;
+        } else {
+            rttvar = 0.75 * rttvar + 0.25 * Math.abs(srtt - rttMs);
+            srtt = 0.875 * srtt + 0.125 * rttMs;
+        }
+        rto = clamp(Math.round(srtt + 4 * rttvar));
+    }
+
+    /**
+     * Zwraca timeout dla kolejnej próby: bieżący RTO podwajany przy każdym
+     * ponowieniu (wykładnicze wycofanie).
+     *
+     * @param attempt numer próby (0 = pierwsze wysłanie)
+     */
+    public synchronized long timeoutFor(int attempt) {
+        long timeout = rto << Math.min(attempt, 16);
+        return clamp(timeout);
+    }
+
+    public synchronized long getRtoMs() {
+        return rto;
+    }
+
+    /**
+     * Zwraca wygładzony RTT w milisekundach lub -1 przed pierwszym pomiarem.
+     */
+    public synchronized double getSmoothedRttMs() {
+        return srtt;
+    }
+
+    public synchronized double getRttVarianceMs() {
+        return rttvar;
+    }
+
+    private static long clamp(long value) {
+        return Math.max(MIN_RTO_MS, Math.min(MAX_RTO_MS, value));
+    }
+}
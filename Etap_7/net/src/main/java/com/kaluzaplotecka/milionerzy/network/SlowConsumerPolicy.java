@@ -0,0 +1,25 @@
+package com.kaluzaplotecka.milionerzy.network;
+
+/**
+ * Zachowanie hosta, gdy kolejka wychodząca klienta przekroczy limit
+ * (klient nie nadąża z odbiorem).
+ *
+ * <p>Jeśli po zastosowaniu polityki ramka nadal się nie mieści,
+ * klient jest rozłączany - kolejka nigdy nie rośnie bez ograniczeń.
+ *
+ * @see NioHostServer#setSlowConsumerPolicy(SlowConsumerPolicy)
+ */
+public enum SlowConsumerPolicy {
+
+    /** Od razu rozłącza klienta. */
+    DISCONNECT,
+
+    /** Odrzuca zakolejkowane i nowe wiadomości kosmetyczne ({@link GameMessage#isCosmetic()}). */
+    DROP_COSMETIC,
+
+    /**
+     * Jak {@link #DROP_COSMETIC}, a dodatkowo nowy pełny snapshot stanu
+     * zastępuje zakolejkowane starsze snapshoty i różnice stanu.
+     */
+    COLLAPSE_STATE
+}
@@ -0,0 +1,58 @@
+package com.kaluzaplotecka.milionerzy.network;
+
+import java.util.function.Supplier;
+
+/**
+ * Ostatni pełny snapshot stanu gry zakodowany do wysłania nowym klientom.
+ *
+ * <p>Każdy CONNECT i każde wznowienie bez powtórki dostaje pełny stan. Przy
+ * fali dołączeń (np. po chwilowej awarii sieci) ten sam stan byłby
+ * serializowany osobno dla każdego klienta. Cache trzyma jedną
+ * {@link EncodedMessage} oznaczoną wersją stanu - ramka jest kodowana raz
+ * na kodek, a kolejni klienci dostają te same bajty.
+ *
+ * <p>Unieważnienie jest leniwe: nowa wiadomość powstaje dopiero przy
+ * pierwszym żądaniu po zmianie wersji. Numer strumienia zapisany
+ * w wiadomości może być wtedy starszy od bieżącego - host dosyła brakujące
+ * ramki z bufora powtórek (patrz {@code NetworkManager}).
+ */
+public final class SnapshotCache {
+
+    private long version = -1;
+    private EncodedMessage cached;
+    private long builds;
+
+    /**
+     * Zwraca snapshot dla podanej wersji stanu, budując go tylko wtedy,
+     * gdy zapamiętany dotyczy innej wersji.
+     *
+     * @param version wersja stanu gry
+     * @param builder tworzy wiadomość z pełnym stanem (wołany tylko przy zmianie)
+     * @return wiadomość współdzielona przez wszystkich odbiorców (lub null)
+     */
+    public synchronized EncodedMessage get(long version, Supplier<GameMessage> builder) {
+        if (cached == null || version != this.version) {
+            GameMessage message = builder.get();
+            if (message == null) return null;
+            cached = new EncodedMessage(message);
+            this.version = version;
+            builds++;
+        }
+        return cached;
+    }
+
+    /**
+     * Zapomina zapamiętany snapshot (np. po zmianie źródła stanu).
+     */
+    public synchronized void invalidate() {
+        cached = null;
+        version = -1;
+    }
+
+    /**
+     * Zwraca liczbę zbudowanych snapshotów (do statystyk i testów).
+     */
+    public synchronized long getBuildCount() {
+        return builds;
+    }
+}
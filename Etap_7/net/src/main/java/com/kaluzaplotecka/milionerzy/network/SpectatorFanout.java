@@ -0,0 +1,144 @@
+package com.kaluzaplotecka.milionerzy.network;
+
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Strumień tylko do odczytu dla widzów pokoju.
+ *
+ * <p>Widz nie jest graczem: nie ma sesji, nie dostaje ACK ani komunikatów
+ * kierowanych do graczy (np. {@code PROPERTY_OFFER}) i niczego nie wysyła do
+ * autorytetu gry. Dostaje tylko zmiany stanu - pełny snapshot przy
+ * dołączeniu, a potem różnice ({@code STATE_DELTA}) i zdarzenia potrzebne do
+ * wyświetlenia przebiegu gry.
+ *
+ * <p>Broadcast hosta przekazuje tu tę samą {@link EncodedMessage}, którą
+ * dostali gracze - ramka jest kodowana raz na kodek i współdzielona przez
+ * wszystkich widzów. Rozsyłanie do widzów działa na osobnym wątku, więc
+ * broadcast do graczy kosztuje jedno wstawienie do kolejki niezależnie od
+ * liczby widzów. Opcjonalne opóźnienie przesuwa cały strumień widzów
+ * (łącznie ze snapshotem przy dołączeniu) o stały czas.
+ */
+public final class SpectatorFanout {
+
+    /** Typy wiadomości trafiające do widzów. */
+    public static final Set<GameMessage.MessageType> SPECTATOR_TYPES = Set.of(
+        GameMessage.MessageType.GAME_STATE_SYNC,
+        GameMessage.MessageType.STATE_DELTA,
+        GameMessage.MessageType.LOCKSTEP_COMMAND,
+        GameMessage.MessageType.GAME_START,
+        GameMessage.MessageType.DICE_RESULT,
+        GameMessage.MessageType.MOVE,
+        GameMessage.MessageType.AUCTION_START,
+        GameMessage.MessageType.AUCTION_ENDED,
+        GameMessage.MessageType.PLAYER_LIST,
+        GameMessage.MessageType.PAUSE_GAME,
+        GameMessage.MessageType.RESUME_GAME,
+        GameMessage.MessageType.CHAT
+    );
+
+    // Lista czytana tylko przez wątek rozsyłania; licznik obejmuje też widzów czekających na snapshot
+    private final List<Transport.Connection> spectators = new CopyOnWriteArrayList<>();
+    private final AtomicInteger count = new AtomicInteger();
+    private final ScheduledExecutorService loop;
+    private final long delayMs;
+
+    /**
+     * @param delayMs opóźnienie strumienia widzów (0 - bez opóźnienia)
+     * @param virtual czy rozsyłać z wątku wirtualnego
+     */
+    public SpectatorFanout(long delayMs, boolean virtual) {
+        if (delayMs < 0) throw new IllegalArgumentException("Opóźnienie nie może być ujemne");
+        this.delayMs = delayMs;
+        // Jeden wątek - kolejność ramek taka jak w strumieniu hosta
+        ThreadFactory factory = virtual
+            ? Thread.ofVirtual().name("milionerzy-spectators").factory()
+            : Thread.ofPlatform().name("milionerzy-spectators").daemon(true).factory();
+        ScheduledThreadPoolExecutor executor = new ScheduledThreadPoolExecutor(1, factory);
+        executor.setExecuteExistingDelayedTasksAfterShutdownPolicy(false);
+        this.loop = executor;
+    }
+
+    /**
+     * Czy wiadomość tego typu jest przeznaczona dla widzów.
+     */
+    public static boolean isSpectatorType(GameMessage.MessageType type) {
+        return SPECTATOR_TYPES.contains(type);
+    }
+
+    /**
+     * Przekazuje ramkę strumienia hosta wszystkim widzom (jeśli jest dla nich).
+     * Nie blokuje i nie zależy od liczby widzów.
+     */
+    public void publish(EncodedMessage message) {
+        if (count.get() == 0 || !isSpectatorType(message.getMessage().getType())) return;
+        dispatch(() -> {
+            for (Transport.Connection spectator : spectators) {
+                spectator.send(message);
+            }
+        });
+    }
+
+    /**
+     * Dołącza widza: najpierw dostaje snapshot, potem kolejne ramki.
+     * Wywoływane pod blokadą strumienia hosta, więc żadna ramka nie wypadnie
+     * między snapshotem a strumieniem.
+     *
+     * @param connection połączenie widza
+     * @param snapshot zakodowany pełny stan (lub null przed startem gry)
+     */
+    public void add(Transport.Connection connection, EncodedMessage snapshot) {
+        count.incrementAndGet();
+        // Na liście dopiero w kolejce rozsyłania - ramki zlecone wcześniej go pominą
+        dispatch(() -> {
+            if (snapshot != null) connection.send(snapshot);
+            spectators.add(connection);
+        });
+    }
+
+    /**
+     * Wysyła pełny stan jednemu widzowi (np. po luce w wersjach).
+     */
+    public void resync(Transport.Connection connection, EncodedMessage snapshot) {
+        if (snapshot != null) {
+            dispatch(() -> connection.send(snapshot));
+        }
+    }
+
+    public void remove(Transport.Connection connection) {
+        count.decrementAndGet();
+        dispatch(() -> spectators.remove(connection));
+    }
+
+    public int size() {
+        return count.get();
+    }
+
+    public long getDelayMs() {
+        return delayMs;
+    }
+
+    /**
+     * Zatrzymuje rozsyłanie; ramki oczekujące na opóźnienie przepadają.
+     */
+    public void stop() {
+        loop.shutdownNow();
+        spectators.clear();
+        count.set(0);
+    }
+
+    private void dispatch(Runnable task) {
+        try {
+            loop.schedule(task, delayMs, TimeUnit.MILLISECONDS);
+        } catch (RejectedExecutionException e) {
+            // Host zatrzymany
+        }
+    }
+}
@@ -0,0 +1,175 @@
+package com.kaluzaplotecka.milionerzy.network;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.List;
+
+import com.kaluzaplotecka.milionerzy.manager.TurnManager;
+import com.kaluzaplotecka.milionerzy.model.Auction;
+import com.kaluzaplotecka.milionerzy.model.GameState;
+import com.kaluzaplotecka.milionerzy.model.Player;
+import com.kaluzaplotecka.milionerzy.model.tiles.PropertyTile;
+import com.kaluzaplotecka.milionerzy.model.tiles.Tile;
+
+/**
+ * Różnica stanu gry między dwiema wersjami.
+ *
+ * <p>Zawiera wyłącznie zmienione pola graczy, nieruchomości, tury i aukcji.
+ * Wartości są bezwzględne (np. aktualna kwota, a nie zmiana kwoty),
+ * więc ponowne zastosowanie tej samej różnicy nie psuje stanu.
+ *
+ * <p>Różnicę można zastosować tylko do stanu w wersji {@link #getBaseVersion()}.
+ * Klient, który wykryje lukę w wersjach, prosi o pełną synchronizację.
+ * Tak samo, gdy po zastosowaniu różnicy skrót jego stanu
+ * ({@link com.kaluzaplotecka.milionerzy.model.StateHash}) nie zgadza się
+ * z {@link #getStateHash()} - kopia rozjechała się z hostem.
+ *
+ * @see StateDeltaTracker
+ * @see ClientStateSync
+ */
+public class StateDelta implements Serializable {
+    private static final long serialVersionUID = 1L;
+
+    /** Zmienione pola gracza. */
+    public record PlayerDelta(String id, int money, int position, boolean inJail, int jailTurns)
+        implements Serializable {}
+
+    /** Zmienione pola nieruchomości (pozycja na planszy jako klucz). */
+    public record TileDelta(int position, String ownerId, int houses, boolean mortgaged)
+        implements Serializable {}
+
+    private final long baseVersion;
+    private final long version;
+    private long stateHash;
+    private final List<PlayerDelta> players = new ArrayList<>();
+    private final List<TileDelta> tiles = new ArrayList<>();
+
+    // Kolejność graczy - null gdy skład się nie zmienił (np. bankructwo)
+    private List<String> playerOrder;
+
+    // Pola tury
+    private boolean turnChanged;
+    private String currentPlayerId;
+    private int roundNumber;
+    private boolean hasRolled;
+
+    // Aukcja - null przy auctionChanged oznacza brak aukcji
+    private boolean auctionChanged;
+    private Auction auction;
+
+    public StateDelta(long baseVersion, long version) {
+        this.baseVersion = baseVersion;
+        this.version = version;
+    }
+
+    // === Budowanie (host) ===
+
+    void addPlayer(PlayerDelta delta) { players.add(delta); }
+    void addTile(TileDelta delta) { tiles.add(delta); }
+    void setPlayerOrder(List<String> order) { this.playerOrder = order; }
+    void setStateHash(long stateHash) { this.stateHash = stateHash; }
+
+    void setTurn(String currentPlayerId, int roundNumber, boolean hasRolled) {
+        this.turnChanged = true;
+        this.currentPlayerId = currentPlayerId;
+        this.roundNumber = roundNumber;
+        this.hasRolled = hasRolled;
+    }
+
+    void setAuction(Auction auction) {
+        this.auctionChanged = true;
+        this.auction = auction;
+    }
+
+    /**
+     * Sprawdza czy różnica nie zawiera żadnych zmian.
+     */
+    public boolean isEmpty() {
+        return players.isEmpty() && tiles.isEmpty() && playerOrder == null
+            && !turnChanged && !auctionChanged;
+    }
+
+    // === Stosowanie (klient) ===
+
+    /**
+     * Nakłada różnicę na stan gry i ustawia jego wersję na {@link #getVersion()}.
+     *
+     * @param state stan w wersji bazowej
+     */
+    public void applyTo(GameState state) {
+        TurnManager turnManager = state.getTurnManager();
+
+        if (playerOrder != null) {
+            for (Player p : state.getPlayers()) {
+                if (!playerOrder.contains(p.getId())) {
+                    turnManager.removePlayer(p);
+                }
+            }
+        }
+
+        for (PlayerDelta d : players) {
+            Player p = findPlayer(state, d.id());
+            if (p == null) continue;
+            p.setMoney(d.money());
+            p.setPosition(d.position());
+            p.setJailState(d.inJail(), d.jailTurns());
+        }
+
+        for (TileDelta d : tiles) {
+            Tile t = state.getBoard().getTile(d.position());
+            if (!(t instanceof PropertyTile pt)) continue;
+            Player newOwner = d.ownerId() != null ? findPlayer(state, d.ownerId()) : null;
+            Player oldOwner = pt.getOwner() != null ? findPlayer(state, pt.getOwner().getId()) : null;
+            if (oldOwner != null && !oldOwner.equals(newOwner)) {
+                oldOwner.removeProperty(pt);
+            }
+            pt.setOwner(newOwner);
+            if (newOwner != null) {
+                newOwner.addProperty(pt);
+            }
+            pt.setHouses(d.houses());
+            pt.setMortgaged(d.mortgaged());
+        }
+
+        if (turnChanged) {
+            turnManager.setCurrentPlayerById(currentPlayerId);
+            turnManager.setRoundNumber(roundNumber);
+            turnManager.setHasRolled(hasRolled);
+        }
+
+        if (auctionChanged) {
+            state.getPropertyManager().setCurrentAuction(auction);
+        }
+
+        state.setStateVersion(version);
+    }
+
+    private static Player findPlayer(GameState state, String id) {
+        for (Player p : state.getPlayers()) {
+            if (p.getId().equals(id)) return p;
+        }
+        return null;
+    }
+
+    // === Gettery ===
+
+    public long getBaseVersion() { return baseVersion; }
+    public long getVersion() { return version; }
+    /** Skrót stanu hosta w wersji {@link #getVersion()}. */
+    public long getStateHash() { return stateHash; }
+    public List<PlayerDelta> getPlayers() { return players; }
+    public List<TileDelta> getTiles() { return tiles; }
+    public List<String> getPlayerOrder() { return playerOrder; }
+    public boolean isTurnChanged() { return turnChanged; }
+    public String getCurrentPlayerId() { return currentPlayerId; }
+    public int getRoundNumber() { return roundNumber; }
+    public boolean hasRolled() { return hasRolled; }
+    public boolean isAuctionChanged() { return auctionChanged; }
+    public Auction getAuction() { return auction; }
+
+    @Override
+    public String toString() {
+        return String.format("StateDelta[%d->%d players=%d tiles=%d turn=%s auction=%s]",
+            baseVersion, version, players.size(), tiles.size(), turnChanged, auctionChanged);
+    }
+}
@@ -0,0 +1,188 @@
+package com.kaluzaplotecka.milionerzy.network;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+import com.kaluzaplotecka.milionerzy.model.Auction;
+import com.kaluzaplotecka.milionerzy.model.GameState;
+import com.kaluzaplotecka.milionerzy.model.Player;
+import com.kaluzaplotecka.milionerzy.model.StateHash;
+import com.kaluzaplotecka.milionerzy.model.tiles.PropertyTile;
+import com.kaluzaplotecka.milionerzy.model.tiles.Tile;
+
+/**
+ * Śledzi zmiany stanu gry po stronie hosta i wylicza {@link StateDelta}.
+ *
+ * <p>Przechowuje lekką kopię ostatnio wysłanych wartości (pieniądze, pozycje,
+ * właściciele, tura, aukcja) i porównuje ją z aktualnym stanem. Porównanie
+ * kilkudziesięciu liczb jest o rzędy wielkości tańsze niż serializacja
+ * całego {@link GameState}.
+ *
+ * <p>Przy każdej zmianie składowej aktualizuje też przyrostowo
+ * {@link StateHash} i dołącza go do różnicy - klient sprawdza nim, czy po
+ * zastosowaniu różnicy ma ten sam stan co host.
+ *
+ * <p><b>Uwaga:</b> Klasa nie jest thread-safe - wywołania muszą pochodzić
+ * z wątku, który modyfikuje stan gry.
+ *
+ * @see NetworkGameEventListener
+ */
+public class StateDeltaTracker {
+
+    private record PlayerShadow(int money, int position, boolean inJail, int jailTurns) {}
+    private record TileShadow(String ownerId, int houses, boolean mortgaged) {}
+    private record TurnShadow(String currentPlayerId, int roundNumber, boolean hasRolled) {}
+    private record AuctionShadow(String id, int highestBid, String highestBidderId,
+                                 Auction.Status status, int passedCount) {}
+
+    private final Map<String, PlayerShadow> players = new HashMap<>();
+    private final List<String> playerOrder = new ArrayList<>();
+    private final Map<Integer, TileShadow> tiles = new HashMap<>();
+    private TurnShadow turn;
+    private AuctionShadow auction;
+    private final StateHash hash = new StateHash();
+
+    private long version;
+    private boolean hasBaseline;
+
+    /**
+     * Sprawdza czy zapamiętano już stan bazowy (pierwszy pełny snapshot).
+     */
+    public boolean hasBaseline() {
+        return hasBaseline;
+    }
+
+    /**
+     * Zapamiętuje cały stan jako bazowy i nadaje mu nową wersję.
+     * Wywoływane przed wysłaniem pełnego snapshotu.
+     *
+     * @param state aktualny stan gry
+     * @return wersja nadana stanowi
+     */
+    public long captureBaseline(GameState state) {
+        players.clear();
+        playerOrder.clear();
+        tiles.clear();
+        for (Player p : state.getPlayers()) {
+            players.put(p.getId(), shadowOf(p));
+            playerOrder.add(p.getId());
+        }
+        for (Tile t : state.getBoard().getTiles()) {
+            if (t instanceof PropertyTile pt) {
+                tiles.put(pt.getPosition(), shadowOf(pt));
+            }
+        }
+        turn = shadowOfTurn(state);
+        auction = shadowOf(state.getCurrentAuction());
+        hash.reset(state);
+        hasBaseline = true;
+        version++;
+        state.setStateVersion(version);
+        return version;
+    }
+
+    /**
+     * Wylicza różnicę względem ostatnio zapamiętanego stanu i zapamiętuje
+     * nowe wartości. Przy niepustej różnicy wersja stanu jest podbijana.
+     *
+     * @param state aktualny stan gry
+     * @return różnica lub {@code null} jeśli nic się nie zmieniło
+     */
+    public StateDelta diff(GameState state) {
+        if (!hasBaseline) {
+            throw new IllegalStateException("Brak stanu bazowego - najpierw captureBaseline()");
+        }
+        StateDelta delta = new StateDelta(version, version + 1);
+
+        List<String> currentOrder = new ArrayList<>();
+        for (Player p : state.getPlayers()) {
+            currentOrder.add(p.getId());
+            PlayerShadow now = shadowOf(p);
+            if (!now.equals(players.get(p.getId()))) {
+                players.put(p.getId(), now);
+                hash.updatePlayer(p);
+                delta.addPlayer(new StateDelta.PlayerDelta(
+                    p.getId(), now.money(), now.position(), now.inJail(), now.jailTurns()));
+            }
+        }
+        if (!currentOrder.equals(playerOrder)) {
+            for (String id : playerOrder) {
+                if (!currentOrder.contains(id)) hash.removePlayer(id);
+            }
+            players.keySet().retainAll(currentOrder);
+            playerOrder.clear();
+            playerOrder.addAll(currentOrder);
+            delta.setPlayerOrder(new ArrayList<>(currentOrder));
+        }
+
+        for (Tile t : state.getBoard().getTiles()) {
+            if (t instanceof PropertyTile pt) {
+                TileShadow now = shadowOf(pt);
+                if (!now.equals(tiles.get(pt.getPosition()))) {
+                    tiles.put(pt.getPosition(), now);
+                    hash.updateTile(pt);
+                    delta.addTile(new StateDelta.TileDelta(
+                        pt.getPosition(), now.ownerId(), now.houses(), now.mortgaged()));
+                }
+            }
+        }
+
+        TurnShadow nowTurn = shadowOfTurn(state);
+        if (!nowTurn.equals(turn)) {
+            turn = nowTurn;
+            hash.updateTurn(state);
+            delta.setTurn(nowTurn.currentPlayerId(), nowTurn.roundNumber(), nowTurn.hasRolled());
+        }
+
+        AuctionShadow nowAuction = shadowOf(state.getCurrentAuction());
+        if (!Objects.equals(nowAuction, auction)) {
+            auction = nowAuction;
+            hash.updateAuction(state.getCurrentAuction());
+            delta.setAuction(state.getCurrentAuction());
+        }
+
+        if (delta.isEmpty()) {
+            return null;
+        }
+        delta.setStateHash(hash.value());
+        version++;
+        state.setStateVersion(version);
+        return delta;
+    }
+
+    public long getVersion() {
+        return version;
+    }
+
+    /**
+     * Zwraca skrót ostatnio zapamiętanego stanu.
+     */
+    public long getStateHash() {
+        return hash.value();
+    }
+
+    private static PlayerShadow shadowOf(Player p) {
+        return new PlayerShadow(p.getMoney(), p.getPosition(), p.isInJail(), p.getJailTurns());
+    }
+
+    private static TileShadow shadowOf(PropertyTile pt) {
+        return new TileShadow(pt.getOwner() != null ? pt.getOwner().getId() : null,
+            pt.getHouses(), pt.isMortgaged());
+    }
+
+    private static TurnShadow shadowOfTurn(GameState state) {
+        Player current = state.getCurrentPlayer();
+        return new TurnShadow(current != null ? current.getId() : null,
+            state.getRoundNumber(), state.hasRolled());
+    }
+
+    private static AuctionShadow shadowOf(Auction a) {
+        if (a == null) return null;
+        return new AuctionShadow(a.getId(), a.getHighestBid(),
+            a.getHighestBidder() != null ? a.getHighestBidder().getId() : null,
+            a.getStatus(), a.getPassedPlayers().size());
+    }
+}
@@ -0,0 +1,80 @@
+package com.kaluzaplotecka.milionerzy.network;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.net.Socket;
+
+/**
+ * Transport TCP: host na {@link NioHostServer}, klient na blokującym
+ * gnieździe. Wiadomości idą ramkami {@link FrameCodec}.
+ */
+public final class TcpTransport implements Transport {
+
+    public static final TcpTransport INSTANCE = new TcpTransport();
+
+    private TcpTransport() {}
+
+    @Override
+    public Server newServer(Handler handler, int ioThreads) {
+        return new NioHostServer(handler, ioThreads);
+    }
+
+    @Override
+    public Link connect(String host, int port) throws IOException {
+        return new TcpLink(new Socket(host, port));
+    }
+
+    /**
+     * Gniazdo klienta z buforowanym zapisem - ramki zapisane między
+     * {@link #flush()} idą jednym wywołaniem systemowym.
+     */
+    private static final class TcpLink implements Link {
+        private final Socket socket;
+        private final DataOutputStream out;
+        private final DataInputStream in;
+
+        TcpLink(Socket socket) throws IOException {
+            this.socket = socket;
+            try {
+                socket.setTcpNoDelay(true);
+                this.out = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream()));
+                this.in = new DataInputStream(new BufferedInputStream(socket.getInputStream()));
+            } catch (IOException e) {
+                socket.close();
+                throw e;
+            }
+        }
+
+        @Override
+        public void write(GameMessage message, WireCodec codec) throws IOException {
+            byte[] frame;
+            try {
+                frame = FrameCodec.encode(message, codec);
+            } catch (IOException e) {
+                System.err.println("Błąd kodowania wiadomości do hosta: " + e.getMessage());
+                return;
+            }
+            out.write(frame);
+        }
+
+        @Override
+        public void flush() throws IOException {
+            out.flush();
+        }
+
+        @Override
+        public GameMessage read() throws IOException {
+            return FrameCodec.read(in);
+        }
+
+        @Override
+        public void close() {
+            try {
+                socket.close();
+            } catch (IOException e) { /* ignore */ }
+        }
+    }
+}
@@ -0,0 +1,180 @@
+package com.kaluzaplotecka.milionerzy.network;
+
+import java.util.ArrayDeque;
+import java.util.Iterator;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Haszowane koło czasowe do timeoutów retransmisji.
+ *
+ * <p>Jeden wątek obsługuje dowolnie wiele timeoutów: zaplanowanie i anulowanie
+ * kosztują O(1), a co tick przeglądany jest tylko jeden kubełek. Dokładność
+ * jest ograniczona do długości ticku ({@value #DEFAULT_TICK_MS} ms), co przy
+ * timeoutach rzędu setek milisekund nie ma znaczenia.
+ *
+ * <p>Wszystkie trackery ACK w JVM korzystają ze wspólnego koła
+ * ({@link #shared()}), więc setki botów nie tworzą setek wątków planisty
+ * i obiektów {@code ScheduledFuture}. Zadania wykonywane są na wątku koła
+ * i muszą być krótkie.
+ */
+public final class TimingWheel {
+
+    /** Domyślna długość ticku w milisekundach. */
+    public static final long DEFAULT_TICK_MS = 10;
+
+    /** Domyślna liczba kubełków (jeden obrót = 5,12 s przy ticku 10 ms). */
+    public static final int DEFAULT_WHEEL_SIZE = 512;
+
+    /**
+     * Zaplanowany timeout. Anulowany pozostaje w kubełku do najbliższego
+     * przejścia koła, ale jego zadanie się nie wykona.
+     */
+    public static final class Timeout {
+        private final Runnable task;
+        private final long deadline;   // ns względem startu koła
+        private long remainingRounds;
+        private volatile boolean cancelled;
+
+        private Timeout(Runnable task, long deadline) {
+            this.task = task;
+            this.deadline = deadline;
+        }
+
+        /**
+         * Anuluje timeout.
+         */
+        public void cancel() {
+            cancelled = true;
+        }
+
+        public boolean isCancelled() {
+            return cancelled;
+        }
+    }
+
+    private final long tickNanos;
+    private final int mask;
+    private final ArrayDeque<Timeout>[] buckets;       // tylko wątek koła
+    private final Queue<Timeout> incoming = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger scheduled = new AtomicInteger();
+    private final long startNanos = System.nanoTime();
+    private final Thread worker;
+    private volatile boolean running = true;
+    private long tick;
+
+    /**
+     * @param tickMs długość ticku w milisekundach
+     * @param wheelSize liczba kubełków (zaokrąglana w górę do potęgi dwójki)
+     * @param name nazwa wątku koła
+     */
+    @SuppressWarnings("unchecked")
+    public TimingWheel(long tickMs, int wheelSize, String name) {
+        if (tickMs < 1 || wheelSize < 1) throw new IllegalArgumentException("Nieprawidłowe parametry koła");
+        int size = 1;
+        while (size < wheelSize) size <<= 1;
+        this.tickNanos = TimeUnit.MILLISECONDS.toNanos(tickMs);
+        this.mask = size - 1;
+        this.buckets = new ArrayDeque[size];
+        for (int i = 0; i < size; i++) buckets[i] = new ArrayDeque<>();
+        this.worker = Thread.ofPlatform().name(name).daemon(true).unstarted(this::run);
+        this.worker.start();
+    }
+
+    /**
+     * Zwraca koło współdzielone przez wszystkie trackery w JVM.
+     */
+    public static TimingWheel shared() {
+        return Shared.INSTANCE;
+    }
+
+    private static final class Shared {
+        static final TimingWheel INSTANCE = new TimingWheel(DEFAULT_TICK_MS, DEFAULT_WHEEL_SIZE, "milionerzy-net-timer");
+    }
+
+    /**
+     * Planuje zadanie po podanym czasie.
+     *
+     * @param task zadanie (krótkie, nieblokujące)
+     * @param delayMs opóźnienie w milisekundach
+     * @return uchwyt pozwalający anulować timeout
+     */
+    public Timeout schedule(Runnable task, long delayMs) {
+        long deadline = System.nanoTime() - startNanos + TimeUnit.MILLISECONDS.toNanos(Math.max(0, delayMs));
+        Timeout timeout = new Timeout(task, deadline);
+        scheduled.incrementAndGet();
+        incoming.add(timeout);
+        return timeout;
+    }
+
+    /**
+     * Zwraca liczbę timeoutów oczekujących (w tym anulowanych, jeszcze nieusuniętych).
+     */
+    public int getScheduledCount() {
+        return scheduled.get();
+    }
+
+    /**
+     * Zatrzymuje wątek koła. Niewykonane zadania są porzucane.
+     */
+    public void stop() {
+        running = false;
+        worker.interrupt();
+    }
+
+    private void run() {
+        while (running) {
+            long deadline = (tick + 1) * tickNanos;
+            long now;
+            while ((now = System.nanoTime() - startNanos) < deadline) {
+                LockSupport.parkNanos(deadline - now);
+                if (!running) return;
+            }
+            transferIncoming();
+            expire(buckets[(int) (tick & mask)], now);
+            tick++;
+        }
+    }
+
+    /**
+     * Przenosi nowe timeouty do kubełków (tylko wątek koła).
+     */
+    private void transferIncoming() {
+        Timeout timeout;
+        while ((timeout = incoming.poll()) != null) {
+            if (timeout.cancelled) {
+                scheduled.decrementAndGet();
+                continue;
+            }
+            long targetTick = timeout.deadline / tickNanos;
+            timeout.remainingRounds = Math.max(0, (targetTick - tick) / buckets.length);
+            // Spóźnione timeouty trafiają do bieżącego kubełka
+            long slot = Math.max(targetTick, tick);
+            buckets[(int) (slot & mask)].add(timeout);
+        }
+    }
+
+    private void expire(ArrayDeque<Timeout> bucket, long now) {
+        Iterator<Timeout> it = bucket.iterator();
+        while (it.hasNext()) {
+            Timeout timeout = it.next();
+            if (timeout.cancelled) {
+                it.remove();
+                scheduled.decrementAndGet();
+            } else if (timeout.remainingRounds > 0) {
+                timeout.remainingRounds--;
+            } else if (timeout.deadline <= now) {
+                it.remove();
+                scheduled.decrementAndGet();
+                try {
+                    timeout.task.run();
+                } catch (RuntimeException e) {
+                    System.err.println("Błąd zadania koła czasowego: " + e.getMessage());
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,147 @@
+package com.kaluzaplotecka.milionerzy.network;
+
+import java.io.IOException;
+import java.net.SocketAddress;
+
+/**
+ * Warstwa przenosząca wiadomości między hostem a klientami pod
+ * {@link NetworkManager}.
+ *
+ * <p>{@link TcpTransport} to zwykłe połączenia TCP: host na
+ * {@link NioHostServer}, klient na blokującym gnieździe. {@link InMemoryTransport}
+ * przekazuje wiadomości kolejkami w obrębie jednej JVM - bez gniazd, portów
+ * i (domyślnie) bez kodowania ramek, więc testy i gry botów działają szybciej
+ * i równolegle.
+ *
+ * <p>Protokół (CONNECT, sesje, ACK, heartbeat) jest ten sam niezależnie od
+ * transportu - obsługuje go {@link NetworkManager}.
+ *
+ * @see NetworkManager#setTransport(Transport)
+ */
+public interface Transport {
+
+    /**
+     * Tworzy serwer hosta (jeszcze nieuruchomiony).
+     *
+     * @param handler odbiorca zdarzeń połączeń
+     * @param ioThreads liczba wątków I/O (transport może ją pominąć)
+     */
+    Server newServer(Handler handler, int ioThreads);
+
+    /**
+     * Otwiera połączenie klienta z hostem.
+     *
+     * @throws IOException gdy host jest nieosiągalny
+     */
+    Link connect(String host, int port) throws IOException;
+
+    /**
+     * Serwer hosta przyjmujący połączenia klientów.
+     */
+    interface Server {
+        void start(int port) throws IOException;
+        void stop();
+        boolean isRunning();
+
+        /**
+         * Ustawia limity kolejki wychodzącej każdego klienta.
+         */
+        void setOutboundLimits(int maxFrames, long maxBytes);
+        void setSlowConsumerPolicy(SlowConsumerPolicy policy);
+    }
+
+    /**
+     * Odbiorca zdarzeń serwera. Metody wywoływane są na wątku I/O
+     * transportu, więc nie powinny wykonywać długich operacji.
+     */
+    interface Handler {
+        void onConnected(Connection connection);
+        void onMessage(Connection connection, EncodedMessage message);
+        void onDisconnected(Connection connection);
+    }
+
+    /**
+     * Połączenie klienta widziane przez hosta.
+     */
+    interface Connection {
+
+        /**
+         * Kolejkuje wiadomość do wysłania. Nie blokuje.
+         */
+        void send(GameMessage message);
+
+        /**
+         * Kolejkuje wiadomość w kodeku tego połączenia. Ramka jest kodowana
+         * najwyżej raz na kodek, niezależnie od liczby odbiorców.
+         */
+        void send(EncodedMessage message);
+
+        /**
+         * Uruchamia zadanie na wątku I/O tego połączenia, po obsłużeniu
+         * bieżącej paczki odebranych wiadomości.
+         */
+        void execute(Runnable task);
+
+        /**
+         * Zamyka połączenie natychmiast, porzucając zakolejkowane wiadomości.
+         */
+        void abort();
+
+        /**
+         * Zamyka połączenie po wysłaniu zakolejkowanych wiadomości.
+         */
+        void close();
+
+        SocketAddress getRemoteAddress();
+        String getPlayerId();
+        void setPlayerId(String playerId);
+        boolean isOpen();
+        WireCodec getCodec();
+
+        /**
+         * Ustawia kodek dla kolejnych wysyłanych ramek (po uzgodnieniu w CONNECT).
+         */
+        void setCodec(WireCodec codec);
+
+        /**
+         * Obiekt powiązany z połączeniem przez odbiorcę zdarzeń
+         * (np. pokój, do którego {@link RoomServer} skierował klienta).
+         */
+        Object getAttachment();
+        void setAttachment(Object attachment);
+
+        /**
+         * Zwraca statystyki kolejki wychodzącej (bezpieczne z dowolnego wątku).
+         */
+        NioHostServer.QueueStats getQueueStats();
+    }
+
+    /**
+     * Połączenie klienta z hostem widziane przez klienta. Pisze do niego
+     * tylko wątek piszący klienta, a czyta tylko wątek czytający.
+     */
+    interface Link {
+
+        /**
+         * Zapisuje wiadomość (może ją buforować do {@link #flush()}).
+         * Wiadomość, której nie da się zakodować, jest pomijana.
+         *
+         * @throws IOException gdy połączenie jest zerwane
+         */
+        void write(GameMessage message, WireCodec codec) throws IOException;
+
+        void flush() throws IOException;
+
+        /**
+         * Odczytuje blokująco kolejną wiadomość od hosta.
+         *
+         * @throws java.io.EOFException gdy połączenie zostało zamknięte
+         */
+        GameMessage read() throws IOException;
+
+        /**
+         * Zamyka połączenie - przerywa oczekujący odczyt i zapis.
+         */
+        void close();
+    }
+}
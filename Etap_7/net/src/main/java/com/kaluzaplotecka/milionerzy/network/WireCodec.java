@@ -0,0 +1,52 @@
+package com.kaluzaplotecka.milionerzy.network;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+
+/**
+ * Sposób kodowania ciała ramki {@link GameMessage}.
+ *
+ * <p>Ramka ({@link FrameCodec}) zawsze ma ten sam 4-bajtowy nagłówek długości,
+ * a ciało jest kodowane przez wybrany kodek. Każdy kodek rozpoznaje własne
+ * ciała po pierwszych bajtach, więc odbiorca nie musi wiedzieć z góry,
+ * którego kodeka użył nadawca.
+ *
+ * <p>Kodek jest wybierany podczas CONNECT: klient podaje listę obsługiwanych
+ * kodeków, host wybiera pierwszy, który sam zna, i odsyła jego nazwę
+ * w {@code CONNECT_ACCEPTED}. Bez uzgodnienia obie strony używają
+ * {@link JavaSerializationCodec}.
+ *
+ * @see FrameCodec
+ */
+public interface WireCodec {
+
+    /**
+     * Nazwa kodeka przesyłana podczas uzgadniania (np. {@code "bin2"}).
+     */
+    String getName();
+
+    /**
+     * Dopisuje zakodowane ciało wiadomości do strumienia.
+     *
+     * @param message wiadomość do zakodowania
+     * @param out strumień docelowy (za nagłówkiem ramki)
+     * @throws IOException gdy kodowanie się nie powiedzie
+     */
+    void encode(GameMessage message, ByteArrayOutputStream out) throws IOException;
+
+    /**
+     * Dekoduje ciało ramki.
+     *
+     * @param body bufor z danymi
+     * @param offset początek ciała
+     * @param length długość ciała
+     * @return odczytana wiadomość
+     * @throws IOException gdy dane są uszkodzone
+     */
+    GameMessage decode(byte[] body, int offset, int length) throws IOException;
+
+    /**
+     * Sprawdza, czy ciało ramki zostało zakodowane tym kodekiem.
+     */
+    boolean recognizes(byte[] body, int offset, int length);
+}
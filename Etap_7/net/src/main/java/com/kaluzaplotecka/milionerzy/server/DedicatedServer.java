@@ -0,0 +1,90 @@
+package com.kaluzaplotecka.milionerzy.server;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import com.kaluzaplotecka.milionerzy.network.RoomServer;
+
+/**
+ * Serwer dedykowany: {@link RoomServer} z {@link GameRoom} w każdym pokoju
+ * i okresowym autozapisem gier w toku.
+ *
+ * <p>Nie ładuje żadnych klas JavaFX - korzysta tylko z pakietów
+ * {@code model}, {@code events} i {@code network}.
+ *
+ * @see ServerConfig
+ */
+public class DedicatedServer {
+
+    private final ServerConfig config;
+    private final RoomServer roomServer = new RoomServer();
+    private final Map<String, GameRoom> rooms = new ConcurrentHashMap<>();
+    private ScheduledExecutorService autosaveExecutor;
+
+    public DedicatedServer(ServerConfig config) {
+        this.config = config;
+        roomServer.setIoThreads(config.getIoThreads());
+        roomServer.setMaxRooms(config.getMaxRooms());
+        roomServer.setVirtualThreads(config.isVirtualThreads());
+        roomServer.setRoomCreatedCallback((code, network) -> rooms.put(code, new GameRoom(code, network, config)));
+        roomServer.setRoomClosedCallback((code, network) -> {
+            GameRoom room = rooms.remove(code);
+            if (room == null) return;
+            // Ostatni zapis gry, która nie dobiegła końca
+            if (config.getAutosaveIntervalSeconds() > 0) room.autosave();
+            room.close();
+        });
+    }
+
+    /**
+     * Otwiera port i uruchamia autozapis.
+     */
+    public void start() throws IOException {
+        roomServer.start(config.getPort());
+
+        long interval = config.getAutosaveIntervalSeconds();
+        if (interval > 0) {
+            autosaveExecutor = Executors.newSingleThreadScheduledExecutor(
+                Thread.ofPlatform().name("milionerzy-autosave").daemon(true).factory());
+            autosaveExecutor.scheduleWithFixedDelay(this::autosaveAll, interval, interval, TimeUnit.SECONDS);
+        }
+    }
+
+    /**
+     * Zapisuje wszystkie gry i zamyka serwer.
+     */
+    public void stop() {
+        if (autosaveExecutor != null) {
+            autosaveExecutor.shutdownNow();
+            autosaveExecutor = null;
+        }
+        roomServer.stop();
+    }
+
+    /**
+     * Zapisuje gry w toku, które zmieniły się od ostatniego zapisu.
+     *
+     * @return liczba zapisanych gier
+     */
+    public int autosaveAll() {
+        int saved = 0;
+        for (GameRoom room : rooms.values()) {
+            if (room.autosave()) saved++;
+        }
+        return saved;
+    }
+
+    /**
+     * Zwraca pokój o podanym kodzie lub null.
+     */
+    public GameRoom getRoom(String code) {
+        return rooms.get(code);
+    }
+
+    public RoomServer getRoomServer() { return roomServer; }
+    public ServerConfig getConfig() { return config; }
+}
@@ -0,0 +1,212 @@
+package com.kaluzaplotecka.milionerzy.server;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+
+import com.kaluzaplotecka.milionerzy.model.BoardFactory;
+import com.kaluzaplotecka.milionerzy.model.GameSnapshot;
+import com.kaluzaplotecka.milionerzy.model.GameState;
+import com.kaluzaplotecka.milionerzy.model.Player;
+import com.kaluzaplotecka.milionerzy.model.PlayerInfo;
+import com.kaluzaplotecka.milionerzy.model.SaveManager;
+import com.kaluzaplotecka.milionerzy.network.GameAuthority;
+import com.kaluzaplotecka.milionerzy.network.GameMessage;
+import com.kaluzaplotecka.milionerzy.network.NetworkGameEventListener;
+import com.kaluzaplotecka.milionerzy.network.NetworkManager;
+import com.kaluzaplotecka.milionerzy.network.RejectReason;
+import com.kaluzaplotecka.milionerzy.network.RoomServer;
+
+/**
+ * Pokój na serwerze dedykowanym - lobby i autorytet gry bez interfejsu.
+ *
+ * <p>Robi po stronie serwera to, co w grze z hostem-graczem robią
+ * {@code LobbyView} i {@code GameView}: zbiera graczy z CONNECT i rozsyła
+ * {@code PLAYER_LIST}, na START_GAME od założyciela pokoju (albo po zebraniu
+ * {@link ServerConfig#getAutoStartPlayers()} graczy) tworzy {@link GameState},
+ * a potem przekazuje akcje graczy do {@link GameAuthority} pokoju, który
+ * rozsyła zdarzenia przez {@link NetworkGameEventListener}. W trybie
+ * lockstep ({@link ServerConfig#isLockstep()}) pokój rozsyła na starcie
+ * ziarno gry, a autorytet - same komendy graczy.
+ *
+ * <p>Gracz, którego połączenie zerwało się w lobby, odchodzi z niego jak
+ * po DISCONNECT - host przekazuje go za gracza, gdy minie okno wznowienia
+ * sesji ({@link NetworkManager#setSessionResumeWindow(long)}).
+ *
+ * <p>Lobby jest synchronizowane na pokoju (wiadomości przychodzą z różnych
+ * pętli I/O); stan gry zmienia wyłącznie wątek autorytetu.
+ */
+public class GameRoom {
+
+    private static final int START_MONEY = 1500;
+
+    private final String code;
+    private final NetworkManager network;
+    private final ServerConfig config;
+    private final Map<String, PlayerInfo> lobby = new LinkedHashMap<>();
+    // Czytany bez blokady pokoju - provider stanu jest wołany pod blokadą strumienia hosta
+    private volatile GameAuthority authority;
+    // Autozapis ma własną blokadę - zapis na dysk nie może wstrzymywać wiadomości na pętli I/O
+    private final Object saveLock = new Object();
+    private long savedVersion = -1;
+
+    /**
+     * Podpina pokój pod host pokoju (przed jego uruchomieniem).
+     */
+    public GameRoom(String code, NetworkManager network, ServerConfig config) {
+        this.code = code;
+        this.network = network;
+        this.config = config;
+        network.setMessageHandler(this::onMessage);
+        network.setSnapshotProvider(this::getSnapshot);
+        network.setSpectatorDelayMs(config.getSpectatorDelayMs());
+        network.setLockstep(config.isLockstep());
+        network.setConnectionHandler(status -> System.out.println("[" + code + "] " + status));
+    }
+
+    private synchronized void onMessage(GameMessage msg) {
+        switch (msg.getType()) {
+            case CONNECT -> onJoin(msg.getSenderId(), msg.getPayload() instanceof String name ? name : null);
+            case DISCONNECT -> onLeave(msg.getSenderId());
+            case START_GAME -> {
+                if (authority == null && isOwner(msg.getSenderId())) startGame();
+            }
+            default -> {
+                if (authority != null) {
+                    authority.submit(msg);
+                } else if (msg.requiresAck() && !GameMessage.isRelayOnly(msg.getType())) {
+                    // Komenda w lobby - odrzucona od razu, a nie po ponowieniach
+                    network.sendNack(msg.getSequence(), msg.getSenderId(), RejectReason.GAME_NOT_STARTED);
+                }
+            }
+        }
+    }
+
+    private void onJoin(String playerId, String name) {
+        if (playerId == null || authority != null || lobby.containsKey(playerId)) return;
+        if (lobby.size() >= config.getMaxPlayers()) {
+            System.out.println("[" + code + "] Pokój pełny - gracz " + playerId + " nie dołączył");
+            network.sendTo(playerId, new GameMessage(GameMessage.MessageType.ERROR,
+                RoomServer.HOST_ID, playerId, "Pokój jest pełny"));
+            return;
+        }
+        if (name == null) name = "Gracz " + playerId.substring(0, Math.min(4, playerId.length()));
+        // Pierwszy gracz zakłada pokój i może rozpocząć grę
+        lobby.put(playerId, new PlayerInfo(playerId, name, lobby.isEmpty()));
+        broadcastPlayerList();
+
+        int autoStart = config.getAutoStartPlayers();
+        if (autoStart > 0 && lobby.size() >= autoStart) {
+            startGame();
+        }
+    }
+
+    private void onLeave(String playerId) {
+        if (authority != null || lobby.remove(playerId) == null) return;
+        // Założyciel wyszedł - pokój przejmuje kolejny gracz
+        if (!lobby.isEmpty() && !lobby.values().iterator().next().isHost) {
+            PlayerInfo next = lobby.values().iterator().next();
+            lobby.put(next.id, new PlayerInfo(next.id, next.name, true));
+        }
+        broadcastPlayerList();
+    }
+
+    private boolean isOwner(String playerId) {
+        PlayerInfo info = lobby.get(playerId);
+        return info != null && info.isHost;
+    }
+
+    private void broadcastPlayerList() {
+        network.send(new GameMessage(GameMessage.MessageType.PLAYER_LIST, RoomServer.HOST_ID,
+            new ArrayList<>(lobby.values())));
+    }
+
+    /**
+     * Tworzy stan gry z graczy lobby, ogłasza start i wysyła pierwszy snapshot.
+     */
+    private void startGame() {
+        if (lobby.size() < 2) return;
+
+        List<Player> players = new ArrayList<>();
+        for (PlayerInfo info : lobby.values()) {
+            players.add(new Player(info.id, info.name, START_MONEY));
+        }
+        GameState gameState = new GameState(BoardFactory.createDefaultBoard(), players);
+        // Listener różnic czyta stan autorytatywny - działa na wątku autorytetu
+        NetworkGameEventListener eventListener = new NetworkGameEventListener(network, () -> gameState);
+        Long seed = null;
+        if (config.isLockstep()) {
+            // Klienci liczą wyniki sami - różnice stanu nie są potrzebne
+            seed = ThreadLocalRandom.current().nextLong();
+            gameState.setSeed(seed);
+        } else {
+            gameState.addEventListener(eventListener);
+        }
+        authority = new GameAuthority(gameState, network, "milionerzy-authority-" + code, config.isVirtualThreads());
+        authority.setLockstep(config.isLockstep());
+
+        GameMessage start = new GameMessage(GameMessage.MessageType.GAME_START, RoomServer.HOST_ID, seed);
+        start.setBroadcast(true);
+        network.send(start);
+        authority.execute(state -> eventListener.broadcastSnapshot());
+        System.out.println("[" + code + "] Gra rozpoczęta (" + players.size() + " graczy)");
+    }
+
+    /**
+     * Zapisuje grę w toku, jeśli zmieniła się od ostatniego zapisu.
+     *
+     * @return true jeśli zapisano
+     */
+    public boolean autosave() {
+        // Zapisywany jest snapshot - autorytet w tym czasie gra dalej, a lobby nie czeka na dysk
+        GameSnapshot snapshot = getSnapshot();
+        if (snapshot == null) return false;
+        synchronized (saveLock) {
+            // Starszy snapshot pobrany przed zapisem innego wątku nie nadpisuje nowszego
+            if (snapshot.version() <= savedVersion) return false;
+            try {
+                SaveManager.save(snapshot.toGameState(), "room_" + code, config.getAutosaveDir());
+                savedVersion = snapshot.version();
+                return true;
+            } catch (IOException e) {
+                System.err.println("[" + code + "] Błąd autozapisu: " + e.getMessage());
+                return false;
+            }
+        }
+    }
+
+    /**
+     * Zwraca ostatni snapshot stanu gry (null przed startem gry).
+     */
+    public GameSnapshot getSnapshot() {
+        GameAuthority current = authority;
+        return current != null ? current.getSnapshot() : null;
+    }
+
+    /**
+     * Zwraca niezależną kopię stanu gry zbudowaną z ostatniego snapshotu
+     * (null przed startem gry) - np. do pełnej synchronizacji klienta.
+     */
+    public GameState getGameState() {
+        GameSnapshot snapshot = getSnapshot();
+        return snapshot != null ? snapshot.toGameState() : null;
+    }
+
+    /**
+     * Zatrzymuje autorytet gry (pokój zamknięty).
+     */
+    public void close() {
+        GameAuthority current = authority;
+        if (current != null) current.stop();
+    }
+
+    public synchronized List<PlayerInfo> getLobby() {
+        return new ArrayList<>(lobby.values());
+    }
+
+    public String getCode() { return code; }
+    public NetworkManager getNetwork() { return network; }
+}
@@ -0,0 +1,180 @@
+package com.kaluzaplotecka.milionerzy.server;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Properties;
+
+import com.kaluzaplotecka.milionerzy.model.SaveManager;
+import com.kaluzaplotecka.milionerzy.network.NetworkManager;
+import com.kaluzaplotecka.milionerzy.network.NetworkThreads;
+import com.kaluzaplotecka.milionerzy.network.NioHostServer;
+import com.kaluzaplotecka.milionerzy.network.RoomServer;
+
+/**
+ * Konfiguracja serwera dedykowanego.
+ *
+ * <p>Wczytywana z pliku {@code .properties}; brakujące klucze mają wartości
+ * domyślne:
+ * <pre>
+ * port=5555
+ * ioThreads=2
+ * maxRooms=256
+ * virtualThreads=false
+ * room.maxPlayers=4
+ * room.autoStartPlayers=4
+ * room.spectatorDelayMs=0
+ * room.lockstep=false
+ * autosave.intervalSeconds=60
+ * autosave.dir=/var/lib/milionerzy/saves
+ * </pre>
+ *
+ * @see DedicatedServer
+ */
+public class ServerConfig {
+
+    /** Plik konfiguracji szukany w katalogu roboczym, gdy nie podano innego. */
+    public static final String DEFAULT_FILE = "server.properties";
+
+    private int port = NetworkManager.DEFAULT_PORT;
+    private int ioThreads = NioHostServer.DEFAULT_IO_THREADS;
+    private int maxRooms = RoomServer.DEFAULT_MAX_ROOMS;
+    private boolean virtualThreads = NetworkThreads.virtualThreadsByDefault();
+    private int maxPlayers = 4;
+    private int autoStartPlayers = 4;
+    private long spectatorDelayMs = 0;
+    private boolean lockstep = false;
+    private long autosaveIntervalSeconds = 60;
+    private Path autosaveDir = SaveManager.getSaveDir();
+
+    /**
+     * Wczytuje konfigurację z pliku.
+     *
+     * @throws IOException gdy nie da się odczytać pliku
+     * @throws IllegalArgumentException gdy wartość jest nieprawidłowa
+     */
+    public static ServerConfig load(Path file) throws IOException {
+        Properties properties = new Properties();
+        try (Reader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            properties.load(reader);
+        }
+        return fromProperties(properties);
+    }
+
+    /**
+     * Tworzy konfigurację z właściwości (klucze jak w opisie klasy).
+     *
+     * @throws IllegalArgumentException gdy wartość jest nieprawidłowa
+     */
+    public static ServerConfig fromProperties(Properties properties) {
+        ServerConfig config = new ServerConfig();
+        config.setPort(intValue(properties, "port", config.port));
+        config.setIoThreads(intValue(properties, "ioThreads", config.ioThreads));
+        config.setMaxRooms(intValue(properties, "maxRooms", config.maxRooms));
+        config.setVirtualThreads(Boolean.parseBoolean(
+            properties.getProperty("virtualThreads", String.valueOf(config.virtualThreads)).trim()));
+        config.setMaxPlayers(intValue(properties, "room.maxPlayers", config.maxPlayers));
+        config.setAutoStartPlayers(intValue(properties, "room.autoStartPlayers", config.autoStartPlayers));
+        config.setSpectatorDelayMs(intValue(properties, "room.spectatorDelayMs", (int) config.spectatorDelayMs));
+        config.setLockstep(Boolean.parseBoolean(
+            properties.getProperty("room.lockstep", String.valueOf(config.lockstep)).trim()));
+        config.setAutosaveIntervalSeconds(intValue(properties, "autosave.intervalSeconds",
+            (int) config.autosaveIntervalSeconds));
+        String dir = properties.getProperty("autosave.dir");
+        if (dir != null && !dir.isBlank()) {
+            config.setAutosaveDir(Path.of(dir.trim()));
+        }
+        return config;
+    }
+
+    private static int intValue(Properties properties, String key, int defaultValue) {
+        String value = properties.getProperty(key);
+        if (value == null || value.isBlank()) return defaultValue;
+        try {
+            return Integer.parseInt(value.trim());
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Nieprawidłowa wartość " + key + ": " + value);
+        }
+    }
+
+    // === GETTERY I SETTERY ===
+
+    public int getPort() { return port; }
+    public int getIoThreads() { return ioThreads; }
+    public int getMaxRooms() { return maxRooms; }
+    public boolean isVirtualThreads() { return virtualThreads; }
+    public int getMaxPlayers() { return maxPlayers; }
+    public int getAutoStartPlayers() { return autoStartPlayers; }
+    public long getSpectatorDelayMs() { return spectatorDelayMs; }
+    public boolean isLockstep() { return lockstep; }
+    public long getAutosaveIntervalSeconds() { return autosaveIntervalSeconds; }
+    public Path getAutosaveDir() { return autosaveDir; }
+
+    public void setPort(int port) {
+        if (port < 1 || port > 65535) throw new IllegalArgumentException("Nieprawidłowy port: " + port);
+        this.port = port;
+    }
+
+    public void setIoThreads(int ioThreads) {
+        if (ioThreads < 1) throw new IllegalArgumentException("ioThreads musi być >= 1");
+        this.ioThreads = ioThreads;
+    }
+
+    public void setMaxRooms(int maxRooms) {
+        if (maxRooms < 1) throw new IllegalArgumentException("maxRooms musi być >= 1");
+        this.maxRooms = maxRooms;
+    }
+
+    public void setVirtualThreads(boolean virtualThreads) {
+        this.virtualThreads = virtualThreads;
+    }
+
+    /**
+     * @param maxPlayers limit graczy w lobby pokoju (co najmniej 2)
+     */
+    public void setMaxPlayers(int maxPlayers) {
+        if (maxPlayers < 2) throw new IllegalArgumentException("room.maxPlayers musi być >= 2");
+        this.maxPlayers = maxPlayers;
+    }
+
+    /**
+     * @param autoStartPlayers przy tylu graczach gra startuje sama (0 - tylko na
+     *        START_GAME od założyciela pokoju)
+     */
+    public void setAutoStartPlayers(int autoStartPlayers) {
+        if (autoStartPlayers != 0 && autoStartPlayers < 2) {
+            throw new IllegalArgumentException("room.autoStartPlayers musi być 0 lub >= 2");
+        }
+        this.autoStartPlayers = autoStartPlayers;
+    }
+
+    /**
+     * @param delayMs opóźnienie strumienia widzów pokoju (0 - na żywo)
+     */
+    public void setSpectatorDelayMs(long delayMs) {
+        if (delayMs < 0) throw new IllegalArgumentException("room.spectatorDelayMs nie może być ujemny");
+        this.spectatorDelayMs = delayMs;
+    }
+
+    /**
+     * @param lockstep czy pokoje grają w trybie lockstep (ziarno na starcie,
+     *        potem tylko komendy graczy zamiast wyników i różnic stanu)
+     */
+    public void setLockstep(boolean lockstep) {
+        this.lockstep = lockstep;
+    }
+
+    /**
+     * @param seconds odstęp autozapisu gier w toku (0 wyłącza)
+     */
+    public void setAutosaveIntervalSeconds(long seconds) {
+        if (seconds < 0) throw new IllegalArgumentException("autosave.intervalSeconds nie może być ujemny");
+        this.autosaveIntervalSeconds = seconds;
+    }
+
+    public void setAutosaveDir(Path autosaveDir) {
+        this.autosaveDir = autosaveDir;
+    }
+}
@@ -0,0 +1,49 @@
+package com.kaluzaplotecka.milionerzy.server;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.CountDownLatch;
+
+/**
+ * Punkt wejścia serwera dedykowanego (bez interfejsu graficznego).
+ *
+ * <p>Uruchamia {@link DedicatedServer} z konfiguracją z pliku podanego
+ * jako pierwszy argument albo z {@value ServerConfig#DEFAULT_FILE}
+ * w katalogu roboczym (jeśli istnieje). Moduł {@code net} nie zależy od
+ * JavaFX, więc serwer działa na maszynie bez ekranu:
+ * <pre>
+ * java -cp core/target/classes:net/target/classes com.kaluzaplotecka.milionerzy.server.ServerLauncher server.properties
+ * </pre>
+ */
+public class ServerLauncher {
+
+    /**
+     * Główna metoda uruchamiająca serwer.
+     *
+     * @param args opcjonalnie ścieżka pliku konfiguracji
+     */
+    static void main(String[] args) throws Exception {
+        Path configFile = args.length > 0 ? Path.of(args[0]) : Path.of(ServerConfig.DEFAULT_FILE);
+        ServerConfig config;
+        if (Files.exists(configFile)) {
+            config = ServerConfig.load(configFile);
+            System.out.println("Konfiguracja: " + configFile.toAbsolutePath());
+        } else if (args.length > 0) {
+            System.err.println("Brak pliku konfiguracji: " + configFile);
+            return;
+        } else {
+            config = new ServerConfig();
+        }
+
+        DedicatedServer server = new DedicatedServer(config);
+        server.start();
+
+        // Wątki sieci są demonami - główny wątek czeka do zamknięcia procesu
+        CountDownLatch stopped = new CountDownLatch(1);
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            server.stop();
+            stopped.countDown();
+        }, "milionerzy-shutdown"));
+        stopped.await();
+    }
+}
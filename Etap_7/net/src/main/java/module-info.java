@@ -0,0 +1,7 @@
+module com.kaluzaplotecka.milionerzy.net {
+    requires transitive com.kaluzaplotecka.milionerzy.core;
+
+    exports com.kaluzaplotecka.milionerzy.network;
+    exports com.kaluzaplotecka.milionerzy.server;
+    exports com.kaluzaplotecka.milionerzy.loadtest;
+}
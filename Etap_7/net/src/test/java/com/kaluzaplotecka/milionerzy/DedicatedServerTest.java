@@ -0,0 +1,216 @@
+package com.kaluzaplotecka.milionerzy;
+
+import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.io.TempDir;
+
+import com.kaluzaplotecka.milionerzy.model.Player;
+import com.kaluzaplotecka.milionerzy.model.PlayerInfo;
+import com.kaluzaplotecka.milionerzy.network.GameMessage;
+import com.kaluzaplotecka.milionerzy.network.NetworkManager;
+import com.kaluzaplotecka.milionerzy.network.RejectReason;
+import com.kaluzaplotecka.milionerzy.server.DedicatedServer;
+import com.kaluzaplotecka.milionerzy.server.GameRoom;
+import com.kaluzaplotecka.milionerzy.server.ServerConfig;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static com.kaluzaplotecka.milionerzy.TestWait.waitFor;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.stream.Stream;
+
+/**
+ * Testy serwera dedykowanego: konfiguracja, lobby po stronie serwera,
+ * start gry i autozapis.
+ */
+public class DedicatedServerTest {
+
+    private static final int TEST_PORT = 16675;
+
+    @TempDir
+    Path saveDir;
+
+    private DedicatedServer server;
+    private final List<NetworkManager> clients = new ArrayList<>();
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        for (NetworkManager client : clients) client.stop();
+        if (server != null) server.stop();
+        Thread.sleep(100);
+    }
+
+    private void startServer(int autoStartPlayers) throws IOException {
+        ServerConfig config = new ServerConfig();
+        config.setPort(TEST_PORT);
+        config.setAutoStartPlayers(autoStartPlayers);
+        config.setAutosaveIntervalSeconds(0);
+        config.setAutosaveDir(saveDir);
+        server = new DedicatedServer(config);
+        server.start();
+    }
+
+    private NetworkManager join(String playerId, List<GameMessage> received) throws IOException {
+        NetworkManager client = new NetworkManager(playerId);
+        client.setMessageHandler(received::add);
+        client.connectToHost("localhost", TEST_PORT, "Gracz " + playerId, "ROOM1");
+        clients.add(client);
+        return client;
+    }
+
+    private static boolean hasType(List<GameMessage> messages, GameMessage.MessageType type) {
+        return messages.stream().anyMatch(m -> m.getType() == type);
+    }
+
+    @Test
+    @DisplayName("Konfiguracja jest wczytywana z właściwości, a błędne wartości odrzucane")
+    void testConfigParsing() {
+        Properties properties = new Properties();
+        properties.setProperty("port", "7000");
+        properties.setProperty("room.maxPlayers", "6");
+        properties.setProperty("room.autoStartPlayers", "0");
+        properties.setProperty("autosave.intervalSeconds", "15");
+        ServerConfig config = ServerConfig.fromProperties(properties);
+
+        assertEquals(7000, config.getPort());
+        assertEquals(6, config.getMaxPlayers());
+        assertEquals(0, config.getAutoStartPlayers());
+        assertEquals(15, config.getAutosaveIntervalSeconds());
+
+        properties.setProperty("port", "abc");
+        assertThrows(IllegalArgumentException.class, () -> ServerConfig.fromProperties(properties));
+        properties.setProperty("port", "70000");
+        assertThrows(IllegalArgumentException.class, () -> ServerConfig.fromProperties(properties));
+    }
+
+    @Test
+    @DisplayName("Serwer prowadzi lobby, a START_GAME od założyciela rozpoczyna grę")
+    void testLobbyAndStart() throws IOException, InterruptedException {
+        startServer(0);
+        List<GameMessage> first = new CopyOnWriteArrayList<>();
+        List<GameMessage> second = new CopyOnWriteArrayList<>();
+        NetworkManager owner = join("p1", first);
+        waitFor(() -> server.getRoom("ROOM1") != null && server.getRoom("ROOM1").getLobby().size() == 1);
+        NetworkManager guest = join("p2", second);
+
+        GameRoom room = server.getRoom("ROOM1");
+        waitFor(() -> room.getLobby().size() == 2);
+        List<PlayerInfo> lobby = room.getLobby();
+        assertTrue(lobby.get(0).isHost, "Pierwszy gracz zakłada pokój");
+        assertFalse(lobby.get(1).isHost);
+        waitFor(() -> hasType(second, GameMessage.MessageType.PLAYER_LIST));
+
+        // Gość nie może rozpocząć gry
+        guest.send(new GameMessage(GameMessage.MessageType.START_GAME, "p2", null));
+        Thread.sleep(200);
+        assertNull(room.getGameState());
+
+        owner.send(new GameMessage(GameMessage.MessageType.START_GAME, "p1", null));
+        waitFor(() -> room.getGameState() != null);
+        waitFor(() -> hasType(first, GameMessage.MessageType.GAME_START)
+            && hasType(second, GameMessage.MessageType.GAME_START));
+        assertEquals(2, room.getGameState().getPlayers().size());
+    }
+
+    @Test
+    @DisplayName("Komenda w lobby dostaje NACK, a oferta wymiany ACK po przekazaniu")
+    void testLobbyCommandsAnswered() throws IOException, InterruptedException {
+        startServer(0);
+        List<GameMessage> first = new CopyOnWriteArrayList<>();
+        join("p1", first);
+        NetworkManager guest = join("p2", new CopyOnWriteArrayList<>());
+        List<RejectReason> reasons = new CopyOnWriteArrayList<>();
+        guest.setNackCallback((msg, reason) -> reasons.add(reason));
+        waitFor(() -> server.getRoom("ROOM1") != null && server.getRoom("ROOM1").getLobby().size() == 2);
+
+        guest.send(new GameMessage(GameMessage.MessageType.ROLL_DICE, "p2", null));
+        waitFor(() -> reasons.size() == 1);
+        assertEquals(RejectReason.GAME_NOT_STARTED, reasons.get(0));
+
+        GameMessage offer = new GameMessage(GameMessage.MessageType.TRADE_OFFER, "p2", "oferta");
+        offer.setBroadcast(true);
+        guest.send(offer);
+        waitFor(() -> guest.getRetransmitStats().acknowledged() == 1);
+        waitFor(() -> hasType(first, GameMessage.MessageType.TRADE_OFFER));
+        assertEquals(0, guest.getRetransmitStats().pending());
+        assertEquals(0, guest.getRetransmitStats().retries());
+        assertEquals(1, reasons.size());
+    }
+
+    @Test
+    @DisplayName("Oferta wymiany do gracza trafia tylko do adresata, a do nieznanego dostaje NACK")
+    void testTargetedTradeRelayed() throws IOException, InterruptedException {
+        startServer(0);
+        List<GameMessage> first = new CopyOnWriteArrayList<>();
+        List<GameMessage> third = new CopyOnWriteArrayList<>();
+        join("p1", first);
+        NetworkManager guest = join("p2", new CopyOnWriteArrayList<>());
+        join("p3", third);
+        List<RejectReason> reasons = new CopyOnWriteArrayList<>();
+        guest.setNackCallback((msg, reason) -> reasons.add(reason));
+        waitFor(() -> server.getRoom("ROOM1") != null && server.getRoom("ROOM1").getLobby().size() == 3);
+
+        guest.send(new GameMessage(GameMessage.MessageType.TRADE_OFFER, "p2", "p1", "oferta"));
+        waitFor(() -> hasType(first, GameMessage.MessageType.TRADE_OFFER));
+        waitFor(() -> guest.getRetransmitStats().acknowledged() == 1);
+
+        guest.send(new GameMessage(GameMessage.MessageType.TRADE_RESPONSE, "p2", "p9", true));
+        waitFor(() -> reasons.size() == 1);
+        assertEquals(RejectReason.UNKNOWN_TARGET, reasons.get(0));
+
+        // Wiadomość do samego hosta obsługuje pokój - potwierdzona bez przekazywania
+        guest.send(new GameMessage(GameMessage.MessageType.TRADE_RESPONSE, "p2", "host", true));
+        waitFor(() -> guest.getRetransmitStats().acknowledged() == 2);
+
+        Thread.sleep(100);
+        assertFalse(hasType(third, GameMessage.MessageType.TRADE_OFFER), "Oferta nie trafia do innych graczy");
+        assertEquals(1, reasons.size());
+        assertEquals(0, guest.getRetransmitStats().pending());
+    }
+
+    @Test
+    @DisplayName("Gracz, którego połączenie zerwało się w lobby, znika z lobby po oknie wznowienia")
+    void testDroppedPlayerLeavesLobby() throws IOException, InterruptedException {
+        startServer(0);
+        NetworkManager owner = join("p1", new CopyOnWriteArrayList<>());
+        NetworkManager next = join("p2", new CopyOnWriteArrayList<>());
+        waitFor(() -> server.getRoom("ROOM1") != null && server.getRoom("ROOM1").getLobby().size() == 2);
+        GameRoom room = server.getRoom("ROOM1");
+        room.getNetwork().setSessionResumeWindow(200);
+
+        // Zamknięte gniazdo bez DISCONNECT - jak po awarii klienta
+        owner.stop();
+        waitFor(() -> room.getLobby().size() == 1);
+        PlayerInfo remaining = room.getLobby().get(0);
+        assertEquals("p2", remaining.id);
+        assertTrue(remaining.isHost, "Pokój przejmuje kolejny gracz");
+
+        join("p3", new CopyOnWriteArrayList<>());
+        waitFor(() -> room.getLobby().size() == 2);
+        next.send(new GameMessage(GameMessage.MessageType.START_GAME, "p2", null));
+        waitFor(() -> room.getGameState() != null);
+        assertEquals(List.of("p2", "p3"), room.getGameState().getPlayers().stream().map(Player::getId).toList());
+    }
+
+    @Test
+    @DisplayName("Gra startuje sama po zebraniu graczy i jest zapisywana przez autozapis")
+    void testAutoStartAndAutosave() throws IOException, InterruptedException {
+        startServer(2);
+        join("p1", new CopyOnWriteArrayList<>());
+        join("p2", new CopyOnWriteArrayList<>());
+        // Wersja nadawana przy pierwszym snapshocie - gra w pełni rozpoczęta
+        waitFor(() -> server.getRoom("ROOM1") != null && server.getRoom("ROOM1").getGameState() != null
+            && server.getRoom("ROOM1").getGameState().getStateVersion() > 0);
+
+        assertEquals(1, server.autosaveAll());
+        assertEquals(0, server.autosaveAll(), "Niezmieniony stan nie jest zapisywany ponownie");
+        try (Stream<Path> files = Files.list(saveDir)) {
+            assertEquals(1, files.count());
+        }
+    }
+}
@@ -0,0 +1,405 @@
+package com.kaluzaplotecka.milionerzy;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.kaluzaplotecka.milionerzy.network.FrameCodec;
+import com.kaluzaplotecka.milionerzy.network.NetworkThreads;
+
+/**
+ * Lokalne proxy TCP między klientami a hostem, które wprowadza usterki
+ * sieci - do testów ponowień, wznawiania sesji i heartbeatu.
+ *
+ * <p>Klient łączy się z portem proxy, a proxy otwiera osobne połączenie
+ * z hostem i przekazuje ramki {@link FrameCodec} w obie strony. Usterki
+ * można włączać i wyłączać w trakcie działania (z dowolnego wątku):
+ * <ul>
+ *   <li>{@link #setLatency(long, long)} - opóźnienie w jedną stronę z losowym
+ *       rozrzutem (kolejność ramek zostaje, jak w TCP),</li>
+ *   <li>{@link #setBandwidth(long)} - limit przepustowości każdego kierunku,</li>
+ *   <li>{@link #setDropRate(double, double)} - gubienie całych ramek, np.
+ *       komend po drodze do hosta (klient ponawia je po timeout),</li>
+ *   <li>{@link #setStalled(boolean)} - wstrzymanie przekazywania (zaległe
+ *       ramki dochodzą po wznowieniu, jak po chwilowej utracie Wi-Fi),</li>
+ *   <li>{@link #resetConnections()} - zerwanie połączeń pakietem RST,</li>
+ *   <li>{@link #halfOpenConnections()} - połączenia półotwarte: host widzi
+ *       zamknięcie, a klient cisza na otwartym gnieździe.</li>
+ * </ul>
+ *
+ * <p>Każdy kierunek połączenia ma wątek czytający (usterki liczone przy
+ * odczycie ramki) i piszący (czeka do terminu dostarczenia). Proxy jest
+ * narzędziem testowym - nie jest przeznaczone do dużej liczby połączeń.
+ */
+public class FaultInjectionProxy implements AutoCloseable {
+
+    private final String targetHost;
+    private final int targetPort;
+    private final Set<ProxiedConnection> connections = ConcurrentHashMap.newKeySet();
+    private final Object stallLock = new Object();
+    private final Random random = new Random();
+    private ServerSocket server;
+    private volatile boolean running;
+
+    // Usterki - zmieniane w trakcie działania
+    private volatile long latencyNanos;
+    private volatile long jitterNanos;
+    private volatile long bytesPerSecond;
+    private volatile double dropToHost;
+    private volatile double dropToClient;
+    private boolean stalled;   // chronione stallLock
+
+    // Statystyki
+    private final AtomicLong acceptedCount = new AtomicLong();
+    private final AtomicLong forwardedFrames = new AtomicLong();
+    private final AtomicLong droppedFrames = new AtomicLong();
+
+    /**
+     * @param targetHost adres hosta gry
+     * @param targetPort port hosta gry
+     */
+    public FaultInjectionProxy(String targetHost, int targetPort) {
+        this.targetHost = targetHost;
+        this.targetPort = targetPort;
+    }
+
+    /**
+     * Otwiera port proxy.
+     *
+     * @param port port nasłuchu (0 - dowolny wolny, patrz {@link #getPort()})
+     */
+    public void start(int port) throws IOException {
+        if (running) throw new IllegalStateException("Proxy już działa");
+        server = new ServerSocket(port);
+        running = true;
+        NetworkThreads.start("milionerzy-proxy-accept", this::acceptLoop, false);
+        System.out.println("Proxy usterek na porcie " + server.getLocalPort() + " -> "
+            + targetHost + ":" + targetPort);
+    }
+
+    /**
+     * Zamyka port proxy i wszystkie połączenia.
+     */
+    public void stop() {
+        if (!running) return;
+        running = false;
+        try {
+            server.close();
+        } catch (IOException e) { /* ignore */ }
+        setStalled(false);
+        for (ProxiedConnection connection : connections) connection.close(false);
+    }
+
+    @Override
+    public void close() {
+        stop();
+    }
+
+    private void acceptLoop() {
+        while (running) {
+            Socket client;
+            try {
+                client = server.accept();
+            } catch (IOException e) {
+                if (running) System.err.println("Błąd proxy: " + e.getMessage());
+                return;
+            }
+            try {
+                Socket upstream = new Socket(targetHost, targetPort);
+                acceptedCount.incrementAndGet();
+                new ProxiedConnection(client, upstream).start();
+            } catch (IOException e) {
+                // Host nieosiągalny - klient widzi zamknięte połączenie
+                closeQuietly(client, false);
+            }
+        }
+    }
+
+    // === STEROWANIE USTERKAMI ===
+
+    /**
+     * Ustawia opóźnienie każdej ramki w jedną stronę.
+     *
+     * @param latencyMs stałe opóźnienie
+     * @param jitterMs losowy dodatek od 0 do tej wartości
+     */
+    public void setLatency(long latencyMs, long jitterMs) {
+        if (latencyMs < 0 || jitterMs < 0) throw new IllegalArgumentException("Opóźnienie nie może być ujemne");
+        this.latencyNanos = TimeUnit.MILLISECONDS.toNanos(latencyMs);
+        this.jitterNanos = TimeUnit.MILLISECONDS.toNanos(jitterMs);
+    }
+
+    /**
+     * Ustawia limit przepustowości każdego kierunku każdego połączenia.
+     *
+     * @param bytesPerSecond bajty na sekundę (0 - bez limitu)
+     */
+    public void setBandwidth(long bytesPerSecond) {
+        if (bytesPerSecond < 0) throw new IllegalArgumentException("Przepustowość nie może być ujemna");
+        this.bytesPerSecond = bytesPerSecond;
+    }
+
+    /**
+     * Ustawia prawdopodobieństwo zgubienia ramki.
+     *
+     * @param toHost ramki od klienta do hosta (0..1)
+     * @param toClient ramki od hosta do klienta (0..1)
+     */
+    public void setDropRate(double toHost, double toClient) {
+        if (toHost < 0 || toHost > 1 || toClient < 0 || toClient > 1) {
+            throw new IllegalArgumentException("Prawdopodobieństwo musi być w zakresie 0..1");
+        }
+        this.dropToHost = toHost;
+        this.dropToClient = toClient;
+    }
+
+    /**
+     * Wstrzymuje lub wznawia przekazywanie ramek. Ramki odczytane w czasie
+     * wstrzymania czekają i dochodzą po wznowieniu.
+     */
+    public void setStalled(boolean stalled) {
+        synchronized (stallLock) {
+            this.stalled = stalled;
+            stallLock.notifyAll();
+        }
+    }
+
+    /**
+     * Ustawia ziarno losowania opóźnień i gubienia ramek (powtarzalne testy).
+     */
+    public void setSeed(long seed) {
+        random.setSeed(seed);
+    }
+
+    /**
+     * Wyłącza wszystkie usterki (bez wpływu na zerwane połączenia).
+     */
+    public void clearFaults() {
+        setLatency(0, 0);
+        setBandwidth(0);
+        setDropRate(0, 0);
+        setStalled(false);
+    }
+
+    /**
+     * Zrywa wszystkie bieżące połączenia pakietem RST (bez zamknięcia
+     * TCP), tak jak przy restarcie routera. Kolejne połączenia są
+     * przyjmowane normalnie.
+     */
+    public void resetConnections() {
+        for (ProxiedConnection connection : connections) connection.close(true);
+    }
+
+    /**
+     * Zamienia bieżące połączenia w półotwarte: połączenie z hostem jest
+     * zamykane, a gniazdo klienta zostaje otwarte i milczy - wysłane przez
+     * klienta dane przepadają. Klient może to wykryć tylko heartbeatem.
+     */
+    public void halfOpenConnections() {
+        for (ProxiedConnection connection : connections) connection.halfOpen();
+    }
+
+    // === STATYSTYKI ===
+
+    public int getPort() { return server != null ? server.getLocalPort() : -1; }
+    public boolean isRunning() { return running; }
+    public int getConnectionCount() { return connections.size(); }
+    public long getAcceptedCount() { return acceptedCount.get(); }
+    public long getForwardedFrames() { return forwardedFrames.get(); }
+    public long getDroppedFrames() { return droppedFrames.get(); }
+
+    // === POŁĄCZENIE ===
+
+    /**
+     * Para gniazd klient-host z dwoma kierunkami przekazywania.
+     */
+    private final class ProxiedConnection {
+        private final Socket client;
+        private final Socket upstream;
+        private final Pipe toHost;
+        private final Pipe toClient;
+        private volatile boolean halfOpen;
+        private volatile boolean closed;
+
+        ProxiedConnection(Socket client, Socket upstream) throws IOException {
+            this.client = client;
+            this.upstream = upstream;
+            client.setTcpNoDelay(true);
+            upstream.setTcpNoDelay(true);
+            this.toHost = new Pipe(this, client, upstream, true);
+            this.toClient = new Pipe(this, upstream, client, false);
+        }
+
+        void start() {
+            connections.add(this);
+            if (!running) {
+                close(false);
+                return;
+            }
+            toHost.start("milionerzy-proxy-up");
+            toClient.start("milionerzy-proxy-down");
+        }
+
+        /**
+         * Wywoływane, gdy kierunek się skończył (koniec strumienia lub błąd).
+         *
+         * @param readSide czy zakończył się odczyt (a nie zapis)
+         */
+        void onPipeClosed(Pipe pipe, boolean readSide) {
+            // Półotwarte: koniec połączenia z hostem nie dociera do klienta -
+            // całość zamyka dopiero klient
+            if (halfOpen && !(pipe == toHost && readSide)) return;
+            close(false);
+        }
+
+        void halfOpen() {
+            if (closed) return;
+            halfOpen = true;
+            closeQuietly(upstream, false);
+            toHost.stop();
+            toClient.stop();
+        }
+
+        void close(boolean reset) {
+            if (closed) return;
+            closed = true;
+            closeQuietly(client, reset);
+            closeQuietly(upstream, reset);
+            toHost.stop();
+            toClient.stop();
+            connections.remove(this);
+        }
+    }
+
+    /**
+     * Ramka czekająca na termin dostarczenia.
+     */
+    private record DelayedFrame(byte[] frame, long dueNanos) {}
+
+    /**
+     * Jeden kierunek połączenia: wątek czytający ramki i wątek piszący.
+     */
+    private final class Pipe {
+        private final ProxiedConnection connection;
+        private final Socket from;
+        private final Socket to;
+        private final boolean towardsHost;
+        private final BlockingQueue<DelayedFrame> queue = new LinkedBlockingQueue<>();
+        private volatile Thread writer;
+
+        // Używane tylko przez wątek czytający
+        private long lastDueNanos;
+        private long linkFreeNanos;
+
+        Pipe(ProxiedConnection connection, Socket from, Socket to, boolean towardsHost) {
+            this.connection = connection;
+            this.from = from;
+            this.to = to;
+            this.towardsHost = towardsHost;
+        }
+
+        void start(String name) {
+            NetworkThreads.start(name + "-read", this::readLoop, false);
+            writer = NetworkThreads.start(name + "-write", this::writeLoop, false);
+        }
+
+        void stop() {
+            Thread w = writer;
+            if (w != null) w.interrupt();
+        }
+
+        private void readLoop() {
+            try {
+                DataInputStream in = new DataInputStream(new BufferedInputStream(from.getInputStream()));
+                while (true) {
+                    int length = in.readInt();
+                    FrameCodec.checkLength(length);
+                    byte[] frame = new byte[FrameCodec.HEADER_SIZE + length];
+                    frame[0] = (byte) (length >>> 24);
+                    frame[1] = (byte) (length >>> 16);
+                    frame[2] = (byte) (length >>> 8);
+                    frame[3] = (byte) length;
+                    in.readFully(frame, FrameCodec.HEADER_SIZE, length);
+
+                    // Półotwarte połączenie - dane klienta przepadają
+                    if (connection.halfOpen || shouldDrop()) {
+                        droppedFrames.incrementAndGet();
+                        continue;
+                    }
+                    queue.add(new DelayedFrame(frame, dueTime(frame.length)));
+                }
+            } catch (IOException e) {
+                // Koniec strumienia albo zerwane połączenie
+            }
+            connection.onPipeClosed(this, true);
+        }
+
+        private boolean shouldDrop() {
+            double rate = towardsHost ? dropToHost : dropToClient;
+            return rate > 0 && random.nextDouble() < rate;
+        }
+
+        /**
+         * Termin dostarczenia: opóźnienie z rozrzutem, ale nie wcześniej niż
+         * poprzednia ramka, i nie szybciej niż pozwala limit przepustowości.
+         */
+        private long dueTime(int bytes) {
+            long now = System.nanoTime();
+            long jitter = jitterNanos > 0 ? (long) (random.nextDouble() * jitterNanos) : 0;
+            long due = Math.max(now + latencyNanos + jitter, lastDueNanos);
+            long limit = bytesPerSecond;
+            if (limit > 0) {
+                long start = Math.max(now, linkFreeNanos);
+                linkFreeNanos = start + TimeUnit.SECONDS.toNanos(bytes) / limit;
+                due = Math.max(due, linkFreeNanos + latencyNanos);
+            }
+            lastDueNanos = due;
+            return due;
+        }
+
+        private void writeLoop() {
+            try {
+                OutputStream out = new BufferedOutputStream(to.getOutputStream());
+                while (true) {
+                    DelayedFrame next = queue.take();
+                    awaitNotStalled();
+                    long wait = next.dueNanos() - System.nanoTime();
+                    if (wait > 0) TimeUnit.NANOSECONDS.sleep(wait);
+                    out.write(next.frame());
+                    // Kolejne gotowe ramki idą jednym zapisem
+                    if (queue.isEmpty() || queue.peek().dueNanos() > System.nanoTime()) out.flush();
+                    forwardedFrames.incrementAndGet();
+                }
+            } catch (InterruptedException e) {
+                // Połączenie zamknięte
+            } catch (IOException e) {
+                connection.onPipeClosed(this, false);
+            }
+        }
+
+        private void awaitNotStalled() throws InterruptedException {
+            synchronized (stallLock) {
+                while (stalled) stallLock.wait();
+            }
+        }
+    }
+
+    private static void closeQuietly(Socket socket, boolean reset) {
+        try {
+            // SO_LINGER 0 - zamknięcie wysyła RST zamiast FIN
+            if (reset) socket.setSoLinger(true, 0);
+            socket.close();
+        } catch (IOException e) { /* ignore */ }
+    }
+}
@@ -0,0 +1,164 @@
+package com.kaluzaplotecka.milionerzy;
+
+import org.junit.jupiter.api.*;
+
+import com.kaluzaplotecka.milionerzy.network.BinaryWireCodec;
+import com.kaluzaplotecka.milionerzy.network.GameMessage;
+import com.kaluzaplotecka.milionerzy.network.NetworkManager;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static com.kaluzaplotecka.milionerzy.TestWait.waitFor;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Testy zachowania gry sieciowej przy usterkach wprowadzanych przez
+ * {@link FaultInjectionProxy}: opóźnienie, gubienie ramek, przestój,
+ * limit przepustowości i połączenia półotwarte.
+ */
+public class FaultInjectionTest {
+
+    private static final int HOST_PORT = 16680;
+    private static final int PROXY_PORT = 16681;
+
+    private NetworkManager hostManager;
+    private NetworkManager clientManager;
+    private FaultInjectionProxy proxy;
+    private final List<String> chats = new CopyOnWriteArrayList<>();
+    private final List<String> events = new CopyOnWriteArrayList<>();
+    private final AtomicInteger rolls = new AtomicInteger();
+
+    @BeforeEach
+    void setUp() throws IOException {
+        hostManager = new NetworkManager("host");
+        clientManager = new NetworkManager("client");
+        // Host potwierdza każdy rzut - bez stanu gry
+        hostManager.setMessageHandler(msg -> {
+            if (msg.getType() == GameMessage.MessageType.ROLL_DICE) {
+                rolls.incrementAndGet();
+                hostManager.sendAck(msg.getSequence(), msg.getSenderId());
+            }
+        });
+        clientManager.setMessageHandler(msg -> {
+            if (msg.getType() == GameMessage.MessageType.CHAT) chats.add((String) msg.getPayload());
+        });
+        clientManager.setConnectionHandler(events::add);
+
+        proxy = new FaultInjectionProxy("localhost", HOST_PORT);
+        proxy.setSeed(1);
+        proxy.start(PROXY_PORT);
+        hostManager.startHost(HOST_PORT, "ROOM");
+    }
+
+    private void connect() throws IOException, InterruptedException {
+        clientManager.connectToHost("localhost", PROXY_PORT, "Gracz", "ROOM");
+        // Kodek uzgodniony - klient dostał CONNECT_ACCEPTED z tokenem sesji
+        waitFor(() -> clientManager.getClientCodec() == BinaryWireCodec.INSTANCE);
+    }
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        clientManager.stop();
+        hostManager.stop();
+        proxy.stop();
+        Thread.sleep(100);
+    }
+
+    private void broadcastChat(String text) {
+        GameMessage msg = new GameMessage(GameMessage.MessageType.CHAT, "host", text);
+        msg.setBroadcast(true);
+        hostManager.send(msg);
+    }
+
+    @Test
+    @DisplayName("Opóźnienie proxy wydłuża czas do ACK i RTT klienta")
+    void testLatency() throws IOException, InterruptedException {
+        connect();
+        proxy.setLatency(100, 20);
+        long start = System.currentTimeMillis();
+        clientManager.send(new GameMessage(GameMessage.MessageType.ROLL_DICE, "client"));
+        waitFor(() -> clientManager.getRetransmitStats().acknowledged() == 1);
+
+        assertTrue(System.currentTimeMillis() - start >= 200, "ACK wraca po dwóch opóźnieniach");
+        assertTrue(clientManager.getRetransmitStats().smoothedRttMs() >= 200);
+    }
+
+    @Test
+    @DisplayName("Zgubiona komenda jest ponawiana i potwierdzana po ustąpieniu usterki")
+    void testDroppedCommandRetransmitted() throws IOException, InterruptedException {
+        connect();
+        proxy.setDropRate(1.0, 0);
+        clientManager.send(new GameMessage(GameMessage.MessageType.ROLL_DICE, "client"));
+        waitFor(() -> clientManager.getRetransmitStats().retries() >= 1);
+        assertEquals(0, clientManager.getRetransmitStats().acknowledged());
+        assertTrue(proxy.getDroppedFrames() >= 2, "Pierwsze wysłanie i ponowienie przepadły");
+
+        proxy.clearFaults();
+        waitFor(() -> clientManager.getRetransmitStats().acknowledged() == 1);
+        assertEquals(0, clientManager.getRetransmitStats().pending());
+    }
+
+    @Test
+    @DisplayName("Komenda ponowiona po zgubionym ACK nie jest wykonywana drugi raz")
+    void testLostAckDoesNotRepeatCommand() throws IOException, InterruptedException {
+        connect();
+        proxy.setDropRate(0, 1.0);
+        clientManager.send(new GameMessage(GameMessage.MessageType.ROLL_DICE, "client"));
+        waitFor(() -> hostManager.getSuppressedDuplicates() >= 1);
+        assertEquals(1, rolls.get(), "Host wykonał rzut tylko raz");
+
+        // Kolejna kopia dostaje zapamiętany ACK
+        proxy.clearFaults();
+        waitFor(() -> clientManager.getRetransmitStats().acknowledged() == 1);
+        assertEquals(1, rolls.get());
+        assertEquals(0, clientManager.getRetransmitStats().pending());
+    }
+
+    @Test
+    @DisplayName("Ramki wstrzymane przestojem dochodzą po nim w kolejności")
+    void testStall() throws IOException, InterruptedException {
+        connect();
+        proxy.setStalled(true);
+        for (int i = 1; i <= 3; i++) broadcastChat("czat " + i);
+        Thread.sleep(300);
+        assertEquals(List.of(), chats);
+
+        proxy.setStalled(false);
+        waitFor(() -> chats.size() == 3);
+        assertEquals(List.of("czat 1", "czat 2", "czat 3"), chats);
+    }
+
+    @Test
+    @DisplayName("Limit przepustowości rozkłada duże ramki w czasie")
+    void testBandwidth() throws IOException, InterruptedException {
+        connect();
+        proxy.setBandwidth(20_000);
+        String payload = "x".repeat(4_000);
+        long start = System.currentTimeMillis();
+        for (int i = 0; i < 5; i++) broadcastChat(payload);
+        waitFor(() -> chats.size() == 5);
+
+        // 5 ramek po ~4 kB przy 20 kB/s - co najmniej ~0.8 s
+        assertTrue(System.currentTimeMillis() - start >= 800,
+            "Czas: " + (System.currentTimeMillis() - start) + " ms");
+    }
+
+    @Test
+    @DisplayName("Klient wykrywa połączenie półotwarte heartbeatem i wznawia sesję")
+    void testHalfOpenConnectionResumed() throws IOException, InterruptedException {
+        clientManager.setHeartbeat(50, 2, 4);
+        connect();
+        proxy.halfOpenConnections();
+
+        // Host widzi zamknięcie od razu, klient - dopiero po brakujących PONG
+        waitFor(() -> events.contains("Wznowiono połączenie z hostem"));
+        assertTrue(events.contains("Utracono połączenie z hostem - wznawianie..."), "Zdarzenia: " + events);
+        assertEquals(2, proxy.getAcceptedCount());
+
+        broadcastChat("po wznowieniu");
+        waitFor(() -> chats.contains("po wznowieniu"));
+    }
+}
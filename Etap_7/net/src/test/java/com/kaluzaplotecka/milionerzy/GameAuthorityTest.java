@@ -0,0 +1,114 @@
+package com.kaluzaplotecka.milionerzy;
+
+import org.junit.jupiter.api.*;
+
+import com.kaluzaplotecka.milionerzy.model.BoardFactory;
+import com.kaluzaplotecka.milionerzy.model.GameSnapshot;
+import com.kaluzaplotecka.milionerzy.model.GameState;
+import com.kaluzaplotecka.milionerzy.model.Player;
+import com.kaluzaplotecka.milionerzy.network.GameAuthority;
+import com.kaluzaplotecka.milionerzy.network.GameMessage;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Testy autorytetu gry: komendy z wielu wątków wykonywane po kolei na
+ * jednym wątku i snapshoty niezależne od stanu autorytatywnego.
+ */
+public class GameAuthorityTest {
+
+    private GameAuthority authority;
+
+    @AfterEach
+    void tearDown() {
+        if (authority != null) authority.stop();
+    }
+
+    private static GameState newGame() {
+        List<Player> players = new ArrayList<>();
+        players.add(new Player("p1", "Ala", 1500));
+        players.add(new Player("p2", "Olek", 1500));
+        return new GameState(BoardFactory.createDefaultBoard(), players);
+    }
+
+    @Test
+    @DisplayName("Komendy z wielu wątków są wykonywane po kolei na jednym wątku")
+    void testSingleThreadedInOrder() throws Exception {
+        authority = new GameAuthority(newGame(), null);
+        Set<Thread> threads = ConcurrentHashMap.newKeySet();
+        List<Integer> order = new ArrayList<>();
+        int perProducer = 500;
+
+        List<Thread> producers = new ArrayList<>();
+        for (int t = 0; t < 4; t++) {
+            int producer = t;
+            producers.add(Thread.ofPlatform().start(() -> {
+                for (int i = 0; i < perProducer; i++) {
+                    int value = producer * perProducer + i;
+                    authority.execute(state -> {
+                        threads.add(Thread.currentThread());
+                        order.add(value); // bez synchronizacji - tylko wątek autorytetu
+                    });
+                }
+            }));
+        }
+        for (Thread producer : producers) producer.join();
+
+        int size = authority.query(state -> order.size()).get(5, TimeUnit.SECONDS);
+        assertEquals(4 * perProducer, size);
+        assertEquals(1, threads.size(), "Wszystkie komendy na jednym wątku");
+        for (int t = 0; t < 4; t++) {
+            int last = -1;
+            for (int value : order) {
+                if (value / perProducer != t) continue;
+                assertTrue(value > last, "Kolejność komend jednego nadawcy zachowana");
+                last = value;
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("Wiadomość gracza zmienia stan, a snapshot jest od niego niezależny")
+    void testSubmitPublishesSnapshot() throws Exception {
+        GameState state = newGame();
+        authority = new GameAuthority(state, null);
+        CountDownLatch published = new CountDownLatch(1);
+        authority.setSnapshotListener(snapshot -> {
+            if ("p2".equals(snapshot.currentPlayerId())) published.countDown();
+        });
+
+        authority.submit(new GameMessage(GameMessage.MessageType.END_TURN, "p1", null));
+        assertTrue(published.await(5, TimeUnit.SECONDS));
+
+        GameSnapshot snapshot = authority.getSnapshot();
+        assertEquals("p2", snapshot.currentPlayerId());
+
+        // Komenda nie od gracza, którego jest tura - odrzucona
+        authority.submit(new GameMessage(GameMessage.MessageType.END_TURN, "p1", null));
+        assertEquals("p2", authority.query(s -> s.getCurrentPlayer().getId()).get(5, TimeUnit.SECONDS));
+
+        // Stan odtworzony ze snapshotu jest niezależny od stanu autorytatywnego
+        GameState copy = snapshot.toGameState();
+        assertNotSame(state, copy);
+        copy.getPlayers().get(0).addMoney(1000);
+        assertEquals(1500, (int) authority.query(s -> s.getPlayers().get(0).getMoney()).get(5, TimeUnit.SECONDS));
+        assertEquals(1500, authority.getSnapshot().player("p1").money());
+    }
+
+    @Test
+    @DisplayName("Wyjątek w komendzie nie zatrzymuje autorytetu")
+    void testFailingCommand() throws Exception {
+        authority = new GameAuthority(newGame(), null);
+        authority.execute(state -> { throw new IllegalStateException("test"); });
+        authority.execute(GameState::nextTurn);
+        assertEquals("p2", authority.query(s -> s.getCurrentPlayer().getId()).get(5, TimeUnit.SECONDS));
+        assertFalse(authority.isAuthorityThread());
+    }
+}
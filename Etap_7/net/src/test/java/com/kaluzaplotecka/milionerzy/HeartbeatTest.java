@@ -0,0 +1,125 @@
+package com.kaluzaplotecka.milionerzy;
+
+import org.junit.jupiter.api.*;
+
+import com.kaluzaplotecka.milionerzy.network.FrameCodec;
+import com.kaluzaplotecka.milionerzy.network.GameMessage;
+import com.kaluzaplotecka.milionerzy.network.NetworkManager;
+import com.kaluzaplotecka.milionerzy.network.PeerHealth;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static com.kaluzaplotecka.milionerzy.TestWait.waitFor;
+
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.net.Socket;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Testy heartbeatu PING/PONG: pomiar RTT i wykrywanie martwych partnerów.
+ */
+public class HeartbeatTest {
+
+    private static final int TEST_PORT = 16671;
+
+    private NetworkManager hostManager;
+    private NetworkManager clientManager;
+
+    @BeforeEach
+    void setUp() {
+        hostManager = new NetworkManager("host");
+        clientManager = new NetworkManager("p1");
+        hostManager.setHeartbeat(50, 2, 4);
+        clientManager.setHeartbeat(50, 2, 4);
+    }
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        clientManager.stop();
+        hostManager.stop();
+        Thread.sleep(100);
+    }
+
+    @Test
+    @DisplayName("Histogram, percentyl i stan wynikają z pomiarów i pominiętych uderzeń")
+    void testPeerHealthSnapshot() {
+        PeerHealth health = new PeerHealth();
+        for (int i = 1; i <= 20; i++) {
+            health.onPingSent();
+            health.onPong(i);
+        }
+        PeerHealth.Snapshot snapshot = health.snapshot("p1", 2, 4);
+        assertEquals(20.0, snapshot.lastRttMs());
+        assertEquals(10.5, snapshot.meanRttMs(), 0.001);
+        assertEquals(19.0, snapshot.p95RttMs());
+        assertTrue(snapshot.jitterMs() > 0);
+        assertEquals(20, java.util.Arrays.stream(snapshot.histogram()).sum());
+        assertEquals(PeerHealth.Status.HEALTHY, snapshot.status());
+
+        health.onPingSent();
+        health.onPingSent();
+        health.onPingSent();
+        assertEquals(PeerHealth.Status.LAGGING, health.snapshot("p1", 2, 4).status());
+        // Pierwszy PING bez odpowiedzi jeszcze nie jest pominięty - 4 pominięte to piąty
+        health.onPingSent();
+        health.onPingSent();
+        assertEquals(PeerHealth.Status.DEAD, health.snapshot("p1", 2, 4).status());
+        health.onPong(3);
+        assertEquals(0, health.getMissedBeats());
+    }
+
+    @Test
+    @DisplayName("Obie strony mierzą RTT z PING/PONG, a heartbeat nie trafia do gry")
+    void testRttMeasuredOnBothSides() throws IOException, InterruptedException {
+        List<GameMessage.MessageType> delivered = new CopyOnWriteArrayList<>();
+        hostManager.setMessageHandler(msg -> delivered.add(msg.getType()));
+        clientManager.setMessageHandler(msg -> delivered.add(msg.getType()));
+        List<PeerHealth.Snapshot> callbacks = new CopyOnWriteArrayList<>();
+        clientManager.setHeartbeatCallback(callbacks::add);
+
+        hostManager.startHost(TEST_PORT, "ROOM");
+        clientManager.connectToHost("localhost", TEST_PORT, "Gracz", "ROOM");
+
+        waitFor(() -> {
+            PeerHealth.Snapshot s = hostManager.getPeerHealth().get("p1");
+            return s != null && s.lastRttMs() >= 0;
+        });
+        waitFor(() -> clientManager.getPeerHealth().get("host").lastRttMs() >= 0);
+        assertFalse(callbacks.isEmpty());
+        assertEquals(PeerHealth.Status.HEALTHY, clientManager.getPeerHealth().get("host").status());
+        assertFalse(delivered.contains(GameMessage.MessageType.PING));
+        assertFalse(delivered.contains(GameMessage.MessageType.PONG));
+    }
+
+    @Test
+    @DisplayName("Host rozłącza klienta, który nie odpowiada na PING")
+    void testSilentClientEvicted() throws IOException, InterruptedException {
+        hostManager.startHost(TEST_PORT, "ROOM");
+        try (Socket silent = new Socket("localhost", TEST_PORT)) {
+            DataOutputStream out = new DataOutputStream(silent.getOutputStream());
+            out.write(FrameCodec.encode(new GameMessage(GameMessage.MessageType.CONNECT, "silent",
+                new String[]{"ROOM", "Cichy"})));
+            out.flush();
+            waitFor(() -> hostManager.getConnectedClientsCount() == 1);
+
+            waitFor(() -> hostManager.getConnectedClientsCount() == 0);
+        }
+    }
+
+    @Test
+    @DisplayName("Klient zgłasza rozłączenie, gdy host przestaje odpowiadać")
+    void testClientDetectsDeadHost() throws IOException, InterruptedException {
+        // Host bez heartbeatu i bez odpowiedzi - symulacja zawieszonego procesu
+        hostManager.setHeartbeat(0, 1, 1);
+        List<String> events = new CopyOnWriteArrayList<>();
+        clientManager.setConnectionHandler(events::add);
+        try (java.net.ServerSocket frozenHost = new java.net.ServerSocket(TEST_PORT)) {
+            clientManager.connectToHost("localhost", TEST_PORT, "Gracz", "ROOM");
+            try (Socket accepted = frozenHost.accept()) {
+                waitFor(() -> !events.isEmpty());
+                assertEquals(PeerHealth.Status.DEAD, clientManager.getPeerHealth().get("host").status());
+            }
+        }
+    }
+}
@@ -0,0 +1,106 @@
+package com.kaluzaplotecka.milionerzy;
+
+import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.io.TempDir;
+
+import com.kaluzaplotecka.milionerzy.loadtest.LatencyHistogram;
+import com.kaluzaplotecka.milionerzy.loadtest.LoadReport;
+import com.kaluzaplotecka.milionerzy.loadtest.LoadTestConfig;
+import com.kaluzaplotecka.milionerzy.loadtest.LoadTestLauncher;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Properties;
+
+/**
+ * Testy generatora obciążenia: histogram opóźnień, konfiguracja i krótki
+ * przebieg przeciw serwerowi dedykowanemu w pamięci.
+ */
+public class LoadGeneratorTest {
+
+    private static final int TEST_PORT = 16679;
+
+    @TempDir
+    Path dir;
+
+    @Test
+    @DisplayName("Histogram liczy percentyle z błędem kilku procent")
+    void testHistogramPercentiles() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (int ms = 1; ms <= 1000; ms++) {
+            histogram.record(ms * 1_000_000L);
+        }
+        assertEquals(1000, histogram.getCount());
+        assertEquals(500, histogram.percentileMs(50), 500 * 0.03);
+        assertEquals(990, histogram.percentileMs(99), 990 * 0.03);
+        assertEquals(1.0, histogram.minMs(), 0.001);
+        assertEquals(1000.0, histogram.maxMs(), 0.001);
+        assertEquals(500.5, histogram.meanMs(), 0.001);
+
+        LatencyHistogram other = new LatencyHistogram();
+        other.record(5_000_000_000L);
+        histogram.merge(other);
+        assertEquals(1001, histogram.getCount());
+        assertEquals(5000.0, histogram.percentileMs(100), 0.001);
+    }
+
+    @Test
+    @DisplayName("Konfiguracja jest wczytywana z właściwości, a błędne wartości odrzucane")
+    void testConfigParsing() {
+        Properties properties = new Properties();
+        properties.setProperty("rooms", "25");
+        properties.setProperty("playersPerRoom", "3");
+        properties.setProperty("actionsPerSecond", "0.5");
+        properties.setProperty("embedded", "true");
+        properties.setProperty("batchTurns", "true");
+        LoadTestConfig config = LoadTestConfig.fromProperties(properties);
+
+        assertEquals(25, config.getRooms());
+        assertEquals(3, config.getPlayersPerRoom());
+        assertEquals(0.5, config.getActionsPerSecond());
+        assertTrue(config.isEmbedded());
+        assertFalse(config.isEmbeddedInMemory());
+        assertTrue(config.isBatchTurns());
+
+        properties.setProperty("playersPerRoom", "1");
+        assertThrows(IllegalArgumentException.class, () -> LoadTestConfig.fromProperties(properties));
+        properties.setProperty("playersPerRoom", "2");
+        properties.setProperty("actionsPerSecond", "abc");
+        assertThrows(IllegalArgumentException.class, () -> LoadTestConfig.fromProperties(properties));
+    }
+
+    @Test
+    @DisplayName("Przebieg gra w pokojach, mierzy opóźnienia i zapisuje raport JSON")
+    void testEmbeddedRun() throws Exception {
+        LoadTestConfig config = new LoadTestConfig();
+        config.setPort(TEST_PORT);
+        config.setRooms(2);
+        config.setPlayersPerRoom(2);
+        config.setActionsPerSecond(20);
+        config.setDurationSeconds(2);
+        config.setSeed(42);
+        config.setEmbedded(true);
+        config.setEmbeddedInMemory(true);
+
+        LoadReport report = LoadTestLauncher.run(config);
+
+        assertEquals(4, report.clients());
+        assertEquals(0, report.connectErrors());
+        assertEquals(2, report.roomsStarted());
+        assertTrue(report.acknowledged() > 10, "Klienci wykonują akcje: " + report);
+        assertEquals(0, report.timeouts());
+        assertEquals(report.acknowledged() + report.rejected(), report.ackLatency().getCount());
+        assertTrue(report.stateLatency().getCount() > 0);
+        assertTrue(report.ackLatency().percentileMs(99) >= report.ackLatency().percentileMs(50));
+        assertTrue(report.throughput() > 0);
+
+        Path file = dir.resolve("report.json");
+        report.write(file);
+        String json = Files.readString(file);
+        assertTrue(json.contains("\"throughputPerSecond\""));
+        assertTrue(json.contains("\"ackLatencyMs\": {\"count\": " + report.ackLatency().getCount()));
+        assertTrue(json.contains("\"rooms\": 2"));
+    }
+}
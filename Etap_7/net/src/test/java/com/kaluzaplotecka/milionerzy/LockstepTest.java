@@ -0,0 +1,227 @@
+package com.kaluzaplotecka.milionerzy;
+
+import org.junit.jupiter.api.*;
+
+import com.kaluzaplotecka.milionerzy.model.BoardFactory;
+import com.kaluzaplotecka.milionerzy.model.GameSnapshot;
+import com.kaluzaplotecka.milionerzy.model.GameState;
+import com.kaluzaplotecka.milionerzy.model.Player;
+import com.kaluzaplotecka.milionerzy.model.tiles.PropertyTile;
+import com.kaluzaplotecka.milionerzy.network.BinaryWireCodec;
+import com.kaluzaplotecka.milionerzy.network.ClientStateSync;
+import com.kaluzaplotecka.milionerzy.network.CommandBatch;
+import com.kaluzaplotecka.milionerzy.network.FrameCodec;
+import com.kaluzaplotecka.milionerzy.network.GameAuthority;
+import com.kaluzaplotecka.milionerzy.network.GameMessage;
+import com.kaluzaplotecka.milionerzy.network.NetworkManager;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static com.kaluzaplotecka.milionerzy.TestWait.waitFor;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Testy trybu lockstep: host rozsyła tylko komendy graczy, a klienci
+ * z tym samym ziarnem dochodzą do tego samego stanu.
+ */
+public class LockstepTest {
+
+    private static final int TEST_PORT = 16678;
+    private static final long SEED = 20240601L;
+
+    private NetworkManager host;
+    private GameAuthority authority;
+    private final List<NetworkManager> clients = new ArrayList<>();
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        for (NetworkManager client : clients) client.stop();
+        if (authority != null) authority.stop();
+        if (host != null) host.stop();
+        Thread.sleep(100);
+    }
+
+    /** Klient trzymający kopię stanu jak {@code GameView}. */
+    private record Replica(NetworkManager network, ClientStateSync sync, AtomicLong version,
+                           List<GameMessage> received) {
+
+        GameSnapshot snapshot() {
+            synchronized (sync) {
+                return GameSnapshot.of(sync.getState());
+            }
+        }
+    }
+
+    private Replica join(String id) throws IOException {
+        NetworkManager client = new NetworkManager(id);
+        clients.add(client);
+        ClientStateSync sync = new ClientStateSync(client);
+        AtomicLong version = new AtomicLong(-1);
+        List<GameMessage> received = new CopyOnWriteArrayList<>();
+        client.setMessageHandler(msg -> {
+            received.add(msg);
+            synchronized (sync) {
+                if (sync.handle(msg)) version.set(sync.getState().getStateVersion());
+            }
+        });
+        client.connectToHost("localhost", TEST_PORT, id, "ROOM");
+        return new Replica(client, sync, version, received);
+    }
+
+    private void startHost() throws IOException {
+        List<Player> players = new ArrayList<>();
+        players.add(new Player("p1", "Ala", 1500));
+        players.add(new Player("p2", "Olek", 1500));
+        GameState state = new GameState(BoardFactory.createDefaultBoard(), players);
+        state.setSeed(SEED);
+
+        host = new NetworkManager("host");
+        host.setLockstep(true);
+        authority = new GameAuthority(state, host);
+        authority.setLockstep(true);
+        host.setSnapshotProvider(authority::getSnapshot);
+        host.setMessageHandler(authority::submit);
+        host.startHost(TEST_PORT, "ROOM");
+    }
+
+    /**
+     * Wysyła kolejną sensowną komendę gracza, którego jest tura: p1 przez
+     * sieć, p2 prosto do autorytetu (jak gracz przy hoście).
+     */
+    private void playStep(Replica p1) throws InterruptedException {
+        GameSnapshot state = authority.getSnapshot();
+        GameSnapshot.PlayerSnapshot current = state.currentPlayer();
+        GameMessage.MessageType type = GameMessage.MessageType.ROLL_DICE;
+        if (state.hasRolled()) {
+            GameSnapshot.TileSnapshot tile = state.tile(current.position());
+            boolean canBuy = tile.kind() == GameSnapshot.TileKind.PROPERTY
+                && tile.ownerId() == null && current.money() >= tile.price();
+            type = canBuy ? GameMessage.MessageType.BUY_PROPERTY : GameMessage.MessageType.END_TURN;
+        }
+        // Klient nie może narzucić wyniku rzutu - liczy go ziarno
+        GameMessage command = new GameMessage(type, current.id(),
+            type == GameMessage.MessageType.ROLL_DICE ? 12 : null);
+        if (current.id().equals("p1")) {
+            p1.network().send(command);
+        } else {
+            authority.submit(command);
+        }
+        waitFor(() -> authority.getSnapshot().version() == state.version() + 1);
+    }
+
+    @Test
+    @DisplayName("Klienci odtwarzają komendy i mają ten sam stan co host")
+    void testReplicasStayInSync() throws IOException, InterruptedException {
+        startHost();
+        Replica p1 = join("p1");
+        waitFor(() -> p1.version().get() == 0);
+
+        int expectedFirstRoll = seededRolls(1)[0];
+        playStep(p1);
+        assertEquals(expectedFirstRoll, authority.getSnapshot().player("p1").position(),
+            "Rzut z ziarna, nie z wiadomości klienta");
+
+        for (int i = 0; i < 30; i++) {
+            playStep(p1);
+        }
+
+        // Ruch nie w swojej turze - odrzucony, bez ramki i bez nowej wersji
+        GameSnapshot before = authority.getSnapshot();
+        String waiting = before.currentPlayerId().equals("p1") ? "p2" : "p1";
+        authority.submit(new GameMessage(GameMessage.MessageType.END_TURN, waiting, null));
+        assertEquals(before.version(), authority.query(GameState::getStateVersion).join());
+
+        long version = authority.getSnapshot().version();
+        waitFor(() -> p1.version().get() == version);
+        assertEquals(authority.getSnapshot().players(), p1.snapshot().players());
+        assertEquals(authority.getSnapshot().tiles(), p1.snapshot().tiles());
+        assertEquals(authority.getSnapshot().currentPlayerId(), p1.snapshot().currentPlayerId());
+
+        // Tylko komendy - bez wyników i różnic stanu
+        for (GameMessage msg : p1.received()) {
+            assertNotEquals(GameMessage.MessageType.STATE_DELTA, msg.getType());
+            assertNotEquals(GameMessage.MessageType.MOVE, msg.getType());
+            assertNotEquals(GameMessage.MessageType.DICE_RESULT, msg.getType());
+        }
+        GameMessage frame = p1.received().stream()
+            .filter(m -> m.getType() == GameMessage.MessageType.LOCKSTEP_COMMAND)
+            .findFirst().orElseThrow();
+        assertTrue(FrameCodec.encode(frame, BinaryWireCodec.INSTANCE).length < 64,
+            "Komenda zajmuje kilka bajtów");
+    }
+
+    @Test
+    @DisplayName("Klient dołączający w trakcie gry dostaje snapshot z ziarnem i nadąża")
+    void testLateJoinerReplaysFromSnapshot() throws IOException, InterruptedException {
+        startHost();
+        Replica p1 = join("p1");
+        waitFor(() -> p1.version().get() == 0);
+        for (int i = 0; i < 10; i++) {
+            playStep(p1);
+        }
+
+        Replica late = join("p2");
+        waitFor(() -> late.version().get() == authority.getSnapshot().version());
+        for (int i = 0; i < 10; i++) {
+            playStep(p1);
+        }
+
+        long version = authority.getSnapshot().version();
+        waitFor(() -> late.version().get() == version && p1.version().get() == version);
+        assertEquals(authority.getSnapshot().players(), late.snapshot().players());
+        assertEquals(authority.getSnapshot().tiles(), late.snapshot().tiles());
+        assertEquals(p1.snapshot().dice(), late.snapshot().dice(), "Ten sam licznik rzutów");
+        long owned = late.snapshot().tiles().stream().filter(t -> t.ownerId() != null).count();
+        assertEquals(owned, authority.query(s -> s.getBoard().getTiles().stream()
+            .filter(t -> t instanceof PropertyTile pt && pt.isOwned()).count()).join());
+    }
+
+    @Test
+    @DisplayName("Paczka komend jest jedną ramką lockstep odtwarzaną przez klientów")
+    void testCommandBatchReplicated() throws IOException, InterruptedException {
+        startHost();
+        Replica p1 = join("p1");
+        waitFor(() -> p1.version().get() == 0);
+
+        // Wynik rzutu z paczki jest pomijany - liczy go ziarno
+        p1.network().send(new CommandBatch()
+            .then(GameMessage.MessageType.ROLL_DICE, 12)
+            .thenIf(CommandBatch.Condition.CAN_BUY, 0, GameMessage.MessageType.BUY_PROPERTY)
+            .thenIf(CommandBatch.Condition.MY_TURN, 0, GameMessage.MessageType.END_TURN)
+            .toMessage("p1"));
+        waitFor(() -> p1.version().get() == 1);
+
+        assertEquals(1, authority.getSnapshot().version(), "Cała paczka to jedna wersja stanu");
+        assertEquals("p2", authority.getSnapshot().currentPlayerId());
+        assertEquals(seededRolls(1)[0], authority.getSnapshot().player("p1").position());
+        assertEquals(authority.getSnapshot().players(), p1.snapshot().players());
+        assertEquals(authority.getSnapshot().tiles(), p1.snapshot().tiles());
+        assertEquals("p2", p1.snapshot().currentPlayerId());
+        assertEquals(1, p1.received().stream()
+            .filter(m -> m.getType() == GameMessage.MessageType.LOCKSTEP_COMMAND).count());
+
+        // Paczka przerwana po rzucie też jest ramką - repliki wykonują ten sam rzut
+        authority.submit(new GameMessage(GameMessage.MessageType.END_TURN, "p2", null));
+        waitFor(() -> p1.version().get() == 2);
+        p1.network().send(new CommandBatch()
+            .then(GameMessage.MessageType.ROLL_DICE)
+            .then(GameMessage.MessageType.AUCTION_BID, 50)
+            .toMessage("p1"));
+        waitFor(() -> p1.version().get() == 3);
+        waitFor(() -> p1.network().getRetransmitStats().partial() == 1);
+        assertEquals(authority.getSnapshot().players(), p1.snapshot().players());
+        assertEquals(authority.getSnapshot().currentPlayerId(), p1.snapshot().currentPlayerId());
+    }
+
+    private static int[] seededRolls(int count) {
+        GameState reference = new GameState(BoardFactory.createDefaultBoard(), List.of(new Player("x", "x", 0)));
+        reference.setSeed(SEED);
+        int[] rolls = new int[count];
+        for (int i = 0; i < count; i++) rolls[i] = reference.rollDice();
+        return rolls;
+    }
+}
@@ -6,8 +6,11 @@ import com.kaluzaplotecka.milionerzy.events.GameEvent;
 import com.kaluzaplotecka.milionerzy.model.Board;
 import com.kaluzaplotecka.milionerzy.model.GameState;
 import com.kaluzaplotecka.milionerzy.model.Player;
+import com.kaluzaplotecka.milionerzy.model.StateHash;
 import com.kaluzaplotecka.milionerzy.model.tiles.Tile;
+import com.kaluzaplotecka.milionerzy.network.ClientStateSync;
 import com.kaluzaplotecka.milionerzy.network.GameMessage;
+import com.kaluzaplotecka.milionerzy.network.StateDelta;
 import com.kaluzaplotecka.milionerzy.network.NetworkGameEventListener;
 import com.kaluzaplotecka.milionerzy.network.NetworkManager;
 
@@ -18,6 +21,7 @@ import java.util.ArrayList;
 import java.util.List;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicReference;
 
 /**
@@ -93,7 +97,7 @@ public class NetworkGameEventListenerTest {
 
     @Test
     @Order(2)
-    @DisplayName("NetworkGameEventListener wysyła GAME_STATE_SYNC przy zmianie tury")
+    @DisplayName("NetworkGameEventListener wysyła GAME_STATE_SYNC przy pierwszej zmianie tury")
     void testGameStateSyncOnTurnChange() throws IOException, InterruptedException {
         CountDownLatch latch = new CountDownLatch(1);
         AtomicReference<GameMessage> receivedMsg = new AtomicReference<>();
@@ -208,4 +212,123 @@ public class NetworkGameEventListenerTest {
         assertNotNull(receivedMsg.get());
         assertEquals(GameMessage.MessageType.MONEY_UPDATE, receivedMsg.get().getType());
     }
+
+    @Test
+    @Order(6)
+    @DisplayName("Po snapshocie wysyłane są tylko różnice stanu")
+    void testDeltaAfterSnapshot() throws IOException, InterruptedException {
+        CountDownLatch latch = new CountDownLatch(2);
+        AtomicReference<StateDelta> receivedDelta = new AtomicReference<>();
+        ClientStateSync clientSync = new ClientStateSync(clientManager);
+        
+        clientManager.setMessageHandler(msg -> {
+            if (msg.getPayload() instanceof StateDelta delta) {
+                receivedDelta.set(delta);
+            }
+            if (clientSync.handle(msg)) {
+                latch.countDown();
+            }
+        });
+        
+        hostManager.startHost(TEST_PORT, "TEST");
+        Thread.sleep(100);
+        clientManager.connectToHost("localhost", TEST_PORT, "Client", "TEST");
+        Thread.sleep(200);
+        
+        NetworkGameEventListener listener = new NetworkGameEventListener(hostManager, () -> gameState);
+        gameState.addEventListener(listener);
+        listener.broadcastSnapshot();
+        
+        Player player = players.get(0);
+        player.addMoney(200);
+        gameState.fireEvent(new GameEvent(GameEvent.Type.MONEY_CHANGED, player, 1700, "Zmiana pieniędzy"));
+        
+        assertTrue(latch.await(2, TimeUnit.SECONDS), "Klient powinien otrzymać snapshot i różnicę");
+        
+        StateDelta delta = receivedDelta.get();
+        assertNotNull(delta);
+        assertEquals(1, delta.getPlayers().size(), "Różnica powinna zawierać tylko zmienionego gracza");
+        assertTrue(delta.getTiles().isEmpty());
+        assertFalse(delta.isTurnChanged());
+        
+        GameState clientState = clientSync.getState();
+        assertEquals(gameState.getStateVersion(), clientState.getStateVersion());
+        assertEquals(1700, clientState.getPlayers().get(0).getMoney());
+    }
+
+    @Test
+    @Order(7)
+    @DisplayName("Klient z luką w wersjach prosi o pełną synchronizację")
+    void testResyncAfterVersionGap() throws IOException, InterruptedException {
+        CountDownLatch snapshotLatch = new CountDownLatch(2);
+        AtomicReference<GameState> resyncedState = new AtomicReference<>();
+        ClientStateSync clientSync = new ClientStateSync(clientManager);
+        
+        clientManager.setMessageHandler(msg -> {
+            // Pierwszy snapshot jest gubiony, żeby wymusić lukę w wersjach
+            if (msg.getType() == GameMessage.MessageType.GAME_STATE_SYNC && snapshotLatch.getCount() == 2) {
+                snapshotLatch.countDown();
+                return;
+            }
+            if (clientSync.handle(msg) && msg.getType() == GameMessage.MessageType.GAME_STATE_SYNC) {
+                resyncedState.set(clientSync.getState());
+                snapshotLatch.countDown();
+            }
+        });
+        
+        hostManager.startHost(TEST_PORT, "TEST");
+        Thread.sleep(100);
+        clientManager.connectToHost("localhost", TEST_PORT, "Client", "TEST");
+        Thread.sleep(200);
+        hostManager.setGameStateProvider(() -> gameState);
+        
+        NetworkGameEventListener listener = new NetworkGameEventListener(hostManager, () -> gameState);
+        gameState.addEventListener(listener);
+        listener.broadcastSnapshot();
+        
+        players.get(0).addMoney(100);
+        gameState.fireEvent(new GameEvent(GameEvent.Type.MONEY_CHANGED, players.get(0), 1600, "Zmiana pieniędzy"));
+        
+        assertTrue(snapshotLatch.await(2, TimeUnit.SECONDS), "Klient powinien dostać snapshot po RESYNC_REQUEST");
+        assertEquals(1600, resyncedState.get().getPlayers().get(0).getMoney());
+    }
+
+    @Test
+    @Order(8)
+    @DisplayName("Klient z rozjechanym stanem wykrywa to po skrócie i prosi o pełny stan")
+    void testResyncAfterHashMismatch() throws IOException, InterruptedException {
+        CountDownLatch resynced = new CountDownLatch(1);
+        AtomicInteger snapshots = new AtomicInteger();
+        ClientStateSync clientSync = new ClientStateSync(clientManager);
+        
+        clientManager.setMessageHandler(msg -> {
+            boolean applied = clientSync.handle(msg);
+            if (msg.getType() == GameMessage.MessageType.GAME_STATE_SYNC && applied
+                    && snapshots.incrementAndGet() == 1) {
+                // Klient rozlicza coś po swojemu - wersja się zgadza, stan już nie
+                clientSync.getState().getPlayers().get(1).deductMoney(300);
+            } else if (msg.getType() == GameMessage.MessageType.GAME_STATE_SYNC && applied) {
+                resynced.countDown();
+            }
+        });
+        
+        hostManager.startHost(TEST_PORT, "TEST");
+        Thread.sleep(100);
+        clientManager.connectToHost("localhost", TEST_PORT, "Client", "TEST");
+        Thread.sleep(200);
+        hostManager.setGameStateProvider(() -> gameState);
+        
+        NetworkGameEventListener listener = new NetworkGameEventListener(hostManager, () -> gameState);
+        gameState.addEventListener(listener);
+        listener.broadcastSnapshot();
+        Thread.sleep(200);
+        
+        players.get(0).addMoney(100);
+        gameState.fireEvent(new GameEvent(GameEvent.Type.MONEY_CHANGED, players.get(0), 1600, "Zmiana pieniędzy"));
+        
+        assertTrue(resynced.await(2, TimeUnit.SECONDS), "Klient powinien dostać snapshot po niezgodnym skrócie");
+        assertEquals(1, clientSync.getDesyncCount());
+        assertEquals(StateHash.of(gameState), StateHash.of(clientSync.getState()));
+        assertEquals(players.get(1).getMoney(), clientSync.getState().getPlayers().get(1).getMoney());
+    }
 }
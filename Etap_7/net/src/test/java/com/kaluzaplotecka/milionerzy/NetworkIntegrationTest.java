@@ -7,7 +7,10 @@ import com.kaluzaplotecka.milionerzy.model.GameState;
 import com.kaluzaplotecka.milionerzy.model.Player;
 import com.kaluzaplotecka.milionerzy.model.tiles.PropertyTile;
 import com.kaluzaplotecka.milionerzy.model.tiles.Tile;
+import com.kaluzaplotecka.milionerzy.network.BinaryWireCodec;
+import com.kaluzaplotecka.milionerzy.network.ClientStateSync;
 import com.kaluzaplotecka.milionerzy.network.GameMessage;
+import com.kaluzaplotecka.milionerzy.network.InMemoryTransport;
 import com.kaluzaplotecka.milionerzy.network.NetworkGameEventListener;
 import com.kaluzaplotecka.milionerzy.network.NetworkManager;
 
@@ -25,6 +28,9 @@ import java.util.concurrent.atomic.AtomicReference;
 /**
  * Testy integracyjne end-to-end symulujące pełny przebieg gry sieciowej.
  * Eliminują potrzebę ręcznego testowania z dwoma klientami.
+ * 
+ * <p>Host i klienci łączą się przez {@link InMemoryTransport} - bez gniazd
+ * i portów systemu, więc test nie koliduje z innymi.
  */
 @TestMethodOrder(MethodOrderer.OrderAnnotation.class)
 public class NetworkIntegrationTest {
@@ -37,9 +43,13 @@ public class NetworkIntegrationTest {
     
     @BeforeEach
     void setUp() {
+        InMemoryTransport transport = new InMemoryTransport();
         hostManager = new NetworkManager("host");
         client1Manager = new NetworkManager("player1");
         client2Manager = new NetworkManager("player2");
+        hostManager.setTransport(transport);
+        client1Manager.setTransport(transport);
+        client2Manager.setTransport(transport);
     }
     
     @AfterEach
@@ -76,13 +86,13 @@ public class NetworkIntegrationTest {
         AtomicReference<GameState> lastState = new AtomicReference<>();
         CountDownLatch syncLatch = new CountDownLatch(3);
         
+        ClientStateSync client1Sync = new ClientStateSync(client1Manager);
         client1Manager.setMessageHandler(msg -> {
-            if (msg.getType() == GameMessage.MessageType.GAME_STATE_SYNC) {
-                if (msg.getPayload() instanceof GameState gs) {
-                    syncCount.incrementAndGet();
-                    lastState.set(gs);
-                    syncLatch.countDown();
-                }
+            if (client1Sync.handle(msg)) {
+                GameState gs = client1Sync.getState();
+                syncCount.incrementAndGet();
+                lastState.set(gs);
+                syncLatch.countDown();
             }
         });
         
@@ -125,15 +135,15 @@ public class NetworkIntegrationTest {
         CountDownLatch finalSyncLatch = new CountDownLatch(1);
         AtomicInteger syncCount = new AtomicInteger(0);
         
+        ClientStateSync client1Sync = new ClientStateSync(client1Manager);
         client1Manager.setMessageHandler(msg -> {
-            if (msg.getType() == GameMessage.MessageType.GAME_STATE_SYNC) {
-                if (msg.getPayload() instanceof GameState gs) {
-                    int count = syncCount.incrementAndGet();
-                    lastState.set(gs);
-                    // Czekamy na 2. sync (po chargeRent)
-                    if (count >= 2) {
-                        finalSyncLatch.countDown();
-                    }
+            if (client1Sync.handle(msg)) {
+                GameState gs = client1Sync.getState();
+                int count = syncCount.incrementAndGet();
+                lastState.set(gs);
+                // Czekamy na 2. sync (po chargeRent)
+                if (count >= 2) {
+                    finalSyncLatch.countDown();
                 }
             }
         });
@@ -200,14 +210,14 @@ public class NetworkIntegrationTest {
         CountDownLatch finalSyncLatch = new CountDownLatch(1);
         AtomicInteger syncCount = new AtomicInteger(0);
         
+        ClientStateSync client1Sync = new ClientStateSync(client1Manager);
         client1Manager.setMessageHandler(msg -> {
-            if (msg.getType() == GameMessage.MessageType.GAME_STATE_SYNC) {
-                if (msg.getPayload() instanceof GameState gs) {
-                    int count = syncCount.incrementAndGet();
-                    lastState.set(gs);
-                    if (count >= 2) {
-                        finalSyncLatch.countDown();
-                    }
+            if (client1Sync.handle(msg)) {
+                GameState gs = client1Sync.getState();
+                int count = syncCount.incrementAndGet();
+                lastState.set(gs);
+                if (count >= 2) {
+                    finalSyncLatch.countDown();
                 }
             }
         });
@@ -270,21 +280,21 @@ public class NetworkIntegrationTest {
         AtomicReference<GameState> client2State = new AtomicReference<>();
         CountDownLatch syncLatch = new CountDownLatch(2);
         
+        ClientStateSync client1Sync = new ClientStateSync(client1Manager);
         client1Manager.setMessageHandler(msg -> {
-            if (msg.getType() == GameMessage.MessageType.GAME_STATE_SYNC) {
-                if (msg.getPayload() instanceof GameState gs) {
-                    client1State.set(gs);
-                    syncLatch.countDown();
-                }
+            if (client1Sync.handle(msg)) {
+                GameState gs = client1Sync.getState();
+                client1State.set(gs);
+                syncLatch.countDown();
             }
         });
         
+        ClientStateSync client2Sync = new ClientStateSync(client2Manager);
         client2Manager.setMessageHandler(msg -> {
-            if (msg.getType() == GameMessage.MessageType.GAME_STATE_SYNC) {
-                if (msg.getPayload() instanceof GameState gs) {
-                    client2State.set(gs);
-                    syncLatch.countDown();
-                }
+            if (client2Sync.handle(msg)) {
+                GameState gs = client2Sync.getState();
+                client2State.set(gs);
+                syncLatch.countDown();
             }
         });
         
@@ -325,12 +335,12 @@ public class NetworkIntegrationTest {
         AtomicReference<GameState> lastState = new AtomicReference<>();
         CountDownLatch syncLatch = new CountDownLatch(1);
         
+        ClientStateSync client1Sync = new ClientStateSync(client1Manager);
         client1Manager.setMessageHandler(msg -> {
-            if (msg.getType() == GameMessage.MessageType.GAME_STATE_SYNC) {
-                if (msg.getPayload() instanceof GameState gs) {
-                    lastState.set(gs);
-                    syncLatch.countDown();
-                }
+            if (client1Sync.handle(msg)) {
+                GameState gs = client1Sync.getState();
+                lastState.set(gs);
+                syncLatch.countDown();
             }
         });
         
@@ -376,4 +386,93 @@ public class NetworkIntegrationTest {
         assertEquals(expectedPos, syncedHost.getPosition(), 
             "Zsynchronizowana pozycja hosta powinna być zgodna z lokalną");
     }
+    
+    @Test
+    @Order(6)
+    @DisplayName("Host i klienci na wątkach wirtualnych wymieniają wiadomości")
+    void testVirtualThreadMode() throws IOException, InterruptedException {
+        tearDown();
+        hostManager = new NetworkManager("host", true);
+        client1Manager = new NetworkManager("player1", true);
+        client2Manager = new NetworkManager("player2", true);
+        InMemoryTransport transport = new InMemoryTransport();
+        hostManager.setTransport(transport);
+        client1Manager.setTransport(transport);
+        client2Manager.setTransport(transport);
+        assertTrue(hostManager.isVirtualThreads());
+        
+        int messages = 50;
+        CountDownLatch hostLatch = new CountDownLatch(messages);
+        CountDownLatch relayLatch = new CountDownLatch(messages);
+        hostManager.setMessageHandler(msg -> {
+            if (msg.getType() == GameMessage.MessageType.CHAT) hostLatch.countDown();
+        });
+        client2Manager.setMessageHandler(msg -> {
+            if (msg.getType() == GameMessage.MessageType.CHAT) relayLatch.countDown();
+        });
+        
+        hostManager.startHost(TEST_PORT, "TEST");
+        client1Manager.connectToHost("localhost", TEST_PORT, "player1", "TEST");
+        client2Manager.connectToHost("localhost", TEST_PORT, "player2", "TEST");
+        Thread.sleep(300);
+        assertEquals(2, hostManager.getConnectedClientsCount());
+        
+        for (int i = 0; i < messages; i++) {
+            GameMessage chat = new GameMessage(GameMessage.MessageType.CHAT, "player1", "wiadomość " + i);
+            chat.setBroadcast(true);
+            client1Manager.send(chat);
+        }
+        
+        assertTrue(hostLatch.await(3, TimeUnit.SECONDS), "Host powinien odebrać wszystkie wiadomości");
+        assertTrue(relayLatch.await(3, TimeUnit.SECONDS), "Drugi klient powinien odebrać przekazane wiadomości");
+    }
+    
+    @Test
+    @Order(7)
+    @DisplayName("Osobne transporty w pamięci nie kolidują, a kodowanie ramek kopiuje stan")
+    void testInMemoryTransportIsolation() throws IOException, InterruptedException {
+        // Drugi host na tym samym porcie, ale w innej sieci w pamięci - z kodowaniem ramek
+        InMemoryTransport encoding = new InMemoryTransport(true);
+        NetworkManager otherHost = new NetworkManager("host");
+        otherHost.setTransport(encoding);
+        client2Manager.setTransport(encoding);
+        
+        List<Player> players = new ArrayList<>();
+        players.add(new Player("host", "Host", 1500));
+        players.add(new Player("player1", "Player1", 1500));
+        GameState hostState = new GameState(createTestBoard(), players);
+        otherHost.setGameStateProvider(() -> hostState);
+        
+        AtomicReference<GameState> received = new AtomicReference<>();
+        CountDownLatch synced = new CountDownLatch(1);
+        client2Manager.setMessageHandler(msg -> {
+            if (msg.getPayload() instanceof GameState state) {
+                received.set(state);
+                synced.countDown();
+            }
+        });
+        CountDownLatch chat = new CountDownLatch(1);
+        hostManager.setMessageHandler(msg -> {
+            if (msg.getType() == GameMessage.MessageType.CHAT) chat.countDown();
+        });
+        
+        try {
+            hostManager.startHost(TEST_PORT, "TEST");
+            otherHost.startHost(TEST_PORT, "INNY");
+            client1Manager.connectToHost("localhost", TEST_PORT, "player1", "TEST");
+            client2Manager.connectToHost("localhost", TEST_PORT, "player2", "INNY");
+            
+            assertTrue(synced.await(3, TimeUnit.SECONDS), "Klient drugiej sieci dostaje stan swojego hosta");
+            assertNotSame(hostState, received.get(), "Zakodowana ramka daje klientowi własną kopię stanu");
+            assertEquals(hostState.getPlayers().size(), received.get().getPlayers().size());
+            assertEquals(BinaryWireCodec.INSTANCE, client2Manager.getClientCodec());
+            
+            client1Manager.send(new GameMessage(GameMessage.MessageType.CHAT, "player1", "hej"));
+            assertTrue(chat.await(3, TimeUnit.SECONDS));
+            assertEquals(1, hostManager.getConnectedClientsCount());
+            assertEquals(1, otherHost.getConnectedClientsCount());
+        } finally {
+            otherHost.stop();
+        }
+    }
 }
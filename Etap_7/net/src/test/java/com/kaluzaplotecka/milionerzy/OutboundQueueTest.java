@@ -0,0 +1,186 @@
+package com.kaluzaplotecka.milionerzy;
+
+import org.junit.jupiter.api.*;
+
+import com.kaluzaplotecka.milionerzy.network.FrameCodec;
+import com.kaluzaplotecka.milionerzy.network.GameMessage;
+import com.kaluzaplotecka.milionerzy.network.NetworkManager;
+import com.kaluzaplotecka.milionerzy.network.NioHostServer;
+import com.kaluzaplotecka.milionerzy.network.SlowConsumerPolicy;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static com.kaluzaplotecka.milionerzy.TestWait.waitFor;
+
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Testy ograniczonych kolejek wychodzących hosta i polityki wolnego klienta.
+ * Wolny klient to zwykłe gniazdo, które łączy się i nigdy nie czyta.
+ */
+public class OutboundQueueTest {
+
+    private static final int TEST_PORT = 16668;
+    private static final String BIG_TEXT = "x".repeat(32 * 1024);
+
+    private NetworkManager hostManager;
+    private NetworkManager fastClient;
+    private Socket slowClient;
+
+    @BeforeEach
+    void setUp() {
+        hostManager = new NetworkManager("host");
+        // Wolny klient nie odpowiada na PING - heartbeat rozłączyłby go w trakcie testu
+        hostManager.setHeartbeat(0, 1, 1);
+    }
+
+    @AfterEach
+    void tearDown() throws IOException, InterruptedException {
+        if (slowClient != null) slowClient.close();
+        if (fastClient != null) fastClient.stop();
+        hostManager.stop();
+        Thread.sleep(100);
+    }
+
+    private void connectSlowClient() throws IOException, InterruptedException {
+        slowClient = new Socket();
+        slowClient.setReceiveBufferSize(4096);
+        slowClient.connect(new InetSocketAddress("localhost", TEST_PORT));
+        DataOutputStream out = new DataOutputStream(slowClient.getOutputStream());
+        out.write(FrameCodec.encode(new GameMessage(GameMessage.MessageType.CONNECT, "slow",
+            new String[]{"ROOM", "Slow"})));
+        out.flush();
+        waitFor(() -> hostManager.getClientQueueStats().containsKey("slow"));
+    }
+
+    private NioHostServer.QueueStats slowStats() {
+        return hostManager.getClientQueueStats().get("slow");
+    }
+
+    private void broadcast(GameMessage.MessageType type, Object payload) {
+        GameMessage msg = new GameMessage(type, "host", payload);
+        msg.setBroadcast(true);
+        hostManager.send(msg);
+    }
+
+    /**
+     * Wysyła duże wiadomości, aż bufory gniazda się zapełnią i ramki zaczną czekać w kolejce.
+     */
+    private void fillSlowClientQueue() throws InterruptedException {
+        for (int i = 0; i < 2000 && slowStats() != null && slowStats().queuedFrames() < 4; i++) {
+            broadcast(GameMessage.MessageType.CHAT, BIG_TEXT);
+            Thread.sleep(2);
+        }
+        waitFor(() -> slowStats() != null && slowStats().queuedFrames() >= 4);
+    }
+
+    @Test
+    @DisplayName("Klient, który nie nadąża, jest rozłączany po przekroczeniu limitu")
+    void testSlowConsumerDisconnected() throws IOException, InterruptedException {
+        hostManager.setOutboundLimits(16, 1024 * 1024);
+        hostManager.setSlowConsumerPolicy(SlowConsumerPolicy.DISCONNECT);
+        hostManager.startHost(TEST_PORT, "ROOM");
+        connectSlowClient();
+
+        for (int i = 0; i < 2000 && hostManager.getConnectedClientsCount() > 0; i++) {
+            broadcast(GameMessage.MessageType.CHAT, BIG_TEXT);
+            Thread.sleep(2);
+        }
+        waitFor(() -> hostManager.getConnectedClientsCount() == 0);
+    }
+
+    @Test
+    @DisplayName("Wiadomości kosmetyczne są odrzucane dla wolnego klienta, a szybki dostaje wszystko")
+    void testCosmeticDroppedForSlowConsumer() throws IOException, InterruptedException {
+        hostManager.setOutboundLimits(8, 64L * 1024 * 1024);
+        hostManager.setSlowConsumerPolicy(SlowConsumerPolicy.DROP_COSMETIC);
+        hostManager.startHost(TEST_PORT, "ROOM");
+        connectSlowClient();
+
+        fillSlowClientQueue();
+        for (int i = 0; i < 20; i++) {
+            broadcast(GameMessage.MessageType.MOVE, i);
+        }
+
+        waitFor(() -> slowStats().droppedFrames() > 0);
+        assertEquals(1, hostManager.getConnectedClientsCount(), "Wolny klient nie powinien być rozłączony");
+        assertTrue(slowStats().queuedFrames() <= 8, "Kolejka nie może przekroczyć limitu");
+        assertTrue(slowStats().maxQueuedFrames() >= 4);
+    }
+
+    @Test
+    @DisplayName("Nowy snapshot stanu zastępuje zakolejkowane starsze ramki stanu")
+    void testSupersededStateCollapsed() throws IOException, InterruptedException {
+        hostManager.setOutboundLimits(1024, 64L * 1024 * 1024);
+        hostManager.setSlowConsumerPolicy(SlowConsumerPolicy.COLLAPSE_STATE);
+        hostManager.startHost(TEST_PORT, "ROOM");
+        connectSlowClient();
+
+        fillSlowClientQueue();
+        for (int i = 0; i < 5; i++) {
+            broadcast(GameMessage.MessageType.GAME_STATE_SYNC, "stan " + i);
+        }
+
+        waitFor(() -> slowStats().collapsedFrames() == 4);
+    }
+
+    @Test
+    @DisplayName("Szybki klient odbiera serię ramek, a statystyki liczą zapisy")
+    void testFastClientStats() throws IOException, InterruptedException {
+        hostManager.startHost(TEST_PORT, "ROOM");
+        fastClient = new NetworkManager("fast");
+        java.util.concurrent.atomic.AtomicInteger received = new java.util.concurrent.atomic.AtomicInteger();
+        fastClient.setMessageHandler(msg -> {
+            if (msg.getType() == GameMessage.MessageType.DICE_RESULT) received.incrementAndGet();
+        });
+        fastClient.connectToHost("localhost", TEST_PORT, "Fast", "ROOM");
+        waitFor(() -> hostManager.getClientQueueStats().containsKey("fast"));
+
+        for (int i = 0; i < 200; i++) {
+            broadcast(GameMessage.MessageType.DICE_RESULT, i % 12 + 1);
+        }
+
+        waitFor(() -> received.get() == 200);
+        NioHostServer.QueueStats stats = hostManager.getClientQueueStats().get("fast");
+        assertEquals(0, stats.droppedFrames());
+        assertTrue(stats.writeCalls() <= stats.sentFrames());
+    }
+
+    @Test
+    @DisplayName("Wyjątek obsługi wiadomości zamyka tylko to połączenie, a pętla I/O działa dalej")
+    void testHandlerExceptionClosesOnlyConnection() throws IOException, InterruptedException {
+        // Jedna pętla I/O - obaj klienci na tym samym wątku
+        hostManager.setIoThreads(1);
+        hostManager.setMessageHandler(msg -> {
+            if (msg.getType() == GameMessage.MessageType.CHAT && "bad".equals(msg.getPayload())) {
+                throw new IllegalStateException("test");
+            }
+        });
+        hostManager.startHost(TEST_PORT, "ROOM");
+
+        NetworkManager badClient = new NetworkManager("bad");
+        try {
+            badClient.connectToHost("localhost", TEST_PORT, "Bad", "ROOM");
+            waitFor(() -> hostManager.getClientQueueStats().containsKey("bad"));
+            badClient.send(new GameMessage(GameMessage.MessageType.CHAT, "bad", "bad"));
+            waitFor(() -> !hostManager.getClientQueueStats().containsKey("bad"));
+        } finally {
+            badClient.stop();
+        }
+
+        // Nowy klient na tej samej pętli łączy się i odbiera wiadomości
+        List<Object> received = new CopyOnWriteArrayList<>();
+        fastClient = new NetworkManager("fast");
+        fastClient.setMessageHandler(msg -> {
+            if (msg.getType() == GameMessage.MessageType.CHAT) received.add(msg.getPayload());
+        });
+        fastClient.connectToHost("localhost", TEST_PORT, "Fast", "ROOM");
+        waitFor(() -> hostManager.getClientQueueStats().containsKey("fast"));
+        broadcast(GameMessage.MessageType.CHAT, "po błędzie");
+        waitFor(() -> received.contains("po błędzie"));
+    }
+}
@@ -0,0 +1,179 @@
+package com.kaluzaplotecka.milionerzy;
+
+import org.junit.jupiter.api.*;
+
+import com.kaluzaplotecka.milionerzy.model.Board;
+import com.kaluzaplotecka.milionerzy.model.GameState;
+import com.kaluzaplotecka.milionerzy.model.Player;
+import com.kaluzaplotecka.milionerzy.model.tiles.Tile;
+import com.kaluzaplotecka.milionerzy.network.EncodedMessage;
+import com.kaluzaplotecka.milionerzy.network.GameMessage;
+import com.kaluzaplotecka.milionerzy.network.NetworkManager;
+import com.kaluzaplotecka.milionerzy.network.ReplayBuffer;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static com.kaluzaplotecka.milionerzy.TestWait.waitFor;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Testy wznawiania sesji: klient łączy się przez {@link FaultInjectionProxy},
+ * które test może zerwać, a host dosyła pominięte broadcasty z bufora powtórek.
+ */
+public class ResumeTest {
+
+    private static final int HOST_PORT = 16672;
+    private static final int PROXY_PORT = 16673;
+
+    private NetworkManager hostManager;
+    private NetworkManager clientManager;
+    private FaultInjectionProxy proxy;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        hostManager = new NetworkManager("host");
+        clientManager = new NetworkManager("client");
+        proxy = new FaultInjectionProxy("localhost", HOST_PORT);
+        proxy.start(PROXY_PORT);
+    }
+
+    @AfterEach
+    void tearDown() throws IOException, InterruptedException {
+        clientManager.stop();
+        hostManager.stop();
+        proxy.stop();
+        Thread.sleep(100);
+    }
+
+    private void broadcastChat(String text) {
+        GameMessage msg = new GameMessage(GameMessage.MessageType.CHAT, "host", text);
+        msg.setBroadcast(true);
+        hostManager.send(msg);
+    }
+
+    @Test
+    @DisplayName("Bufor powtórek zwraca brakujące ramki albo null, gdy zostały nadpisane")
+    void testReplayBuffer() {
+        ReplayBuffer buffer = new ReplayBuffer(3);
+        assertEquals(List.of(), buffer.since(0));
+        for (long seq = 1; seq <= 3; seq++) {
+            buffer.add(seq, new EncodedMessage(new GameMessage(GameMessage.MessageType.CHAT, "host", seq)));
+        }
+
+        List<EncodedMessage> missed = buffer.since(1);
+        assertEquals(2, missed.size());
+        assertEquals(2L, missed.get(0).getMessage().getPayload());
+        assertEquals(3L, missed.get(1).getMessage().getPayload());
+        assertEquals(List.of(), buffer.since(3));
+
+        buffer.add(4, new EncodedMessage(new GameMessage(GameMessage.MessageType.CHAT, "host", 4L)));
+        assertEquals(3, buffer.size());
+        assertNull(buffer.since(0), "Ramka 1 została nadpisana");
+        assertEquals(3, buffer.since(1).size());
+        assertNull(buffer.since(7), "Klient nie może być dalej niż host");
+
+        buffer.add(5, new EncodedMessage(new GameMessage(GameMessage.MessageType.CHAT, "client", 5L)), "client");
+        assertEquals(1, buffer.since(4).size());
+        assertEquals(List.of(), buffer.since(4, "client"), "Nadawca nie dostaje własnej ramki");
+        assertEquals(2, buffer.since(3).size());
+        assertEquals(4L, buffer.since(3, "client").get(0).getMessage().getPayload());
+    }
+
+    @Test
+    @DisplayName("Po zerwaniu połączenia klient dostaje pominięte broadcasty raz i w kolejności")
+    void testResumeReplaysMissedBroadcasts() throws IOException, InterruptedException {
+        List<String> chats = new CopyOnWriteArrayList<>();
+        List<String> events = new CopyOnWriteArrayList<>();
+        clientManager.setMessageHandler(msg -> {
+            if (msg.getType() == GameMessage.MessageType.CHAT) chats.add((String) msg.getPayload());
+        });
+        clientManager.setConnectionHandler(events::add);
+
+        hostManager.startHost(HOST_PORT, "ROOM");
+        clientManager.connectToHost("localhost", PROXY_PORT, "Gracz", "ROOM");
+        waitFor(() -> hostManager.getClientQueueStats().containsKey("client"));
+
+        for (int i = 1; i <= 5; i++) broadcastChat("czat " + i);
+        waitFor(() -> chats.size() == 5);
+
+        proxy.resetConnections();
+        for (int i = 6; i <= 10; i++) broadcastChat("czat " + i);
+
+        waitFor(() -> chats.size() >= 10);
+        Thread.sleep(200);
+        List<String> expected = new ArrayList<>();
+        for (int i = 1; i <= 10; i++) expected.add("czat " + i);
+        assertEquals(expected, chats);
+        assertTrue(events.contains("Wznowiono połączenie z hostem"), "Zdarzenia: " + events);
+        assertFalse(events.contains("Rozłączono z hostem"));
+
+        // Po wznowieniu połączenie działa normalnie
+        broadcastChat("czat 11");
+        waitFor(() -> chats.size() == 11);
+        assertEquals(1, hostManager.getConnectedClientsCount());
+    }
+
+    @Test
+    @DisplayName("Powtórka po wznowieniu pomija wiadomości wysłane przez samego klienta")
+    void testResumeSkipsOwnRelayedMessages() throws IOException, InterruptedException {
+        List<String> chats = new CopyOnWriteArrayList<>();
+        List<String> hostChats = new CopyOnWriteArrayList<>();
+        clientManager.setMessageHandler(msg -> {
+            if (msg.getType() == GameMessage.MessageType.CHAT) chats.add((String) msg.getPayload());
+        });
+        hostManager.setMessageHandler(msg -> {
+            if (msg.getType() == GameMessage.MessageType.CHAT) hostChats.add((String) msg.getPayload());
+        });
+
+        hostManager.startHost(HOST_PORT, "ROOM");
+        clientManager.connectToHost("localhost", PROXY_PORT, "Gracz", "ROOM");
+        waitFor(() -> hostManager.getClientQueueStats().containsKey("client"));
+
+        // Relay czatu klienta to ostatnia ramka, której klient nie widział
+        GameMessage own = new GameMessage(GameMessage.MessageType.CHAT, "client", "mój czat");
+        own.setBroadcast(true);
+        clientManager.send(own);
+        waitFor(() -> hostChats.contains("mój czat"));
+
+        proxy.resetConnections();
+        broadcastChat("czat 1");
+
+        waitFor(() -> chats.contains("czat 1"));
+        Thread.sleep(200);
+        assertEquals(List.of("czat 1"), chats);
+    }
+
+    @Test
+    @DisplayName("Gdy bufor powtórek nie ma już brakujących ramek, klient dostaje snapshot")
+    void testResumeFallsBackToSnapshot() throws IOException, InterruptedException {
+        Player alice = new Player("client", "Alice", 1500);
+        GameState state = new GameState(new Board(new ArrayList<>(List.of(new Tile(0, "START")))),
+            new ArrayList<>(List.of(alice)));
+        hostManager.setGameStateProvider(() -> state);
+        hostManager.setReplayCapacity(2);
+
+        AtomicInteger snapshots = new AtomicInteger();
+        List<String> chats = new CopyOnWriteArrayList<>();
+        clientManager.setMessageHandler(msg -> {
+            if (msg.getType() == GameMessage.MessageType.GAME_STATE_SYNC) snapshots.incrementAndGet();
+            if (msg.getType() == GameMessage.MessageType.CHAT) chats.add((String) msg.getPayload());
+        });
+
+        hostManager.startHost(HOST_PORT, "ROOM");
+        clientManager.connectToHost("localhost", PROXY_PORT, "Gracz", "ROOM");
+        waitFor(() -> snapshots.get() == 1);
+
+        proxy.resetConnections();
+        for (int i = 1; i <= 5; i++) broadcastChat("czat " + i);
+
+        waitFor(() -> snapshots.get() == 2);
+        assertEquals(List.of(), chats, "Pominięte ramki są zastąpione snapshotem");
+
+        broadcastChat("czat 6");
+        waitFor(() -> chats.size() == 1);
+    }
+}
@@ -0,0 +1,250 @@
+package com.kaluzaplotecka.milionerzy;
+
+import org.junit.jupiter.api.*;
+
+import com.kaluzaplotecka.milionerzy.model.BoardFactory;
+import com.kaluzaplotecka.milionerzy.model.GameState;
+import com.kaluzaplotecka.milionerzy.model.Player;
+import com.kaluzaplotecka.milionerzy.network.CommandBatch;
+import com.kaluzaplotecka.milionerzy.network.GameAuthority;
+import com.kaluzaplotecka.milionerzy.network.GameMessage;
+import com.kaluzaplotecka.milionerzy.network.NetworkManager;
+import com.kaluzaplotecka.milionerzy.network.PendingMessageTracker;
+import com.kaluzaplotecka.milionerzy.network.RejectReason;
+import com.kaluzaplotecka.milionerzy.network.RttEstimator;
+import com.kaluzaplotecka.milionerzy.network.TimingWheel;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static com.kaluzaplotecka.milionerzy.TestWait.waitFor;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Testy adaptacyjnych timeoutów retransmisji i koła czasowego.
+ */
+public class RetransmitTest {
+
+    private static final int TEST_PORT = 16670;
+    private static final int PROXY_PORT = 16682;
+
+    @Test
+    @DisplayName("RTO zbiega do minimum w sieci lokalnej i rośnie wykładniczo przy ponowieniach")
+    void testRttEstimator() {
+        RttEstimator rtt = new RttEstimator();
+        assertEquals(RttEstimator.INITIAL_RTO_MS, rtt.getRtoMs());
+
+        for (int i = 0; i < 20; i++) rtt.addSample(2.0);
+        assertEquals(RttEstimator.MIN_RTO_MS, rtt.getRtoMs());
+        assertEquals(2.0, rtt.getSmoothedRttMs(), 0.5);
+
+        assertEquals(2 * RttEstimator.MIN_RTO_MS, rtt.timeoutFor(1));
+        assertEquals(4 * RttEstimator.MIN_RTO_MS, rtt.timeoutFor(2));
+        assertEquals(RttEstimator.MAX_RTO_MS, rtt.timeoutFor(30));
+
+        // Wolne łącze - RTO uwzględnia RTT i jego zmienność
+        for (int i = 0; i < 20; i++) rtt.addSample(i % 2 == 0 ? 300 : 500);
+        assertTrue(rtt.getRtoMs() > 500, "RTO powinien przekraczać największy RTT: " + rtt.getRtoMs());
+    }
+
+    @Test
+    @DisplayName("Koło czasowe wykonuje zadania po czasie i pomija anulowane")
+    void testTimingWheel() throws InterruptedException {
+        TimingWheel wheel = new TimingWheel(5, 8, "test-wheel");
+        try {
+            CountDownLatch fired = new CountDownLatch(2);
+            AtomicBoolean cancelledRan = new AtomicBoolean();
+            long start = System.nanoTime();
+
+            wheel.schedule(fired::countDown, 20);
+            // Dłużej niż jeden obrót koła (8 * 5 ms)
+            wheel.schedule(fired::countDown, 100);
+            wheel.schedule(() -> cancelledRan.set(true), 30).cancel();
+
+            assertTrue(fired.await(2, TimeUnit.SECONDS));
+            assertTrue(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) >= 100);
+            Thread.sleep(50);
+            assertFalse(cancelledRan.get(), "Anulowane zadanie nie może się wykonać");
+            assertEquals(0, wheel.getScheduledCount());
+        } finally {
+            wheel.stop();
+        }
+    }
+
+    @Test
+    @DisplayName("Nierozpoznana wiadomość jest ponawiana po adaptacyjnym timeout, a nie po 5 s")
+    void testAdaptiveRetransmission() throws IOException, InterruptedException {
+        NetworkManager host = new NetworkManager("host");
+        NetworkManager client = new NetworkManager("p1");
+        List<Long> received = new CopyOnWriteArrayList<>();
+        AtomicBoolean ackEnabled = new AtomicBoolean(true);
+        try {
+            host.setMessageHandler(msg -> {
+                if (msg.getType() != GameMessage.MessageType.ROLL_DICE) return;
+                received.add(msg.getSequence());
+                if (ackEnabled.get()) host.sendAck(msg.getSequence(), msg.getSenderId());
+            });
+
+            host.startHost(TEST_PORT, "ROOM");
+            client.connectToHost("localhost", TEST_PORT, "Gracz", "ROOM");
+            waitFor(() -> host.getClientQueueStats().containsKey("p1"));
+
+            // Pomiary RTT z potwierdzonych wiadomości obniżają RTO
+            for (int i = 0; i < 10; i++) {
+                client.send(new GameMessage(GameMessage.MessageType.ROLL_DICE, "p1"));
+                Thread.sleep(10);
+            }
+            waitFor(() -> client.getRetransmitStats().acknowledged() == 10);
+            long rto = client.getRetransmitStats().rtoMs();
+            assertTrue(rto < RttEstimator.INITIAL_RTO_MS, "RTO powinien spaść po pomiarach: " + rto);
+
+            // Host zwleka z potwierdzeniem - klient ponawia z tym samym numerem
+            ackEnabled.set(false);
+            long start = System.currentTimeMillis();
+            client.send(new GameMessage(GameMessage.MessageType.ROLL_DICE, "p1"));
+            waitFor(() -> client.getRetransmitStats().retries() >= 1);
+            assertTrue(System.currentTimeMillis() - start < 2000, "Ponowienie powinno nastąpić przed 2 s");
+            // Kopia czekającej komendy nie trafia drugi raz do logiki gry
+            waitFor(() -> host.getSuppressedDuplicates() >= 1);
+            assertEquals(1, received.stream().filter(seq -> seq == 11L).count());
+
+            // Spóźniony ACK potwierdza wiadomość
+            ackEnabled.set(true);
+            host.sendAck(11, "p1");
+            waitFor(() -> client.getRetransmitStats().pending() == 0);
+            PendingMessageTracker.Stats stats = client.getRetransmitStats();
+            assertEquals(11, stats.acknowledged());
+            assertEquals(0, stats.timeouts());
+        } finally {
+            client.stop();
+            host.stop();
+            Thread.sleep(100);
+        }
+    }
+
+    @Test
+    @DisplayName("Odrzucona komenda wraca od razu jako NACK z powodem, bez ponowień")
+    void testRejectedCommandNackedImmediately() throws IOException, InterruptedException {
+        List<Player> players = new ArrayList<>();
+        players.add(new Player("p1", "Ala", 1500));
+        players.add(new Player("p2", "Olek", 1500));
+        NetworkManager host = new NetworkManager("host");
+        GameAuthority authority = new GameAuthority(
+            new GameState(BoardFactory.createDefaultBoard(), players), host);
+        NetworkManager client = new NetworkManager("p2");
+        List<RejectReason> reasons = new CopyOnWriteArrayList<>();
+        try {
+            host.setMessageHandler(authority::submit);
+            host.startHost(TEST_PORT, "ROOM");
+            client.setNackCallback((msg, reason) -> reasons.add(reason));
+            client.connectToHost("localhost", TEST_PORT, "p2", "ROOM");
+            waitFor(() -> host.getClientQueueStats().containsKey("p2"));
+
+            // Tura p1 - rzut p2 odrzucony w jednej wymianie, a nie po timeoutach
+            long start = System.currentTimeMillis();
+            client.send(new GameMessage(GameMessage.MessageType.ROLL_DICE, "p2", 4));
+            waitFor(() -> reasons.size() == 1);
+            assertTrue(System.currentTimeMillis() - start < RttEstimator.INITIAL_RTO_MS,
+                "NACK przed pierwszym ponowieniem");
+            assertEquals(RejectReason.NOT_YOUR_TURN, reasons.get(0));
+
+            authority.submit(new GameMessage(GameMessage.MessageType.END_TURN, "p1", null));
+            client.send(new GameMessage(GameMessage.MessageType.BUY_PROPERTY, "p2"));
+            client.send(new GameMessage(GameMessage.MessageType.AUCTION_BID, "p2", 50));
+            waitFor(() -> reasons.size() == 3);
+            assertEquals(List.of(RejectReason.NOT_YOUR_TURN, RejectReason.NOT_ROLLED,
+                RejectReason.NO_ACTIVE_AUCTION), reasons);
+
+            // Poprawna komenda po odrzuconych nadal dostaje ACK
+            client.send(new GameMessage(GameMessage.MessageType.END_TURN, "p2"));
+            waitFor(() -> client.getRetransmitStats().pending() == 0
+                && client.getRetransmitStats().acknowledged() == 1);
+            PendingMessageTracker.Stats stats = client.getRetransmitStats();
+            assertEquals(3, stats.rejected());
+            assertEquals(0, stats.retries(), "Odrzucona komenda nie jest ponawiana");
+            assertEquals(0, stats.timeouts());
+        } finally {
+            client.stop();
+            authority.stop();
+            host.stop();
+            Thread.sleep(100);
+        }
+    }
+
+    @Test
+    @DisplayName("Paczka komend wykonuje całą turę w jednej wymianie z hostem")
+    void testCommandBatchSingleRoundTrip() throws IOException, InterruptedException {
+        List<Player> players = new ArrayList<>();
+        players.add(new Player("p1", "Ala", 1500));
+        players.add(new Player("p2", "Olek", 1500));
+        NetworkManager host = new NetworkManager("host");
+        GameAuthority authority = new GameAuthority(
+            new GameState(BoardFactory.createDefaultBoard(), players), host);
+        FaultInjectionProxy proxy = new FaultInjectionProxy("localhost", TEST_PORT);
+        NetworkManager client = new NetworkManager("p1");
+        List<RejectReason> reasons = new CopyOnWriteArrayList<>();
+        List<GameMessage> nacked = new CopyOnWriteArrayList<>();
+        try {
+            host.setMessageHandler(authority::submit);
+            host.startHost(TEST_PORT, "ROOM");
+            proxy.start(PROXY_PORT);
+            client.setNackCallback((msg, reason) -> {
+                nacked.add(msg);
+                reasons.add(reason);
+            });
+            client.connectToHost("localhost", PROXY_PORT, "p1", "ROOM");
+            waitFor(() -> host.getClientQueueStats().containsKey("p1"));
+
+            // 100 ms w każdą stronę - trzy osobne komendy to co najmniej 600 ms
+            proxy.setLatency(100, 0);
+            long start = System.currentTimeMillis();
+            client.send(CommandBatch.turn(0).toMessage("p1"));
+            waitFor(() -> client.getRetransmitStats().acknowledged() == 1);
+            long elapsed = System.currentTimeMillis() - start;
+            assertTrue(elapsed < 600, "Jedna wymiana zamiast trzech: " + elapsed + " ms");
+
+            // Rzut, ewentualny zakup i koniec tury - tura przeszła na p2
+            assertEquals("p2", authority.query(s -> s.getCurrentPlayer().getId()).join());
+            assertNotEquals(0, (int) authority.query(s -> s.getPlayers().get(0).getPosition()).join());
+            assertEquals(0, client.getRetransmitStats().retries());
+
+            // Cała paczka odrzucona jednym NACK - pierwszy krok nie w turze gracza
+            client.send(CommandBatch.turn(0).toMessage("p1"));
+            waitFor(() -> reasons.size() == 1);
+            assertEquals(RejectReason.NOT_YOUR_TURN, reasons.get(0));
+            assertEquals(0, nacked.get(0).getStepsApplied(), "Nic nie wykonano");
+
+            client.send(new GameMessage(GameMessage.MessageType.COMMAND_BATCH, "p1", new int[]{1, 2}));
+            waitFor(() -> reasons.size() == 2);
+            assertEquals(RejectReason.INVALID_PAYLOAD, reasons.get(1));
+            assertEquals("p2", authority.query(s -> s.getCurrentPlayer().getId()).join());
+            assertEquals(2, client.getRetransmitStats().rejected());
+
+            // Paczka przerwana po rzucie - NACK podaje liczbę wykonanych kroków
+            authority.submit(new GameMessage(GameMessage.MessageType.END_TURN, "p2", null));
+            int position = authority.query(s -> s.getPlayers().get(0).getPosition()).join();
+            client.send(new CommandBatch()
+                .then(GameMessage.MessageType.ROLL_DICE)
+                .then(GameMessage.MessageType.AUCTION_BID, 50)
+                .toMessage("p1"));
+            waitFor(() -> reasons.size() == 3);
+            assertEquals(RejectReason.NO_ACTIVE_AUCTION, reasons.get(2));
+            assertEquals(1, nacked.get(2).getStepsApplied());
+            assertEquals("NO_ACTIVE_AUCTION", nacked.get(2).getNackReason(), "Powód to sam kod");
+            assertNotEquals(position, (int) authority.query(s -> s.getPlayers().get(0).getPosition()).join());
+            assertEquals(1, client.getRetransmitStats().partial());
+            assertEquals(2, client.getRetransmitStats().rejected());
+        } finally {
+            client.stop();
+            proxy.stop();
+            authority.stop();
+            host.stop();
+            Thread.sleep(100);
+        }
+    }
+}
@@ -0,0 +1,156 @@
+package com.kaluzaplotecka.milionerzy;
+
+import org.junit.jupiter.api.*;
+
+import com.kaluzaplotecka.milionerzy.network.FrameCodec;
+import com.kaluzaplotecka.milionerzy.network.GameMessage;
+import com.kaluzaplotecka.milionerzy.network.NetworkManager;
+import com.kaluzaplotecka.milionerzy.network.RoomServer;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static com.kaluzaplotecka.milionerzy.TestWait.waitFor;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.Socket;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Testy serwera wielu pokoi: kierowanie po kodzie pokoju, izolacja
+ * broadcastów i zamykanie pustych pokoi.
+ */
+public class RoomServerTest {
+
+    private static final int TEST_PORT = 16674;
+
+    private RoomServer server;
+    private final List<NetworkManager> clients = new ArrayList<>();
+    private final Map<String, List<String>> roomMessages = new ConcurrentHashMap<>();
+    private final List<String> closedRooms = new CopyOnWriteArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        server = new RoomServer();
+        server.setIoThreads(2);
+        server.setRoomCreatedCallback((code, room) -> {
+            List<String> messages = new CopyOnWriteArrayList<>();
+            roomMessages.put(code, messages);
+            room.setMessageHandler(msg -> {
+                if (msg.getType() == GameMessage.MessageType.CHAT) messages.add((String) msg.getPayload());
+            });
+        });
+        server.setRoomClosedCallback((code, room) -> closedRooms.add(code));
+    }
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        for (NetworkManager client : clients) client.stop();
+        server.stop();
+        Thread.sleep(100);
+    }
+
+    private NetworkManager join(String playerId, String roomCode, List<String> chats) throws IOException {
+        NetworkManager client = new NetworkManager(playerId);
+        client.setMessageHandler(msg -> {
+            if (msg.getType() == GameMessage.MessageType.CHAT) chats.add((String) msg.getPayload());
+        });
+        client.connectToHost("localhost", TEST_PORT, playerId, roomCode);
+        clients.add(client);
+        return client;
+    }
+
+    private void chat(NetworkManager client, String text) {
+        GameMessage msg = new GameMessage(GameMessage.MessageType.CHAT, client.getPlayerId(), text);
+        msg.setBroadcast(true);
+        client.send(msg);
+    }
+
+    @Test
+    @DisplayName("Gracze są kierowani do pokoi po kodzie, a broadcasty nie wychodzą poza pokój")
+    void testRoomsAreIsolated() throws IOException, InterruptedException {
+        server.start(TEST_PORT);
+        List<String> a1Chats = new CopyOnWriteArrayList<>();
+        List<String> a2Chats = new CopyOnWriteArrayList<>();
+        List<String> b1Chats = new CopyOnWriteArrayList<>();
+        NetworkManager a1 = join("a1", "ALPHA", a1Chats);
+        join("a2", "ALPHA", a2Chats);
+        NetworkManager b1 = join("b1", "BETA", b1Chats);
+
+        waitFor(() -> server.getRoom("ALPHA") != null && server.getRoom("ALPHA").getConnectedClientsCount() == 2
+            && server.getRoom("BETA") != null && server.getRoom("BETA").getConnectedClientsCount() == 1);
+        assertEquals(2, server.getRoomCount());
+
+        chat(a1, "cześć alfa");
+        chat(b1, "cześć beta");
+        waitFor(() -> a2Chats.size() == 1 && roomMessages.get("BETA").size() == 1);
+        Thread.sleep(200);
+
+        assertEquals(List.of("cześć alfa"), a2Chats);
+        assertEquals(List.of(), a1Chats, "Nadawca nie dostaje własnego broadcastu");
+        assertEquals(List.of(), b1Chats, "Broadcast z innego pokoju nie może dotrzeć");
+        assertEquals(List.of("cześć alfa"), roomMessages.get("ALPHA"));
+        assertEquals(List.of("cześć beta"), roomMessages.get("BETA"));
+    }
+
+    @Test
+    @DisplayName("Pusty pokój jest zamykany po czasie bezczynności")
+    void testEmptyRoomClosed() throws IOException, InterruptedException {
+        server.setEmptyRoomTimeout(100);
+        server.start(TEST_PORT);
+        NetworkManager client = join("p1", "GAMMA", new CopyOnWriteArrayList<>());
+        waitFor(() -> server.getRoomCount() == 1);
+
+        client.stop();
+        waitFor(() -> server.getRoomCount() == 0);
+        assertEquals(List.of("GAMMA"), closedRooms);
+    }
+
+    @Test
+    @DisplayName("Po osiągnięciu limitu pokoi nowy kod jest odrzucany")
+    void testMaxRooms() throws IOException, InterruptedException {
+        server.setMaxRooms(1);
+        server.start(TEST_PORT);
+        join("p1", "ONE", new CopyOnWriteArrayList<>());
+        waitFor(() -> server.getRoomCount() == 1);
+
+        List<String> rejected = new CopyOnWriteArrayList<>();
+        NetworkManager extra = new NetworkManager("p2");
+        extra.setMessageHandler(msg -> {
+            if (msg.getType() == GameMessage.MessageType.DISCONNECT) rejected.add((String) msg.getPayload());
+        });
+        extra.connectToHost("localhost", TEST_PORT, "p2", "TWO");
+        clients.add(extra);
+
+        waitFor(() -> rejected.contains("Server full"));
+        assertEquals(List.of("ONE"), server.getRoomCodes());
+    }
+
+    @Test
+    @DisplayName("CONNECT bez ID lub nazwy gracza jest odrzucany bez zakładania pokoju")
+    void testConnectWithoutSenderRejected() throws IOException, InterruptedException {
+        server.start(TEST_PORT);
+        try (Socket raw = new Socket("localhost", TEST_PORT)) {
+            raw.setSoTimeout(5000);
+            OutputStream out = raw.getOutputStream();
+            out.write(FrameCodec.encode(new GameMessage(GameMessage.MessageType.CONNECT, null,
+                new String[]{"ROOM1", null})));
+            out.flush();
+            // Host odsyła DISCONNECT i zamyka połączenie
+            InputStream in = raw.getInputStream();
+            while (in.read() != -1) { /* do końca strumienia */ }
+        }
+        assertEquals(0, server.getRoomCount());
+
+        List<String> chats = new CopyOnWriteArrayList<>();
+        NetworkManager p1 = join("p1", "ROOM1", chats);
+        join("p2", "ROOM1", chats);
+        waitFor(() -> server.getRoomCount() == 1 && server.getRoom("ROOM1").getConnectedClientsCount() == 2);
+        chat(p1, "po odrzuceniu");
+        waitFor(() -> chats.contains("po odrzuceniu"));
+    }
+}
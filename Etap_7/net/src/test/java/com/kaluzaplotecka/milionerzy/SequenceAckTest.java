@@ -0,0 +1,107 @@
+package com.kaluzaplotecka.milionerzy;
+
+import org.junit.jupiter.api.*;
+
+import com.kaluzaplotecka.milionerzy.network.AckWindow;
+import com.kaluzaplotecka.milionerzy.network.DedupWindow;
+import com.kaluzaplotecka.milionerzy.network.GameMessage;
+import com.kaluzaplotecka.milionerzy.network.NetworkManager;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static com.kaluzaplotecka.milionerzy.TestWait.waitFor;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Testy numerów sekwencyjnych i zbiorczych potwierdzeń ACK.
+ */
+public class SequenceAckTest {
+
+    private static final int TEST_PORT = 16669;
+
+    @Test
+    @DisplayName("Okno ACK łączy numery w potwierdzenie skumulowane i przedziały")
+    void testAckWindowRanges() {
+        AckWindow window = new AckWindow();
+        assertTrue(window.record(1), "Pierwszy numer powinien zaplanować wysłanie ACK");
+        assertFalse(window.record(2), "Kolejne numery idą w tym samym ACK");
+        window.record(4);
+        window.record(6);
+        window.record(7);
+
+        GameMessage ack = GameMessage.createAck(0, null, "host", "p1");
+        assertTrue(window.attachTo(ack));
+        assertEquals(2, ack.getAckThrough());
+        assertArrayEquals(new long[]{4, 4, 6, 7}, ack.getAckRanges());
+        assertFalse(window.attachTo(GameMessage.createAck(0, null, "host", "p1")), "Nic nowego do potwierdzenia");
+
+        // Wypełnienie luk scala przedziały z potwierdzeniem skumulowanym
+        assertTrue(window.record(3));
+        window.record(5);
+        assertEquals(7, window.getAckedThrough());
+        assertNull(window.getRanges());
+    }
+
+    @Test
+    @DisplayName("Okno duplikatów pamięta wynik ostatnich komend w stałej pamięci")
+    void testDedupWindow() {
+        DedupWindow window = new DedupWindow();
+        assertEquals(DedupWindow.Verdict.NEW, window.check(1));
+        assertEquals(DedupWindow.Verdict.IN_FLIGHT, window.check(1), "Wynik jeszcze nieznany");
+        window.complete(1, null);
+        assertEquals(DedupWindow.Verdict.ACKED, window.check(1));
+
+        assertEquals(DedupWindow.Verdict.NEW, window.check(2));
+        window.complete(2, "NOT_YOUR_TURN");
+        assertEquals(DedupWindow.Verdict.REJECTED, window.check(2));
+        assertEquals("NOT_YOUR_TURN", window.getRejectReason(2));
+
+        // Nowsze numery wypychają najstarsze z okna
+        for (long seq = 3; seq <= DedupWindow.CAPACITY + 2; seq++) {
+            assertEquals(DedupWindow.Verdict.NEW, window.check(seq));
+            window.complete(seq, null);
+        }
+        assertEquals(DedupWindow.Verdict.EXPIRED, window.check(1));
+        assertEquals(DedupWindow.Verdict.EXPIRED, window.check(2));
+        assertNull(window.getRejectReason(2));
+        assertEquals(DedupWindow.Verdict.ACKED, window.check(3));
+    }
+
+    @Test
+    @DisplayName("Host potwierdza wiadomości klienta zbiorczo, pominięte zostają oczekujące")
+    void testHostAcknowledgesBySequence() throws IOException, InterruptedException {
+        NetworkManager host = new NetworkManager("host");
+        NetworkManager client = new NetworkManager("p1");
+        List<GameMessage> acked = new CopyOnWriteArrayList<>();
+        List<Long> received = new CopyOnWriteArrayList<>();
+        try {
+            // Host przetwarza tylko co drugą wiadomość
+            host.setMessageHandler(msg -> {
+                if (msg.getType() != GameMessage.MessageType.ROLL_DICE) return;
+                received.add(msg.getSequence());
+                if (msg.getSequence() % 2 == 1) host.sendAck(msg.getSequence(), msg.getSenderId());
+            });
+            client.setAckCallback(acked::add);
+
+            host.startHost(TEST_PORT, "ROOM");
+            client.connectToHost("localhost", TEST_PORT, "Gracz", "ROOM");
+            waitFor(() -> host.getConnectedClientsCount() == 1 && host.getClientQueueStats().containsKey("p1"));
+
+            for (int i = 0; i < 6; i++) {
+                client.send(new GameMessage(GameMessage.MessageType.ROLL_DICE, "p1"));
+            }
+
+            waitFor(() -> acked.size() == 3);
+            assertEquals(List.of(1L, 2L, 3L, 4L, 5L, 6L), received, "Numery rosną w obrębie połączenia");
+            assertEquals(3, client.getPendingTracker().getPendingCount());
+            assertTrue(client.getPendingTracker().isPending(2));
+            assertFalse(client.getPendingTracker().isPending(3));
+        } finally {
+            client.stop();
+            host.stop();
+            Thread.sleep(100);
+        }
+    }
+}
@@ -0,0 +1,107 @@
+package com.kaluzaplotecka.milionerzy;
+
+import org.junit.jupiter.api.*;
+
+import com.kaluzaplotecka.milionerzy.model.BoardFactory;
+import com.kaluzaplotecka.milionerzy.model.GameSnapshot;
+import com.kaluzaplotecka.milionerzy.model.GameState;
+import com.kaluzaplotecka.milionerzy.model.Player;
+import com.kaluzaplotecka.milionerzy.network.EncodedMessage;
+import com.kaluzaplotecka.milionerzy.network.GameMessage;
+import com.kaluzaplotecka.milionerzy.network.NetworkManager;
+import com.kaluzaplotecka.milionerzy.network.SnapshotCache;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static com.kaluzaplotecka.milionerzy.TestWait.waitFor;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Testy zakodowanego snapshotu wysyłanego dołączającym klientom.
+ */
+public class SnapshotCacheTest {
+
+    private static final int TEST_PORT = 16676;
+
+    private final List<NetworkManager> managers = new ArrayList<>();
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        for (NetworkManager manager : managers) manager.stop();
+        Thread.sleep(100);
+    }
+
+    private static GameMessage sync(String payload) {
+        return new GameMessage(GameMessage.MessageType.GAME_STATE_SYNC, "host", payload);
+    }
+
+    @Test
+    @DisplayName("Ta sama wersja stanu - ta sama zakodowana wiadomość")
+    void testCacheInvalidatedLazily() {
+        SnapshotCache cache = new SnapshotCache();
+        AtomicInteger builds = new AtomicInteger();
+
+        EncodedMessage first = cache.get(1, () -> { builds.incrementAndGet(); return sync("v1"); });
+        EncodedMessage again = cache.get(1, () -> { builds.incrementAndGet(); return sync("v1"); });
+        assertSame(first, again);
+        assertEquals(1, builds.get());
+
+        EncodedMessage newVersion = cache.get(2, () -> { builds.incrementAndGet(); return sync("v2"); });
+        assertNotSame(first, newVersion);
+        assertEquals("v2", newVersion.getMessage().getPayload());
+        assertEquals(2, builds.get());
+
+        cache.invalidate();
+        cache.get(2, () -> { builds.incrementAndGet(); return sync("v2"); });
+        assertEquals(3, builds.get());
+        assertEquals(3, cache.getBuildCount());
+    }
+
+    @Test
+    @DisplayName("Kilku dołączających dostaje jeden raz zbudowany snapshot")
+    void testJoinersShareSnapshot() throws IOException, InterruptedException {
+        List<Player> players = new ArrayList<>();
+        players.add(new Player("host", "Host", 1500));
+        GameState state = new GameState(BoardFactory.createDefaultBoard(), players);
+        state.setStateVersion(5);
+        GameSnapshot snapshot = GameSnapshot.of(state);
+
+        NetworkManager host = new NetworkManager("host");
+        managers.add(host);
+        host.setSnapshotProvider(() -> snapshot);
+        host.startHost(TEST_PORT, "ROOM");
+
+        AtomicInteger received = new AtomicInteger();
+        AtomicReference<GameState> last = new AtomicReference<>();
+        List<String> lastClientJoins = new CopyOnWriteArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            NetworkManager client = new NetworkManager("client" + i);
+            managers.add(client);
+            boolean lastClient = i == 2;
+            client.setMessageHandler(msg -> {
+                if (msg.getType() == GameMessage.MessageType.GAME_STATE_SYNC
+                        && msg.getPayload() instanceof GameState synced) {
+                    last.set(synced);
+                    received.incrementAndGet();
+                }
+                if (lastClient && msg.getType() == GameMessage.MessageType.CONNECT) {
+                    lastClientJoins.add(msg.getSenderId());
+                }
+            });
+            client.connectToHost("localhost", TEST_PORT, "Gracz " + i, "ROOM");
+            int expected = i + 1;
+            waitFor(() -> received.get() == expected);
+        }
+
+        assertEquals(1, host.getSnapshotBuildCount(), "Stan zakodowany raz dla wszystkich");
+        assertEquals(5, last.get().getStateVersion());
+        // Broadcasty od zbudowania snapshotu dosłane z bufora powtórek
+        waitFor(() -> lastClientJoins.size() == 2);
+        assertEquals(List.of("client0", "client1"), lastClientJoins);
+    }
+}
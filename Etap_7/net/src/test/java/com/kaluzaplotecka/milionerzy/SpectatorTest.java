@@ -0,0 +1,151 @@
+package com.kaluzaplotecka.milionerzy;
+
+import org.junit.jupiter.api.*;
+
+import com.kaluzaplotecka.milionerzy.model.Board;
+import com.kaluzaplotecka.milionerzy.model.GameState;
+import com.kaluzaplotecka.milionerzy.model.Player;
+import com.kaluzaplotecka.milionerzy.model.tiles.Tile;
+import com.kaluzaplotecka.milionerzy.network.FrameCodec;
+import com.kaluzaplotecka.milionerzy.network.GameMessage;
+import com.kaluzaplotecka.milionerzy.network.NetworkManager;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static com.kaluzaplotecka.milionerzy.TestWait.waitFor;
+
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.net.Socket;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Testy widzów: strumień tylko do odczytu, bez komunikatów dla graczy,
+ * z opcjonalnym opóźnieniem i bez wpływu widzów na autorytet gry.
+ */
+public class SpectatorTest {
+
+    private static final int TEST_PORT = 16677;
+
+    private NetworkManager host;
+    private final List<NetworkManager> clients = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        host = new NetworkManager("host");
+        GameState state = new GameState(new Board(new ArrayList<>(List.of(new Tile(0, "START")))),
+            new ArrayList<>(List.of(new Player("player", "Ala", 1500))));
+        host.setGameStateProvider(() -> state);
+    }
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        for (NetworkManager client : clients) client.stop();
+        host.stop();
+        Thread.sleep(100);
+    }
+
+    private NetworkManager connect(String id, boolean spectator, List<GameMessage> received) throws IOException {
+        NetworkManager client = new NetworkManager(id);
+        clients.add(client);
+        client.setMessageHandler(received::add);
+        if (spectator) {
+            client.connectAsSpectator("localhost", TEST_PORT, id, "ROOM");
+        } else {
+            client.connectToHost("localhost", TEST_PORT, id, "ROOM");
+        }
+        return client;
+    }
+
+    private static boolean hasType(List<GameMessage> messages, GameMessage.MessageType type) {
+        return messages.stream().anyMatch(m -> m.getType() == type);
+    }
+
+    private void broadcast(GameMessage.MessageType type, Object payload) {
+        GameMessage msg = new GameMessage(type, "host", payload);
+        msg.setBroadcast(true);
+        host.send(msg);
+    }
+
+    @Test
+    @DisplayName("Widz dostaje snapshot i zmiany stanu, ale nie komunikaty dla graczy")
+    void testSpectatorStream() throws IOException, InterruptedException {
+        List<GameMessage> hostReceived = new CopyOnWriteArrayList<>();
+        host.setMessageHandler(hostReceived::add);
+        host.startHost(TEST_PORT, "ROOM");
+
+        List<GameMessage> playerReceived = new CopyOnWriteArrayList<>();
+        List<GameMessage> spectatorReceived = new CopyOnWriteArrayList<>();
+        connect("player", false, playerReceived);
+        NetworkManager spectator = connect("watcher", true, spectatorReceived);
+
+        waitFor(() -> hasType(spectatorReceived, GameMessage.MessageType.GAME_STATE_SYNC));
+        assertEquals(1, host.getConnectedClientsCount(), "Widz nie jest graczem");
+        assertEquals(1, host.getSpectatorCount());
+        assertTrue(spectator.isSpectator());
+
+        broadcast(GameMessage.MessageType.PROPERTY_OFFER, 1);
+        broadcast(GameMessage.MessageType.CHAT, "hej");
+        waitFor(() -> hasType(playerReceived, GameMessage.MessageType.CHAT)
+            && hasType(spectatorReceived, GameMessage.MessageType.CHAT));
+        assertTrue(hasType(playerReceived, GameMessage.MessageType.PROPERTY_OFFER));
+        assertFalse(hasType(spectatorReceived, GameMessage.MessageType.PROPERTY_OFFER));
+
+        // Komendy widza nie wychodzą, a gracze nie widzą jego dołączenia
+        spectator.send(new GameMessage(GameMessage.MessageType.ROLL_DICE, "watcher", null));
+        Thread.sleep(200);
+        assertFalse(hasType(hostReceived, GameMessage.MessageType.ROLL_DICE));
+        assertTrue(hostReceived.stream().noneMatch(m -> "watcher".equals(m.getSenderId())));
+    }
+
+    @Test
+    @DisplayName("Host odrzuca komendy z połączenia widza")
+    void testHostIgnoresSpectatorCommands() throws IOException, InterruptedException {
+        List<GameMessage> hostReceived = new CopyOnWriteArrayList<>();
+        host.setMessageHandler(hostReceived::add);
+        host.startHost(TEST_PORT, "ROOM");
+
+        // Zmodyfikowany klient: deklaruje się jako widz, a potem wysyła komendy
+        try (Socket socket = new Socket("localhost", TEST_PORT)) {
+            DataOutputStream out = new DataOutputStream(socket.getOutputStream());
+            out.write(FrameCodec.encode(new GameMessage(GameMessage.MessageType.CONNECT, "rogue",
+                new String[]{"ROOM", "rogue", FrameCodec.supportedCodecNames(), NetworkManager.SPECTATOR_FLAG})));
+            waitFor(() -> host.getSpectatorCount() == 1);
+            GameMessage roll = new GameMessage(GameMessage.MessageType.ROLL_DICE, "rogue", null);
+            out.write(FrameCodec.encode(roll));
+            GameMessage chat = new GameMessage(GameMessage.MessageType.CHAT, "rogue", "spam");
+            chat.setBroadcast(true);
+            out.write(FrameCodec.encode(chat));
+            out.flush();
+            Thread.sleep(300);
+        }
+
+        assertTrue(hostReceived.isEmpty(), "Żadna wiadomość widza nie trafia do gry");
+        waitFor(() -> host.getSpectatorCount() == 0);
+    }
+
+    @Test
+    @DisplayName("Strumień widzów jest opóźniony, a gracze dostają ramki od razu")
+    void testDelayedSpectatorStream() throws IOException, InterruptedException {
+        host.setSpectatorDelayMs(400);
+        host.startHost(TEST_PORT, "ROOM");
+
+        List<GameMessage> playerReceived = new CopyOnWriteArrayList<>();
+        List<GameMessage> spectatorReceived = new CopyOnWriteArrayList<>();
+        connect("player", false, playerReceived);
+        connect("watcher", true, spectatorReceived);
+        waitFor(() -> host.getSpectatorCount() == 1 && host.getConnectedClientsCount() == 1);
+        waitFor(() -> hasType(spectatorReceived, GameMessage.MessageType.GAME_STATE_SYNC));
+
+        long sentAt = System.currentTimeMillis();
+        broadcast(GameMessage.MessageType.CHAT, "opóźnione");
+        waitFor(() -> hasType(playerReceived, GameMessage.MessageType.CHAT));
+        long playerLatency = System.currentTimeMillis() - sentAt;
+        waitFor(() -> hasType(spectatorReceived, GameMessage.MessageType.CHAT));
+        long spectatorLatency = System.currentTimeMillis() - sentAt;
+
+        assertTrue(playerLatency < 400, "Gracz bez opóźnienia: " + playerLatency + " ms");
+        assertTrue(spectatorLatency >= 400, "Widz z opóźnieniem: " + spectatorLatency + " ms");
+    }
+}
@@ -0,0 +1,28 @@
+package com.kaluzaplotecka.milionerzy;
+
+import static org.junit.jupiter.api.Assertions.fail;
+
+import java.util.function.BooleanSupplier;
+
+/**
+ * Czekanie na warunek w testach sieci - wiadomości docierają z wątków I/O,
+ * więc test sprawdza warunek co chwilę aż do limitu czasu.
+ */
+final class TestWait {
+
+    private static final long TIMEOUT_MS = 5000;
+    private static final long POLL_MS = 20;
+
+    private TestWait() {}
+
+    /**
+     * Czeka, aż warunek będzie spełniony, albo oblewa test po 5 sekundach.
+     */
+    static void waitFor(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + TIMEOUT_MS;
+        while (!condition.getAsBoolean()) {
+            if (System.currentTimeMillis() > deadline) fail("Warunek nie został spełniony w czasie");
+            Thread.sleep(POLL_MS);
+        }
+    }
+}
@@ -0,0 +1,224 @@
+package com.kaluzaplotecka.milionerzy;
+
+import org.junit.jupiter.api.*;
+
+import com.kaluzaplotecka.milionerzy.model.Auction;
+import com.kaluzaplotecka.milionerzy.model.Board;
+import com.kaluzaplotecka.milionerzy.model.GameState;
+import com.kaluzaplotecka.milionerzy.model.Player;
+import com.kaluzaplotecka.milionerzy.model.tiles.PropertyTile;
+import com.kaluzaplotecka.milionerzy.model.tiles.Tile;
+import com.kaluzaplotecka.milionerzy.network.BinaryWireCodec;
+import com.kaluzaplotecka.milionerzy.network.EncodedMessage;
+import com.kaluzaplotecka.milionerzy.network.FrameCodec;
+import com.kaluzaplotecka.milionerzy.network.GameMessage;
+import com.kaluzaplotecka.milionerzy.network.JavaSerializationCodec;
+import com.kaluzaplotecka.milionerzy.network.NetworkManager;
+import com.kaluzaplotecka.milionerzy.network.StateDelta;
+import com.kaluzaplotecka.milionerzy.network.StateDeltaTracker;
+import com.kaluzaplotecka.milionerzy.network.WireCodec;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Testy kodeków ramek: binarnego i serializacji Javy oraz ich uzgadniania.
+ */
+public class WireCodecTest {
+
+    private static final int TEST_PORT = 16667;
+
+    private static GameMessage roundTrip(GameMessage msg, WireCodec codec) throws IOException {
+        byte[] frame = FrameCodec.encode(msg, codec);
+        return FrameCodec.decode(frame, FrameCodec.HEADER_SIZE, frame.length - FrameCodec.HEADER_SIZE);
+    }
+
+    @Test
+    @DisplayName("Kodek binarny zachowuje pola wiadomości i proste payloady")
+    void testBinaryRoundTripSimplePayloads() throws IOException {
+        GameMessage move = new GameMessage(GameMessage.MessageType.MOVE, "p1", "p2", 17);
+        move.setBroadcast(true);
+        GameMessage decoded = roundTrip(move, BinaryWireCodec.INSTANCE);
+
+        assertEquals(move.getSequence(), decoded.getSequence());
+        assertEquals(GameMessage.MessageType.MOVE, decoded.getType());
+        assertEquals("p1", decoded.getSenderId());
+        assertEquals("p2", decoded.getTargetId());
+        assertEquals(move.getTimestamp(), decoded.getTimestamp());
+        assertTrue(decoded.isBroadcast());
+        assertEquals(17, decoded.getPayload());
+
+        GameMessage money = roundTrip(new GameMessage(GameMessage.MessageType.MONEY_UPDATE, "p1", -250),
+            BinaryWireCodec.INSTANCE);
+        assertEquals(-250, money.getPayload());
+
+        GameMessage dice = roundTrip(new GameMessage(GameMessage.MessageType.ROLL_DICE, "p1", new int[]{3, 4}),
+            BinaryWireCodec.INSTANCE);
+        assertArrayEquals(new int[]{3, 4}, (int[]) dice.getPayload());
+
+        GameMessage connect = roundTrip(new GameMessage(GameMessage.MessageType.CONNECT, "p1",
+            new String[]{"ROOM", "Gracz", null}), BinaryWireCodec.INSTANCE);
+        assertArrayEquals(new String[]{"ROOM", "Gracz", null}, (String[]) connect.getPayload());
+
+        GameMessage nack = roundTrip(GameMessage.createNack(42L, "host", "p1", "Nie twoja tura"),
+            BinaryWireCodec.INSTANCE);
+        assertEquals(42L, nack.getNackFor());
+        assertEquals("Nie twoja tura", nack.getNackReason());
+        assertNull(nack.getPayload());
+        assertEquals(0, nack.getStepsApplied());
+
+        GameMessage batchNack = roundTrip(GameMessage.createNack(43L, "host", "p1", "ALREADY_ROLLED", 2),
+            BinaryWireCodec.INSTANCE);
+        assertEquals("ALREADY_ROLLED", batchNack.getNackReason());
+        assertEquals(2, batchNack.getStepsApplied());
+
+        GameMessage ack = roundTrip(GameMessage.createAck(7L, new long[]{9, 12, 20, 20}, "host", "p1"),
+            BinaryWireCodec.INSTANCE);
+        assertEquals(7L, ack.getAckThrough());
+        assertArrayEquals(new long[]{9, 12, 20, 20}, ack.getAckRanges());
+    }
+
+    @Test
+    @DisplayName("Numery typów wiadomości w kodeku binarnym się nie zmieniają")
+    void testStableTypeNumbers() {
+        // Ramki "bin2" niosą numer typu - nowe typy tylko na końcu enuma
+        assertEquals(0, GameMessage.MessageType.CONNECT.ordinal());
+        assertEquals(2, GameMessage.MessageType.DISCONNECT.ordinal());
+        assertEquals(11, GameMessage.MessageType.ROLL_DICE.ordinal());
+        assertEquals(18, GameMessage.MessageType.END_TURN.ordinal());
+        assertEquals(26, GameMessage.MessageType.CHAT.ordinal());
+        assertEquals(31, GameMessage.MessageType.ERROR.ordinal());
+        assertEquals(32, GameMessage.MessageType.RESUME.ordinal());
+        assertEquals(33, GameMessage.MessageType.LOCKSTEP_COMMAND.ordinal());
+        assertEquals(34, GameMessage.MessageType.COMMAND_BATCH.ordinal());
+    }
+
+    @Test
+    @DisplayName("Kodek binarny koduje nieruchomość, aukcję i różnicę stanu")
+    void testBinaryRoundTripGamePayloads() throws IOException {
+        Player alice = new Player("a", "Alice", 1500);
+        Player bob = new Player("b", "Bob", 900);
+        PropertyTile tile = new PropertyTile(3, "Kielce", 140, 30);
+        tile.setHouses(2);
+
+        GameMessage offer = roundTrip(new GameMessage(GameMessage.MessageType.PROPERTY_OFFER, "a", tile),
+            BinaryWireCodec.INSTANCE);
+        PropertyTile decodedTile = (PropertyTile) offer.getPayload();
+        assertEquals(3, decodedTile.getPosition());
+        assertEquals("Kielce", decodedTile.getCity());
+        assertEquals(140, decodedTile.getPrice());
+        assertEquals(30, decodedTile.getBaseRent());
+        assertEquals(2, decodedTile.getHouses());
+
+        Auction auction = new Auction(tile, List.of(alice, bob));
+        auction.placeBid(alice, 50);
+        auction.pass(bob);
+        GameMessage start = roundTrip(new GameMessage(GameMessage.MessageType.AUCTION_START, "host", auction),
+            BinaryWireCodec.INSTANCE);
+        Auction decodedAuction = (Auction) start.getPayload();
+        assertEquals(auction.getId(), decodedAuction.getId());
+        assertEquals(50, decodedAuction.getHighestBid());
+        assertEquals("a", decodedAuction.getHighestBidder().getId());
+        assertEquals(List.of(bob), decodedAuction.getPassedPlayers());
+        assertEquals(auction.getStatus(), decodedAuction.getStatus());
+
+        List<Tile> tiles = new ArrayList<>(List.of(new Tile(0, "START"), tile));
+        GameState state = new GameState(new Board(tiles), new ArrayList<>(List.of(alice, bob)));
+        StateDeltaTracker tracker = new StateDeltaTracker();
+        tracker.captureBaseline(state);
+        alice.addMoney(100);
+        tile.setOwner(bob);
+        bob.addProperty(tile);
+        StateDelta delta = tracker.diff(state);
+
+        GameMessage deltaMsg = roundTrip(new GameMessage(GameMessage.MessageType.STATE_DELTA, "host", delta),
+            BinaryWireCodec.INSTANCE);
+        StateDelta decodedDelta = (StateDelta) deltaMsg.getPayload();
+        assertEquals(delta.getBaseVersion(), decodedDelta.getBaseVersion());
+        assertEquals(delta.getVersion(), decodedDelta.getVersion());
+        assertEquals(delta.getPlayers(), decodedDelta.getPlayers());
+        assertEquals(delta.getTiles(), decodedDelta.getTiles());
+        assertEquals(delta.isTurnChanged(), decodedDelta.isTurnChanged());
+        assertEquals(delta.getStateHash(), decodedDelta.getStateHash());
+    }
+
+    @Test
+    @DisplayName("Ramki binarne dla częstych wiadomości są kilkukrotnie mniejsze")
+    void testBinaryFramesAreSmaller() throws IOException {
+        GameMessage move = new GameMessage(GameMessage.MessageType.MOVE, "player-1", 12);
+        int javaSize = FrameCodec.encode(move, JavaSerializationCodec.INSTANCE).length;
+        int binarySize = FrameCodec.encode(move, BinaryWireCodec.INSTANCE).length;
+        assertTrue(binarySize * 4 < javaSize,
+            "Ramka binarna (" + binarySize + " B) powinna być wielokrotnie mniejsza niż Java (" + javaSize + " B)");
+    }
+
+    @Test
+    @DisplayName("Ramka broadcastu jest kodowana raz na kodek i współdzielona")
+    void testEncodedMessageSharesFrames() throws IOException {
+        EncodedMessage encoded = new EncodedMessage(new GameMessage(GameMessage.MessageType.DICE_RESULT, "host", 8));
+        byte[] binary = encoded.frameFor(BinaryWireCodec.INSTANCE);
+        assertSame(binary, encoded.frameFor(BinaryWireCodec.INSTANCE));
+        byte[] java = encoded.frameFor(JavaSerializationCodec.INSTANCE);
+        assertNotSame(binary, java);
+        assertSame(java, encoded.frameFor(JavaSerializationCodec.INSTANCE));
+        assertEquals(8, FrameCodec.decode(java, FrameCodec.HEADER_SIZE, java.length - FrameCodec.HEADER_SIZE).getPayload());
+    }
+
+    @Test
+    @DisplayName("Uzgadnianie wybiera wspólny kodek lub wraca do serializacji Javy")
+    void testNegotiation() {
+        String all = FrameCodec.supportedCodecNames();
+        assertSame(BinaryWireCodec.INSTANCE, FrameCodec.negotiate(all, all));
+        assertSame(JavaSerializationCodec.INSTANCE, FrameCodec.negotiate("java", all));
+        assertSame(JavaSerializationCodec.INSTANCE, FrameCodec.negotiate(all, "java"));
+        assertSame(JavaSerializationCodec.INSTANCE, FrameCodec.negotiate("zstd9", all));
+        assertSame(JavaSerializationCodec.INSTANCE, FrameCodec.negotiate(null, all));
+    }
+
+    @Test
+    @DisplayName("Klient i host uzgadniają kodek binarny przy CONNECT")
+    void testCodecNegotiatedOnConnect() throws IOException, InterruptedException {
+        assertNegotiated(null, BinaryWireCodec.INSTANCE);
+    }
+
+    @Test
+    @DisplayName("Klient bez kodeka binarnego zostaje przy serializacji Javy")
+    void testFallbackToJavaSerialization() throws IOException, InterruptedException {
+        assertNegotiated(JavaSerializationCodec.NAME, JavaSerializationCodec.INSTANCE);
+    }
+
+    private void assertNegotiated(String clientCodecs, WireCodec expected) throws IOException, InterruptedException {
+        NetworkManager host = new NetworkManager("host");
+        NetworkManager client = new NetworkManager("client");
+        if (clientCodecs != null) client.setOfferedCodecs(clientCodecs);
+        try {
+            CountDownLatch received = new CountDownLatch(1);
+            AtomicReference<GameMessage> chat = new AtomicReference<>();
+            host.setMessageHandler(msg -> {
+                if (msg.getType() == GameMessage.MessageType.CHAT) {
+                    chat.set(msg);
+                    received.countDown();
+                }
+            });
+
+            host.startHost(TEST_PORT, "ROOM");
+            client.connectToHost("localhost", TEST_PORT, "Gracz", "ROOM");
+            Thread.sleep(300);
+            assertSame(expected, client.getClientCodec());
+
+            client.send(new GameMessage(GameMessage.MessageType.CHAT, "client", "cześć"));
+            assertTrue(received.await(2, TimeUnit.SECONDS), "Host powinien odebrać wiadomość");
+            assertEquals("cześć", chat.get().getPayload());
+        } finally {
+            client.stop();
+            host.stop();
+            Thread.sleep(100);
+        }
+    }
+}